@@ -18,9 +18,12 @@ import org.openjdk.jmh.annotations.Warmup;
 
 import com.google.common.io.ByteStreams;
 
+import rocks.inspectit.agent.java.analyzer.IClassHashFunction;
+import rocks.inspectit.agent.java.analyzer.impl.Murmur3ClassHashFunction;
+
 /**
- * Performance test for the {@link DigestUtils#sha256(byte[])} method that we use in the byte code
- * analyzer.
+ * Performance test for the class hash functions that we use in the byte code analyzer. Compares
+ * the {@link DigestUtils#sha256(byte[])} with the {@link Murmur3ClassHashFunction}.
  *
  * @author Ivan Senic
  *
@@ -33,6 +36,8 @@ import com.google.common.io.ByteStreams;
 @State(Scope.Thread)
 public class DigestUtilsPerfTest {
 
+	private static final IClassHashFunction MURMUR3 = new Murmur3ClassHashFunction();
+
 	@Param({ "java.lang.String", "java.lang.Object", "java.lang.Comparable" })
 	private String clazz;
 
@@ -41,6 +46,11 @@ public class DigestUtilsPerfTest {
 		return DigestUtils.sha256Hex(getByteCode(clazz));
 	}
 
+	@Benchmark
+	public String murmur3Hex() throws InterruptedException, IOException {
+		return MURMUR3.hash(getByteCode(clazz));
+	}
+
 	@Benchmark
 	public byte[] baseline() {
 		return getByteCode(clazz);
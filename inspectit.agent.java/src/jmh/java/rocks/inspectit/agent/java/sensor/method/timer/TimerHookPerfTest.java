@@ -0,0 +1,188 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IObjectStorage;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.core.ListListener;
+import rocks.inspectit.agent.java.util.ThreadLocalLongStack;
+import rocks.inspectit.agent.java.util.ThreadLocalStack;
+import rocks.inspectit.agent.java.util.Timer;
+import rocks.inspectit.shared.all.communication.MethodSensorData;
+import rocks.inspectit.shared.all.communication.SystemSensorData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.JmxSensorValueData;
+
+/**
+ * Performance test for the timing path of the {@link TimerHook}. The {@link #boxedTimeStack()}
+ * benchmark replicates the former way of saving the start and end times on a
+ * {@link ThreadLocalStack} with boxed values, while the {@link #primitiveTimeStack()} uses the
+ * {@link ThreadLocalLongStack}. The {@link #timerHook()} executes the complete hook for one
+ * method call against an already existing storage.
+ * <p>
+ * The allocations per hooked call are reported in the <i>gc.alloc.rate.norm</i> metric when the
+ * tests are executed with the GC profiler, e.g.
+ * <code>-PjmhInclude=TimerHookPerfTest -PjmhProfilers=gc</code>.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class TimerHookPerfTest {
+
+	private static final long METHOD_ID = 1L;
+
+	private static final long SENSOR_TYPE_ID = 2L;
+
+	private final Timer timer = new Timer();
+
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	private final ThreadLocalStack<Double> boxedTimeStack = new ThreadLocalStack<Double>();
+
+	private final ThreadLocalStack<Long> boxedCpuTimeStack = new ThreadLocalStack<Long>();
+
+	private final ThreadLocalLongStack timeStack = new ThreadLocalLongStack();
+
+	private final ThreadLocalLongStack cpuTimeStack = new ThreadLocalLongStack();
+
+	private TimerHook timerHook;
+
+	private RegisteredSensorConfig rsc;
+
+	private ICoreService coreService;
+
+	@Setup(Level.Trial)
+	public void init() {
+		timerHook = new TimerHook(timer, new PlatformManagerStub(), null, Collections.<String, Object> singletonMap("mode", "optimized"), threadMXBean);
+		rsc = new RegisteredSensorConfig();
+		coreService = new CoreServiceStub(new OptimizedTimerStorage(null, 0L, SENSOR_TYPE_ID, METHOD_ID, null, false));
+	}
+
+	@Benchmark
+	public double boxedTimeStack() {
+		boxedTimeStack.push(new Double(timer.getCurrentTime()));
+		boxedCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+		boxedTimeStack.push(new Double(timer.getCurrentTime()));
+		boxedCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+
+		double duration = boxedTimeStack.pop().doubleValue() - boxedTimeStack.pop().doubleValue();
+		long cpuDuration = boxedCpuTimeStack.pop().longValue() - boxedCpuTimeStack.pop().longValue();
+		return duration + cpuDuration;
+	}
+
+	@Benchmark
+	public double primitiveTimeStack() {
+		timeStack.push(timer.getCurrentNanoTime());
+		cpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
+		timeStack.push(timer.getCurrentNanoTime());
+		cpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
+
+		double duration = Timer.toMillis(timeStack.pop() - timeStack.pop());
+		long cpuDuration = cpuTimeStack.pop() - cpuTimeStack.pop();
+		return duration + cpuDuration;
+	}
+
+	@Benchmark
+	public void timerHook() {
+		timerHook.beforeBody(METHOD_ID, SENSOR_TYPE_ID, this, null, rsc);
+		timerHook.firstAfterBody(METHOD_ID, SENSOR_TYPE_ID, this, null, null, rsc);
+		timerHook.secondAfterBody(coreService, METHOD_ID, SENSOR_TYPE_ID, this, null, null, rsc);
+	}
+
+	/**
+	 * Platform manager that is always registered.
+	 */
+	private static class PlatformManagerStub implements IPlatformManager {
+
+		public long getPlatformId() {
+			return 0L;
+		}
+
+		public boolean isPlatformRegistered() {
+			return true;
+		}
+
+		public void unregisterPlatform() {
+		}
+
+	}
+
+	/**
+	 * Core service that always returns the same storage, so that only the hook is measured.
+	 */
+	private static class CoreServiceStub implements ICoreService {
+
+		private final IObjectStorage objectStorage;
+
+		public CoreServiceStub(IObjectStorage objectStorage) {
+			this.objectStorage = objectStorage;
+		}
+
+		public IObjectStorage getObjectStorage(long sensorTypeIdent, long methodIdent, String prefix) {
+			return objectStorage;
+		}
+
+		public void start() {
+		}
+
+		public void stop() {
+		}
+
+		public void addJmxSensorValueData(long sensorTypeIdent, String objectName, String attributeName, JmxSensorValueData jmxSensorValueData) {
+		}
+
+		public void addMethodSensorData(long sensorTypeId, long methodId, String prefix, MethodSensorData methodSensorData) {
+		}
+
+		public void addPlatformSensorData(long sensorTypeIdent, SystemSensorData systemSensorData) {
+		}
+
+		public void addExceptionSensorData(long sensorTypeIdent, long throwableIdentityHashCode, ExceptionSensorData exceptionSensorData) {
+		}
+
+		public void addObjectStorage(long sensorTypeId, long methodId, String prefix, IObjectStorage objectStorage) {
+		}
+
+		public void sendData() {
+		}
+
+		public MethodSensorData getMethodSensorData(long sensorTypeIdent, long methodIdent, String prefix) {
+			return null;
+		}
+
+		public ExceptionSensorData getExceptionSensorData(long sensorTypeIdent, long throwableIdentityHashCode) {
+			return null;
+		}
+
+		public void addListListener(ListListener<?> listener) {
+		}
+
+		public void removeListListener(ListListener<?> listener) {
+		}
+
+	}
+
+}
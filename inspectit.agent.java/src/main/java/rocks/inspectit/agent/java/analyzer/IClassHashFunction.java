@@ -0,0 +1,22 @@
+package rocks.inspectit.agent.java.analyzer;
+
+/**
+ * Function that computes the identity hash of the class byte code. The hash is used to check if
+ * the class structure has already been sent to the CMR and as the key of the class on the CMR,
+ * thus the same byte code must always result in the same hash.
+ *
+ * @author agent
+ *
+ */
+public interface IClassHashFunction {
+
+	/**
+	 * Computes the hash of the given byte code.
+	 *
+	 * @param byteCode
+	 *            Class byte code.
+	 * @return Hash as string.
+	 */
+	String hash(byte[] byteCode);
+
+}
@@ -5,19 +5,23 @@ import info.novatec.inspectit.org.objectweb.asm.ClassWriter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
@@ -28,13 +32,16 @@ import org.springframework.stereotype.Component;
 
 import com.google.common.io.ByteStreams;
 
+import rocks.inspectit.agent.java.Agent;
 import rocks.inspectit.agent.java.analyzer.IByteCodeAnalyzer;
+import rocks.inspectit.agent.java.analyzer.IClassHashFunction;
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.StorageException;
 import rocks.inspectit.agent.java.config.impl.AbstractSensorConfig;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.config.impl.SpecialSensorConfig;
 import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.connection.ServerUnavailableException;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
 import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
@@ -43,6 +50,7 @@ import rocks.inspectit.agent.java.instrumentation.asm.ClassAnalyzer;
 import rocks.inspectit.agent.java.instrumentation.asm.ClassInstrumenter;
 import rocks.inspectit.agent.java.instrumentation.asm.LoaderAwareClassWriter;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
@@ -54,6 +62,13 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 /**
  * {@link IByteCodeAnalyzer} that uses {@link IConnection} to connect to the CMR and send the
  * analyzed type. If needed performs instrumentation based on the result of the CMR answer.
+ * <p>
+ * Types are not sent one by one. Every type to be analyzed is placed in a queue and a single task
+ * in the core-service executor sends all queued types to the CMR in batches, so that types queued
+ * by many class loading threads at the same time share one round-trip. Depending types are queued
+ * before the type that depends on them and are never waited on. Types that are not classes are
+ * never instrumented by the CMR, thus the class loading thread does not wait for their results as
+ * well.
  *
  * @author Ivan Senic
  *
@@ -62,10 +77,17 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 
 	/**
-	 * Amount of milliseconds to wait for the result of the {@link AnalyzeCallable}.
+	 * Amount of milliseconds to wait for the result of the {@link PendingAnalysis}. The time-out is
+	 * given again to the waiting thread each time a batch queued before its type is sent, as the
+	 * batches are sent one after another.
 	 */
 	private static final int ANALYZE_TIMEOUT_MILLIS = 2000;
 
+	/**
+	 * Max amount of types sent to the CMR in one batch.
+	 */
+	private static final int MAX_BATCH_SIZE = 500;
+
 	/**
 	 * Log for the class.
 	 */
@@ -102,6 +124,12 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	@Autowired
 	private ClassHashHelper classHashHelper;
 
+	/**
+	 * {@link IClassHashFunction} for creating the class hashes.
+	 */
+	@Autowired
+	private IClassHashFunction classHashFunction;
+
 	/**
 	 * Core-service executor service.
 	 */
@@ -126,6 +154,27 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	 */
 	private Map<Long, IMethodSensor> methodSensorMap;
 
+	/**
+	 * Types waiting to be sent to the CMR.
+	 */
+	private final ConcurrentLinkedQueue<PendingAnalysis> analysisQueue = new ConcurrentLinkedQueue<PendingAnalysis>();
+
+	/**
+	 * Types queued or being sent to the CMR mapped by the hash, so that same type loaded by more
+	 * threads is sent only once.
+	 */
+	private final ConcurrentHashMap<String, PendingAnalysis> inFlightAnalyses = new ConcurrentHashMap<String, PendingAnalysis>();
+
+	/**
+	 * If the task sending the queued types is scheduled or running.
+	 */
+	private final AtomicBoolean batchScheduled = new AtomicBoolean(false);
+
+	/**
+	 * Count of batches sent to the CMR, used to recognize that sending makes progress.
+	 */
+	private final AtomicLong sentBatches = new AtomicLong();
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -168,11 +217,26 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 			classHashHelper.registerAnalyzed(className);
 
 			// create the hash
-			String hash = DigestUtils.sha256Hex(byteCode);
+			String hash = classHashFunction.hash(byteCode);
 			InstrumentationDefinition instrumentationResult = null;
 			if (classHashHelper.isSent(className, hash)) {
 				// if sent load instrumentation result from the class hash helper
 				instrumentationResult = classHashHelper.getInstrumentationDefinition(className);
+
+				// if result is served from the disk cache, let the CMR know the class in background
+				// connection is checked first, so that the class stays marked until it can be sent
+				if (connection.isConnected() && classHashHelper.startReconciliation(className)) {
+					try {
+						Type type = parseType(byteCode, hash);
+						analyzeDependingTypes(type, classLoader);
+						queueAnalysis(new PendingAnalysis(className, hash, type));
+					} catch (RejectedExecutionException e) {
+						classHashHelper.markForReconciliation(className);
+						if (log.isDebugEnabled()) {
+							log.debug("Reconciliation of " + className + " with the CMR could not be queued.", e);
+						}
+					}
+				}
 			} else {
 				// if not sent we go for the sending
 				if (!connection.isConnected()) {
@@ -183,19 +247,23 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 					return null;
 				}
 
-				// parse first, do not use internFQNs
-				ClassReader classReader = new ClassReader(byteCode);
-				ClassAnalyzer classAnalyzer = new ClassAnalyzer(hash);
-				classReader.accept(classAnalyzer, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-				Type type = (Type) classAnalyzer.getType();
+				PendingAnalysis pendingAnalysis = inFlightAnalyses.get(hash);
+				if (null == pendingAnalysis) {
+					Type type = parseType(byteCode, hash);
+
+					// queue all necessary depending classes before
+					analyzeDependingTypes(type, classLoader);
 
-				// analyze all necessary depending classes before
-				analyzeDependingTypes(type, classLoader);
+					pendingAnalysis = queueAnalysis(new PendingAnalysis(className, hash, type));
+				}
+
+				// no need to wait if we don't instrument or if the type is not a class
+				if (!performInstrumentation || !pendingAnalysis.getType().isClass()) {
+					return null;
+				}
 
-				// try connecting to server
-				Callable<InstrumentationDefinition> analyzeCallable = new AnalyzeCallable(connection, platformManager.getPlatformId(), hash, type);
 				try {
-					instrumentationResult = executorService.submit(analyzeCallable).get(ANALYZE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+					instrumentationResult = awaitAnalysis(pendingAnalysis);
 				} catch (InterruptedException e) {
 					isInterrupted = true;
 					if (log.isWarnEnabled()) {
@@ -208,10 +276,6 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 					}
 					return null;
 				}
-
-				// register type as sent
-				classHashHelper.registerSent(className, hash);
-				classHashHelper.registerInstrumentationDefinition(className, instrumentationResult);
 			}
 
 			// execute instrumentation if needed
@@ -220,9 +284,6 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 			} else {
 				return null;
 			}
-		} catch (IdNotAvailableException idNotAvailableException) {
-			log.error("Error occurred instrumenting the byte code of class " + className, idNotAvailableException);
-			return null;
 		} catch (StorageException storageException) {
 			log.error("Error occurred instrumenting the byte code of class " + className, storageException);
 			return null;
@@ -237,7 +298,204 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	}
 
 	/**
-	 * Analyze the depending types of the given type and sends the results to the server if needed.
+	 * Parses the type from the byte code.
+	 *
+	 * @param byteCode
+	 *            Byte code of the class.
+	 * @param hash
+	 *            Hash of the byte code.
+	 * @return Parsed {@link Type}.
+	 */
+	private Type parseType(byte[] byteCode, String hash) {
+		// do not use internFQNs
+		ClassReader classReader = new ClassReader(byteCode);
+		ClassAnalyzer classAnalyzer = new ClassAnalyzer(hash);
+		classReader.accept(classAnalyzer, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		return (Type) classAnalyzer.getType();
+	}
+
+	/**
+	 * Queues the analysis to be sent to the CMR, unless the analysis of the same type is already
+	 * in flight.
+	 *
+	 * @param pendingAnalysis
+	 *            Analysis to queue.
+	 * @return Analysis in flight for the type, either the given one or the one queued before.
+	 */
+	private PendingAnalysis queueAnalysis(PendingAnalysis pendingAnalysis) {
+		PendingAnalysis existing = inFlightAnalyses.putIfAbsent(pendingAnalysis.getHash(), pendingAnalysis);
+		if (null != existing) {
+			return existing;
+		}
+
+		analysisQueue.offer(pendingAnalysis);
+		if (batchScheduled.compareAndSet(false, true)) {
+			try {
+				executorService.submit(new AnalyzeBatchRunnable());
+			} catch (RejectedExecutionException e) {
+				// nothing will send the queued analyses, next one queued can schedule the batch
+				// again
+				batchScheduled.set(false);
+				failQueuedAnalyses(e);
+				throw e;
+			}
+		}
+		return pendingAnalysis;
+	}
+
+	/**
+	 * Removes all queued analyses and finishes their futures with the given exception, so that no
+	 * thread waits for them and the types can be queued again.
+	 *
+	 * @param throwable
+	 *            Exception.
+	 */
+	private void failQueuedAnalyses(Throwable throwable) {
+		PendingAnalysis pendingAnalysis = analysisQueue.poll();
+		while (null != pendingAnalysis) {
+			pendingAnalysis.getFuture().setException(throwable);
+			inFlightAnalyses.remove(pendingAnalysis.getHash(), pendingAnalysis);
+			pendingAnalysis = analysisQueue.poll();
+		}
+	}
+
+	/**
+	 * Waits for the result of the analysis. Waits {@value #ANALYZE_TIMEOUT_MILLIS} milliseconds
+	 * for each batch sent before the one holding the given analysis, thus the time-out occurs only
+	 * if sending to the CMR makes no progress.
+	 *
+	 * @param pendingAnalysis
+	 *            Analysis to wait for.
+	 * @return Instrumentation definition received from the CMR.
+	 * @throws InterruptedException
+	 *             If thread is interrupted while waiting.
+	 * @throws ExecutionException
+	 *             If sending of the analysis failed.
+	 * @throws TimeoutException
+	 *             If no batch was sent in the time-out.
+	 */
+	private InstrumentationDefinition awaitAnalysis(PendingAnalysis pendingAnalysis) throws InterruptedException, ExecutionException, TimeoutException {
+		while (true) {
+			long sentBefore = sentBatches.get();
+			try {
+				return pendingAnalysis.getFuture().get(ANALYZE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				if (sentBatches.get() == sentBefore) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sends all queued analyses to the CMR in batches of max {@value #MAX_BATCH_SIZE} types. Keeps
+	 * on sending until the queue is empty.
+	 */
+	private void sendQueuedAnalyses() {
+		// set that transform is disabled from this thread that is doing the call
+		Agent.agent.setThreadTransformDisabled(true);
+		try {
+			do {
+				try {
+					List<PendingAnalysis> batch = new ArrayList<PendingAnalysis>();
+					PendingAnalysis pendingAnalysis = analysisQueue.poll();
+					while (null != pendingAnalysis) {
+						batch.add(pendingAnalysis);
+						if (batch.size() >= MAX_BATCH_SIZE) {
+							sendBatch(batch);
+							batch = new ArrayList<PendingAnalysis>();
+						}
+						pendingAnalysis = analysisQueue.poll();
+					}
+					if (!batch.isEmpty()) {
+						sendBatch(batch);
+					}
+				} finally {
+					batchScheduled.set(false);
+				}
+				// re-check in case something was queued after we emptied the queue
+			} while (!analysisQueue.isEmpty() && batchScheduled.compareAndSet(false, true));
+		} finally {
+			// finally remove the transform flag
+			Agent.agent.setThreadTransformDisabled(false);
+		}
+	}
+
+	/**
+	 * Sends one batch of analyses to the CMR. Registers the types as sent and sets the received
+	 * instrumentation definitions to the futures of the analyses. If sending fails, futures are
+	 * finished with the exception, and types are not registered as sent so they can be sent
+	 * again.
+	 *
+	 * @param batch
+	 *            Analyses to send.
+	 */
+	private void sendBatch(List<PendingAnalysis> batch) {
+		try {
+			if (!connection.isConnected()) {
+				throw new ServerUnavailableException(false);
+			}
+
+			List<String> hashes = new ArrayList<String>(batch.size());
+			List<Type> types = new ArrayList<Type>(batch.size());
+			for (PendingAnalysis pendingAnalysis : batch) {
+				hashes.add(pendingAnalysis.getHash());
+				types.add(pendingAnalysis.getType());
+			}
+
+			List<InstrumentationDefinition> results = connection.analyzeBatch(platformManager.getPlatformId(), hashes, types);
+			if ((null != results) && (results.size() == batch.size())) {
+				for (int i = 0; i < batch.size(); i++) {
+					PendingAnalysis pendingAnalysis = batch.get(i);
+					InstrumentationDefinition instrumentationResult = results.get(i);
+
+					// register type as sent
+					classHashHelper.registerSent(pendingAnalysis.getClassName(), pendingAnalysis.getHash());
+					classHashHelper.registerInstrumentationDefinition(pendingAnalysis.getClassName(), instrumentationResult);
+					pendingAnalysis.getFuture().set(instrumentationResult);
+				}
+			}
+		} catch (ServerUnavailableException e) {
+			if (log.isDebugEnabled()) {
+				if (e.isServerTimeout()) {
+					log.debug("Types could not be sent to the CMR. Server timeout.", e);
+				} else {
+					log.debug("Types could not be sent to the CMR. Server not available.", e);
+				}
+			} else {
+				log.warn("Types could not be sent to the CMR due to the ServerUnavailableException." + (e.isServerTimeout() ? " (timeout)" : "(error)"));
+			}
+			setException(batch, e);
+		} catch (BusinessException e) {
+			setException(batch, e);
+		} catch (IdNotAvailableException e) {
+			setException(batch, e);
+		} finally {
+			for (PendingAnalysis pendingAnalysis : batch) {
+				// no-op for the already finished futures
+				pendingAnalysis.getFuture().set(null);
+				inFlightAnalyses.remove(pendingAnalysis.getHash(), pendingAnalysis);
+			}
+			sentBatches.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Finishes futures of all analyses in the batch with the given exception.
+	 *
+	 * @param batch
+	 *            Analyses.
+	 * @param throwable
+	 *            Exception.
+	 */
+	private void setException(List<PendingAnalysis> batch, Throwable throwable) {
+		for (PendingAnalysis pendingAnalysis : batch) {
+			pendingAnalysis.getFuture().setException(throwable);
+		}
+	}
+
+	/**
+	 * Queues the depending types of the given type to be sent to the server if needed.
 	 *
 	 * @param type
 	 *            {@link Type}
@@ -463,6 +721,23 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 		}
 	}
 
+	/**
+	 * Runnable that sends the queued analyses to the CMR.
+	 *
+	 * @author agent
+	 *
+	 */
+	private class AnalyzeBatchRunnable implements Runnable {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			sendQueuedAnalyses();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,84 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import java.util.Collection;
+import java.util.Map;
+
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+
+/**
+ * Content of the class cache file saved to disk by the {@link ClassHashHelper}. Holds the hashes
+ * of all classes sent to the CMR together with the instrumentation definitions received for them.
+ * The instrumentation definitions are only valid for the configuration revision they were created
+ * with.
+ *
+ * @author agent
+ *
+ */
+public class ClassCacheSnapshot {
+
+	/**
+	 * Platform ID and configuration revision the snapshot was created with.
+	 */
+	private String revision;
+
+	/**
+	 * Class FQNs mapped to the known hashes.
+	 */
+	private Map<String, Collection<String>> fqnWithHashes;
+
+	/**
+	 * Class FQNs mapped to the instrumentation definitions. Classes that are not instrumented are
+	 * not contained.
+	 */
+	private Map<String, InstrumentationDefinition> fqnWithDefinitions;
+
+	/**
+	 * No-arg constructor for serialization.
+	 */
+	public ClassCacheSnapshot() {
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param revision
+	 *            Platform ID and configuration revision the snapshot was created with.
+	 * @param fqnWithHashes
+	 *            Class FQNs mapped to the known hashes.
+	 * @param fqnWithDefinitions
+	 *            Class FQNs mapped to the instrumentation definitions.
+	 */
+	public ClassCacheSnapshot(String revision, Map<String, Collection<String>> fqnWithHashes, Map<String, InstrumentationDefinition> fqnWithDefinitions) {
+		this.revision = revision;
+		this.fqnWithHashes = fqnWithHashes;
+		this.fqnWithDefinitions = fqnWithDefinitions;
+	}
+
+	/**
+	 * Gets {@link #revision}.
+	 *
+	 * @return {@link #revision}
+	 */
+	public String getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Gets {@link #fqnWithHashes}.
+	 *
+	 * @return {@link #fqnWithHashes}
+	 */
+	public Map<String, Collection<String>> getFqnWithHashes() {
+		return fqnWithHashes;
+	}
+
+	/**
+	 * Gets {@link #fqnWithDefinitions}.
+	 *
+	 * @return {@link #fqnWithDefinitions}
+	 */
+	public Map<String, InstrumentationDefinition> getFqnWithDefinitions() {
+		return fqnWithDefinitions;
+	}
+
+}
@@ -0,0 +1,59 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rocks.inspectit.agent.java.analyzer.IClassHashFunction;
+
+/**
+ * Factory for the {@link IClassHashFunction} to use. The function can be selected with the
+ * {@value #CLASS_HASH_PROPERTY} JVM property, default is the {@link Murmur3ClassHashFunction}.
+ *
+ * @author agent
+ *
+ */
+public final class ClassHashFunctionFactory {
+
+	/**
+	 * The name of the property for the class hash function.
+	 */
+	public static final String CLASS_HASH_PROPERTY = "inspectit.class.hash";
+
+	/**
+	 * Logger for the class.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(ClassHashFunctionFactory.class);
+
+	/**
+	 * Private constructor.
+	 */
+	private ClassHashFunctionFactory() {
+	}
+
+	/**
+	 * Creates the class hash function defined by the {@value #CLASS_HASH_PROPERTY} JVM property.
+	 *
+	 * @return {@link IClassHashFunction}
+	 */
+	public static IClassHashFunction createClassHashFunction() {
+		return createClassHashFunction(System.getProperty(CLASS_HASH_PROPERTY));
+	}
+
+	/**
+	 * Creates the class hash function with the given name.
+	 *
+	 * @param name
+	 *            Name of the function, can be <code>null</code> for the default function.
+	 * @return {@link IClassHashFunction}
+	 */
+	static IClassHashFunction createClassHashFunction(String name) {
+		if (Sha256ClassHashFunction.NAME.equalsIgnoreCase(name)) {
+			return new Sha256ClassHashFunction();
+		}
+
+		if ((null != name) && !Murmur3ClassHashFunction.NAME.equalsIgnoreCase(name)) {
+			LOG.warn("Unknown class hash function '" + name + "', using the " + Murmur3ClassHashFunction.NAME + " function.");
+		}
+		return new Murmur3ClassHashFunction();
+	}
+}
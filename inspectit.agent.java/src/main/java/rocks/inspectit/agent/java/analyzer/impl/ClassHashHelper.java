@@ -13,6 +13,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
@@ -27,6 +28,9 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.config.StorageException;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.core.IdNotAvailableException;
 import rocks.inspectit.agent.java.io.FileResolver;
 import rocks.inspectit.agent.java.spring.PrototypesProvider;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
@@ -38,6 +42,12 @@ import rocks.inspectit.shared.all.storage.serializer.provider.SerializationManag
  * Implementation of the {@link IClassHashHelper} that holds all data in one concurrent map. Keys in
  * this map are class FQNs, while entries are {@link ClassEntry}s and they define answers to all the
  * provided questions.
+ * <p>
+ * Class hashes are saved to disk together with the instrumentation definitions and the
+ * configuration revision they belong to. On the next start with the same platform and
+ * configuration revision the instrumentation definitions are served locally, even if the CMR does
+ * not know the classes any more. Such classes are marked for the reconciliation, meaning that the
+ * {@link ByteCodeAnalyzer} sends them to the CMR in the background.
  *
  * @author Ivan Senic
  *
@@ -60,6 +70,12 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	@Autowired
 	private IConfigurationStorage configurationStorage;
 
+	/**
+	 * Platform manager.
+	 */
+	@Autowired
+	private IPlatformManager platformManager;
+
 	/**
 	 * Core-service executor service.
 	 */
@@ -84,6 +100,12 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	 */
 	private SerializationManager serializationManager;
 
+	/**
+	 * Platform ID and configuration revision the cache is valid for. Can be <code>null</code> if
+	 * the CMR did not provide the configuration revision.
+	 */
+	private String cacheRevision;
+
 	/**
 	 * Map holding class entries. Key is FQN of the class.
 	 * <p>
@@ -126,6 +148,7 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	public void registerSent(String fqn, String hash) {
 		ClassEntry entry = getOrCreateEntry(fqn);
 		entry.addHash(hash);
+		entry.getReconciliationNeeded().set(false);
 	}
 
 	/**
@@ -145,6 +168,34 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		return entry != null ? entry.containsHash(hash) : false;
 	}
 
+	/**
+	 * Returns if the class with the given FQN was loaded from the disk cache without being known
+	 * to the CMR and thus should be sent to the CMR. Returns <code>true</code> only once per class,
+	 * so that only one thread starts the reconciliation.
+	 *
+	 * @param fqn
+	 *            Class fully qualified name.
+	 * @return Returns if the class should be sent to the CMR for the reconciliation.
+	 */
+	public boolean startReconciliation(String fqn) {
+		ClassEntry entry = fqnToClassEntryMap.get(fqn);
+		return entry != null ? entry.getReconciliationNeeded().compareAndSet(true, false) : false;
+	}
+
+	/**
+	 * Marks the class with the given FQN for the reconciliation again, if sending it to the CMR
+	 * failed after {@link #startReconciliation(String)}.
+	 *
+	 * @param fqn
+	 *            Class fully qualified name.
+	 */
+	public void markForReconciliation(String fqn) {
+		ClassEntry entry = fqnToClassEntryMap.get(fqn);
+		if (null != entry) {
+			entry.getReconciliationNeeded().set(true);
+		}
+	}
+
 	/**
 	 * Registers the instrumentation result for the class with the given FQn.
 	 *
@@ -209,15 +260,13 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	 * {@inheritDoc}
 	 * <P>
 	 * Loads the possible existing class cache from the disk if CMR reports to know classes from
-	 * this agent.
+	 * this agent or if the cache was saved with the same configuration revision.
 	 */
 	public void afterPropertiesSet() throws Exception {
 		serializationManager = prototypesProvider.createSerializer();
+		cacheRevision = getCurrentCacheRevision();
 
-		// only load if configuration says that the class cache exists on the CMR
-		if (configurationStorage.isClassCacheExistsOnCmr()) {
-			loadCacheFromDisk();
-		} else {
+		if (!loadCacheFromDisk(configurationStorage.isClassCacheExistsOnCmr())) {
 			deleteCacheFromDisk();
 		}
 
@@ -253,10 +302,16 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	}
 
 	/**
-	 * Load sent classes from disk.
+	 * Load sent classes from disk. Hashes are loaded if the CMR knows the classes of this agent.
+	 * Instrumentation definitions are loaded only if the cache was saved with the current
+	 * configuration revision.
+	 *
+	 * @param classCacheExistsOnCmr
+	 *            If the class cache for the agent exist on the CMR.
+	 * @return If anything was loaded from the disk.
 	 */
 	@SuppressWarnings("unchecked")
-	private void loadCacheFromDisk() {
+	private boolean loadCacheFromDisk(boolean classCacheExistsOnCmr) {
 		File file = fileResolver.getClassHashCacheFile().getAbsoluteFile();
 
 		if (file.exists()) {
@@ -265,12 +320,25 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 				fileInputStream = new FileInputStream(file);
 				Input input = new Input(fileInputStream);
 
-				Map<String, Collection<String>> fqnWithHashes = (Map<String, Collection<String>>) serializationManager.deserialize(input);
-				for (Entry<String, Collection<String>> entry : fqnWithHashes.entrySet()) {
-					ClassEntry classEntry = getOrCreateEntry(entry.getKey());
-					for (String hash : entry.getValue()) {
-						classEntry.addHash(hash);
+				Object cache = serializationManager.deserialize(input);
+				if (cache instanceof ClassCacheSnapshot) {
+					ClassCacheSnapshot snapshot = (ClassCacheSnapshot) cache;
+					boolean sameRevision = (null != cacheRevision) && cacheRevision.equals(snapshot.getRevision());
+					if (sameRevision) {
+						// if CMR does not know the classes we need to reconcile
+						loadHashes(snapshot.getFqnWithHashes(), !classCacheExistsOnCmr);
+						for (Entry<String, InstrumentationDefinition> entry : snapshot.getFqnWithDefinitions().entrySet()) {
+							getOrCreateEntry(entry.getKey()).setInstrumentationResult(entry.getValue());
+						}
+						return true;
+					} else if (classCacheExistsOnCmr) {
+						loadHashes(snapshot.getFqnWithHashes(), false);
+						return true;
 					}
+				} else if (classCacheExistsOnCmr && (cache instanceof Map)) {
+					// cache saved without instrumentation definitions
+					loadHashes((Map<String, Collection<String>>) cache, false);
+					return true;
 				}
 			} catch (Throwable t) { // NOPMD
 				log.warn("Unable to load sending classes cache from disk.", t);
@@ -284,6 +352,46 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 				}
 			}
 		}
+		return false;
+	}
+
+	/**
+	 * Registers the loaded hashes.
+	 *
+	 * @param fqnWithHashes
+	 *            Class FQNs mapped to the known hashes.
+	 * @param reconciliationNeeded
+	 *            If classes should be sent to the CMR for the reconciliation.
+	 */
+	private void loadHashes(Map<String, Collection<String>> fqnWithHashes, boolean reconciliationNeeded) {
+		for (Entry<String, Collection<String>> entry : fqnWithHashes.entrySet()) {
+			ClassEntry classEntry = getOrCreateEntry(entry.getKey());
+			for (String hash : entry.getValue()) {
+				classEntry.addHash(hash);
+			}
+			classEntry.getReconciliationNeeded().set(reconciliationNeeded);
+		}
+	}
+
+	/**
+	 * Returns the platform ID and configuration revision the cache is valid for.
+	 *
+	 * @return Platform ID and configuration revision or <code>null</code> if the CMR did not
+	 *         provide the configuration revision or platform ID is not available.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	private String getCurrentCacheRevision() throws StorageException {
+		String configurationRevision = configurationStorage.getConfigurationRevision();
+		if (null == configurationRevision) {
+			return null;
+		}
+
+		try {
+			return platformManager.getPlatformId() + "/" + configurationRevision;
+		} catch (IdNotAvailableException e) {
+			return null;
+		}
 	}
 
 	/**
@@ -326,11 +434,16 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 
 			// save only the ones being set to the CMR
 			Map<String, Collection<String>> fqnWithHashes = new HashMap<String, Collection<String>>();
+			Map<String, InstrumentationDefinition> fqnWithDefinitions = new HashMap<String, InstrumentationDefinition>();
 			for (Entry<String, ClassEntry> entry : fqnToClassEntryMap.entrySet()) {
 				fqnWithHashes.put(entry.getKey(), entry.getValue().getHashes());
+				InstrumentationDefinition instrumentationResult = entry.getValue().getInstrumentationResult();
+				if (null != instrumentationResult) {
+					fqnWithDefinitions.put(entry.getKey(), instrumentationResult);
+				}
 			}
 
-			serializationManager.serialize(fqnWithHashes, output);
+			serializationManager.serialize(new ClassCacheSnapshot(cacheRevision, fqnWithHashes, fqnWithDefinitions), output);
 		} catch (Throwable t) { // NOPMD
 			log.warn("Unable to save sending classes cache to disk.", t);
 		} finally {
@@ -363,6 +476,11 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		 */
 		private final CopyOnWriteArrayList<String> hashes = new CopyOnWriteArrayList<String>();
 
+		/**
+		 * If the class was loaded from the disk cache and is not known to the CMR.
+		 */
+		private final AtomicBoolean reconciliationNeeded = new AtomicBoolean(false);
+
 		/**
 		 * Gets {@link #instrumentationResult}.
 		 *
@@ -417,6 +535,15 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 			return Collections.unmodifiableList(hashes);
 		}
 
+		/**
+		 * Gets {@link #reconciliationNeeded}.
+		 *
+		 * @return {@link #reconciliationNeeded}
+		 */
+		public AtomicBoolean getReconciliationNeeded() {
+			return reconciliationNeeded;
+		}
+
 	}
 
 }
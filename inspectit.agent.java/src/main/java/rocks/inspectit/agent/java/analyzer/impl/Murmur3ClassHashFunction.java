@@ -0,0 +1,40 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import rocks.inspectit.agent.java.analyzer.IClassHashFunction;
+
+/**
+ * {@link IClassHashFunction} that uses the 128-bit MurmurHash3 (x64 variant) of the byte code. The
+ * hash is not cryptographic, but it is several times faster than the SHA-256 and 128 bits are more
+ * than enough to distinguish the classes of one agent.
+ * <p>
+ * The returned hex string has 32 characters, while the SHA-256 hex string has 64. Thus the hashes
+ * of the two functions can never be equal and the CMR can keep the classes sent by the agents using
+ * any of them.
+ *
+ * @author agent
+ *
+ */
+public class Murmur3ClassHashFunction implements IClassHashFunction {
+
+	/**
+	 * Name of the function used in the {@link ClassHashFunctionFactory#CLASS_HASH_PROPERTY}.
+	 */
+	public static final String NAME = "murmur3";
+
+	/**
+	 * Guava hash function, thread safe.
+	 */
+	private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String hash(byte[] byteCode) {
+		return HASH_FUNCTION.hashBytes(byteCode).toString();
+	}
+
+}
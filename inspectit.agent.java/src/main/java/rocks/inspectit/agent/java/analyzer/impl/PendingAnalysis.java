@@ -0,0 +1,90 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import com.google.common.util.concurrent.SettableFuture;
+
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+
+/**
+ * Type waiting to be sent to the CMR in one of the analysis batches of the
+ * {@link ByteCodeAnalyzer}. The instrumentation definition received from the CMR is set to the
+ * {@link #getFuture()} once the batch holding this type is processed.
+ *
+ * @author agent
+ *
+ */
+public class PendingAnalysis {
+
+	/**
+	 * FQN of the class.
+	 */
+	private final String className;
+
+	/**
+	 * Hash of the class byte code.
+	 */
+	private final String hash;
+
+	/**
+	 * Parsed type.
+	 */
+	private final Type type;
+
+	/**
+	 * Future holding the instrumentation definition.
+	 */
+	private final SettableFuture<InstrumentationDefinition> future = SettableFuture.create();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param className
+	 *            FQN of the class.
+	 * @param hash
+	 *            Hash of the class byte code.
+	 * @param type
+	 *            Parsed type.
+	 */
+	public PendingAnalysis(String className, String hash, Type type) {
+		this.className = className;
+		this.hash = hash;
+		this.type = type;
+	}
+
+	/**
+	 * Gets {@link #className}.
+	 *
+	 * @return {@link #className}
+	 */
+	public String getClassName() {
+		return className;
+	}
+
+	/**
+	 * Gets {@link #hash}.
+	 *
+	 * @return {@link #hash}
+	 */
+	public String getHash() {
+		return hash;
+	}
+
+	/**
+	 * Gets {@link #type}.
+	 *
+	 * @return {@link #type}
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Gets {@link #future}.
+	 *
+	 * @return {@link #future}
+	 */
+	public SettableFuture<InstrumentationDefinition> getFuture() {
+		return future;
+	}
+
+}
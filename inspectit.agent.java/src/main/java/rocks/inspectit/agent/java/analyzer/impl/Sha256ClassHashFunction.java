@@ -0,0 +1,29 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import rocks.inspectit.agent.java.analyzer.IClassHashFunction;
+
+/**
+ * {@link IClassHashFunction} that creates the SHA-256 hex string of the byte code. This is the hash
+ * used by the agents before the {@link Murmur3ClassHashFunction} was introduced.
+ *
+ * @author agent
+ *
+ */
+public class Sha256ClassHashFunction implements IClassHashFunction {
+
+	/**
+	 * Name of the function used in the {@link ClassHashFunctionFactory#CLASS_HASH_PROPERTY}.
+	 */
+	public static final String NAME = "sha256";
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String hash(byte[] byteCode) {
+		return DigestUtils.sha256Hex(byteCode);
+	}
+
+}
@@ -0,0 +1,398 @@
+package rocks.inspectit.agent.java.buffer.impl;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.agent.java.buffer.AbstractBufferStrategy;
+import rocks.inspectit.agent.java.buffer.IBufferStrategy;
+import rocks.inspectit.agent.java.spring.PrototypesProvider;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.spring.logger.Log;
+import rocks.inspectit.shared.all.storage.serializer.ISerializer;
+import rocks.inspectit.shared.all.storage.serializer.SerializationException;
+
+/**
+ * Buffer strategy that does not lose data while the CMR is slow or not reachable. It works as a
+ * FIFO queue, so the lists are sent in the order they were created.
+ * <p>
+ * Only the last {@value #HEAP_COUNT} lists are held on the heap. Older lists that are not sent
+ * yet are serialized to an off-heap ring buffer which is limited by the configured size in
+ * megabytes. Thus the heap of the application does not grow during a longer CMR outage. If the
+ * ring buffer is full, the oldest lists are thrown away. The off-heap buffer is only allocated
+ * the first time a list has to be spilled.
+ * <p>
+ * After the connection is back, the spilled lists are returned by {@link #next()} with the
+ * configured replay rate (lists per second), so that the CMR is not flooded with old data.
+ * {@link #next()} must only be called by one thread.
+ *
+ * @author agent
+ *
+ */
+public class SpillBufferStrategy extends AbstractBufferStrategy<DefaultData> implements IBufferStrategy<DefaultData> {
+
+	/**
+	 * The logger of the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Amount of lists held on the heap before spilling.
+	 */
+	private static final int HEAP_COUNT = 2;
+
+	/**
+	 * Default max size of the off-heap buffer in megabytes.
+	 */
+	private static final int DEFAULT_MAX_SIZE = 32;
+
+	/**
+	 * Default amount of spilled lists replayed per second.
+	 */
+	private static final int DEFAULT_REPLAY_RATE = 20;
+
+	/**
+	 * Bytes in one megabyte.
+	 */
+	private static final long BYTES_IN_MEGABYTE = 1024L * 1024L;
+
+	/**
+	 * Size of the length header of each spilled list.
+	 */
+	private static final int HEADER_SIZE = 4;
+
+	/**
+	 * Provider for the serializer.
+	 */
+	@Autowired
+	PrototypesProvider prototypesProvider;
+
+	/**
+	 * Serializer used for spilling. Created on first usage.
+	 */
+	ISerializer serializer;
+
+	/**
+	 * Lists held on the heap. These are always newer than the spilled ones.
+	 */
+	private final LinkedList<List<DefaultData>> heapLists = new LinkedList<List<DefaultData>>(); // NOPMD
+
+	/**
+	 * Off-heap ring buffer holding the spilled lists. Created on first usage.
+	 */
+	private ByteBuffer ringBuffer;
+
+	/**
+	 * Capacity of the ring buffer in bytes.
+	 */
+	private int capacity;
+
+	/**
+	 * Position of the oldest spilled list in the ring buffer.
+	 */
+	private int readPosition;
+
+	/**
+	 * Position where the next spilled list will be written to.
+	 */
+	private int writePosition;
+
+	/**
+	 * Amount of bytes used in the ring buffer.
+	 */
+	private int usedBytes;
+
+	/**
+	 * Amount of spilled lists.
+	 */
+	private int spilledCount;
+
+	/**
+	 * Replay rate in lists per second.
+	 */
+	private int replayRate;
+
+	/**
+	 * Earliest time in milliseconds the next spilled list can be returned.
+	 */
+	private long nextReplayTime;
+
+	/**
+	 * Reused output for the serialization.
+	 */
+	private final Output output = new Output(4096, -1);
+
+	/**
+	 * Reused header bytes.
+	 */
+	private final byte[] header = new byte[HEADER_SIZE];
+
+	/**
+	 * Delegates to the second constructor with the default values.
+	 */
+	public SpillBufferStrategy() {
+		this(DEFAULT_MAX_SIZE, DEFAULT_REPLAY_RATE);
+	}
+
+	/**
+	 * The second constructor where one can specify the max size and replay rate.
+	 *
+	 * @param maxSize
+	 *            Max size of the off-heap buffer in megabytes.
+	 * @param replayRate
+	 *            Spilled lists replayed per second, zero or negative for no limit.
+	 */
+	public SpillBufferStrategy(int maxSize, int replayRate) {
+		this.capacity = toBytes(maxSize);
+		this.replayRate = replayRate;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void addMeasurements(List<DefaultData> measurements) {
+		if (null == measurements) {
+			throw new IllegalArgumentException("Measurements cannot be null!");
+		}
+
+		synchronized (this) {
+			heapLists.addLast(measurements);
+			while (heapLists.size() > HEAP_COUNT) {
+				spill(heapLists.removeFirst());
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public synchronized boolean hasNext() {
+		return (spilledCount > 0) || !heapLists.isEmpty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public List<DefaultData> next() {
+		if (hasSpilled()) {
+			awaitReplay();
+		}
+
+		synchronized (this) {
+			while (spilledCount > 0) {
+				List<DefaultData> spilled = readSpilled();
+				if (null != spilled) {
+					return spilled;
+				}
+			}
+
+			if (heapLists.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			return heapLists.removeFirst();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void init(Map<String, String> settings) {
+		if (settings.containsKey("maxSize")) {
+			this.capacity = toBytes(Integer.parseInt(settings.get("maxSize")));
+		}
+		if (settings.containsKey("replayRate")) {
+			this.replayRate = Integer.parseInt(settings.get("replayRate"));
+		}
+	}
+
+	/**
+	 * Returns if there are spilled lists.
+	 *
+	 * @return Returns if there are spilled lists.
+	 */
+	private synchronized boolean hasSpilled() {
+		return spilledCount > 0;
+	}
+
+	/**
+	 * Waits until the next spilled list can be returned based on the replay rate.
+	 */
+	private void awaitReplay() {
+		if (replayRate <= 0) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		long waitTime = nextReplayTime - now;
+		if (waitTime > 0) {
+			try {
+				Thread.sleep(waitTime);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		nextReplayTime = Math.max(now, nextReplayTime) + (1000L / replayRate);
+	}
+
+	/**
+	 * Serializes the list to the ring buffer. Removes the oldest spilled lists if there is not
+	 * enough space. Caller must hold the lock.
+	 *
+	 * @param measurements
+	 *            List to spill.
+	 */
+	private void spill(List<DefaultData> measurements) {
+		output.clear();
+		try {
+			getSerializer().serialize(measurements, output);
+		} catch (SerializationException e) {
+			log.warn("Unable to spill the measurements, data is lost.", e);
+			return;
+		}
+
+		int length = output.position();
+		int recordSize = HEADER_SIZE + length;
+		if (recordSize > capacity) {
+			log.warn("Measurements of " + length + " bytes do not fit into the spill buffer, data is lost.");
+			return;
+		}
+
+		if (null == ringBuffer) {
+			ringBuffer = ByteBuffer.allocateDirect(capacity);
+		}
+
+		if ((capacity - usedBytes) < recordSize) {
+			log.info("Possible data loss due to the full spill buffer on the Agent!");
+			while ((capacity - usedBytes) < recordSize) {
+				dropOldest();
+			}
+		}
+
+		header[0] = (byte) (length >>> 24);
+		header[1] = (byte) (length >>> 16);
+		header[2] = (byte) (length >>> 8);
+		header[3] = (byte) length;
+		write(header, HEADER_SIZE);
+		write(output.getBuffer(), length);
+		spilledCount++;
+	}
+
+	/**
+	 * Reads and de-serializes the oldest spilled list. Caller must hold the lock.
+	 *
+	 * @return The oldest spilled list or <code>null</code> if it can not be de-serialized.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<DefaultData> readSpilled() {
+		byte[] bytes = new byte[readLength()];
+		read(bytes, bytes.length);
+		spilledCount--;
+
+		try {
+			return (List<DefaultData>) getSerializer().deserialize(new Input(bytes));
+		} catch (SerializationException e) {
+			log.warn("Unable to read the spilled measurements, data is lost.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Removes the oldest spilled list without reading it. Caller must hold the lock.
+	 */
+	private void dropOldest() {
+		int length = readLength();
+		readPosition = (readPosition + length) % capacity;
+		usedBytes -= length;
+		spilledCount--;
+	}
+
+	/**
+	 * Reads the length header of the oldest spilled list.
+	 *
+	 * @return Length of the oldest spilled list in bytes.
+	 */
+	private int readLength() {
+		read(header, HEADER_SIZE);
+		return ((header[0] & 0xFF) << 24) | ((header[1] & 0xFF) << 16) | ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+	}
+
+	/**
+	 * Writes the bytes to the ring buffer at the {@link #writePosition}.
+	 *
+	 * @param bytes
+	 *            Bytes to write.
+	 * @param length
+	 *            Amount of bytes to write.
+	 */
+	private void write(byte[] bytes, int length) {
+		int first = Math.min(length, capacity - writePosition);
+		ringBuffer.position(writePosition);
+		ringBuffer.put(bytes, 0, first);
+		if (first < length) {
+			ringBuffer.position(0);
+			ringBuffer.put(bytes, first, length - first);
+		}
+		writePosition = (writePosition + length) % capacity;
+		usedBytes += length;
+	}
+
+	/**
+	 * Reads the bytes from the ring buffer at the {@link #readPosition}.
+	 *
+	 * @param bytes
+	 *            Array to read to.
+	 * @param length
+	 *            Amount of bytes to read.
+	 */
+	private void read(byte[] bytes, int length) {
+		int first = Math.min(length, capacity - readPosition);
+		ringBuffer.position(readPosition);
+		ringBuffer.get(bytes, 0, first);
+		if (first < length) {
+			ringBuffer.position(0);
+			ringBuffer.get(bytes, first, length - first);
+		}
+		readPosition = (readPosition + length) % capacity;
+		usedBytes -= length;
+	}
+
+	/**
+	 * Returns the serializer, creates one if needed.
+	 *
+	 * @return Serializer.
+	 */
+	private ISerializer getSerializer() {
+		if (null == serializer) {
+			serializer = prototypesProvider.createSerializer();
+		}
+		return serializer;
+	}
+
+	/**
+	 * Converts megabytes to bytes, limited to the max array size.
+	 *
+	 * @param megabytes
+	 *            Megabytes.
+	 * @return Bytes.
+	 */
+	private static int toBytes(int megabytes) {
+		return (int) Math.min(megabytes * BYTES_IN_MEGABYTE, Integer.MAX_VALUE - 8);
+	}
+
+}
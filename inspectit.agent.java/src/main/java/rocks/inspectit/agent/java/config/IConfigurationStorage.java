@@ -179,4 +179,33 @@ public interface IConfigurationStorage {
 	 */
 	Map<Collection<String>, InstrumentationDefinition> getInitialInstrumentationResults() throws StorageException;
 
+	/**
+	 * Returns the revision of the configuration the agent is using. Locally persisted
+	 * instrumentation definitions are valid only for the same revision.
+	 *
+	 * @return Revision of the configuration or <code>null</code> if the CMR did not provide one.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	String getConfigurationRevision() throws StorageException;
+
+	/**
+	 * Returns the max calls per second of one method that are executed with the hooks.
+	 *
+	 * @return Max calls per second, zero or negative value for no limit.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	int getGovernorCallRateBudget() throws StorageException;
+
+	/**
+	 * Returns the max time in milliseconds per second that may be spent in the hooks of all
+	 * methods.
+	 *
+	 * @return Max milliseconds per second, zero or negative value for no limit.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	int getGovernorOverheadBudget() throws StorageException;
+
 }
\ No newline at end of file
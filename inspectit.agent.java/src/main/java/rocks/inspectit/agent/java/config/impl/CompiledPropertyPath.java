@@ -0,0 +1,332 @@
+package rocks.inspectit.agent.java.config.impl;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import rocks.inspectit.agent.java.config.PropertyAccessException;
+import rocks.inspectit.shared.all.instrumentation.config.impl.PropertyPath;
+
+/**
+ * Compiled form of one {@link PropertyPath} element. The field or method to access is resolved
+ * only once per class of the accessed object and kept together with the resolution failure if
+ * there is one. The class of the last accessed object is checked first, as in most cases the path
+ * is always followed on the objects of the same class.
+ * <p>
+ * The resolved field or method references its class, thus accessors are only weakly referenced
+ * so that the class loader of the accessed class can be garbage collected. An accessor that was
+ * collected is simply resolved again.
+ *
+ * @author Patrice Bouillet
+ * @author Stefan Siegl
+ * @author agent
+ *
+ */
+class CompiledPropertyPath {
+
+	/**
+	 * The logger of this class. Initialized manually.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(CompiledPropertyPath.class);
+
+	/**
+	 * An array containing the names of all methods that might be called by the PropertyAccessor.
+	 * Names should not include the brackets.
+	 */
+	private static final String[] ALLOWED_METHODS = new String[] { "size", "length" };
+
+	/**
+	 * Name of the field or method to access.
+	 */
+	private final String name;
+
+	/**
+	 * If a method is called.
+	 */
+	private final boolean methodCall;
+
+	/**
+	 * If the <code>length()</code> of an array is accessed.
+	 */
+	private final boolean arrayLength;
+
+	/**
+	 * Message of the failure known without any class, <code>null</code> if there is none.
+	 */
+	private final String failure;
+
+	/**
+	 * The compiled path to continue, <code>null</code> if this is the end of the path.
+	 */
+	private final CompiledPropertyPath next;
+
+	/**
+	 * Last used accessor.
+	 */
+	private volatile WeakReference<Accessor> lastAccessor;
+
+	/**
+	 * Resolved accessors by class.
+	 */
+	private final Cache<Class<?>, Accessor> accessors = CacheBuilder.newBuilder().weakKeys().weakValues().build();
+
+	/**
+	 * Compiles the given path and all paths to continue.
+	 *
+	 * @param propertyPath
+	 *            Path to compile.
+	 */
+	CompiledPropertyPath(PropertyPath propertyPath) {
+		if (propertyPath.isMethodCall()) {
+			// strip the "()" from the path to find the method
+			this.name = propertyPath.getName().substring(0, propertyPath.getName().length() - 2);
+			this.methodCall = true;
+			this.arrayLength = "length".equals(name);
+			if (isAcceptedMethod(name)) {
+				this.failure = null;
+			} else {
+				this.failure = "Method " + name + " MAY not be called!";
+			}
+		} else {
+			this.name = propertyPath.getName();
+			this.methodCall = false;
+			this.arrayLength = false;
+			this.failure = null;
+		}
+
+		if (null != propertyPath.getPathToContinue()) {
+			this.next = new CompiledPropertyPath(propertyPath.getPathToContinue());
+		} else {
+			this.next = null;
+		}
+	}
+
+	/**
+	 * Gets {@link #next}.
+	 *
+	 * @return {@link #next}
+	 */
+	CompiledPropertyPath getNext() {
+		return next;
+	}
+
+	/**
+	 * Accesses the field or calls the method on the given object.
+	 *
+	 * @param object
+	 *            The object to analyze, must not be <code>null</code>.
+	 * @return Value of the field or result of the method.
+	 * @throws PropertyAccessException
+	 *             This exception is thrown whenever something unexpectedly happens while accessing
+	 *             a property.
+	 */
+	Object access(Object object) throws PropertyAccessException {
+		if (null != failure) {
+			throw new PropertyAccessException(failure);
+		}
+
+		// special handling for the length method of Array objects
+		// Array objects do not inherit from the static Array class, thus
+		// trying to retrieve the method by reflection is not possible
+		if (arrayLength) {
+			if (object.getClass().isArray()) {
+				return Integer.valueOf(Array.getLength(object));
+			} else {
+				LOG.error("Trying to access the lenght() method for a non array type");
+				throw new PropertyAccessException("Trying to access the length() method for a non array type");
+			}
+		}
+
+		Class<?> c;
+		if (object instanceof Class) {
+			// This check is needed when a static class is passed to this
+			// method.
+			c = (Class<?>) object;
+		} else {
+			c = object.getClass();
+		}
+
+		WeakReference<Accessor> lastAccessorReference = lastAccessor;
+		Accessor accessor = (null != lastAccessorReference) ? lastAccessorReference.get() : null;
+		if ((null == accessor) || (accessor.type != c)) {
+			accessor = accessors.getIfPresent(c);
+			if (null == accessor) {
+				accessor = resolve(c, object);
+				accessors.put(c, accessor);
+			}
+			lastAccessor = new WeakReference<Accessor>(accessor);
+		}
+
+		return accessor.access(object);
+	}
+
+	/**
+	 * Resolves the field or method in the class hierarchy.
+	 *
+	 * @param type
+	 *            Class to resolve in.
+	 * @param object
+	 *            The object being analyzed, used for the failure message.
+	 * @return Accessor, never <code>null</code>.
+	 */
+	private Accessor resolve(Class<?> type, Object object) {
+		Class<?> c = type;
+		// We need to differ between calls of methods and the navigation of
+		// properties of an object. This differentiation is integrated to
+		// force the user to add () to the method to be called, thus the
+		// user is aware what he is doing and no unwanted method calls are
+		// performed.
+		while ((null != c) && (c != Object.class)) {
+			if (methodCall) {
+				// we are iterating using getDeclaredMethods as this call will
+				// also provide the default access and protected methods which
+				// the call to getMethods() will not
+				for (Method method : c.getDeclaredMethods()) {
+					if (name.equals(method.getName())) {
+						// We are only calling methods that do not take an argument
+						if (method.getParameterTypes().length != 0) {
+							if (LOG.isDebugEnabled()) {
+								LOG.debug("Skipping matching method " + method.getName() + " as it is not a no argument method");
+							}
+							continue;
+						}
+
+						try {
+							method.setAccessible(true);
+						} catch (RuntimeException e) { // NOPMD
+							// invoke with the access checks
+						}
+						return new Accessor(type, null, method, null);
+					}
+				}
+			} else {
+				for (Field field : c.getDeclaredFields()) {
+					if (name.equals(field.getName())) {
+						try {
+							field.setAccessible(true);
+						} catch (SecurityException e) {
+							LOG.error(e.getMessage());
+							return new Accessor(type, null, null, "Security Exception was thrown while accessing a field!");
+						}
+						return new Accessor(type, field, null, null);
+					}
+				}
+			}
+
+			c = c.getSuperclass();
+		}
+
+		return new Accessor(type, null, null, "Property or method " + name + " cannot be found in class " + object.getClass() + "!");
+	}
+
+	/**
+	 * Checks whether or not the method may be called within the parameter storage algorithm.
+	 *
+	 * @param method
+	 *            The method name to check for.
+	 * @return <code>true</code> if the method is accepted.
+	 */
+	private static boolean isAcceptedMethod(String method) {
+		for (String allowed : ALLOWED_METHODS) {
+			if (allowed.equals(method)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Field or method resolved for one class, or the failure of the resolution.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static class Accessor {
+
+		/**
+		 * Class the accessor was resolved for.
+		 */
+		private final Class<?> type;
+
+		/**
+		 * Field to access, can be <code>null</code>.
+		 */
+		private final Field field;
+
+		/**
+		 * Method to call, can be <code>null</code>.
+		 */
+		private final Method method;
+
+		/**
+		 * Failure message if neither field nor method could be resolved.
+		 */
+		private final String failure;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param type
+		 *            Class the accessor was resolved for.
+		 * @param field
+		 *            Field to access, can be <code>null</code>.
+		 * @param method
+		 *            Method to call, can be <code>null</code>.
+		 * @param failure
+		 *            Failure message if neither field nor method could be resolved.
+		 */
+		Accessor(Class<?> type, Field field, Method method, String failure) {
+			this.type = type;
+			this.field = field;
+			this.method = method;
+			this.failure = failure;
+		}
+
+		/**
+		 * Accesses the field or calls the method on the given object.
+		 *
+		 * @param object
+		 *            The object to analyze.
+		 * @return Value of the field or result of the method.
+		 * @throws PropertyAccessException
+		 *             If resolution failed or the access is not possible.
+		 */
+		Object access(Object object) throws PropertyAccessException {
+			if (null != field) {
+				try {
+					return field.get(object);
+				} catch (IllegalArgumentException e) {
+					LOG.error(e.getMessage());
+					throw new PropertyAccessException("Illegal Argument Exception!", e);
+				} catch (IllegalAccessException e) {
+					LOG.error(e.getMessage());
+					throw new PropertyAccessException("Illegal Access Exception!", e);
+				}
+			} else if (null != method) {
+				try {
+					return method.invoke(object, (Object[]) null);
+				} catch (IllegalArgumentException e) {
+					LOG.error(e.getMessage());
+					throw new PropertyAccessException("Illegal Argument Exception!", e);
+				} catch (IllegalAccessException e) {
+					LOG.error(e.getMessage());
+					throw new PropertyAccessException("IllegalAccessException!", e);
+				} catch (InvocationTargetException e) {
+					LOG.error(e.getMessage());
+					throw new PropertyAccessException("InvocationTargetException!", e);
+				}
+			} else {
+				throw new PropertyAccessException(failure);
+			}
+		}
+	}
+
+}
@@ -332,6 +332,36 @@ public class ConfigurationStorage implements IConfigurationStorage, Initializing
 		return agentConfiguration.getInitialInstrumentationResults();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getConfigurationRevision() throws StorageException {
+		ensureConfigurationExists();
+
+		return agentConfiguration.getConfigurationRevision();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getGovernorCallRateBudget() throws StorageException {
+		ensureConfigurationExists();
+
+		return agentConfiguration.getGovernorCallRateBudget();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getGovernorOverheadBudget() throws StorageException {
+		ensureConfigurationExists();
+
+		return agentConfiguration.getGovernorOverheadBudget();
+	}
+
 	/**
 	 * Checks if the JVM parameters have the repository and agent information.
 	 */
@@ -1,15 +1,14 @@
 package rocks.inspectit.agent.java.config.impl;
 
-import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import rocks.inspectit.agent.java.config.IPropertyAccessor;
 import rocks.inspectit.agent.java.config.PropertyAccessException;
 import rocks.inspectit.shared.all.communication.data.ParameterContentData;
@@ -41,10 +40,10 @@ public class PropertyAccessor implements IPropertyAccessor {
 	private static final String NULL_VALUE = "null";
 
 	/**
-	 * An array containing the names of all methods that might be called by the PropertyAccessor.
-	 * Names should not include the brackets.
+	 * Compiled paths by the path they were compiled from. Weak keys, so that the paths removed
+	 * from the configuration are not held.
 	 */
-	private static final String[] ALLOWED_METHODS = new String[] { "size", "length" };
+	private final Cache<PropertyPath, CompiledPropertyPath> compiledPaths = CacheBuilder.newBuilder().weakKeys().build();
 
 	/**
 	 * {@inheritDoc}
@@ -89,25 +88,11 @@ public class PropertyAccessor implements IPropertyAccessor {
 	}
 
 	/**
-	 * Checks whether or not the method may be called within the parameter storage algorithm.
-	 *
-	 * @param method
-	 *            The method name to check for.
-	 * @return <code>true</code> if the method is accepted.
-	 */
-	private boolean isAcceptedMethod(String method) {
-		for (String allowed : ALLOWED_METHODS) {
-			if (allowed.equals(method)) {
-				return true;
-			}
-		}
-		return false;
-	}
-
-	/**
-	 * Inner static recursive method to go along the given path.
+	 * Inner method to go along the given path. The path is compiled on the first usage, so that
+	 * the fields and methods are not searched for on every call.
 	 *
 	 * @see PropertyPath
+	 * @see CompiledPropertyPath
 	 *
 	 * @param propertyPath
 	 *            The path to follow.
@@ -119,119 +104,28 @@ public class PropertyAccessor implements IPropertyAccessor {
 	 *             a property.
 	 */
 	private String getPropertyContent(PropertyPath propertyPath, Object object) throws PropertyAccessException {
-		if (null == object) {
-			return "null";
-		}
-
-		if (null == propertyPath) {
-			// end of the path to follow, return the String representation of
-			// the object
-			return object.toString();
-		}
-
-		Class<?> c;
-		if (object instanceof Class) {
-			// This check is needed when a static class is passed to this
-			// method.
-			c = (Class<?>) object;
-		} else {
-			c = object.getClass();
-		}
-
-		// We need to differ between calls of methods and the navigation of
-		// properties of an object. This differentiation is integrated to
-		// force the user to add () to the method to be called, thus the
-		// user is aware what he is doing and no unwanted method calls are
-		// performed.
-		if (propertyPath.isMethodCall()) {
-
-			// strip the "()" from the path to find the method
-			String methodName = propertyPath.getName().substring(0, propertyPath.getName().length() - 2);
-
-			// check if this method may be called
-			if (!isAcceptedMethod(methodName)) {
-				throw new PropertyAccessException("Method " + methodName + " MAY not be called!");
+		CompiledPropertyPath compiledPath = null;
+		if (null != propertyPath) {
+			compiledPath = compiledPaths.getIfPresent(propertyPath);
+			if (null == compiledPath) {
+				// no harm if two threads compile the same path
+				compiledPath = new CompiledPropertyPath(propertyPath);
+				compiledPaths.put(propertyPath, compiledPath);
 			}
+		}
 
-			// special handling for the length method of Array objects
-			// Array objects do not inherit from the static Array class, thus
-			// trying to retrieve the method by reflection is not possible
-			if ("length".equals(methodName)) {
-				if (object.getClass().isArray()) { // ensure that we are really
-					// dealing with an array
-					return getPropertyContent(propertyPath.getPathToContinue(), Integer.valueOf(Array.getLength(object)));
-				} else {
-					log.error("Trying to access the lenght() method for a non array type");
-					throw new PropertyAccessException("Trying to access the length() method for a non array type");
-				}
+		Object current = object;
+		while (null != current) {
+			if (null == compiledPath) {
+				// end of the path to follow, return the String representation of
+				// the object
+				return current.toString();
 			}
 
-			do {
-				// we are iterating using getDeclaredMethods as this call will
-				// also provide the default access and protected methods which
-				// the
-				// call to getMethods() will not
-				Method[] methods = c.getDeclaredMethods();
-				for (Method method : methods) {
-					if (methodName.equals(method.getName())) {
-
-						// We are only calling methods that do not take an
-						// argument
-						if (method.getParameterTypes().length != 0) {
-							if (log.isDebugEnabled()) {
-								log.debug("Skipping matching method " + method.getName() + " as it is not a no argument method");
-							}
-							continue;
-						}
-
-						try {
-							Object result = method.invoke(object, (Object[]) null);
-							return getPropertyContent(propertyPath.getPathToContinue(), result);
-						} catch (IllegalArgumentException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Illegal Argument Exception!", e);
-						} catch (IllegalAccessException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("IllegalAccessException!", e);
-						} catch (InvocationTargetException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("InvocationTargetException!", e);
-						}
-
-					}
-				}
-
-				c = c.getSuperclass();
-			} while (c != Object.class);
-
-		} else { // We are dealing with a property navigation and not an method
-			// call
-			do {
-				Field[] fields = c.getDeclaredFields();
-				for (Field field : fields) {
-					if (propertyPath.getName().equals(field.getName())) {
-						try {
-							field.setAccessible(true);
-							Object fieldObject = field.get(object);
-							return getPropertyContent(propertyPath.getPathToContinue(), fieldObject);
-						} catch (SecurityException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Security Exception was thrown while accessing a field!", e);
-						} catch (IllegalArgumentException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Illegal Argument Exception!", e);
-						} catch (IllegalAccessException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Illegal Access Exception!", e);
-						}
-					}
-				}
-
-				c = c.getSuperclass();
-			} while (c != Object.class);
+			current = compiledPath.access(current);
+			compiledPath = compiledPath.getNext();
 		}
-
-		throw new PropertyAccessException("Property or method " + propertyPath.getName() + " cannot be found in class " + object.getClass() + "!");
+		return NULL_VALUE;
 	}
 
 	/**
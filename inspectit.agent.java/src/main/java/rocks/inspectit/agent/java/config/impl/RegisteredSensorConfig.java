@@ -7,6 +7,7 @@ import java.util.Map;
 
 import org.apache.commons.collections.CollectionUtils;
 
+import rocks.inspectit.agent.java.hooking.impl.MethodOverhead;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.shared.all.instrumentation.config.impl.PropertyPathStart;
 
@@ -44,6 +45,11 @@ public class RegisteredSensorConfig extends AbstractSensorConfig {
 	 */
 	private final List<IMethodSensor> methodSensorsReverse = new ArrayList<IMethodSensor>(1);
 
+	/**
+	 * Overhead statistics of the method, <code>null</code> if the method is not governed.
+	 */
+	private MethodOverhead methodOverhead;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -158,6 +164,25 @@ public class RegisteredSensorConfig extends AbstractSensorConfig {
 		methodSensorsReverse.add(0, methodSensor);
 	}
 
+	/**
+	 * Gets {@link #methodOverhead}.
+	 *
+	 * @return {@link #methodOverhead}
+	 */
+	public MethodOverhead getMethodOverhead() {
+		return methodOverhead;
+	}
+
+	/**
+	 * Sets {@link #methodOverhead}.
+	 *
+	 * @param methodOverhead
+	 *            New value for {@link #methodOverhead}
+	 */
+	public void setMethodOverhead(MethodOverhead methodOverhead) {
+		this.methodOverhead = methodOverhead;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,24 @@
+package rocks.inspectit.agent.java.connection;
+
+import java.util.EventListener;
+import java.util.List;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+
+/**
+ * The {@link DataObjectsSentListener} interface allows a class to react on the data objects being
+ * delivered to the server.
+ *
+ * @author agent
+ */
+public interface DataObjectsSentListener extends EventListener {
+
+	/**
+	 * The data objects were sent to the server.
+	 *
+	 * @param dataObjects
+	 *            The sent data objects.
+	 */
+	void dataObjectsSent(List<? extends DefaultData> dataObjects);
+
+}
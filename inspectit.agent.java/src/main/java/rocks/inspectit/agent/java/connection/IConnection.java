@@ -44,6 +44,14 @@ public interface IConnection {
 	 */
 	boolean isConnected();
 
+	/**
+	 * Returns the epoch of the connection. The epoch changes each time the connection to the
+	 * server is established, so that any state the server might have lost can be invalidated.
+	 *
+	 * @return Epoch of the connection.
+	 */
+	long getConnectionEpoch();
+
 	/**
 	 * Sends a keep-alive signal to give a sign of life.
 	 *
@@ -54,6 +62,15 @@ public interface IConnection {
 	 */
 	void sendKeepAlive(long platformId) throws ServerUnavailableException;
 
+	/**
+	 * Returns if the measurements can be sent without blocking. This is not the case if the
+	 * server does not read the data fast enough (for example during a garbage collection on the
+	 * server) and too many previously sent measurements are still waiting to be written.
+	 *
+	 * @return Returns if the measurements can be sent without blocking.
+	 */
+	boolean canSendDataObjects();
+
 	/**
 	 * Send the measurements to the server for further processing.
 	 *
@@ -64,6 +81,15 @@ public interface IConnection {
 	 */
 	void sendDataObjects(List<? extends DefaultData> dataObjects) throws ServerUnavailableException;
 
+	/**
+	 * Adds a listener that is notified after the data objects were successfully sent to the
+	 * server.
+	 *
+	 * @param listener
+	 *            The listener to add.
+	 */
+	void addDataObjectsSentListener(DataObjectsSentListener listener);
+
 	/**
 	 * Registers the agent with the CMR. The CMR will answer with the {@link AgentConfig} containing
 	 * all necessary information for the agent initialization.
@@ -116,6 +142,25 @@ public interface IConnection {
 	 */
 	InstrumentationDefinition analyze(long platformIdent, String hash, Type type) throws ServerUnavailableException, BusinessException;
 
+	/**
+	 * Analyzes the given types in one call to the server. Types are analyzed in the given order,
+	 * thus the depending types should be placed before the types that depend on them.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashes
+	 *            Class hash codes, one for each type.
+	 * @param types
+	 *            Types that have been parsed from the byte-code.
+	 * @return List of instrumentation definitions in the same order as the given types or
+	 *         <code>null</code> if the call failed with an unexpected exception.
+	 * @throws ServerUnavailableException
+	 *             If server to send the request to is unavailable.
+	 * @throws BusinessException
+	 *             If {@link BusinessException} is thrown on the server.
+	 */
+	List<InstrumentationDefinition> analyzeBatch(long platformIdent, List<String> hashes, List<Type> types) throws ServerUnavailableException, BusinessException;
+
 	/**
 	 * Informs the CMR that the methods have been instrumented on the agent.
 	 *
@@ -128,6 +173,19 @@ public interface IConnection {
 	 */
 	void instrumentationApplied(long platformIdent, Map<Long, long[]> methodToSensorMap) throws ServerUnavailableException;
 
+	/**
+	 * Informs the CMR about the methods currently governed by the overhead governor.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param governedMethods
+	 *            Map containing method id as key and the sampling rate and calls per second as
+	 *            value.
+	 * @throws ServerUnavailableException
+	 *             If server to send the request to is unavailable.
+	 */
+	void overheadGoverned(long platformIdent, Map<Long, long[]> governedMethods) throws ServerUnavailableException;
+
 	/**
 	 * Sends the given {@link JmxAttributeDescriptor} to the CMR, returning the ones that will be
 	 * monitored, based on the current configuration on the server.
@@ -11,7 +11,9 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
@@ -20,6 +22,7 @@ import org.springframework.stereotype.Component;
 
 import com.esotericsoftware.kryonet.rmi.RemoteObject;
 
+import rocks.inspectit.agent.java.connection.DataObjectsSentListener;
 import rocks.inspectit.agent.java.connection.FailFastRemoteMethodCall;
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.connection.RegistrationException;
@@ -81,6 +84,16 @@ public class KryoNetConnection implements IConnection {
 	 */
 	private boolean connectionException = false;
 
+	/**
+	 * Epoch of the connection, incremented on each established connection.
+	 */
+	private final AtomicLong connectionEpoch = new AtomicLong();
+
+	/**
+	 * Listeners notified about the sent data objects.
+	 */
+	private final List<DataObjectsSentListener> dataObjectsSentListeners = new CopyOnWriteArrayList<DataObjectsSentListener>();
+
 	/**
 	 * The list of all network interfaces.
 	 */
@@ -114,6 +127,7 @@ public class KryoNetConnection implements IConnection {
 				((RemoteObject) keepAliveService).setNonBlocking(true);
 				((RemoteObject) keepAliveService).setTransmitReturnValue(false);
 
+				connectionEpoch.incrementAndGet();
 				log.info("KryoNet: Connection established!");
 				connectionException = false;
 			} catch (Exception exception) {
@@ -232,7 +246,13 @@ public class KryoNetConnection implements IConnection {
 		};
 
 		try {
-			return call.makeCall();
+			AgentConfig agentConfig = call.makeCall();
+			// compressed transfer and string dictionary are negotiated with the registration
+			if (null != client) {
+				client.setCompressionThreshold(agentConfig.getTransferCompressionThreshold());
+				client.setStringDictionaryEnabled(agentConfig.isTransferStringDictionary());
+			}
+			return agentConfig;
 		} catch (ExecutionException executionException) {
 			if (log.isTraceEnabled()) {
 				log.trace("register(String, String)", executionException);
@@ -302,6 +322,9 @@ public class KryoNetConnection implements IConnection {
 			try {
 				AddDataObjects remote = new AddDataObjects(agentStorageService, measurements);
 				remote.makeCall();
+				for (DataObjectsSentListener listener : dataObjectsSentListeners) {
+					listener.dataObjectsSent(measurements);
+				}
 			} catch (ExecutionException executionException) {
 				// there should be no execution exception
 				log.error("Could not send data objects", executionException);
@@ -314,6 +337,16 @@ public class KryoNetConnection implements IConnection {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addDataObjectsSentListener(DataObjectsSentListener listener) {
+		if (!dataObjectsSentListeners.contains(listener)) {
+			dataObjectsSentListeners.add(listener);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -354,6 +387,46 @@ public class KryoNetConnection implements IConnection {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<InstrumentationDefinition> analyzeBatch(final long platformIdent, final List<String> hashes, final List<Type> types) throws ServerUnavailableException, BusinessException {
+		if (!isConnected()) {
+			throw new ServerUnavailableException();
+		}
+
+		// make call
+		FailFastRemoteMethodCall<IAgentService, List<InstrumentationDefinition>> call = new FailFastRemoteMethodCall<IAgentService, List<InstrumentationDefinition>>(agentService) {
+			@Override
+			protected List<InstrumentationDefinition> performRemoteCall(IAgentService service) throws Exception {
+				return agentService.analyzeBatch(platformIdent, hashes, types);
+			}
+		};
+
+		try {
+			return call.makeCall();
+		} catch (ExecutionException executionException) {
+			if (log.isTraceEnabled()) {
+				log.trace("analyzeBatch(long,List,List)", executionException);
+			}
+
+			// check for business exception
+			if (executionException.getCause() instanceof BusinessException) {
+				throw ((BusinessException) executionException.getCause()); // NOPMD
+			}
+
+			// otherwise we log and return null as it's unexpected exception for us
+			log.error("Could not get instrumentation results", executionException);
+			return null;
+		} catch (ServerUnavailableException e) {
+			if (!e.isServerTimeout()) {
+				stopClient();
+			}
+			throw e;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -380,6 +453,29 @@ public class KryoNetConnection implements IConnection {
 
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void overheadGoverned(long platformIdent, Map<Long, long[]> governedMethods) throws ServerUnavailableException {
+		if (!isConnected()) {
+			throw new ServerUnavailableException();
+		}
+
+		try {
+			OverheadGovernedCall call = new OverheadGovernedCall(agentService, platformIdent, governedMethods);
+			call.makeCall();
+		} catch (ExecutionException executionException) {
+			// there should be no execution exception
+			log.error("Could not sent governed method ids", executionException);
+		} catch (ServerUnavailableException e) {
+			if (!e.isServerTimeout()) {
+				stopClient();
+			}
+			throw e;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -447,4 +543,23 @@ public class KryoNetConnection implements IConnection {
 		return (null != client) && client.isConnected();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getConnectionEpoch() {
+		return connectionEpoch.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Only half of the available write queue is used for the measurements, so that the other
+	 * calls to the server are never blocked by the sending of the measurements.
+	 */
+	@Override
+	public boolean canSendDataObjects() {
+		return isConnected() && (client.getTcpWriteQueueSize() < (client.getMaxTcpWriteQueueSize() / 2));
+	}
+
 }
@@ -0,0 +1,52 @@
+package rocks.inspectit.agent.java.connection.impl;
+
+import java.util.Map;
+
+import rocks.inspectit.agent.java.connection.AbstractRemoteMethodCall;
+import rocks.inspectit.shared.all.cmr.service.IAgentService;
+
+/**
+ * {@link AbstractRemoteMethodCall} for the {@link IAgentService#overheadGoverned(long, Map)}.
+ *
+ * @author agent
+ *
+ */
+public class OverheadGovernedCall extends AbstractRemoteMethodCall<IAgentService, Void> {
+
+	/**
+	 * Platform id.
+	 */
+	private final long platformIdent;
+
+	/**
+	 * Map containing method id as key and the sampling rate and calls per second as value.
+	 */
+	private final Map<Long, long[]> governedMethods;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param remoteObject
+	 *            {@link IAgentService} object
+	 * @param platformIdent
+	 *            Platform id.
+	 * @param governedMethods
+	 *            map containing method id as key and the sampling rate and calls per second as
+	 *            value
+	 */
+	public OverheadGovernedCall(IAgentService remoteObject, long platformIdent, Map<Long, long[]> governedMethods) {
+		super(remoteObject);
+		this.platformIdent = platformIdent;
+		this.governedMethods = governedMethods;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Void performRemoteCall(IAgentService remoteObject) throws Exception {
+		remoteObject.overheadGoverned(platformIdent, governedMethods);
+		return null;
+	}
+
+}
@@ -0,0 +1,33 @@
+package rocks.inspectit.agent.java.core;
+
+/**
+ * The epoch guard protects the data collected by the {@link ICoreService} from being prepared for
+ * sending while a thread is still changing it. A thread that gets a data object or object storage
+ * from the core service and changes it afterwards must {@link #enter()} the epoch before and
+ * {@link #leave(Object)} it after the change. The data of an epoch is prepared only when all
+ * threads that entered it have left.
+ * <p>
+ * Entering and leaving are cheap and contention free operations, but they must always be called
+ * in pairs, best in the try-finally block.
+ *
+ * @author agent
+ *
+ */
+public interface IEpochGuard {
+
+	/**
+	 * Enters the current epoch.
+	 *
+	 * @return Token of the entered epoch that has to be passed to {@link #leave(Object)}.
+	 */
+	Object enter();
+
+	/**
+	 * Leaves the epoch previously entered with the {@link #enter()}.
+	 *
+	 * @param epoch
+	 *            Token returned by the {@link #enter()}.
+	 */
+	void leave(Object epoch);
+
+}
@@ -3,8 +3,6 @@ package rocks.inspectit.agent.java.core.impl;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -21,6 +19,7 @@ import rocks.inspectit.agent.java.buffer.IBufferStrategy;
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.connection.ServerUnavailableException;
 import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IEpochGuard;
 import rocks.inspectit.agent.java.core.IObjectStorage;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.ListListener;
@@ -38,6 +37,10 @@ import rocks.inspectit.shared.all.util.ExecutorServiceUtils;
 
 /**
  * Default implementation of the {@link ICoreService} interface.
+ * <p>
+ * The data is collected in the {@link DataCollectionEpoch}s. All data is added to the current
+ * epoch. When data is prepared for sending, a new epoch is atomically set as the current one and
+ * the old one is drained after all threads that entered it (see {@link IEpochGuard}) have left.
  *
  * @author Patrice Bouillet
  * @author Eduard Tudenhoefner
@@ -47,7 +50,7 @@ import rocks.inspectit.shared.all.util.ExecutorServiceUtils;
 // must depend on platform manager so that configuration is received
 @Component
 @DependsOn({ "platformManager" })
-public class CoreService implements ICoreService, InitializingBean, DisposableBean {
+public class CoreService implements ICoreService, IEpochGuard, InitializingBean, DisposableBean {
 
 	/**
 	 * The logger of the class.
@@ -99,29 +102,16 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	private ScheduledExecutorService executorService;
 
 	/**
-	 * Already used data objects which can be used directly on the CMR to persist.
+	 * The epoch in which the data is currently collected. Holds all data objects and object
+	 * storages added since the last preparation of data.
 	 */
-	private Map<String, DefaultData> sensorDataObjects = new ConcurrentHashMap<String, DefaultData>();
+	private volatile DataCollectionEpoch currentEpoch = new DataCollectionEpoch();
 
 	/**
-	 * Contains object storage instances which will be initialized when sending.
+	 * The epoch that will be used after the next switch. Only accessed by the thread preparing the
+	 * data.
 	 */
-	private Map<String, IObjectStorage> objectStorages = new ConcurrentHashMap<String, IObjectStorage>();
-
-	/**
-	 * Used as second hash table for the measurements when processed before sending.
-	 */
-	private Map<String, DefaultData> measurementsProcessing = new ConcurrentHashMap<String, DefaultData>();
-
-	/**
-	 * Used as second hash table for the object storages when processed before sending.
-	 */
-	private Map<String, IObjectStorage> objectStoragesProcessing = new ConcurrentHashMap<String, IObjectStorage>();
-
-	/**
-	 * Temporary Map to switch the references of the active hash table with the processed one.
-	 */
-	private Map<String, ?> temp;
+	private DataCollectionEpoch spareEpoch = new DataCollectionEpoch();
 
 	/**
 	 * The registered list listeners.
@@ -133,6 +123,11 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	private static final long DEFAULT_REFRESH_TIME = 1000L;
 
+	/**
+	 * Time in milliseconds after which the sending is retried if the connection was backed up.
+	 */
+	private static final long BACKED_UP_RETRY_TIME = 100L;
+
 	/**
 	 * The refresh time for the platformSensorRefresher thread in ms.
 	 */
@@ -234,7 +229,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		builder.append('.');
 		// Added timestamp to be able to send multiple objects to cmr.
 		builder.append(jmxSensorValueData.getTimeStamp().getTime());
-		sensorDataObjects.put(builder.toString(), jmxSensorValueData);
+		DataCollectionEpoch epoch = enterCurrentEpoch();
+		try {
+			epoch.getSensorDataObjects().put(builder.toString(), jmxSensorValueData);
+		} finally {
+			epoch.leave();
+		}
 		notifyListListeners();
 	}
 
@@ -243,15 +243,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void addMethodSensorData(long sensorTypeIdent, long methodIdent, String prefix, MethodSensorData methodSensorData) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
+		DataCollectionEpoch epoch = enterCurrentEpoch();
+		try {
+			epoch.getMethodSensorDataObjects().put(sensorTypeIdent, methodIdent, prefix, methodSensorData);
+		} finally {
+			epoch.leave();
 		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		sensorDataObjects.put(builder.toString(), methodSensorData);
 		notifyListListeners();
 	}
 
@@ -260,15 +257,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public MethodSensorData getMethodSensorData(long sensorTypeIdent, long methodIdent, String prefix) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
-		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		return (MethodSensorData) sensorDataObjects.get(builder.toString());
+		return currentEpoch.getMethodSensorDataObjects().get(sensorTypeIdent, methodIdent, prefix);
 	}
 
 	/**
@@ -276,7 +265,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void addPlatformSensorData(long sensorTypeIdent, SystemSensorData systemSensorData) {
-		sensorDataObjects.put(Long.toString(sensorTypeIdent), systemSensorData);
+		DataCollectionEpoch epoch = enterCurrentEpoch();
+		try {
+			epoch.getSensorDataObjects().put(Long.toString(sensorTypeIdent), systemSensorData);
+		} finally {
+			epoch.leave();
+		}
 		notifyListListeners();
 	}
 
@@ -296,7 +290,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		if (exceptionSensorData.getExceptionEvent().equals(ExceptionEvent.CREATED)) {
 			// if a data object with the same hash code was already created, then it has to be For
 			// us only the last-most data object is relevant
-			sensorDataObjects.put(key, exceptionSensorData);
+			DataCollectionEpoch epoch = enterCurrentEpoch();
+			try {
+				epoch.getSensorDataObjects().put(key, exceptionSensorData);
+			} finally {
+				epoch.leave();
+			}
 			notifyListListeners();
 		}
 	}
@@ -311,7 +310,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		builder.append("::");
 		builder.append(throwableIdentityHashCode);
 
-		return (ExceptionSensorData) sensorDataObjects.get(builder.toString());
+		return (ExceptionSensorData) currentEpoch.getSensorDataObjects().get(builder.toString());
 	}
 
 	/**
@@ -319,15 +318,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void addObjectStorage(long sensorTypeIdent, long methodIdent, String prefix, IObjectStorage objectStorage) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
+		DataCollectionEpoch epoch = enterCurrentEpoch();
+		try {
+			epoch.getObjectStorages().put(sensorTypeIdent, methodIdent, prefix, objectStorage);
+		} finally {
+			epoch.leave();
 		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		objectStorages.put(builder.toString(), objectStorage);
 		notifyListListeners();
 	}
 
@@ -336,15 +332,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public IObjectStorage getObjectStorage(long sensorTypeIdent, long methodIdent, String prefix) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
-		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		return objectStorages.get(builder.toString());
+		return currentEpoch.getObjectStorages().get(sensorTypeIdent, methodIdent, prefix);
 	}
 
 	/**
@@ -365,14 +353,50 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		listListeners.remove(listener);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object enter() {
+		return enterCurrentEpoch();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void leave(Object epoch) {
+		((DataCollectionEpoch) epoch).leave();
+	}
+
+	/**
+	 * Enters the current epoch. After entering it's checked that the epoch is still the current
+	 * one, if not the epoch is left and the new current one is entered. This way the thread
+	 * preparing the data can be sure that no new writers will enter an epoch after the switch.
+	 *
+	 * @return The entered epoch that has to be left after the writing.
+	 */
+	private DataCollectionEpoch enterCurrentEpoch() {
+		while (true) {
+			DataCollectionEpoch epoch = currentEpoch;
+			epoch.enter();
+			if (epoch == currentEpoch) { // NOPMD
+				return epoch;
+			}
+			epoch.leave();
+		}
+	}
+
 	/**
 	 * Notify all registered listeners that a change occurred in the lists.
 	 */
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	private void notifyListListeners() {
 		if (!listListeners.isEmpty()) {
-			List temp = new ArrayList(sensorDataObjects.values());
-			temp.addAll(objectStorages.values());
+			DataCollectionEpoch epoch = currentEpoch;
+			List temp = new ArrayList(epoch.getSensorDataObjects().values());
+			epoch.getMethodSensorDataObjects().addValuesTo(temp);
+			epoch.getObjectStorages().addValuesTo(temp);
 			for (ListListener<?> listListener : listListeners) {
 				listListener.contentChanged(temp);
 			}
@@ -501,36 +525,28 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 * <b> WARNING: This code is supposed to be run single-threaded! We ensure single-threaded
 	 * invocation by only calling this method within the single <code>PreparingThread</code>. During
 	 * the JVM shutdown (in the shutdownhook), it is also ensured that this code is run
-	 * singlethreaded. </b>
+	 * singlethreaded. </b> Threads adding the data can run concurrently, as the data is only
+	 * drained after all threads left the switched epoch.
+	 * <p>
+	 * Package-private for testing.
 	 *
 	 * @return <code>true</code> if new data were prepared, else <code>false</code>
 	 */
-	@SuppressWarnings("unchecked")
-	private boolean prepareData() {
+	boolean prepareData() {
 		// check if measurements are added in the last interval, if not nothing needs to be sent.
-		if (sensorDataObjects.isEmpty() && objectStorages.isEmpty()) {
+		DataCollectionEpoch epoch = currentEpoch;
+		if (epoch.isEmpty()) {
 			return false;
 		}
 
-		// switch the references so that new data is stored while sending
-		temp = sensorDataObjects;
-		sensorDataObjects = measurementsProcessing;
-		measurementsProcessing = (Map<String, DefaultData>) temp;
+		// switch the epochs so that new data is stored while sending, then wait for all writers
+		// that might still change data in the old epoch
+		currentEpoch = spareEpoch;
+		epoch.awaitWritersLeft();
 
-		temp = objectStorages;
-		objectStorages = objectStoragesProcessing;
-		objectStoragesProcessing = (Map<String, IObjectStorage>) temp;
-
-		// copy the measurements values to a new list
-		List<DefaultData> tempList = new ArrayList<DefaultData>(measurementsProcessing.values());
-		measurementsProcessing.clear();
-
-		// iterate the object storages and get the value objects which will be stored in the same
-		// list.
-		for (IObjectStorage objectStorage : objectStoragesProcessing.values()) {
-			tempList.add(objectStorage.finalizeDataObject());
-		}
-		objectStoragesProcessing.clear();
+		List<DefaultData> tempList = new ArrayList<DefaultData>();
+		epoch.drainTo(tempList);
+		spareEpoch = epoch;
 
 		// Now give the strategy the list
 		bufferStrategy.addMeasurements(tempList);
@@ -540,18 +556,32 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 
 	/**
 	 * sends the data.
+	 * <p>
+	 * The sending stops without blocking if the connection can not take more data, for example
+	 * when the CMR is in a garbage collection pause. The data not sent stays in the buffer
+	 * strategy and the caller should retry after {@link #BACKED_UP_RETRY_TIME}.
 	 *
 	 * <b> WARNING: This code is supposed to be run single-threaded! We ensure single-threaded
 	 * invocation by only calling this method within the single <code>SendingThread</code>. During
 	 * the JVM shutdown (in the shutdownhook), it is also ensured that this code is run
 	 * singlethreaded. </b>
+	 * <p>
+	 * Package-private for testing.
+	 *
+	 * @return <code>true</code> if the sending stopped because the connection was backed up and
+	 *         there is still data to send, else <code>false</code>
 	 */
-	private void send() {
+	boolean send() {
 		try {
 			while (bufferStrategy.hasNext()) {
 				// if we are not connected keep data in buffer strategy
 				if (!connection.isConnected()) {
-					return;
+					return false;
+				}
+
+				// if the connection is backed up keep data in buffer strategy and retry later
+				if (!connection.canSendDataObjects()) {
+					return true;
 				}
 
 				List<DefaultData> dataToSend = bufferStrategy.next();
@@ -573,6 +603,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 				log.error("Connection problem appeared, stopping sending actual data!", throwable);
 			}
 		}
+		return false;
 	}
 
 	/**
@@ -652,13 +683,15 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		 */
 		@Override
 		public void run() {
+			boolean backedUp = false;
 			while (!isInterrupted()) {
-				// wait for activation if there is nothing to send
-				if (!bufferStrategy.hasNext()) {
+				// wait for activation if there is nothing to send, or for the connection to catch
+				// up if it was backed up
+				if (backedUp || !bufferStrategy.hasNext()) {
 					synchronized (this) {
 						try {
 							if (!isInterrupted()) {
-								wait();
+								wait(backedUp ? BACKED_UP_RETRY_TIME : 0L);
 							}
 						} catch (InterruptedException e) {
 							log.error("Sending thread interrupted and shuting down!");
@@ -668,7 +701,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 				}
 
 				// send the data
-				send();
+				backedUp = send();
 			}
 		}
 	}
@@ -709,7 +742,14 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 
 			// Try to send data for the last time. We do not set a timeout here, the user can simply
 			// kill the process for good if it takes too long.
-			CoreService.this.send();
+			while (CoreService.this.send()) {
+				try {
+					Thread.sleep(BACKED_UP_RETRY_TIME);
+				} catch (InterruptedException e) {
+					log.error("ShutdownHook was interrupted while waiting for the connection to send the remaining data. Stopping the shutdown hook");
+					return;
+				}
+			}
 
 			// At the end unregister platform
 			log.info("Unregistering the Agent");
@@ -0,0 +1,212 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import rocks.inspectit.agent.java.core.IObjectStorage;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.MethodSensorData;
+
+/**
+ * One epoch of the data collection in the {@link CoreService}. An epoch holds the data objects and
+ * object storages collected by the writers (application and sensor threads) between two
+ * preparations of data for sending.
+ * <p>
+ * Writers register in the epoch with the {@link #enter()} and deregister with the
+ * {@link #leave()} method. The active writers are counted in striped counters, so that threads
+ * entering the epoch at the same time do not share one cache line. When the {@link CoreService}
+ * switches to a new epoch, it waits until all writers left the old one by
+ * {@link #awaitWritersLeft()} and only then drains the old epoch. Thus no data is changed while it
+ * is prepared for sending.
+ *
+ * @author agent
+ *
+ */
+class DataCollectionEpoch {
+
+	/**
+	 * Amount of longs between two used slots in the {@link #writers} array, so that each stripe
+	 * is in its own cache line.
+	 */
+	private static final int PADDING_SHIFT = 3;
+
+	/**
+	 * Max amount of the stripes.
+	 */
+	private static final int MAX_STRIPES = 64;
+
+	/**
+	 * How many times to spin before parking when waiting for writers.
+	 */
+	private static final int SPINS = 100;
+
+	/**
+	 * Time to park when waiting for writers.
+	 */
+	private static final long PARK_NANOS = 100000L;
+
+	/**
+	 * Mask for the stripe calculation.
+	 */
+	private final int stripeMask;
+
+	/**
+	 * Striped counters of the active writers.
+	 */
+	private final AtomicLongArray writers;
+
+	/**
+	 * Platform, JMX and exception data objects.
+	 */
+	private final Map<String, DefaultData> sensorDataObjects = new ConcurrentHashMap<String, DefaultData>();
+
+	/**
+	 * Method sensor data objects.
+	 */
+	private final MethodSensorRegistry<MethodSensorData> methodSensorDataObjects = new MethodSensorRegistry<MethodSensorData>();
+
+	/**
+	 * Object storages.
+	 */
+	private final MethodSensorRegistry<IObjectStorage> objectStorages = new MethodSensorRegistry<IObjectStorage>();
+
+	/**
+	 * Default constructor. Number of stripes is based on the available processors.
+	 */
+	DataCollectionEpoch() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor defining the number of wanted stripes.
+	 *
+	 * @param concurrency
+	 *            Wanted number of stripes. Will be rounded to the next power of two and capped
+	 *            with {@value #MAX_STRIPES}.
+	 */
+	DataCollectionEpoch(int concurrency) {
+		int stripes = 1;
+		while ((stripes < concurrency) && (stripes < MAX_STRIPES)) {
+			stripes <<= 1;
+		}
+		stripeMask = stripes - 1;
+		writers = new AtomicLongArray(stripes << PADDING_SHIFT);
+	}
+
+	/**
+	 * Registers the current thread as the writer in this epoch.
+	 */
+	void enter() {
+		writers.incrementAndGet(stripeIndex());
+	}
+
+	/**
+	 * Deregisters the current thread as the writer in this epoch. Must be called by the same
+	 * thread that called the {@link #enter()}.
+	 */
+	void leave() {
+		writers.decrementAndGet(stripeIndex());
+	}
+
+	/**
+	 * Returns if there are currently any writers in this epoch.
+	 *
+	 * @return Returns if there are currently any writers in this epoch.
+	 */
+	boolean hasWriters() {
+		for (int i = 0; i < writers.length(); i += 1 << PADDING_SHIFT) {
+			if (0 != writers.get(i)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Blocks until all writers left this epoch. Should be called only after this epoch is not
+	 * the current one any more, otherwise new writers can keep on entering.
+	 */
+	void awaitWritersLeft() {
+		int spins = 0;
+		while (hasWriters()) {
+			if (spins < SPINS) {
+				spins++;
+				Thread.yield();
+			} else {
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * Returns if no data was collected in this epoch.
+	 *
+	 * @return Returns if no data was collected in this epoch.
+	 */
+	boolean isEmpty() {
+		return sensorDataObjects.isEmpty() && methodSensorDataObjects.isEmpty() && objectStorages.isEmpty();
+	}
+
+	/**
+	 * Adds all collected data to the given list and clears this epoch. Object storages are
+	 * finalized before adding. Should be called only after {@link #awaitWritersLeft()}.
+	 *
+	 * @param dataList
+	 *            List to add data to.
+	 */
+	void drainTo(List<DefaultData> dataList) {
+		dataList.addAll(sensorDataObjects.values());
+		sensorDataObjects.clear();
+
+		methodSensorDataObjects.addValuesTo(dataList);
+		methodSensorDataObjects.clear();
+
+		List<IObjectStorage> storages = new ArrayList<IObjectStorage>();
+		objectStorages.addValuesTo(storages);
+		for (IObjectStorage objectStorage : storages) {
+			dataList.add(objectStorage.finalizeDataObject());
+		}
+		objectStorages.clear();
+	}
+
+	/**
+	 * Index of the counter in the {@link #writers} array for the current thread.
+	 *
+	 * @return Index of the counter in the {@link #writers} array.
+	 */
+	private int stripeIndex() {
+		return ((int) Thread.currentThread().getId() & stripeMask) << PADDING_SHIFT;
+	}
+
+	/**
+	 * Gets {@link #sensorDataObjects}.
+	 *
+	 * @return {@link #sensorDataObjects}
+	 */
+	Map<String, DefaultData> getSensorDataObjects() {
+		return sensorDataObjects;
+	}
+
+	/**
+	 * Gets {@link #methodSensorDataObjects}.
+	 *
+	 * @return {@link #methodSensorDataObjects}
+	 */
+	MethodSensorRegistry<MethodSensorData> getMethodSensorDataObjects() {
+		return methodSensorDataObjects;
+	}
+
+	/**
+	 * Gets {@link #objectStorages}.
+	 *
+	 * @return {@link #objectStorages}
+	 */
+	MethodSensorRegistry<IObjectStorage> getObjectStorages() {
+		return objectStorages;
+	}
+
+}
@@ -0,0 +1,253 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
+
+/**
+ * Registry that holds the objects of the method sensors (data objects or object storages) in the
+ * {@link CoreService}. The objects are registered under the sensor type and method id and
+ * optionally under a prefix (property accessor content, SQL string, etc).
+ * <p>
+ * The registry is keyed on the primitive method id in a {@link NonBlockingHashMapLong}. Each method
+ * has a small table of sensor types. Thus registering and retrieving objects without a prefix
+ * does not need any string building, hashing or allocation. Only if a prefix is used, the object is
+ * kept in an additional {@link ConcurrentHashMap} of the sensor type which is keyed on the prefix.
+ * <p>
+ * Objects can not be removed one by one, the complete registry is {@link #clear() cleared} when
+ * the data is prepared for sending.
+ *
+ * @param <E>
+ *            Type of objects in the registry.
+ * @author agent
+ *
+ */
+public class MethodSensorRegistry<E> {
+
+	/**
+	 * Method entries keyed on the method id.
+	 */
+	private final NonBlockingHashMapLong<MethodEntry<E>> methodEntries = new NonBlockingHashMapLong<MethodEntry<E>>();
+
+	/**
+	 * Returns the object registered for the given sensor type, method and prefix.
+	 *
+	 * @param sensorTypeId
+	 *            The sensor type id.
+	 * @param methodId
+	 *            The method id.
+	 * @param prefix
+	 *            Optional prefix. Can be <code>null</code>.
+	 * @return Registered object or <code>null</code> if nothing is registered.
+	 */
+	public E get(long sensorTypeId, long methodId, String prefix) {
+		MethodEntry<E> methodEntry = methodEntries.get(methodId);
+		if (null == methodEntry) {
+			return null;
+		}
+
+		SensorTypeEntry<E> sensorTypeEntry = methodEntry.getSensorTypeEntry(sensorTypeId);
+		if (null == sensorTypeEntry) {
+			return null;
+		}
+
+		if (null == prefix) {
+			return sensorTypeEntry.value;
+		} else {
+			ConcurrentHashMap<String, E> prefixedValues = sensorTypeEntry.prefixedValues;
+			if (null == prefixedValues) {
+				return null;
+			}
+			return prefixedValues.get(prefix);
+		}
+	}
+
+	/**
+	 * Registers the object for the given sensor type, method and prefix. Any previously registered
+	 * object under same keys is overwritten.
+	 *
+	 * @param sensorTypeId
+	 *            The sensor type id.
+	 * @param methodId
+	 *            The method id.
+	 * @param prefix
+	 *            Optional prefix. Can be <code>null</code>.
+	 * @param value
+	 *            Object to register.
+	 */
+	public void put(long sensorTypeId, long methodId, String prefix, E value) {
+		MethodEntry<E> methodEntry = methodEntries.get(methodId);
+		if (null == methodEntry) {
+			MethodEntry<E> newMethodEntry = new MethodEntry<E>();
+			methodEntry = methodEntries.putIfAbsent(methodId, newMethodEntry);
+			if (null == methodEntry) {
+				methodEntry = newMethodEntry;
+			}
+		}
+
+		SensorTypeEntry<E> sensorTypeEntry = methodEntry.getOrCreateSensorTypeEntry(sensorTypeId);
+		if (null == prefix) {
+			sensorTypeEntry.value = value;
+		} else {
+			sensorTypeEntry.getOrCreatePrefixedValues().put(prefix, value);
+		}
+	}
+
+	/**
+	 * Returns if no object is registered.
+	 *
+	 * @return Returns if no object is registered.
+	 */
+	public boolean isEmpty() {
+		return methodEntries.isEmpty();
+	}
+
+	/**
+	 * Adds all registered objects to the given collection.
+	 *
+	 * @param collection
+	 *            Collection to add objects to.
+	 */
+	public void addValuesTo(Collection<? super E> collection) {
+		for (MethodEntry<E> methodEntry : methodEntries.values()) {
+			for (SensorTypeEntry<E> sensorTypeEntry : methodEntry.sensorTypeEntries) {
+				E value = sensorTypeEntry.value;
+				if (null != value) {
+					collection.add(value);
+				}
+				ConcurrentHashMap<String, E> prefixedValues = sensorTypeEntry.prefixedValues;
+				if (null != prefixedValues) {
+					collection.addAll(prefixedValues.values());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all registered objects.
+	 */
+	public void clear() {
+		methodEntries.clear();
+	}
+
+	/**
+	 * Holds the sensor type entries of one method. As the amount of sensors on a method is small,
+	 * the entries are kept in the copy-on-write array that is searched linearly.
+	 *
+	 * @param <E>
+	 *            Type of objects in the registry.
+	 * @author agent
+	 *
+	 */
+	private static final class MethodEntry<E> {
+
+		/**
+		 * Sensor type entries of this method.
+		 */
+		@SuppressWarnings("unchecked")
+		private volatile SensorTypeEntry<E>[] sensorTypeEntries = new SensorTypeEntry[0];
+
+		/**
+		 * Returns the entry for the sensor type.
+		 *
+		 * @param sensorTypeId
+		 *            The sensor type id.
+		 * @return Entry or <code>null</code> if one does not exist.
+		 */
+		SensorTypeEntry<E> getSensorTypeEntry(long sensorTypeId) {
+			SensorTypeEntry<E>[] entries = sensorTypeEntries;
+			for (int i = 0; i < entries.length; i++) {
+				if (entries[i].sensorTypeId == sensorTypeId) {
+					return entries[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Returns the entry for the sensor type, creating one if it does not exist.
+		 *
+		 * @param sensorTypeId
+		 *            The sensor type id.
+		 * @return Entry for the sensor type.
+		 */
+		SensorTypeEntry<E> getOrCreateSensorTypeEntry(long sensorTypeId) {
+			SensorTypeEntry<E> entry = getSensorTypeEntry(sensorTypeId);
+			if (null != entry) {
+				return entry;
+			}
+
+			synchronized (this) {
+				entry = getSensorTypeEntry(sensorTypeId);
+				if (null == entry) {
+					SensorTypeEntry<E>[] entries = sensorTypeEntries;
+					@SuppressWarnings("unchecked")
+					SensorTypeEntry<E>[] newEntries = new SensorTypeEntry[entries.length + 1];
+					System.arraycopy(entries, 0, newEntries, 0, entries.length);
+					entry = new SensorTypeEntry<E>(sensorTypeId);
+					newEntries[entries.length] = entry;
+					sensorTypeEntries = newEntries;
+				}
+				return entry;
+			}
+		}
+	}
+
+	/**
+	 * Holds the object without prefix and the objects with prefix of one sensor type on one
+	 * method.
+	 *
+	 * @param <E>
+	 *            Type of objects in the registry.
+	 * @author agent
+	 *
+	 */
+	private static final class SensorTypeEntry<E> {
+
+		/**
+		 * The sensor type id.
+		 */
+		private final long sensorTypeId;
+
+		/**
+		 * Object registered without prefix.
+		 */
+		private volatile E value;
+
+		/**
+		 * Objects registered with prefix, created on demand.
+		 */
+		private volatile ConcurrentHashMap<String, E> prefixedValues;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param sensorTypeId
+		 *            The sensor type id.
+		 */
+		SensorTypeEntry(long sensorTypeId) {
+			this.sensorTypeId = sensorTypeId;
+		}
+
+		/**
+		 * Returns the map of the prefixed objects, creating one if it does not exist.
+		 *
+		 * @return Map of the prefixed objects.
+		 */
+		ConcurrentHashMap<String, E> getOrCreatePrefixedValues() {
+			ConcurrentHashMap<String, E> map = prefixedValues;
+			if (null == map) {
+				synchronized (this) {
+					map = prefixedValues;
+					if (null == map) {
+						map = new ConcurrentHashMap<String, E>();
+						prefixedValues = map;
+					}
+				}
+			}
+			return map;
+		}
+	}
+
+}
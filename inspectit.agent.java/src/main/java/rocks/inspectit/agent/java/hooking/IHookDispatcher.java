@@ -19,8 +19,31 @@ public interface IHookDispatcher {
 	 *            The instance of the class or the class itself.
 	 * @param parameters
 	 *            The parameters of the method.
+	 * @return The invocation context that has to be passed to the
+	 *         {@link #dispatchMethodAfterBody(long, Object, Object, Object[], Object)} or
+	 *         <code>null</code> if nothing was dispatched.
 	 */
-	void dispatchMethodBeforeBody(long id, Object object, Object[] parameters);
+	Object dispatchMethodBeforeBody(long id, Object object, Object[] parameters);
+
+	/**
+	 * Dispatches the first and the second 'after' method statement in one call. Uses the
+	 * invocation context returned by the {@link #dispatchMethodBeforeBody(long, Object, Object[])}
+	 * so that the sensor configuration and the invocation sequence state do not have to be looked
+	 * up again.
+	 *
+	 * @param id
+	 *            The id of the method.
+	 * @param context
+	 *            The invocation context returned by the before body dispatch. If
+	 *            <code>null</code> nothing will be dispatched.
+	 * @param object
+	 *            The instance of the class or the class itself.
+	 * @param parameters
+	 *            The parameters of the method.
+	 * @param returnValue
+	 *            The return value of the method.
+	 */
+	void dispatchMethodAfterBody(long id, Object context, Object object, Object[] parameters, Object returnValue);
 
 	/**
 	 * Dispatches the first 'after' method statement.
@@ -0,0 +1,27 @@
+package rocks.inspectit.agent.java.hooking;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+
+/**
+ * The overhead governor limits the overhead of the hooks on the frequently called methods. Based
+ * on the call rate and the measured hook cost it switches a method to the sampling, where the
+ * hooks are executed only on one of N calls, or to the count-only mode, where no hooks are
+ * executed.
+ *
+ * @author agent
+ *
+ */
+public interface IOverheadGovernor {
+
+	/**
+	 * Registers the method to be governed. Methods that start an invocation sequence are never
+	 * governed.
+	 *
+	 * @param id
+	 *            The id of the method.
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} of the method.
+	 */
+	void register(long id, RegisteredSensorConfig rsc);
+
+}
@@ -8,11 +8,13 @@ import org.springframework.stereotype.Component;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.config.impl.SpecialSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IEpochGuard;
 import rocks.inspectit.agent.java.hooking.IConstructorHook;
 import rocks.inspectit.agent.java.hooking.IHook;
 import rocks.inspectit.agent.java.hooking.IHookDispatcher;
 import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.hooking.IOverheadGovernor;
 import rocks.inspectit.agent.java.hooking.ISpecialHook;
 import rocks.inspectit.agent.java.sensor.exception.ExceptionSensor;
 import rocks.inspectit.agent.java.sensor.exception.IExceptionSensorHook;
@@ -44,6 +46,12 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	@Autowired
 	private ICoreService coreService;
 
+	/**
+	 * Guard of the data collection epochs of the core service.
+	 */
+	@Autowired
+	private IEpochGuard epochGuard;
+
 	/**
 	 * {@link InvocationSequenceSensor} directly auto-wired.
 	 */
@@ -56,6 +64,12 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	@Autowired
 	private ExceptionSensor exceptionSensor;
 
+	/**
+	 * Governor of the hook overhead.
+	 */
+	@Autowired
+	private IOverheadGovernor overheadGovernor;
+
 	/**
 	 * Contains all hooks. Using concurrent map as we need to enable thread-safety of
 	 * {@link #addMapping(long, RegisteredSensorConfig)}.
@@ -95,6 +109,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void addMapping(long id, RegisteredSensorConfig rsc) {
+		overheadGovernor.register(id, rsc);
 		mappings.put(id, rsc);
 	}
 
@@ -108,15 +123,40 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * If no invocation sequence is active the returned context is the
+	 * {@link RegisteredSensorConfig} of the method itself, otherwise the
+	 * {@link MethodInvocationContext} holding the sensor configuration and the invocation sequence
+	 * hook. Thus no object is created per invocation when no invocation sequence is active.
+	 * <p>
+	 * If the method is sampled by the {@link IOverheadGovernor} and the call is not in the sample,
+	 * no hooks are executed and <code>null</code> is returned, thus the after body is skipped as
+	 * well. Inside of an invocation sequence every call is executed.
 	 */
 	@Override
-	public void dispatchMethodBeforeBody(long id, Object object, Object[] parameters) {
+	public Object dispatchMethodBeforeBody(long id, Object object, Object[] parameters) {
+		Object context = null;
 		if (!executionMarker.isActive()) {
+			MethodOverhead methodOverhead = null;
+			long startTime = 0;
 			try {
 				executionMarker.active();
 
 				try {
 					RegisteredSensorConfig rsc = mappings.get(id);
+					IHook invocationHook = invocationSequenceHolder.get();
+
+					methodOverhead = rsc.getMethodOverhead();
+					if (null != methodOverhead) {
+						long call = methodOverhead.call();
+						// a call left out would be missing in the recorded invocation sequence
+						if ((null == invocationHook) && !methodOverhead.isSampled(call)) {
+							return null;
+						}
+						if (methodOverhead.isMeasured(call)) {
+							startTime = System.nanoTime();
+						}
+					}
 
 					if (rsc.isStartsInvocation()) {
 						// The sensor configuration contains an invocation sequence
@@ -126,18 +166,25 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 						// too.
 						invocationSequenceCount.increment();
 
-						if (null == invocationSequenceHolder.get()) {
-							invocationSequenceHolder.set(invocationSequenceSensor.getHook());
+						if (null == invocationHook) {
+							invocationHook = invocationSequenceSensor.getHook();
+							invocationSequenceHolder.set(invocationHook);
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != invocationHook) {
 						// We are executing the following sensor types in an invocation
 						// sequence context, thus we have to execute the before body
 						// method of the invocation sequence hook manually.
-						IMethodHook invocationHook = (IMethodHook) invocationSequenceHolder.get();
-
 						// The sensor type ID is not important here, thus we are passing
 						// a -1. It is already stored in the data object
-						invocationHook.beforeBody(id, -1, object, parameters, rsc);
+						((IMethodHook) invocationHook).beforeBody(id, -1, object, parameters, rsc);
+					}
+
+					// the invocation sequence hook can not change until the after body of this
+					// method, thus we can pass it in the context
+					if (null == invocationHook) {
+						context = rsc;
+					} else {
+						context = new MethodInvocationContext(rsc, invocationHook);
 					}
 
 					// Now iterate over all registered sensor types and execute them
@@ -151,33 +198,56 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				}
 			} finally {
 				executionMarker.deactive();
+				if (0 != startTime) {
+					methodOverhead.addBeforeBodyCost(System.nanoTime() - startTime);
+				}
 			}
 		}
+		return context;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void dispatchFirstMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue) {
-		if (!executionMarker.isActive()) {
+	public void dispatchMethodAfterBody(long id, Object context, Object object, Object[] parameters, Object returnValue) {
+		if ((null != context) && !executionMarker.isActive()) {
+			// register in the data collection epoch so that the data changed by the hooks is not
+			// sent in the meantime
+			Object epoch = epochGuard.enter();
+			MethodOverhead methodOverhead = null;
+			long startTime = 0;
 			try {
 				executionMarker.active();
 
 				try {
-					RegisteredSensorConfig rsc = mappings.get(id);
+					RegisteredSensorConfig rsc;
+					IHook invocationHook;
+					if (context instanceof MethodInvocationContext) {
+						MethodInvocationContext methodInvocationContext = (MethodInvocationContext) context;
+						rsc = methodInvocationContext.getRegisteredSensorConfig();
+						invocationHook = methodInvocationContext.getInvocationHook();
+					} else {
+						rsc = (RegisteredSensorConfig) context;
+						invocationHook = null;
+					}
 
-					// Now iterate over all registered sensor types and execute them
-					// normal execution (sensor with highest priority first)
-					for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
-						IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
-						methodHook.firstAfterBody(id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, rsc);
+					methodOverhead = rsc.getMethodOverhead();
+					if ((null != methodOverhead) && methodOverhead.isMeasured()) {
+						startTime = System.nanoTime();
 					}
+
+					firstMethodAfterBody(id, rsc, object, parameters, returnValue);
+					secondMethodAfterBody(id, rsc, invocationHook, object, parameters, returnValue);
 				} catch (Throwable throwable) { // NOPMD
 					log.error("An error happened in the Hook Dispatcher! (after body)", throwable);
 				}
 			} finally {
 				executionMarker.deactive();
+				epochGuard.leave(epoch);
+				if (0 != startTime) {
+					methodOverhead.addAfterBodyCost(System.nanoTime() - startTime);
+				}
 			}
 		}
 	}
@@ -186,60 +256,124 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void dispatchSecondMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue) {
+	public void dispatchFirstMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue) {
 		if (!executionMarker.isActive()) {
 			try {
 				executionMarker.active();
 
 				try {
-					RegisteredSensorConfig rsc = mappings.get(id);
-
-					if (null != invocationSequenceHolder.get()) {
-						// Need to replace the core service with the one from the invocation
-						// sequence so that all data objects can be associated to that invocation
-						// record.
-						ICoreService invocCoreService = (ICoreService) invocationSequenceHolder.get();
-
-						// Now iterate over all registered sensor types and execute them
-						// normal execution (sensor with highest priority first)
-						for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
-							IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
-							// the invocation sequence sensor needs the original core service!
-							long sensorId = methodSensor.getSensorTypeConfig().getId();
-							if (invocCoreService == methodHook) { // NOPMD
-								methodHook.secondAfterBody(coreService, id, sensorId, object, parameters, returnValue, rsc);
-							} else {
-								methodHook.secondAfterBody(invocCoreService, id, sensorId, object, parameters, returnValue, rsc);
-							}
-						}
-					} else {
-						for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
-							IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
-							methodHook.secondAfterBody(coreService, id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, rsc);
-						}
-					}
-
-					if (rsc.isStartsInvocation()) {
-						invocationSequenceCount.decrement();
+					firstMethodAfterBody(id, mappings.get(id), object, parameters, returnValue);
+				} catch (Throwable throwable) { // NOPMD
+					log.error("An error happened in the Hook Dispatcher! (after body)", throwable);
+				}
+			} finally {
+				executionMarker.deactive();
+			}
+		}
+	}
 
-						if (0 == invocationSequenceCount.getCount()) {
-							invocationSequenceHolder.set(null);
-						}
-					} else if (null != invocationSequenceHolder.get()) {
-						// We have to execute the after body method of the invocation sequence hook
-						// manually.
-						IMethodHook invocationHook = (IMethodHook) invocationSequenceHolder.get();
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispatchSecondMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue) {
+		if (!executionMarker.isActive()) {
+			// register in the data collection epoch so that the data changed by the hooks is not
+			// sent in the meantime
+			Object epoch = epochGuard.enter();
+			try {
+				executionMarker.active();
 
-						// The sensor type ID is not important here, thus we are passing a -1. It is
-						// already stored in the data object
-						invocationHook.secondAfterBody(coreService, id, -1, object, parameters, returnValue, rsc);
-					}
+				try {
+					secondMethodAfterBody(id, mappings.get(id), invocationSequenceHolder.get(), object, parameters, returnValue);
 				} catch (Throwable throwable) { // NOPMD
 					log.error("An error happened in the Hook Dispatcher! (second after body)", throwable);
 				}
 			} finally {
 				executionMarker.deactive();
+				epochGuard.leave(epoch);
+			}
+		}
+	}
+
+	/**
+	 * Executes the first after body of all method hooks.
+	 *
+	 * @param id
+	 *            The id of the method.
+	 * @param rsc
+	 *            The sensor configuration of the method.
+	 * @param object
+	 *            The instance of the class or the class itself.
+	 * @param parameters
+	 *            The parameters of the method.
+	 * @param returnValue
+	 *            The return value of the method.
+	 */
+	private void firstMethodAfterBody(long id, RegisteredSensorConfig rsc, Object object, Object[] parameters, Object returnValue) {
+		// Now iterate over all registered sensor types and execute them
+		// normal execution (sensor with highest priority first)
+		for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
+			IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
+			methodHook.firstAfterBody(id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, rsc);
+		}
+	}
+
+	/**
+	 * Executes the second after body of all method hooks and of the invocation sequence hook if
+	 * one is active.
+	 *
+	 * @param id
+	 *            The id of the method.
+	 * @param rsc
+	 *            The sensor configuration of the method.
+	 * @param invocationHook
+	 *            Currently active invocation sequence hook or <code>null</code> if there is none.
+	 * @param object
+	 *            The instance of the class or the class itself.
+	 * @param parameters
+	 *            The parameters of the method.
+	 * @param returnValue
+	 *            The return value of the method.
+	 */
+	private void secondMethodAfterBody(long id, RegisteredSensorConfig rsc, IHook invocationHook, Object object, Object[] parameters, Object returnValue) {
+		if (null != invocationHook) {
+			// Need to replace the core service with the one from the invocation
+			// sequence so that all data objects can be associated to that invocation
+			// record.
+			ICoreService invocCoreService = (ICoreService) invocationHook;
+
+			// Now iterate over all registered sensor types and execute them
+			// normal execution (sensor with highest priority first)
+			for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
+				IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
+				// the invocation sequence sensor needs the original core service!
+				long sensorId = methodSensor.getSensorTypeConfig().getId();
+				if (invocCoreService == methodHook) { // NOPMD
+					methodHook.secondAfterBody(coreService, id, sensorId, object, parameters, returnValue, rsc);
+				} else {
+					methodHook.secondAfterBody(invocCoreService, id, sensorId, object, parameters, returnValue, rsc);
+				}
+			}
+		} else {
+			for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
+				IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
+				methodHook.secondAfterBody(coreService, id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, rsc);
+			}
+		}
+
+		if (rsc.isStartsInvocation()) {
+			invocationSequenceCount.decrement();
+
+			if (0 == invocationSequenceCount.getCount()) {
+				invocationSequenceHolder.set(null);
 			}
+		} else if (null != invocationHook) {
+			// We have to execute the after body method of the invocation sequence hook
+			// manually.
+			// The sensor type ID is not important here, thus we are passing a -1. It is
+			// already stored in the data object
+			((IMethodHook) invocationHook).secondAfterBody(coreService, id, -1, object, parameters, returnValue, rsc);
 		}
 	}
 
@@ -249,6 +383,9 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	@Override
 	public void dispatchOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
 		if (!executionMarker.isActive()) {
+			// register in the data collection epoch so that the data changed by the hooks is not
+			// sent in the meantime
+			Object epoch = epochGuard.enter();
 			try {
 				executionMarker.active();
 
@@ -272,6 +409,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				}
 			} finally {
 				executionMarker.deactive();
+				epochGuard.leave(epoch);
 			}
 		}
 	}
@@ -282,6 +420,9 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	@Override
 	public void dispatchBeforeCatch(long id, Object exceptionObject) {
 		if (!executionMarker.isActive()) {
+			// register in the data collection epoch so that the data changed by the hooks is not
+			// sent in the meantime
+			Object epoch = epochGuard.enter();
 			try {
 				executionMarker.active();
 
@@ -304,6 +445,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				}
 			} finally {
 				executionMarker.deactive();
+				epochGuard.leave(epoch);
 			}
 		}
 	}
@@ -314,6 +456,9 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	@Override
 	public void dispatchConstructorOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
 		if (!executionMarker.isActive()) {
+			// register in the data collection epoch so that the data changed by the hooks is not
+			// sent in the meantime
+			Object epoch = epochGuard.enter();
 			try {
 				executionMarker.active();
 
@@ -337,6 +482,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				}
 			} finally {
 				executionMarker.deactive();
+				epochGuard.leave(epoch);
 			}
 		}
 	}
@@ -347,6 +493,9 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	@Override
 	public void dispatchConstructorBeforeCatch(long id, Object exceptionObject) {
 		if (!executionMarker.isActive()) {
+			// register in the data collection epoch so that the data changed by the hooks is not
+			// sent in the meantime
+			Object epoch = epochGuard.enter();
 			try {
 				executionMarker.active();
 
@@ -370,6 +519,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				}
 			} finally {
 				executionMarker.deactive();
+				epochGuard.leave(epoch);
 			}
 		}
 	}
@@ -427,6 +577,9 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	@Override
 	public void dispatchConstructorAfterBody(long id, Object object, Object[] parameters) {
 		if (!executionMarker.isActive()) {
+			// register in the data collection epoch so that the data changed by the hooks is not
+			// sent in the meantime
+			Object epoch = epochGuard.enter();
 			try {
 				executionMarker.active();
 
@@ -477,6 +630,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				}
 			} finally {
 				executionMarker.deactive();
+				epochGuard.leave(epoch);
 			}
 		}
 	}
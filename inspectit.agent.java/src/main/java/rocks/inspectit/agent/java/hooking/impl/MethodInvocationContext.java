@@ -0,0 +1,61 @@
+package rocks.inspectit.agent.java.hooking.impl;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.hooking.IHook;
+
+/**
+ * Context of one method invocation passed from the before body dispatch to the after body
+ * dispatch of the {@link HookDispatcher}. Holds the sensor configuration of the method and the
+ * invocation sequence hook that was active when the method was entered, so that the after body
+ * dispatch does not have to look them up again.
+ * <p>
+ * Only created when an invocation sequence is active, otherwise the
+ * {@link RegisteredSensorConfig} itself is used as the context.
+ *
+ * @author agent
+ *
+ */
+final class MethodInvocationContext {
+
+	/**
+	 * Sensor configuration of the invoked method.
+	 */
+	private final RegisteredSensorConfig registeredSensorConfig;
+
+	/**
+	 * Active invocation sequence hook.
+	 */
+	private final IHook invocationHook;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param registeredSensorConfig
+	 *            Sensor configuration of the invoked method.
+	 * @param invocationHook
+	 *            Active invocation sequence hook.
+	 */
+	MethodInvocationContext(RegisteredSensorConfig registeredSensorConfig, IHook invocationHook) {
+		this.registeredSensorConfig = registeredSensorConfig;
+		this.invocationHook = invocationHook;
+	}
+
+	/**
+	 * Gets {@link #registeredSensorConfig}.
+	 *
+	 * @return {@link #registeredSensorConfig}
+	 */
+	RegisteredSensorConfig getRegisteredSensorConfig() {
+		return registeredSensorConfig;
+	}
+
+	/**
+	 * Gets {@link #invocationHook}.
+	 *
+	 * @return {@link #invocationHook}
+	 */
+	IHook getInvocationHook() {
+		return invocationHook;
+	}
+
+}
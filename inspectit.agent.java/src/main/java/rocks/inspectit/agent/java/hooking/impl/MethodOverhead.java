@@ -0,0 +1,306 @@
+package rocks.inspectit.agent.java.hooking.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Overhead statistics and the sampling decision of one instrumented method, updated by the
+ * {@link HookDispatcher} on every call and evaluated by the {@link OverheadGovernor}.
+ * <p>
+ * The counters are kept in cells selected by the thread id (same as in the
+ * <code>StripedTimerStorage</code>), so that threads calling the same method do not compete for
+ * one cache line and no update is lost. Calls are numbered per cell, thus the sampling and the
+ * measuring of the hook cost on every {@value #MEASURED_CALLS}th call are done per cell as well.
+ * The cells are only summed up by the {@link OverheadGovernor}.
+ *
+ * @author agent
+ *
+ */
+public class MethodOverhead {
+
+	/**
+	 * Sampling rate of the methods in the count-only mode, where no hooks are executed.
+	 */
+	public static final int COUNT_ONLY = 0;
+
+	/**
+	 * Every n-th call has the hook cost measured. Must be a power of two.
+	 */
+	private static final int MEASURED_CALLS = 64;
+
+	/**
+	 * Max amount of cells.
+	 */
+	private static final int MAX_CELLS = 64;
+
+	/**
+	 * Amount of cells, next power of two of the double amount of the available processors.
+	 */
+	private static final int CELLS;
+
+	/**
+	 * Index of the amount of calls in the cell.
+	 */
+	private static final int CALLS = 0;
+
+	/**
+	 * Index of the amount of calls that had the hook cost measured in the cell.
+	 */
+	private static final int MEASURED = 1;
+
+	/**
+	 * Index of the hook cost of the measured calls in nanoseconds in the cell.
+	 */
+	private static final int MEASURED_NANOS = 2;
+
+	/**
+	 * Size of the cell array. Bigger than needed so that two cells never share a cache line.
+	 */
+	private static final int CELL_SIZE = 16;
+
+	static {
+		int cells = 1;
+		int wanted = Runtime.getRuntime().availableProcessors() << 1;
+		while ((cells < wanted) && (cells < MAX_CELLS)) {
+			cells <<= 1;
+		}
+		CELLS = cells;
+	}
+
+	/**
+	 * ID of the method.
+	 */
+	private final long methodId;
+
+	/**
+	 * Sampling rate. <code>1</code> for executing the hooks on every call, <code>N</code> for
+	 * executing them on one of <code>N</code> calls (always a power of two) and
+	 * {@link #COUNT_ONLY} for not executing them at all.
+	 */
+	private volatile int samplingRate = 1;
+
+	/**
+	 * Lazily created cells holding the counters.
+	 */
+	private final AtomicReferenceArray<AtomicLongArray> cells = new AtomicReferenceArray<AtomicLongArray>(CELLS);
+
+	/**
+	 * Amount of calls at the last evaluation.
+	 */
+	private long evaluatedCalls;
+
+	/**
+	 * Amount of measured calls at the last evaluation.
+	 */
+	private long evaluatedMeasuredCalls;
+
+	/**
+	 * Hook cost of the measured calls at the last evaluation.
+	 */
+	private long evaluatedMeasuredNanos;
+
+	/**
+	 * Average hook cost of one call in nanoseconds at the last evaluation.
+	 */
+	private double averageCost;
+
+	/**
+	 * Calls per second at the last evaluation.
+	 */
+	private double callRate;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param methodId
+	 *            ID of the method.
+	 */
+	public MethodOverhead(long methodId) {
+		this.methodId = methodId;
+	}
+
+	/**
+	 * Counts the new call.
+	 *
+	 * @return Number of the call in the cell of the current thread.
+	 */
+	public long call() {
+		return getCell().incrementAndGet(CALLS);
+	}
+
+	/**
+	 * Returns if the hooks should be executed for the call with the given number.
+	 *
+	 * @param call
+	 *            Number of the call.
+	 * @return Returns if the hooks should be executed for the call with the given number.
+	 */
+	public boolean isSampled(long call) {
+		int rate = samplingRate;
+		if (1 == rate) {
+			return true;
+		} else if (COUNT_ONLY == rate) {
+			return false;
+		} else {
+			return 0 == (call & (rate - 1));
+		}
+	}
+
+	/**
+	 * Returns if the hook cost should be measured for the call with the given number.
+	 *
+	 * @param call
+	 *            Number of the call.
+	 * @return Returns if the hook cost should be measured for the call with the given number.
+	 */
+	public boolean isMeasured(long call) {
+		return 0 == (call & (MEASURED_CALLS - 1));
+	}
+
+	/**
+	 * Returns if the hook cost should be measured for the last counted call. Used in the after
+	 * body, where the number of the call is not known.
+	 *
+	 * @return Returns if the hook cost should be measured for the last counted call.
+	 */
+	public boolean isMeasured() {
+		return isMeasured(getCell().get(CALLS));
+	}
+
+	/**
+	 * Adds the measured hook cost of the before body of one call.
+	 *
+	 * @param nanos
+	 *            Cost in nanoseconds.
+	 */
+	public void addBeforeBodyCost(long nanos) {
+		AtomicLongArray cell = getCell();
+		cell.incrementAndGet(MEASURED);
+		cell.addAndGet(MEASURED_NANOS, nanos);
+	}
+
+	/**
+	 * Adds the measured hook cost of the after body of one call.
+	 *
+	 * @param nanos
+	 *            Cost in nanoseconds.
+	 */
+	public void addAfterBodyCost(long nanos) {
+		getCell().addAndGet(MEASURED_NANOS, nanos);
+	}
+
+	/**
+	 * Returns the amount of calls since the last invocation of this method.
+	 *
+	 * @return Amount of calls since the last invocation of this method.
+	 */
+	long takeCalls() {
+		long current = sum(CALLS);
+		long result = current - evaluatedCalls;
+		evaluatedCalls = current;
+		return Math.max(0L, result);
+	}
+
+	/**
+	 * Returns the average hook cost of one call measured since the last invocation of this method.
+	 * If nothing was measured in the meantime, the last known average is returned.
+	 *
+	 * @return Average hook cost of one call in nanoseconds.
+	 */
+	double takeAverageCost() {
+		long currentCalls = sum(MEASURED);
+		long currentNanos = sum(MEASURED_NANOS);
+		long count = currentCalls - evaluatedMeasuredCalls;
+		if (count > 0) {
+			averageCost = (double) (currentNanos - evaluatedMeasuredNanos) / count;
+			evaluatedMeasuredCalls = currentCalls;
+			evaluatedMeasuredNanos = currentNanos;
+		}
+		return averageCost;
+	}
+
+	/**
+	 * Sums the counter with the given index over all cells.
+	 *
+	 * @param index
+	 *            Index of the counter in the cell.
+	 * @return Sum of the counter.
+	 */
+	private long sum(int index) {
+		long sum = 0;
+		for (int i = 0; i < CELLS; i++) {
+			AtomicLongArray cell = cells.get(i);
+			if (null != cell) {
+				sum += cell.get(index);
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the cell of the current thread, creates one if it does not exist.
+	 *
+	 * @return Cell of the current thread.
+	 */
+	private AtomicLongArray getCell() {
+		int index = (int) Thread.currentThread().getId() & (CELLS - 1);
+		AtomicLongArray cell = cells.get(index);
+		if (null == cell) {
+			AtomicLongArray newCell = new AtomicLongArray(CELL_SIZE);
+			if (cells.compareAndSet(index, null, newCell)) {
+				cell = newCell;
+			} else {
+				cell = cells.get(index);
+			}
+		}
+		return cell;
+	}
+
+	/**
+	 * Gets {@link #methodId}.
+	 *
+	 * @return {@link #methodId}
+	 */
+	public long getMethodId() {
+		return methodId;
+	}
+
+	/**
+	 * Gets {@link #callRate}.
+	 *
+	 * @return {@link #callRate}
+	 */
+	double getCallRate() {
+		return callRate;
+	}
+
+	/**
+	 * Sets {@link #callRate}.
+	 *
+	 * @param callRate
+	 *            New value for {@link #callRate}
+	 */
+	void setCallRate(double callRate) {
+		this.callRate = callRate;
+	}
+
+	/**
+	 * Gets {@link #samplingRate}.
+	 *
+	 * @return {@link #samplingRate}
+	 */
+	public int getSamplingRate() {
+		return samplingRate;
+	}
+
+	/**
+	 * Sets {@link #samplingRate}.
+	 *
+	 * @param samplingRate
+	 *            New value for {@link #samplingRate}
+	 */
+	void setSamplingRate(int samplingRate) {
+		this.samplingRate = samplingRate;
+	}
+
+}
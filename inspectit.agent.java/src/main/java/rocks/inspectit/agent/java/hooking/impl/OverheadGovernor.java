@@ -0,0 +1,464 @@
+package rocks.inspectit.agent.java.hooking.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.config.StorageException;
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.connection.ServerUnavailableException;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.core.IdNotAvailableException;
+import rocks.inspectit.agent.java.hooking.IOverheadGovernor;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Governor that keeps the overhead of the hooks under the budgets defined in the agent
+ * configuration. Once per second the call rate and the hook cost of every registered method are
+ * evaluated:
+ * <ul>
+ * <li>A method called more often than the call rate budget is sampled, so that the hooks are
+ * executed at most as often as the budget allows.</li>
+ * <li>If the time spent in the hooks of all methods is over the overhead budget, the sampling
+ * rate of the most expensive methods is doubled until the estimated time fits the budget. Methods
+ * that would need a sampling rate higher than {@value #MAX_SAMPLING_RATE} are only counted.</li>
+ * <li>If the time spent in the hooks is below the half of the overhead budget, the sampling rates
+ * are halved again.</li>
+ * </ul>
+ * The decisions are reported to the CMR when they change and periodically while any method is
+ * governed.
+ *
+ * @author agent
+ *
+ */
+@Component
+public class OverheadGovernor implements IOverheadGovernor, InitializingBean, DisposableBean {
+
+	/**
+	 * Highest sampling rate before a method is only counted.
+	 */
+	static final int MAX_SAMPLING_RATE = 1024;
+
+	/**
+	 * Evaluation period in milliseconds.
+	 */
+	private static final long PERIOD = 1000L;
+
+	/**
+	 * Amount of periods after which the governed methods are reported again.
+	 */
+	private static final int REPORT_PERIODS = 30;
+
+	/**
+	 * Nanoseconds in one millisecond.
+	 */
+	private static final double NANOS_IN_MILLI = 1000000d;
+
+	/**
+	 * Nanoseconds in one second.
+	 */
+	private static final double NANOS_IN_SECOND = 1000000000d;
+
+	/**
+	 * Runnable which governs the methods.
+	 */
+	private final Runnable governorRunner = new Runnable() {
+		public void run() {
+			try {
+				govern();
+			} catch (Throwable throwable) { // NOPMD
+				log.error("Error governing the overhead of the instrumented methods.", throwable);
+			}
+		}
+	};
+
+	/**
+	 * The logger of the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Configuration storage to read the budgets from.
+	 */
+	@Autowired
+	IConfigurationStorage configurationStorage;
+
+	/**
+	 * Connection to report the governed methods.
+	 */
+	@Autowired
+	IConnection connection;
+
+	/**
+	 * Platform manager.
+	 */
+	@Autowired
+	IPlatformManager platformManager;
+
+	/**
+	 * Core-service executor service.
+	 */
+	@Autowired
+	@Qualifier("coreServiceExecutorService")
+	ScheduledExecutorService executorService;
+
+	/**
+	 * Overhead statistics of the governed methods.
+	 */
+	private final NonBlockingHashMapLong<MethodOverhead> methods = new NonBlockingHashMapLong<MethodOverhead>();
+
+	/**
+	 * ScheduledFuture representing the pending governing task.
+	 */
+	private ScheduledFuture<?> scheduledTask;
+
+	/**
+	 * Time in nanoseconds of the last evaluation.
+	 */
+	private long lastEvaluation = System.nanoTime();
+
+	/**
+	 * Periods since the last report.
+	 */
+	private int periodsSinceReport;
+
+	/**
+	 * If the governed methods changed since the last successful report.
+	 */
+	private boolean reportPending;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void register(long id, RegisteredSensorConfig rsc) {
+		if (rsc.isStartsInvocation()) {
+			rsc.setMethodOverhead(null);
+			methods.remove(id);
+			return;
+		}
+
+		MethodOverhead methodOverhead = methods.get(id);
+		if (null == methodOverhead) {
+			methodOverhead = new MethodOverhead(id);
+			methods.put(id, methodOverhead);
+		}
+		rsc.setMethodOverhead(methodOverhead);
+	}
+
+	/**
+	 * Evaluates all methods, changes the sampling rates and reports the changes to the CMR.
+	 */
+	void govern() {
+		int callRateBudget;
+		double overheadBudget;
+		try {
+			callRateBudget = configurationStorage.getGovernorCallRateBudget();
+			overheadBudget = configurationStorage.getGovernorOverheadBudget() * NANOS_IN_MILLI;
+		} catch (StorageException e) {
+			// not registered yet
+			return;
+		}
+
+		long now = System.nanoTime();
+		double seconds = Math.max(1L, now - lastEvaluation) / NANOS_IN_SECOND;
+		lastEvaluation = now;
+
+		if (adjustSamplingRates(callRateBudget, overheadBudget, seconds)) {
+			reportPending = true;
+		}
+
+		periodsSinceReport++;
+		if (reportPending || ((periodsSinceReport >= REPORT_PERIODS) && isAnyGoverned())) {
+			report();
+		}
+	}
+
+	/**
+	 * Computes the new sampling rates of all methods.
+	 *
+	 * @param callRateBudget
+	 *            Max calls per second of one method executed with the hooks, zero or negative for
+	 *            no limit.
+	 * @param overheadBudget
+	 *            Max nanoseconds per second spent in the hooks of all methods, zero or negative
+	 *            for no limit.
+	 * @param seconds
+	 *            Seconds since the last evaluation.
+	 * @return If any sampling rate was changed.
+	 */
+	boolean adjustSamplingRates(int callRateBudget, double overheadBudget, double seconds) {
+		List<Evaluation> evaluations = new ArrayList<Evaluation>(methods.size());
+		double currentSpent = 0;
+		for (MethodOverhead methodOverhead : methods.values()) {
+			Evaluation evaluation = new Evaluation(methodOverhead, methodOverhead.takeCalls() / seconds, methodOverhead.takeAverageCost());
+			evaluation.setSamplingRate(methodOverhead.getSamplingRate());
+			currentSpent += evaluation.spent;
+			evaluations.add(evaluation);
+		}
+
+		// relax if there is enough room, but never above the call rate budget
+		boolean relax = (overheadBudget <= 0) || (currentSpent < (overheadBudget / 2));
+		double spent = 0;
+		for (Evaluation evaluation : evaluations) {
+			int samplingRate = evaluation.samplingRate;
+			if (relax) {
+				samplingRate = looser(samplingRate);
+			}
+			if (callRateBudget > 0) {
+				samplingRate = stricter(samplingRate, requiredSamplingRate(evaluation.callRate, callRateBudget));
+			}
+			evaluation.setSamplingRate(samplingRate);
+			spent += evaluation.spent;
+		}
+
+		// sample the most expensive methods until the overhead fits the budget
+		if ((overheadBudget > 0) && (spent > overheadBudget)) {
+			PriorityQueue<Evaluation> queue = new PriorityQueue<Evaluation>(Math.max(1, evaluations.size()), new Comparator<Evaluation>() {
+				public int compare(Evaluation o1, Evaluation o2) {
+					return Double.compare(o2.spent, o1.spent);
+				}
+			});
+			for (Evaluation evaluation : evaluations) {
+				if (evaluation.spent > 0) {
+					queue.add(evaluation);
+				}
+			}
+
+			while ((spent > overheadBudget) && !queue.isEmpty()) {
+				Evaluation evaluation = queue.poll();
+				spent -= evaluation.spent;
+				evaluation.setSamplingRate(stricter(evaluation.samplingRate));
+				spent += evaluation.spent;
+				if (evaluation.spent > 0) {
+					queue.add(evaluation);
+				}
+			}
+		}
+
+		boolean changed = false;
+		for (Evaluation evaluation : evaluations) {
+			MethodOverhead methodOverhead = evaluation.methodOverhead;
+			if (methodOverhead.getSamplingRate() != evaluation.samplingRate) {
+				methodOverhead.setSamplingRate(evaluation.samplingRate);
+				changed = true;
+
+				if (log.isDebugEnabled()) {
+					log.debug("Sampling rate of the method " + methodOverhead.getMethodId() + " changed to " + evaluation.samplingRate + " with " + Math.round(evaluation.callRate)
+							+ " calls per second.");
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Reports the governed methods to the CMR.
+	 */
+	private void report() {
+		Map<Long, long[]> governedMethods = new HashMap<Long, long[]>();
+		for (MethodOverhead methodOverhead : methods.values()) {
+			int samplingRate = methodOverhead.getSamplingRate();
+			if (1 != samplingRate) {
+				governedMethods.put(Long.valueOf(methodOverhead.getMethodId()), new long[] { samplingRate, Math.round(methodOverhead.getCallRate()) });
+			}
+		}
+
+		try {
+			if (connection.isConnected()) {
+				connection.overheadGoverned(platformManager.getPlatformId(), governedMethods);
+				reportPending = false;
+				periodsSinceReport = 0;
+			}
+		} catch (IdNotAvailableException e) {
+			if (log.isDebugEnabled()) {
+				log.debug("Governed methods could not be reported. No platform id available.", e);
+			}
+		} catch (ServerUnavailableException e) {
+			if (log.isDebugEnabled()) {
+				log.debug("Governed methods could not be reported. Server not available.", e);
+			}
+		}
+	}
+
+	/**
+	 * Returns if any method is currently sampled or only counted.
+	 *
+	 * @return Returns if any method is currently sampled or only counted.
+	 */
+	private boolean isAnyGoverned() {
+		for (MethodOverhead methodOverhead : methods.values()) {
+			if (1 != methodOverhead.getSamplingRate()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the smallest sampling rate that keeps the executed calls under the budget.
+	 *
+	 * @param callRate
+	 *            Calls per second.
+	 * @param callRateBudget
+	 *            Max executed calls per second.
+	 * @return Sampling rate, never higher than {@link #MAX_SAMPLING_RATE}.
+	 */
+	static int requiredSamplingRate(double callRate, int callRateBudget) {
+		int samplingRate = 1;
+		while ((samplingRate < MAX_SAMPLING_RATE) && ((callRate / samplingRate) > callRateBudget)) {
+			samplingRate <<= 1;
+		}
+		return samplingRate;
+	}
+
+	/**
+	 * Returns the stricter of the two sampling rates.
+	 *
+	 * @param samplingRate
+	 *            First sampling rate.
+	 * @param otherSamplingRate
+	 *            Second sampling rate.
+	 * @return The stricter of the two sampling rates.
+	 */
+	static int stricter(int samplingRate, int otherSamplingRate) {
+		if ((MethodOverhead.COUNT_ONLY == samplingRate) || (MethodOverhead.COUNT_ONLY == otherSamplingRate)) {
+			return MethodOverhead.COUNT_ONLY;
+		}
+		return Math.max(samplingRate, otherSamplingRate);
+	}
+
+	/**
+	 * Returns the next stricter sampling rate.
+	 *
+	 * @param samplingRate
+	 *            Sampling rate.
+	 * @return Doubled sampling rate or {@link MethodOverhead#COUNT_ONLY} if the
+	 *         {@link #MAX_SAMPLING_RATE} is already reached.
+	 */
+	static int stricter(int samplingRate) {
+		if ((MethodOverhead.COUNT_ONLY == samplingRate) || (samplingRate >= MAX_SAMPLING_RATE)) {
+			return MethodOverhead.COUNT_ONLY;
+		}
+		return samplingRate << 1;
+	}
+
+	/**
+	 * Returns the next looser sampling rate.
+	 *
+	 * @param samplingRate
+	 *            Sampling rate.
+	 * @return Halved sampling rate or {@link #MAX_SAMPLING_RATE} for the count-only methods.
+	 */
+	static int looser(int samplingRate) {
+		if (MethodOverhead.COUNT_ONLY == samplingRate) {
+			return MAX_SAMPLING_RATE;
+		}
+		return Math.max(1, samplingRate >> 1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Starts the governing.
+	 */
+	public void afterPropertiesSet() throws Exception {
+		if (null == scheduledTask) {
+			scheduledTask = executorService.scheduleAtFixedRate(governorRunner, PERIOD, PERIOD, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Stops the governing.
+	 */
+	public void destroy() throws Exception {
+		if (null != scheduledTask) {
+			scheduledTask.cancel(false);
+		}
+	}
+
+	/**
+	 * Evaluation of one method in one period.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static class Evaluation {
+
+		/**
+		 * Overhead statistics of the method.
+		 */
+		private final MethodOverhead methodOverhead;
+
+		/**
+		 * Calls per second.
+		 */
+		private final double callRate;
+
+		/**
+		 * Average hook cost of one executed call in nanoseconds.
+		 */
+		private final double cost;
+
+		/**
+		 * Sampling rate.
+		 */
+		private int samplingRate;
+
+		/**
+		 * Estimated nanoseconds per second spent in the hooks with the {@link #samplingRate}.
+		 */
+		private double spent;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param methodOverhead
+		 *            Overhead statistics of the method.
+		 * @param callRate
+		 *            Calls per second.
+		 * @param cost
+		 *            Average hook cost of one executed call in nanoseconds.
+		 */
+		Evaluation(MethodOverhead methodOverhead, double callRate, double cost) {
+			this.methodOverhead = methodOverhead;
+			this.callRate = callRate;
+			this.cost = cost;
+			methodOverhead.setCallRate(callRate);
+		}
+
+		/**
+		 * Sets the sampling rate and estimates the time spent with it.
+		 *
+		 * @param samplingRate
+		 *            Sampling rate.
+		 */
+		void setSamplingRate(int samplingRate) {
+			this.samplingRate = samplingRate;
+			if (MethodOverhead.COUNT_ONLY == samplingRate) {
+				this.spent = 0;
+			} else {
+				this.spent = (callRate / samplingRate) * cost;
+			}
+		}
+	}
+
+}
@@ -33,6 +33,19 @@ public abstract class AbstractMethodInstrumenter extends AdviceAdapter {
 	 */
 	protected boolean enhancedExceptionSensor;
 
+	/**
+	 * If the parameters of the method must be passed to the dispatcher. If not, <code>null</code>
+	 * is passed instead of the parameter array, so no array is created and no primitive is boxed.
+	 */
+	protected boolean parametersNeeded;
+
+	/**
+	 * If the return value of the method must be passed to the dispatcher. If not,
+	 * <code>null</code> is passed instead of the return value, so that primitive results are not
+	 * boxed.
+	 */
+	protected boolean returnValueNeeded;
+
 	/**
 	 * The label for the start of the try/finally or try/catch/finally block that we are adding.
 	 */
@@ -71,9 +84,37 @@ public abstract class AbstractMethodInstrumenter extends AdviceAdapter {
 	 *            Marker declaring if enhanced exception sensor is active.
 	 */
 	protected AbstractMethodInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor) {
+		this(mv, access, name, desc, methodId, enhancedExceptionSensor, true, true);
+	}
+
+	/**
+	 * Constructor that additionally defines if the parameters and the return value of the method
+	 * must be passed to the dispatcher.
+	 *
+	 * @param mv
+	 *            Super method visitor.
+	 * @param access
+	 *            Method access code.
+	 * @param name
+	 *            Method name.
+	 * @param desc
+	 *            Method description.
+	 * @param methodId
+	 *            Method id that will be passed to {@link IHookDispatcher}.
+	 * @param enhancedExceptionSensor
+	 *            Marker declaring if enhanced exception sensor is active.
+	 * @param parametersNeeded
+	 *            If parameters must be passed to the dispatcher.
+	 * @param returnValueNeeded
+	 *            If return value must be passed to the dispatcher.
+	 */
+	protected AbstractMethodInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor, boolean parametersNeeded,
+			boolean returnValueNeeded) {
 		super(Opcodes.ASM5, mv, access, name, desc);
 		this.methodId = methodId;
 		this.enhancedExceptionSensor = enhancedExceptionSensor;
+		this.parametersNeeded = parametersNeeded;
+		this.returnValueNeeded = returnValueNeeded;
 		this.isStatic = (access & Opcodes.ACC_STATIC) != 0;
 	}
 
@@ -129,6 +170,18 @@ public abstract class AbstractMethodInstrumenter extends AdviceAdapter {
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IAGENT_INTERNAL_NAME, "getHookDispatcher", IInstrumenterConstant.GET_IHOOK_DISPATCHER_DESCRIPTOR, true);
 	}
 
+	/**
+	 * Pushes the parameter array to the stack if the parameters are needed, otherwise pushes
+	 * <code>null</code>.
+	 */
+	protected void loadArgArrayIfNeeded() {
+		if (parametersNeeded) {
+			loadArgArray();
+		} else {
+			pushNull();
+		}
+	}
+
 	/**
 	 * Pushes null to stack.
 	 */
@@ -154,4 +207,22 @@ public abstract class AbstractMethodInstrumenter extends AdviceAdapter {
 		return this.enhancedExceptionSensor;
 	}
 
+	/**
+	 * Gets {@link #parametersNeeded}.
+	 *
+	 * @return {@link #parametersNeeded}
+	 */
+	public boolean isParametersNeeded() {
+		return this.parametersNeeded;
+	}
+
+	/**
+	 * Gets {@link #returnValueNeeded}.
+	 *
+	 * @return {@link #returnValueNeeded}
+	 */
+	public boolean isReturnValueNeeded() {
+		return this.returnValueNeeded;
+	}
+
 }
@@ -35,6 +35,30 @@ public class ConstructorInstrumenter extends AbstractMethodInstrumenter {
 		super(mv, access, name, desc, methodId, enhancedExceptionSensor);
 	}
 
+	/**
+	 * Constructor that additionally defines if the parameters of the constructor must be passed to
+	 * the dispatcher. If not, <code>null</code> is passed instead, thus the instrumented
+	 * constructor does not create the parameter array.
+	 *
+	 * @param mv
+	 *            Super method visitor.
+	 * @param access
+	 *            Method access code.
+	 * @param name
+	 *            Method name.
+	 * @param desc
+	 *            Method description.
+	 * @param methodId
+	 *            Method id that will be passed to {@link IHookDispatcher}.
+	 * @param enhancedExceptionSensor
+	 *            Marker declaring if enhanced exception sensor is active.
+	 * @param parametersNeeded
+	 *            If parameters must be passed to the dispatcher.
+	 */
+	public ConstructorInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor, boolean parametersNeeded) {
+		super(mv, access, name, desc, methodId, enhancedExceptionSensor, parametersNeeded, false);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -122,7 +146,7 @@ public class ConstructorInstrumenter extends AbstractMethodInstrumenter {
 		push(methodId);
 
 		// then parameters
-		loadArgArray();
+		loadArgArrayIfNeeded();
 
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchConstructorBeforeBody",
 				IInstrumenterConstant.DISPATCH_CONSTRUCTOR_BEFORE_BODY_DESCRIPTOR, true);
@@ -150,7 +174,7 @@ public class ConstructorInstrumenter extends AbstractMethodInstrumenter {
 		// l-l2-r :)
 
 		// then parameters, no need to swap
-		loadArgArray();
+		loadArgArrayIfNeeded();
 
 		// execute after body
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchConstructorAfterBody",
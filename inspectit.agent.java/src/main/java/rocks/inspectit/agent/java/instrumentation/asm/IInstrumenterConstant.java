@@ -50,13 +50,20 @@ public interface IInstrumenterConstant {
 	/**
 	 * {@link IHookDispatcher#dispatchMethodBeforeBody(long, Object, Object[])} descriptor.
 	 */
-	String DISPATCH_METHOD_BEFORE_BODY_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.LONG_TYPE, Type.getType(Object.class), Type.getType(Object[].class));
+	String DISPATCH_METHOD_BEFORE_BODY_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Object.class), Type.LONG_TYPE, Type.getType(Object.class), Type.getType(Object[].class));
 
 	/**
-	 * {@link IHookDispatcher#dispatchFirstMethodAfterBody(long, Object, Object[], Object)} and
-	 * {@link IHookDispatcher#dispatchSecondMethodAfterBody(long, Object, Object[], Object)}
+	 * {@link IHookDispatcher#dispatchMethodAfterBody(long, Object, Object, Object[], Object)}
 	 * descriptor.
 	 */
+	String DISPATCH_METHOD_AFTER_BODY_WITH_CONTEXT_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.LONG_TYPE, Type.getType(Object.class), Type.getType(Object.class),
+			Type.getType(Object[].class), Type.getType(Object.class));
+
+	/**
+	 * {@link IHookDispatcher#dispatchFirstMethodAfterBody(long, Object, Object[], Object)},
+	 * {@link IHookDispatcher#dispatchSecondMethodAfterBody(long, Object, Object[], Object)} and
+	 * {@link IHookDispatcher#dispatchOnThrowInBody(long, Object, Object[], Object)} descriptor.
+	 */
 	String DISPATCH_METHOD_AFTER_BODY_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.LONG_TYPE, Type.getType(Object.class), Type.getType(Object[].class), Type.getType(Object.class));
 
 	/**
@@ -13,6 +13,12 @@ import info.novatec.inspectit.org.objectweb.asm.Type;
  */
 public class MethodInstrumenter extends AbstractMethodInstrumenter {
 
+	/**
+	 * Index of the local variable holding the invocation context returned by the before body
+	 * dispatch.
+	 */
+	private int contextLocal;
+
 	/**
 	 * Default constructor. Defines method id that will be used during instrumentation and if
 	 * enhanced exception sensor is active or not.
@@ -36,6 +42,32 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		super(mv, access, name, desc, methodId, enhancedExceptionSensor);
 	}
 
+	/**
+	 * Constructor that additionally defines if the parameters and the return value of the method
+	 * must be passed to the dispatcher. If not, <code>null</code> is passed instead, thus the
+	 * instrumented method does not create the parameter array and does not box the result.
+	 *
+	 * @param mv
+	 *            Super method visitor.
+	 * @param access
+	 *            Method access code.
+	 * @param name
+	 *            Method name.
+	 * @param desc
+	 *            Method description.
+	 * @param methodId
+	 *            Method id that will be passed to {@link IHookDispatcher}.
+	 * @param enhancedExceptionSensor
+	 *            Marker declaring if enhanced exception sensor is active.
+	 * @param parametersNeeded
+	 *            If parameters must be passed to the dispatcher.
+	 * @param returnValueNeeded
+	 *            If return value must be passed to the dispatcher.
+	 */
+	public MethodInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor, boolean parametersNeeded, boolean returnValueNeeded) {
+		super(mv, access, name, desc, methodId, enhancedExceptionSensor, parametersNeeded, returnValueNeeded);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -43,6 +75,10 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 	protected void onMethodEnter() {
 		generateBeforeBodyCall();
 
+		// keep the invocation context for the after body call
+		contextLocal = newLocal(IInstrumenterConstant.OBJECT_TYPE);
+		storeLocal(contextLocal);
+
 		// start our try block
 		visitLabel(tryBlockStart);
 	}
@@ -60,16 +96,14 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		}
 
 		// just ensure that result is duplicated on the stack
-		// since we are calling two methods, make 2 copies of result on stack
 		// in case of void return or push null since we don't have result
-		if (opcode == RETURN) {
+		// same if the result is not needed, so that primitives are not boxed
+		if ((opcode == RETURN) || !returnValueNeeded) {
 			// standard return with no object (void)
 			pushNull();
-			pushNull();
 		} else if (opcode == ARETURN) {
 			// duplicate the original object
 			dup();
-			dup();
 		} else {
 			if ((opcode == LRETURN) || (opcode == DRETURN)) {
 				// if we have either long or double return, we need to duplicate the last two stacks
@@ -77,14 +111,12 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 			} else {
 				dup();
 			}
-			// box and then duplicate the object then
+			// box the duplicated value
 			box(Type.getReturnType(this.methodDesc));
-			dup();
 		}
 
-		// generate code for calling first and second
-		generateAfterBodyCall("dispatchFirstMethodAfterBody");
-		generateAfterBodyCall("dispatchSecondMethodAfterBody");
+		// generate code for calling the after body
+		generateAfterBodyWithContextCall();
 	}
 
 	/**
@@ -110,12 +142,10 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		super.visitTryCatchBlock(tryBlockStart, tryBlockEnd, finallyHandler, null);
 		visitLabel(finallyHandler);
 
-		// generate code for calling first and second
-		// push nulls as we don't have a result
-		pushNull();
+		// generate code for calling the after body
+		// push null as we don't have a result
 		pushNull();
-		generateAfterBodyCall("dispatchFirstMethodAfterBody");
-		generateAfterBodyCall("dispatchSecondMethodAfterBody");
+		generateAfterBodyWithContextCall();
 
 		mv.visitInsn(ATHROW);
 
@@ -141,23 +171,19 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		}
 
 		// then parameters
-		loadArgArray();
+		loadArgArrayIfNeeded();
 
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchMethodBeforeBody", IInstrumenterConstant.DISPATCH_METHOD_BEFORE_BODY_DESCRIPTOR,
 				true);
 	}
 
 	/**
-	 * Generates code for the after body call. This method expects the result of the method call on
-	 * the stack that can be consumed.
-	 *
-	 * @param method
-	 *            method to be called can be only
-	 *            {@link IHookDispatcher#dispatchFirstMethodAfterBody(long, Object, Object[], Object)}
-	 *            or
-	 *            {@link IHookDispatcher#dispatchSecondMethodAfterBody(long, Object, Object[], Object)}
+	 * Generates code for the
+	 * {@link IHookDispatcher#dispatchMethodAfterBody(long, Object, Object, Object[], Object)} call
+	 * that passes the invocation context returned by the before body call. This method expects the
+	 * result of the method call on the stack that can be consumed.
 	 */
-	private void generateAfterBodyCall(String method) {
+	private void generateAfterBodyWithContextCall() {
 		// prepare for calls
 		// we expect result on stack so we must swap as result is last argument in the call
 		loadHookDispatcher();
@@ -172,6 +198,10 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		pop2();
 		// l-l2-r :)
 
+		// then the invocation context
+		loadLocal(contextLocal);
+		swap();
+
 		// then this object or null if's static
 		if (isStatic) {
 			pushNull();
@@ -181,11 +211,12 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		swap();
 
 		// then parameters
-		loadArgArray();
+		loadArgArrayIfNeeded();
 		swap();
 
 		// execute after body
-		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, method, IInstrumenterConstant.DISPATCH_METHOD_AFTER_BODY_DESCRIPTOR, true);
+		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchMethodAfterBody",
+				IInstrumenterConstant.DISPATCH_METHOD_AFTER_BODY_WITH_CONTEXT_DESCRIPTOR, true);
 	}
 
 	/**
@@ -194,8 +225,35 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 	 * expects exception object on stack that can be consumed.
 	 */
 	private void generateThrowInBodyCall() {
-		// we can use same code for the after body call since method signature is same
-		generateAfterBodyCall("dispatchOnThrowInBody");
+		// prepare for calls
+		// we expect exception on stack so we must swap as exception is last argument in the call
+		loadHookDispatcher();
+		swap();
+
+		// first push method id
+		push(methodId);
+		// can not just swap because method id is long, thus a bit of gymnastic
+		// r-l-l2
+		dup2X1();
+		// l-l2-r-l-l2
+		pop2();
+		// l-l2-r :)
+
+		// then this object or null if's static
+		if (isStatic) {
+			pushNull();
+		} else {
+			loadThis();
+		}
+		swap();
+
+		// then parameters, exception sensor always gets them
+		loadArgArray();
+		swap();
+
+		// execute on throw in body
+		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchOnThrowInBody", IInstrumenterConstant.DISPATCH_METHOD_AFTER_BODY_DESCRIPTOR,
+				true);
 	}
 
 	/**
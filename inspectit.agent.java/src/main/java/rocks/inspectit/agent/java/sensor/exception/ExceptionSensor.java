@@ -4,6 +4,7 @@ import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
+import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.hooking.IHook;
 import rocks.inspectit.agent.java.sensor.method.AbstractMethodSensor;
@@ -22,6 +23,12 @@ public class ExceptionSensor extends AbstractMethodSensor implements IExceptionS
 	@Autowired
 	private IPlatformManager platformManager;
 
+	/**
+	 * The connection to the CMR.
+	 */
+	@Autowired
+	private IConnection connection;
+
 	/**
 	 * The used exception sensor hook.
 	 */
@@ -38,9 +45,12 @@ public class ExceptionSensor extends AbstractMethodSensor implements IExceptionS
 	 *
 	 * @param platformManager
 	 *            The Platform manager.
+	 * @param connection
+	 *            The connection to the CMR.
 	 */
-	public ExceptionSensor(IPlatformManager platformManager) {
+	public ExceptionSensor(IPlatformManager platformManager, IConnection connection) {
 		this.platformManager = platformManager;
+		this.connection = connection;
 	}
 
 	/**
@@ -55,7 +65,8 @@ public class ExceptionSensor extends AbstractMethodSensor implements IExceptionS
 	 */
 	@Override
 	protected void initHook(Map<String, Object> parameters) {
-		exceptionSensorHook = new ExceptionSensorHook(platformManager, parameters);
+		exceptionSensorHook = new ExceptionSensorHook(platformManager, connection, parameters);
+		connection.addDataObjectsSentListener(exceptionSensorHook);
 	}
 
 }
@@ -4,18 +4,30 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.connection.DataObjectsSentListener;
+import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
 import rocks.inspectit.agent.java.util.StringConstraint;
+import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.ExceptionEvent;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 
 /**
  * This class adds additional code to a constructor of type {@link Throwable}, to the
@@ -25,18 +37,49 @@ import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
  * @see IExceptionSensorHook
  *
  */
-public class ExceptionSensorHook implements IExceptionSensorHook {
+public class ExceptionSensorHook implements IExceptionSensorHook, DataObjectsSentListener {
 
 	/**
 	 * The logger of this class. Initialized manually.
 	 */
 	private static final Logger LOG = LoggerFactory.getLogger(ExceptionSensorHook.class);
 
+	/**
+	 * Max amount of stack trace fingerprints remembered as sent.
+	 */
+	private static final int MAX_SENT_FINGERPRINTS = 1024;
+
+	/**
+	 * Time in seconds after which the stack trace of a fingerprint is sent again. Ensures that the
+	 * CMR knows the stack trace also if sent data was lost.
+	 */
+	private static final int FINGERPRINT_EXPIRATION = 10 * 60;
+
+	/**
+	 * Max depth of causes included in the stack trace fingerprint.
+	 */
+	private static final int MAX_CAUSE_DEPTH = 16;
+
+	/**
+	 * Offset basis of the fingerprint hash (64-bit FNV).
+	 */
+	private static final long FINGERPRINT_OFFSET = 0xcbf29ce484222325L;
+
+	/**
+	 * Prime of the fingerprint hash (64-bit FNV).
+	 */
+	private static final long FINGERPRINT_PRIME = 0x100000001b3L;
+
 	/**
 	 * The Platform manager.
 	 */
 	private final IPlatformManager platformManager;
 
+	/**
+	 * The connection to the CMR.
+	 */
+	private final IConnection connection;
+
 	/**
 	 * The thread local containing the {@link IdentityHashToDataObject} object.
 	 */
@@ -53,15 +96,38 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 	private final StringConstraint strConstraint;
 
 	/**
-	 * The default constructor which needs one parameter for initialization.
+	 * Fingerprints of the stack traces that were rendered, but not yet delivered to the CMR.
+	 */
+	private final Cache<Long, Boolean> pendingFingerprints = CacheBuilder.newBuilder().maximumSize(MAX_SENT_FINGERPRINTS).expireAfterWrite(FINGERPRINT_EXPIRATION, TimeUnit.SECONDS).build();
+
+	/**
+	 * Fingerprints of the stack traces that were already rendered and delivered to the CMR.
+	 */
+	private final Cache<Long, Boolean> sentFingerprints = CacheBuilder.newBuilder().maximumSize(MAX_SENT_FINGERPRINTS).expireAfterWrite(FINGERPRINT_EXPIRATION, TimeUnit.SECONDS).build();
+
+	/**
+	 * Connection epoch the {@link #sentFingerprints} were sent with.
+	 */
+	private volatile long sentFingerprintsConnectionEpoch;
+
+	/**
+	 * Platform id the {@link #sentFingerprints} were sent with.
+	 */
+	private volatile long sentFingerprintsPlatformId;
+
+	/**
+	 * The default constructor which needs two parameters for initialization.
 	 *
 	 * @param platformManager
 	 *            The Platform manager.
+	 * @param connection
+	 *            The connection to the CMR.
 	 * @param parameter
 	 *            Additional parameters.
 	 */
-	public ExceptionSensorHook(IPlatformManager platformManager, Map<String, Object> parameter) {
+	public ExceptionSensorHook(IPlatformManager platformManager, IConnection connection, Map<String, Object> parameter) {
 		this.platformManager = platformManager;
+		this.connection = connection;
 		this.strConstraint = new StringConstraint(parameter);
 	}
 
@@ -229,7 +295,8 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 
 	/**
 	 * Gets static information (class name, stackTrace, cause) from the {@link Throwable} object and
-	 * sets them on the passed data object.
+	 * sets them on the passed data object. The stack trace is only rendered if its fingerprint was
+	 * not sent before, otherwise only the fingerprint is set.
 	 *
 	 * @param exceptionSensorData
 	 *            The {@link ExceptionSensorData} object where to set the information.
@@ -264,7 +331,16 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 		}
 
 		try {
-			exceptionSensorData.setStackTrace(strConstraint.crop(stackTraceToString(throwable)));
+			long fingerprint = fingerprint(throwable);
+			exceptionSensorData.setStackTraceFingerprint(fingerprint);
+			invalidateSentFingerprintsIfNeeded(exceptionSensorData.getPlatformIdent());
+			Long key = Long.valueOf(fingerprint);
+			if (null == sentFingerprints.getIfPresent(key)) {
+				// the stack trace is rendered until it is delivered, as the buffer strategy can drop
+				// the data holding it
+				exceptionSensorData.setStackTrace(strConstraint.crop(stackTraceToString(throwable)));
+				pendingFingerprints.put(key, Boolean.TRUE);
+			}
 		} catch (Exception e) {
 			if (LOG.isDebugEnabled()) {
 				LOG.debug("It was not possible to retrieve the stack trace from " + throwable.getClass().getName(), e);
@@ -272,6 +348,123 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Marks the fingerprints of the delivered stack traces as sent.
+	 */
+	public void dataObjectsSent(List<? extends DefaultData> dataObjects) {
+		if (0 == pendingFingerprints.size()) {
+			return;
+		}
+
+		for (DefaultData defaultData : dataObjects) {
+			if (defaultData instanceof ExceptionSensorData) {
+				markSent((ExceptionSensorData) defaultData);
+			} else if (defaultData instanceof InvocationSequenceData) {
+				markSent((InvocationSequenceData) defaultData);
+			}
+		}
+	}
+
+	/**
+	 * Marks the fingerprints of the stack traces delivered with the invocation sequence and its
+	 * nested sequences as sent.
+	 *
+	 * @param invocationSequenceData
+	 *            Delivered invocation sequence.
+	 */
+	private void markSent(InvocationSequenceData invocationSequenceData) {
+		List<ExceptionSensorData> exceptionSensorDataObjects = invocationSequenceData.getExceptionSensorDataObjects();
+		if (null != exceptionSensorDataObjects) {
+			for (ExceptionSensorData exceptionSensorData : exceptionSensorDataObjects) {
+				markSent(exceptionSensorData);
+			}
+		}
+		List<InvocationSequenceData> nestedSequences = invocationSequenceData.getNestedSequences();
+		if (null != nestedSequences) {
+			for (InvocationSequenceData nested : nestedSequences) {
+				markSent(nested);
+			}
+		}
+	}
+
+	/**
+	 * Marks the fingerprint of the stack trace delivered with the data as sent.
+	 *
+	 * @param exceptionSensorData
+	 *            Delivered exception data.
+	 */
+	private void markSent(ExceptionSensorData exceptionSensorData) {
+		if (null != exceptionSensorData.getStackTrace()) {
+			Long key = Long.valueOf(exceptionSensorData.getStackTraceFingerprint());
+			if (null != pendingFingerprints.getIfPresent(key)) {
+				pendingFingerprints.invalidate(key);
+				sentFingerprints.put(key, Boolean.TRUE);
+			}
+		}
+	}
+
+	/**
+	 * Forgets all sent fingerprints if the connection was re-established or the platform was
+	 * registered again since they were sent, as the CMR might not know the stack traces any more.
+	 *
+	 * @param platformId
+	 *            Current platform id.
+	 */
+	private void invalidateSentFingerprintsIfNeeded(long platformId) {
+		long connectionEpoch = connection.getConnectionEpoch();
+		if ((connectionEpoch != sentFingerprintsConnectionEpoch) || (platformId != sentFingerprintsPlatformId)) {
+			sentFingerprints.invalidateAll();
+			pendingFingerprints.invalidateAll();
+			sentFingerprintsConnectionEpoch = connectionEpoch;
+			sentFingerprintsPlatformId = platformId;
+		}
+	}
+
+	/**
+	 * Calculates the fingerprint of the stack trace from the throwable types and the frames of the
+	 * throwable and its causes. Much cheaper than rendering the stack trace.
+	 *
+	 * @param throwable
+	 *            The {@link Throwable} object to calculate the fingerprint for.
+	 * @return Fingerprint, never <code>0</code>.
+	 */
+	long fingerprint(Throwable throwable) {
+		Set<Throwable> visited = Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>());
+		long hash = FINGERPRINT_OFFSET;
+		Throwable current = throwable;
+		int depth = 0;
+		while ((null != current) && (depth < MAX_CAUSE_DEPTH) && visited.add(current)) {
+			hash = hash(hash, current.getClass().getName());
+			for (StackTraceElement element : current.getStackTrace()) {
+				hash = hash(hash, element.getClassName());
+				hash = hash(hash, element.getMethodName());
+				hash = (hash ^ element.getLineNumber()) * FINGERPRINT_PRIME;
+			}
+			current = current.getCause();
+			depth++;
+		}
+
+		if (0 == hash) {
+			return 1;
+		}
+		return hash;
+	}
+
+	/**
+	 * Adds the string to the hash.
+	 *
+	 * @param hash
+	 *            Current hash.
+	 * @param string
+	 *            String to add, can be <code>null</code>.
+	 * @return New hash.
+	 */
+	private long hash(long hash, String string) {
+		return (hash ^ ((null == string) ? 0 : string.hashCode())) * FINGERPRINT_PRIME;
+	}
+
 	/**
 	 * Gets the stack trace from the {@link Throwable} object and returns it as a string.
 	 *
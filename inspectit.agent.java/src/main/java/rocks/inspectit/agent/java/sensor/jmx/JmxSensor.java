@@ -4,19 +4,20 @@ import java.lang.management.ManagementFactory;
 import java.lang.reflect.Array;
 import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
-import javax.management.AttributeNotFoundException;
+import javax.management.Attribute;
+import javax.management.AttributeList;
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
 import javax.management.MBeanAttributeInfo;
-import javax.management.MBeanException;
 import javax.management.MBeanServer;
 import javax.management.MBeanServerNotification;
 import javax.management.Notification;
@@ -31,8 +32,6 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import com.google.common.base.Objects;
-
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.connection.ServerUnavailableException;
@@ -46,6 +45,11 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 
 /**
  * The implementation of the JmxSensor.
+ * <p>
+ * The monitored attributes are grouped by the MBean and all attributes of one MBean that are due
+ * are read with a single {@link MBeanServer#getAttributes(ObjectName, String[])} call. Each
+ * attribute can have its own collect interval. If the change detection is active, the value is
+ * sent only when it changed or when the heartbeat interval passed.
  *
  * @author Alfred Krauss
  * @author Marius Oehler
@@ -61,7 +65,12 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean,
 
 	/**
 	 * Defines the interval of the maximum call rate of the
-	 * {@link JmxSensor#collectData(ICoreService, long)} method.
+	 * {@link JmxSensor#collectData(ICoreService, long, long)} method.
+	 */
+	private static final int UPDATE_INTERVAL = 1000;
+
+	/**
+	 * Default collect interval of the attributes that don't define one.
 	 */
 	private static final int DATA_COLLECT_INTERVAL = 5000;
 
@@ -116,18 +125,23 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean,
 	private boolean initialized = false;
 
 	/**
-	 * Map used to connect the ObjectName of a MBean with the string-representation of the same
-	 * MBean. Recreation of the ObjectName is no longer necessary for the update-method.
+	 * Monitored MBeans with the active attributes, keyed by the string-representation of the
+	 * ObjectName. Recreation of the ObjectName is no longer necessary for the update-method.
 	 */
-	private final Map<String, ObjectName> nameStringToObjectName = new ConcurrentHashMap<String, ObjectName>();
+	private final Map<String, MonitoredMBean> monitoredMBeans = new ConcurrentHashMap<String, MonitoredMBean>();
 
 	/**
-	 * Set of active attributes (represented as Map).
+	 * If values are sent only when changed or when the {@link #heartbeatInterval} passed.
 	 */
-	private final Map<JmxAttributeDescriptor, Boolean> activeAttributes = new ConcurrentHashMap<JmxAttributeDescriptor, Boolean>();
+	private boolean changeDetection;
 
 	/**
-	 * The timestamp of the last {@link #collectData(ICoreService, long)} method invocation.
+	 * Interval in milliseconds after which the unchanged value is sent again.
+	 */
+	private long heartbeatInterval;
+
+	/**
+	 * The timestamp of the last {@link #collectData(ICoreService, long, long)} method invocation.
 	 */
 	long lastDataCollectionTimestamp = 0;
 
@@ -136,6 +150,7 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean,
 	 */
 	public void init(JmxSensorTypeConfig sensorTypeConfig) {
 		this.sensorTypeConfig = sensorTypeConfig;
+		initChangeDetection(sensorTypeConfig.getParameters());
 
 		try {
 			if (null == mBeanServer) {
@@ -160,6 +175,28 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean,
 		}
 	}
 
+	/**
+	 * Initializes the change detection from the sensor parameters.
+	 *
+	 * @param parameters
+	 *            Sensor parameters, can be <code>null</code>.
+	 */
+	private void initChangeDetection(Map<String, Object> parameters) {
+		changeDetection = false;
+		heartbeatInterval = 0L;
+		if ((null != parameters) && "true".equals(parameters.get("changeDetection"))) {
+			changeDetection = true;
+			String heartbeat = (String) parameters.get("heartbeatInterval");
+			if (null != heartbeat) {
+				try {
+					heartbeatInterval = Long.parseLong(heartbeat);
+				} catch (NumberFormatException e) {
+					log.warn("Property 'heartbeatInterval' is not defined correctly. Unchanged values will be sent in each collect interval.");
+				}
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -179,64 +216,101 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean,
 		long currentTime = System.currentTimeMillis();
 
 		// Check if the collectData method should be invoked
-		if ((currentTime - lastDataCollectionTimestamp) > DATA_COLLECT_INTERVAL) {
+		if ((currentTime - lastDataCollectionTimestamp) > UPDATE_INTERVAL) {
 			// store the invocation timestamp
-			lastDataCollectionTimestamp = System.currentTimeMillis();
+			lastDataCollectionTimestamp = currentTime;
 
-			collectData(coreService, sensorTypeIdent);
+			collectData(coreService, sensorTypeIdent, currentTime);
 		}
 	}
 
 	/**
-	 * Collects the data and sends it to the CMR.
+	 * Collects the data of all due attributes and sends it to the CMR.
 	 *
 	 * @param coreService
 	 *            The core service which is needed to store the measurements to.
 	 * @param sensorTypeIdent
 	 *            The ID of the sensor type so that old data can be found. (for aggregating etc.)
+	 * @param currentTime
+	 *            Current time in milliseconds.
 	 */
-	private void collectData(ICoreService coreService, long sensorTypeIdent) {
-		Timestamp timestamp = new Timestamp(Calendar.getInstance().getTime().getTime());
+	private void collectData(ICoreService coreService, long sensorTypeIdent, long currentTime) {
+		Timestamp timestamp = null;
 
-		for (Iterator<JmxAttributeDescriptor> iterator = activeAttributes.keySet().iterator(); iterator.hasNext();) {
-			JmxAttributeDescriptor descriptor = iterator.next();
+		for (Iterator<MonitoredMBean> iterator = monitoredMBeans.values().iterator(); iterator.hasNext();) {
+			MonitoredMBean monitoredMBean = iterator.next();
+			String[] attributeNames = monitoredMBean.getDueAttributeNames(currentTime);
+			if (0 == attributeNames.length) {
+				continue;
+			}
 
+			ObjectName objectName = monitoredMBean.getObjectName();
 			try {
-				// Retrieving the value of the, in the JmxAttributeDescriptor specified,
-				// MBeanAttribute
-				ObjectName objectName = nameStringToObjectName.get(descriptor.getmBeanObjectName());
-				Object collectedValue = mBeanServer.getAttribute(objectName, descriptor.getAttributeName());
-
-				String value;
-				if (null == collectedValue) {
-					value = "null";
-				} else if (collectedValue.getClass().isArray()) {
-					value = getArrayValue(collectedValue);
-				} else {
-					value = collectedValue.toString();
-				}
+				// Retrieving the values of all due attributes of the MBean at once
+				AttributeList attributeList = mBeanServer.getAttributes(objectName, attributeNames);
+
+				Set<String> collectedNames = new HashSet<String>(attributeNames.length);
+				for (Attribute attribute : attributeList.asList()) {
+					MonitoredAttribute monitoredAttribute = monitoredMBean.getAttribute(attribute.getName());
+					if (null == monitoredAttribute) {
+						continue;
+					}
+					collectedNames.add(attribute.getName());
+					monitoredAttribute.collected(currentTime);
 
-				// Create a new JmxSensorValueData to be saved into the database
-				long platformid = platformManager.getPlatformId();
-				JmxSensorValueData jsvd = new JmxSensorValueData(descriptor.getId(), value, timestamp, platformid, sensorTypeIdent);
+					Object collectedValue = attribute.getValue();
+					boolean heartbeat = !changeDetection || monitoredAttribute.isHeartbeatDue(currentTime, heartbeatInterval);
+					if (!heartbeat && monitoredAttribute.isSameRawValue(collectedValue)) {
+						continue;
+					}
 
-				coreService.addJmxSensorValueData(sensorTypeIdent, descriptor.getmBeanObjectName(), descriptor.getAttributeName(), jsvd);
-			} catch (AttributeNotFoundException e) {
-				iterator.remove();
-				log.warn("JMX::AttributeNotFound. Attribute was not found. Maybe currently not available on the server. Attribute removed from the actively read list.", e);
+					String value;
+					if (null == collectedValue) {
+						value = "null";
+					} else if (collectedValue.getClass().isArray()) {
+						value = getArrayValue(collectedValue);
+					} else {
+						value = collectedValue.toString();
+					}
+
+					if (!heartbeat && monitoredAttribute.isSameValue(value)) {
+						continue;
+					}
+
+					if (null == timestamp) {
+						timestamp = new Timestamp(currentTime);
+					}
+
+					// Create a new JmxSensorValueData to be saved into the database
+					JmxAttributeDescriptor descriptor = monitoredAttribute.getDescriptor();
+					long platformid = platformManager.getPlatformId();
+					JmxSensorValueData jsvd = new JmxSensorValueData(descriptor.getId(), value, timestamp, platformid, sensorTypeIdent);
+
+					coreService.addJmxSensorValueData(sensorTypeIdent, descriptor.getmBeanObjectName(), descriptor.getAttributeName(), jsvd);
+					monitoredAttribute.sent(collectedValue, value, currentTime);
+				}
+
+				// attributes that could not be read are not returned in the list
+				if (collectedNames.size() < attributeNames.length) {
+					for (String attributeName : attributeNames) {
+						if (!collectedNames.contains(attributeName)) {
+							monitoredMBean.removeAttribute(attributeName);
+							log.warn("JMX::Attribute " + attributeName + " could not be read from the MBean " + objectName + ". Attribute removed from the actively read list.");
+						}
+					}
+					if (monitoredMBean.isEmpty()) {
+						iterator.remove();
+					}
+				}
 			} catch (InstanceNotFoundException e) {
 				iterator.remove();
-				log.warn("JMX::Instance not found. MBean may not be registered on the Server. Attribute removed from the actively read list.", e);
-			} catch (MBeanException e) {
-				iterator.remove();
-				log.warn("JMX::MBean. Undefined problem with the MBean. Attribute removed from the actively read list.", e);
+				log.warn("JMX::Instance not found. MBean may not be registered on the Server. Attributes removed from the actively read list.", e);
 			} catch (ReflectionException e) {
 				iterator.remove();
-				log.warn("JMX::Reflection error. MBean may not be registered on the Server. Attribute removed from the actively read list.", e);
+				log.warn("JMX::Reflection error. MBean may not be registered on the Server. Attributes removed from the actively read list.", e);
 			} catch (RuntimeMBeanException e) {
 				iterator.remove();
-				log.warn("JMX::Runtime error reading the attribute " + descriptor.getAttributeName() + " from the MBean " + descriptor.getmBeanObjectName()
-				+ ". Attribute removed from the actively read list.", e);
+				log.warn("JMX::Runtime error reading the attributes from the MBean " + objectName + ". Attributes removed from the actively read list.", e);
 			} catch (IdNotAvailableException e) {
 				if (log.isDebugEnabled()) {
 					log.debug("JMX::IdNotAvailable. MBean may not be registered on the Server.", e);
@@ -256,15 +330,8 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean,
 				// if we have registration pick up the attributes
 				registerMBeans(mBeanName);
 			} else if (MBeanServerNotification.UNREGISTRATION_NOTIFICATION.equals(serverNotification.getType())) {
-				// if we have un-registration remove from maps
-				String mBeanNameString = mBeanName.toString();
-				for (Iterator<JmxAttributeDescriptor> it = activeAttributes.keySet().iterator(); it.hasNext();) {
-					JmxAttributeDescriptor descriptor = it.next();
-					if (Objects.equal(descriptor.getmBeanObjectName(), mBeanNameString)) {
-						it.remove();
-					}
-				}
-				nameStringToObjectName.remove(mBeanNameString);
+				// if we have un-registration remove from map
+				monitoredMBeans.remove(mBeanName.toString());
 			}
 		}
 	}
@@ -314,14 +381,25 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean,
 		try {
 			Collection<JmxAttributeDescriptor> toMonitor = connection.analyzeJmxAttributes(platformManager.getPlatformId(), descriptors);
 
-			// add to active attributes
-			for (JmxAttributeDescriptor descriptor : toMonitor) {
-				activeAttributes.put(descriptor, Boolean.FALSE);
-			}
-			// if call is working add object names to the map
+			Map<String, ObjectName> nameStringToObjectName = new HashMap<String, ObjectName>();
 			for (ObjectName name : allNames) {
 				nameStringToObjectName.put(name.toString(), name);
 			}
+
+			// add to active attributes grouped by the MBean
+			for (JmxAttributeDescriptor descriptor : toMonitor) {
+				String nameString = descriptor.getmBeanObjectName();
+				MonitoredMBean monitoredMBean = monitoredMBeans.get(nameString);
+				if (null == monitoredMBean) {
+					ObjectName objectName = nameStringToObjectName.get(nameString);
+					if (null == objectName) {
+						continue;
+					}
+					monitoredMBean = new MonitoredMBean(objectName);
+					monitoredMBeans.put(nameString, monitoredMBean);
+				}
+				monitoredMBean.addAttribute(new MonitoredAttribute(descriptor, DATA_COLLECT_INTERVAL));
+			}
 		} catch (ServerUnavailableException e) {
 			if (log.isWarnEnabled()) {
 				log.warn("Error registering JMX attributes on the server.", e);
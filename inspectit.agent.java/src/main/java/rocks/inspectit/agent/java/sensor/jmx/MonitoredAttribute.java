@@ -0,0 +1,154 @@
+package rocks.inspectit.agent.java.sensor.jmx;
+
+import rocks.inspectit.shared.all.instrumentation.config.impl.JmxAttributeDescriptor;
+
+/**
+ * Collection state of one monitored MBean attribute. Holds the time of the next collection and the
+ * last sent value needed for the change detection.
+ *
+ * @author agent
+ *
+ */
+class MonitoredAttribute {
+
+	/**
+	 * Descriptor of the attribute.
+	 */
+	private final JmxAttributeDescriptor descriptor;
+
+	/**
+	 * Interval in milliseconds in which the attribute is collected.
+	 */
+	private final long collectInterval;
+
+	/**
+	 * Time in milliseconds of the next collection.
+	 */
+	private long nextCollectionTime;
+
+	/**
+	 * Last sent value, <code>null</code> if the value was not sent yet.
+	 */
+	private String lastValue;
+
+	/**
+	 * Last sent raw value, only kept for values that can be compared without creating the string.
+	 */
+	private Object lastRawValue;
+
+	/**
+	 * Time in milliseconds of the last sending.
+	 */
+	private long lastSendingTime;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param descriptor
+	 *            Descriptor of the attribute.
+	 * @param defaultCollectInterval
+	 *            Interval used when the descriptor does not define one.
+	 */
+	MonitoredAttribute(JmxAttributeDescriptor descriptor, long defaultCollectInterval) {
+		this.descriptor = descriptor;
+		if (descriptor.getCollectInterval() > 0) {
+			this.collectInterval = descriptor.getCollectInterval();
+		} else {
+			this.collectInterval = defaultCollectInterval;
+		}
+	}
+
+	/**
+	 * Returns if the attribute should be collected at the given time.
+	 *
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 * @return Returns if the attribute should be collected at the given time.
+	 */
+	boolean isDue(long currentTime) {
+		return currentTime >= nextCollectionTime;
+	}
+
+	/**
+	 * Marks the attribute as collected at the given time.
+	 *
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 */
+	void collected(long currentTime) {
+		nextCollectionTime = currentTime + collectInterval;
+	}
+
+	/**
+	 * Returns if the given raw value is known to be equal to the last sent one, so that no string
+	 * creation is needed. Only the immutable simple values are compared this way.
+	 *
+	 * @param rawValue
+	 *            Collected value.
+	 * @return <code>true</code> if value is equal to the last sent one.
+	 */
+	boolean isSameRawValue(Object rawValue) {
+		return (null != lastRawValue) && isSimpleValue(rawValue) && lastRawValue.equals(rawValue);
+	}
+
+	/**
+	 * Returns if the given value is equal to the last sent one.
+	 *
+	 * @param value
+	 *            Collected value as string.
+	 * @return <code>true</code> if value is equal to the last sent one.
+	 */
+	boolean isSameValue(String value) {
+		return value.equals(lastValue);
+	}
+
+	/**
+	 * Returns if the heartbeat interval passed since the last sending.
+	 *
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 * @param heartbeatInterval
+	 *            Heartbeat interval in milliseconds.
+	 * @return Returns if the heartbeat interval passed since the last sending.
+	 */
+	boolean isHeartbeatDue(long currentTime, long heartbeatInterval) {
+		return (currentTime - lastSendingTime) >= heartbeatInterval;
+	}
+
+	/**
+	 * Marks the value as sent.
+	 *
+	 * @param rawValue
+	 *            Collected value.
+	 * @param value
+	 *            Collected value as string.
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 */
+	void sent(Object rawValue, String value, long currentTime) {
+		this.lastValue = value;
+		this.lastRawValue = isSimpleValue(rawValue) ? rawValue : null;
+		this.lastSendingTime = currentTime;
+	}
+
+	/**
+	 * Returns if the value is immutable and can be compared with equals.
+	 *
+	 * @param rawValue
+	 *            Value.
+	 * @return Returns if the value is immutable and can be compared with equals.
+	 */
+	private static boolean isSimpleValue(Object rawValue) {
+		return (rawValue instanceof String) || (rawValue instanceof Number) || (rawValue instanceof Boolean) || (rawValue instanceof Character) || (rawValue instanceof Enum);
+	}
+
+	/**
+	 * Gets {@link #descriptor}.
+	 *
+	 * @return {@link #descriptor}
+	 */
+	JmxAttributeDescriptor getDescriptor() {
+		return descriptor;
+	}
+
+}
@@ -0,0 +1,112 @@
+package rocks.inspectit.agent.java.sensor.jmx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.ObjectName;
+
+/**
+ * Monitored attributes of one MBean, so that all attributes of the MBean can be read with one
+ * call.
+ *
+ * @author agent
+ *
+ */
+class MonitoredMBean {
+
+	/**
+	 * Object name of the MBean.
+	 */
+	private final ObjectName objectName;
+
+	/**
+	 * Monitored attributes by attribute name.
+	 */
+	private final Map<String, MonitoredAttribute> attributes = new ConcurrentHashMap<String, MonitoredAttribute>();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param objectName
+	 *            Object name of the MBean.
+	 */
+	MonitoredMBean(ObjectName objectName) {
+		this.objectName = objectName;
+	}
+
+	/**
+	 * Returns the names of the attributes that should be collected at the given time.
+	 *
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 * @return Names of the attributes, can be empty.
+	 */
+	String[] getDueAttributeNames(long currentTime) {
+		List<String> names = null;
+		for (MonitoredAttribute attribute : attributes.values()) {
+			if (attribute.isDue(currentTime)) {
+				if (null == names) {
+					names = new ArrayList<String>(attributes.size());
+				}
+				names.add(attribute.getDescriptor().getAttributeName());
+			}
+		}
+
+		if (null == names) {
+			return new String[0];
+		}
+		return names.toArray(new String[names.size()]);
+	}
+
+	/**
+	 * Adds the attribute to monitor.
+	 *
+	 * @param attribute
+	 *            Monitored attribute.
+	 */
+	void addAttribute(MonitoredAttribute attribute) {
+		attributes.put(attribute.getDescriptor().getAttributeName(), attribute);
+	}
+
+	/**
+	 * Returns the monitored attribute.
+	 *
+	 * @param attributeName
+	 *            Name of the attribute.
+	 * @return Monitored attribute or <code>null</code> if attribute is not monitored.
+	 */
+	MonitoredAttribute getAttribute(String attributeName) {
+		return attributes.get(attributeName);
+	}
+
+	/**
+	 * Removes the attribute from monitoring.
+	 *
+	 * @param attributeName
+	 *            Name of the attribute.
+	 */
+	void removeAttribute(String attributeName) {
+		attributes.remove(attributeName);
+	}
+
+	/**
+	 * Returns if any attribute is monitored.
+	 *
+	 * @return Returns if any attribute is monitored.
+	 */
+	boolean isEmpty() {
+		return attributes.isEmpty();
+	}
+
+	/**
+	 * Gets {@link #objectName}.
+	 *
+	 * @return {@link #objectName}
+	 */
+	ObjectName getObjectName() {
+		return objectName;
+	}
+
+}
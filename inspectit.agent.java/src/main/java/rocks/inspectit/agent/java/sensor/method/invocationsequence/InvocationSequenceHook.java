@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,7 +29,7 @@ import rocks.inspectit.agent.java.sensor.method.jdbc.PreparedStatementParameterS
 import rocks.inspectit.agent.java.sensor.method.jdbc.PreparedStatementSensor;
 import rocks.inspectit.agent.java.sensor.method.logging.Log4JLoggingSensor;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
+import rocks.inspectit.agent.java.util.ThreadLocalLongStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
@@ -53,6 +54,13 @@ import rocks.inspectit.shared.all.instrumentation.config.impl.PlatformSensorType
  * other hooks which are called during the execution of this invocation. The
  * <code>defaultCoreService</code> field is used to delegate some calls directly to the original
  * core service and later sending of the data to the server.
+ * <p>
+ * The memory used by one invocation sequence is bounded by the maximum child count and the
+ * maximum estimated size given in the parameters. An invocation opened after one of them is reached
+ * is decided on with its complete subtree when it closes: it is folded into the previous sibling if
+ * both have the same structure (loops), or it is not recorded at all. Such a subtree is only kept
+ * while it can still match the previous sibling. Folded and not recorded invocations are counted
+ * in the {@link InvocationSequenceData}.
  *
  * @author Patrice Bouillet
  *
@@ -64,6 +72,11 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	private static final Logger LOG = LoggerFactory.getLogger(InvocationSequenceHook.class);
 
+	/**
+	 * Estimated size in bytes of one nested invocation with the timer data, without the strings.
+	 */
+	private static final long ELEMENT_SIZE = 300L;
+
 	/**
 	 * The Platform manager.
 	 */
@@ -100,7 +113,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
+	private final ThreadLocalLongStack timeStack = new ThreadLocalLongStack();
 
 	/**
 	 * Saves the min duration for faster access of the values.
@@ -117,6 +130,23 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	private final boolean enhancedExceptionSensor;
 
+	/**
+	 * Maximum amount of the nested invocations recorded in one invocation sequence. Zero for
+	 * unlimited.
+	 */
+	private final long maxChildCount;
+
+	/**
+	 * Maximum estimated size in bytes of the nested invocations recorded in one invocation
+	 * sequence. Zero for unlimited.
+	 */
+	private final long maxSize;
+
+	/**
+	 * The size of the invocation sequence currently recorded in the thread.
+	 */
+	private final ThreadLocal<RecordedSize> recordedSize = new ThreadLocal<RecordedSize>();
+
 	/**
 	 * The default constructor is initialized with a reference to the original {@link ICoreService}
 	 * implementation to delegate all calls to if the data needs to be sent.
@@ -138,6 +168,32 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 		this.propertyAccessor = propertyAccessor;
 		this.strConstraint = new StringConstraint(param);
 		this.enhancedExceptionSensor = enhancedExceptionSensor;
+		this.maxChildCount = getLimit(param, "maxChildCount");
+		this.maxSize = getLimit(param, "maxSize");
+	}
+
+	/**
+	 * Reads the limit from the parameters.
+	 *
+	 * @param param
+	 *            Parameters.
+	 * @param name
+	 *            Name of the parameter.
+	 * @return Limit or <code>0</code> for unlimited if the parameter is not set or not defined
+	 *         correctly.
+	 */
+	private static long getLimit(Map<String, Object> param, String name) {
+		String value = (String) param.get(name);
+		if (null != value) {
+			try {
+				return Math.max(0L, Long.parseLong(value));
+			} catch (NumberFormatException e) {
+				if (LOG.isWarnEnabled()) {
+					LOG.warn("Property '" + name + "' is not defined correctly. Using unlimited invocation sequence size.");
+				}
+			}
+		}
+		return 0L;
 	}
 
 	/**
@@ -157,7 +213,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 				// sequence trace
 
 				// save the start time
-				timeStack.push(new Double(timer.getCurrentTime()));
+				timeStack.push(timer.getCurrentNanoTime());
 
 				// no invocation tracer is currently started, so we do that now.
 				InvocationSequenceData invocationSequenceData = new InvocationSequenceData(timestamp, platformId, sensorTypeId, methodId);
@@ -165,6 +221,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 
 				invocationStartId.set(Long.valueOf(methodId));
 				invocationStartIdCount.set(Long.valueOf(1));
+				recordedSize.set(new RecordedSize());
 			} else {
 				if (methodId == invocationStartId.get().longValue()) {
 					long count = invocationStartIdCount.get().longValue();
@@ -176,10 +233,11 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 				invocationSequenceData.setChildCount(invocationSequenceData.getChildCount() + 1L);
 
 				InvocationSequenceData nestedInvocationSequenceData = new InvocationSequenceData(timestamp, platformId, invocationSequenceData.getSensorTypeIdent(), methodId);
-				nestedInvocationSequenceData.setStart(timer.getCurrentTime());
+				nestedInvocationSequenceData.setStart(Timer.toMillis(timer.getCurrentNanoTime()));
 				nestedInvocationSequenceData.setParentSequence(invocationSequenceData);
 
 				invocationSequenceData.getNestedSequences().add(nestedInvocationSequenceData);
+				startOverflow(invocationSequenceData, nestedInvocationSequenceData);
 
 				threadLocalInvocationData.set(nestedInvocationSequenceData);
 			}
@@ -206,7 +264,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 				invocationStartIdCount.set(Long.valueOf(count - 1));
 
 				if (0 == (count - 1)) {
-					timeStack.push(new Double(timer.getCurrentTime()));
+					timeStack.push(timer.getCurrentNanoTime());
 				}
 			}
 		}
@@ -234,10 +292,15 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 			}
 
 			if ((methodId == invocationStartId.get().longValue()) && (0 == invocationStartIdCount.get().longValue())) {
-				double endTime = timeStack.pop().doubleValue();
-				double startTime = timeStack.pop().doubleValue();
+				double endTime = Timer.toMillis(timeStack.pop());
+				double startTime = Timer.toMillis(timeStack.pop());
 				double duration = endTime - startTime;
 
+				RecordedSize size = recordedSize.get();
+				if (null != size) {
+					invocationSequenceData.setTruncatedChildCount(size.truncatedChildCount);
+				}
+
 				// complete the sequence and store the data object in the 'true'
 				// core service so that it can be transmitted to the server. we
 				// just need an arbitrary prefix so that this sequence will
@@ -259,6 +322,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 				}
 
 				threadLocalInvocationData.set(null);
+				recordedSize.set(null);
 			} else {
 				// check for the correct id we must be sure that
 				// we are closing the right sequence
@@ -275,7 +339,9 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 					parentSequence.setChildCount(parentSequence.getChildCount() - 1);
 					// but connect all possible children to the parent then we are eliminating one
 					// level here
-					if (CollectionUtils.isNotEmpty(invocationSequenceData.getNestedSequences())) {
+					if (isOverflowRoot(invocationSequenceData)) {
+						removeOverflowRoot(parentSequence, invocationSequenceData);
+					} else if (CollectionUtils.isNotEmpty(invocationSequenceData.getNestedSequences())) {
 						for (InvocationSequenceData child : invocationSequenceData.getNestedSequences()) {
 							child.setParentSequence(parentSequence);
 							parentSequence.getNestedSequences().add(child);
@@ -283,15 +349,343 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 						parentSequence.setChildCount(parentSequence.getChildCount() + invocationSequenceData.getChildCount());
 					}
 				} else {
-					invocationSequenceData.setEnd(timer.getCurrentTime());
+					invocationSequenceData.setEnd(Timer.toMillis(timer.getCurrentNanoTime()));
 					invocationSequenceData.setDuration(invocationSequenceData.getEnd() - invocationSequenceData.getStart());
 					parentSequence.setChildCount(parentSequence.getChildCount() + invocationSequenceData.getChildCount());
+					limitSize(parentSequence, invocationSequenceData);
 				}
 				threadLocalInvocationData.set(parentSequence);
 			}
 		}
 	}
 
+	/**
+	 * Starts the overflow subtree with the given opened nested invocation if the limit of the
+	 * invocation sequence is reached and no overflow subtree is open. The subtree can only be folded
+	 * into the previous sibling, thus it is kept only while it is not bigger than that sibling.
+	 *
+	 * @param parentSequence
+	 *            Parent of the opened invocation.
+	 * @param nestedSequence
+	 *            Opened nested invocation, already the last one in the parent.
+	 */
+	private void startOverflow(InvocationSequenceData parentSequence, InvocationSequenceData nestedSequence) {
+		if ((0 == maxChildCount) && (0 == maxSize)) {
+			return;
+		}
+
+		RecordedSize size = recordedSize.get();
+		if ((null == size) || (null != size.overflowRoot) || !isLimitReached(size)) {
+			return;
+		}
+
+		size.overflowRoot = nestedSequence;
+		size.overflowChildCount = 0;
+		size.overflowTruncated = true;
+		List<InvocationSequenceData> siblings = parentSequence.getNestedSequences();
+		if (siblings.size() > 1) {
+			InvocationSequenceData previous = siblings.get(siblings.size() - 2);
+			if (previous.getMethodIdent() == nestedSequence.getMethodIdent()) {
+				size.overflowMaxChildCount = previous.getChildCount();
+				size.overflowTruncated = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns if the given invocation is the root of the open overflow subtree.
+	 *
+	 * @param invocationSequenceData
+	 *            Invocation.
+	 * @return Returns if the given invocation is the root of the open overflow subtree.
+	 */
+	private boolean isOverflowRoot(InvocationSequenceData invocationSequenceData) {
+		RecordedSize size = recordedSize.get();
+		return (null != size) && (size.overflowRoot == invocationSequenceData); // NOPMD
+	}
+
+	/**
+	 * Accounts the size of the closed nested invocation. If the limit of the invocation sequence is
+	 * already reached, the closed invocation is folded with its complete subtree into the previous
+	 * sibling when possible or removed otherwise. Invocations inside the overflow subtree are kept
+	 * until the root of the subtree closes.
+	 *
+	 * @param parentSequence
+	 *            Parent of the closed invocation.
+	 * @param invocationSequenceData
+	 *            Closed nested invocation.
+	 */
+	private void limitSize(InvocationSequenceData parentSequence, InvocationSequenceData invocationSequenceData) {
+		if ((0 == maxChildCount) && (0 == maxSize)) {
+			return;
+		}
+
+		RecordedSize size = recordedSize.get();
+		if (null == size) {
+			return;
+		}
+
+		if (null != size.overflowRoot) {
+			if (size.overflowRoot == invocationSequenceData) { // NOPMD
+				size.overflowRoot = null;
+				foldOrTruncate(size, parentSequence, invocationSequenceData, !size.overflowTruncated);
+			} else {
+				size.overflowChildCount++;
+				if (size.overflowChildCount > size.overflowMaxChildCount) {
+					size.overflowTruncated = true;
+				}
+				if (size.overflowTruncated) {
+					// the child count stays, the whole subtree is truncated when the root closes
+					removeClosed(parentSequence, invocationSequenceData);
+				}
+			}
+			return;
+		}
+
+		if (!isLimitReached(size)) {
+			size.childCount++;
+			size.estimatedSize += estimateSize(invocationSequenceData);
+			return;
+		}
+
+		// opened before the limit was reached, the nested ones were already accounted when closed
+		for (InvocationSequenceData child : invocationSequenceData.getNestedSequences()) {
+			subtractSize(size, child);
+		}
+		foldOrTruncate(size, parentSequence, invocationSequenceData, true);
+	}
+
+	/**
+	 * Removes the root of the overflow subtree that is not included in the invocation sequence,
+	 * each of its children is folded or truncated as it would be closed directly in the parent.
+	 *
+	 * @param parentSequence
+	 *            Parent of the removed invocation.
+	 * @param invocationSequenceData
+	 *            Removed root of the overflow subtree.
+	 */
+	private void removeOverflowRoot(InvocationSequenceData parentSequence, InvocationSequenceData invocationSequenceData) {
+		RecordedSize size = recordedSize.get();
+		size.overflowRoot = null;
+		if (size.overflowTruncated) {
+			size.truncatedChildCount += invocationSequenceData.getChildCount();
+			return;
+		}
+
+		for (InvocationSequenceData child : invocationSequenceData.getNestedSequences()) {
+			child.setParentSequence(parentSequence);
+			parentSequence.getNestedSequences().add(child);
+			parentSequence.setChildCount(parentSequence.getChildCount() + 1 + child.getChildCount());
+			foldOrTruncate(size, parentSequence, child, true);
+		}
+	}
+
+	/**
+	 * Removes the closed invocation from the parent and folds it with its complete subtree into the
+	 * previous sibling when possible. Otherwise the invocation and its subtree are counted as
+	 * truncated.
+	 *
+	 * @param size
+	 *            Recorded size.
+	 * @param parentSequence
+	 *            Parent of the closed invocation.
+	 * @param invocationSequenceData
+	 *            Closed invocation.
+	 * @param foldingAllowed
+	 *            If folding should be tried at all.
+	 */
+	private static void foldOrTruncate(RecordedSize size, InvocationSequenceData parentSequence, InvocationSequenceData invocationSequenceData, boolean foldingAllowed) {
+		removeClosed(parentSequence, invocationSequenceData);
+		parentSequence.setChildCount(parentSequence.getChildCount() - 1 - invocationSequenceData.getChildCount());
+
+		List<InvocationSequenceData> siblings = parentSequence.getNestedSequences();
+		if (foldingAllowed && !siblings.isEmpty() && isFoldable(siblings.get(siblings.size() - 1), invocationSequenceData)) {
+			fold(siblings.get(siblings.size() - 1), invocationSequenceData);
+		} else {
+			size.truncatedChildCount += 1 + invocationSequenceData.getChildCount();
+		}
+	}
+
+	/**
+	 * Removes the closed invocation from the nested sequences of the parent.
+	 *
+	 * @param parentSequence
+	 *            Parent of the closed invocation.
+	 * @param invocationSequenceData
+	 *            Closed invocation.
+	 */
+	private static void removeClosed(InvocationSequenceData parentSequence, InvocationSequenceData invocationSequenceData) {
+		// the closed invocation is always the last one in the parent
+		List<InvocationSequenceData> siblings = parentSequence.getNestedSequences();
+		int index = siblings.size() - 1;
+		if ((index >= 0) && (siblings.get(index) == invocationSequenceData)) { // NOPMD
+			siblings.remove(index);
+		} else {
+			siblings.remove(invocationSequenceData);
+		}
+	}
+
+	/**
+	 * Returns if the limit of the invocation sequence size is reached.
+	 *
+	 * @param size
+	 *            Recorded size.
+	 * @return Returns if the limit of the invocation sequence size is reached.
+	 */
+	private boolean isLimitReached(RecordedSize size) {
+		return ((maxChildCount > 0) && (size.childCount >= maxChildCount)) || ((maxSize > 0) && (size.estimatedSize >= maxSize));
+	}
+
+	/**
+	 * Subtracts the given invocation and all nested invocations from the recorded size.
+	 *
+	 * @param size
+	 *            Recorded size.
+	 * @param invocationSequenceData
+	 *            Removed invocation.
+	 */
+	private static void subtractSize(RecordedSize size, InvocationSequenceData invocationSequenceData) {
+		size.childCount--;
+		size.estimatedSize -= estimateSize(invocationSequenceData);
+		for (InvocationSequenceData child : invocationSequenceData.getNestedSequences()) {
+			subtractSize(size, child);
+		}
+	}
+
+	/**
+	 * Estimates the size of the single invocation in bytes, without the nested invocations.
+	 *
+	 * @param invocationSequenceData
+	 *            Invocation.
+	 * @return Estimated size in bytes.
+	 */
+	private static long estimateSize(InvocationSequenceData invocationSequenceData) {
+		long size = ELEMENT_SIZE;
+		SqlStatementData sqlStatementData = invocationSequenceData.getSqlStatementData();
+		if (null != sqlStatementData) {
+			size += ELEMENT_SIZE + stringSize(sqlStatementData.getSql());
+			if (null != sqlStatementData.getParameterValues()) {
+				for (String parameterValue : sqlStatementData.getParameterValues()) {
+					size += stringSize(parameterValue);
+				}
+			}
+		}
+		if (null != invocationSequenceData.getLoggingData()) {
+			size += ELEMENT_SIZE + stringSize(invocationSequenceData.getLoggingData().getMessage());
+		}
+		if (null != invocationSequenceData.getExceptionSensorDataObjects()) {
+			size += ELEMENT_SIZE * invocationSequenceData.getExceptionSensorDataObjects().size();
+		}
+		return size;
+	}
+
+	/**
+	 * Estimates the size of the string characters in bytes.
+	 *
+	 * @param string
+	 *            String, can be <code>null</code>.
+	 * @return Estimated size in bytes.
+	 */
+	private static long stringSize(String string) {
+		if (null == string) {
+			return 0L;
+		}
+		return 2L * string.length();
+	}
+
+	/**
+	 * Returns if the source invocation can be folded into the target one. This is the case when
+	 * both have the same method, the same timer or SQL data type, no exceptions and logging and
+	 * the same structure of the nested invocations.
+	 *
+	 * @param target
+	 *            Invocation to fold into.
+	 * @param source
+	 *            Invocation to fold.
+	 * @return Returns if the source invocation can be folded into the target one.
+	 */
+	private static boolean isFoldable(InvocationSequenceData target, InvocationSequenceData source) {
+		if (target.getMethodIdent() != source.getMethodIdent()) {
+			return false;
+		}
+		if (CollectionUtils.isNotEmpty(target.getExceptionSensorDataObjects()) || CollectionUtils.isNotEmpty(source.getExceptionSensorDataObjects())) {
+			return false;
+		}
+		if ((null != target.getLoggingData()) || (null != source.getLoggingData())) {
+			return false;
+		}
+		if (!isFoldable(target.getTimerData(), source.getTimerData())) {
+			return false;
+		}
+
+		SqlStatementData targetSql = target.getSqlStatementData();
+		SqlStatementData sourceSql = source.getSqlStatementData();
+		if ((null == targetSql) != (null == sourceSql)) {
+			return false;
+		}
+		if ((null != targetSql) && !ObjectUtils.equals(targetSql.getSql(), sourceSql.getSql())) {
+			return false;
+		}
+
+		List<InvocationSequenceData> targetChildren = target.getNestedSequences();
+		List<InvocationSequenceData> sourceChildren = source.getNestedSequences();
+		if (targetChildren.size() != sourceChildren.size()) {
+			return false;
+		}
+		for (int i = 0; i < targetChildren.size(); i++) {
+			if (!isFoldable(targetChildren.get(i), sourceChildren.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns if the source timer data can be aggregated to the target one. Only the plain
+	 * {@link TimerData} is aggregated.
+	 *
+	 * @param target
+	 *            Timer data to aggregate to.
+	 * @param source
+	 *            Timer data to aggregate.
+	 * @return Returns if the source timer data can be aggregated to the target one.
+	 */
+	private static boolean isFoldable(TimerData target, TimerData source) {
+		if ((null == target) || (null == source)) {
+			return target == source; // NOPMD
+		}
+		return TimerData.class.equals(target.getClass()) && TimerData.class.equals(source.getClass());
+	}
+
+	/**
+	 * Folds the source invocation into the target one. Durations, timer and SQL data are
+	 * aggregated and the folded count is raised. Must only be called if
+	 * {@link #isFoldable(InvocationSequenceData, InvocationSequenceData)} returned
+	 * <code>true</code>.
+	 *
+	 * @param target
+	 *            Invocation to fold into.
+	 * @param source
+	 *            Invocation to fold.
+	 */
+	private static void fold(InvocationSequenceData target, InvocationSequenceData source) {
+		target.setFoldedCount(target.getFoldedCount() + source.getFoldedCount() + 1);
+		target.setDuration(target.getDuration() + source.getDuration());
+		target.setEnd(source.getEnd());
+		if (null != target.getTimerData()) {
+			target.getTimerData().aggregateTimerData(source.getTimerData());
+		}
+		if (null != target.getSqlStatementData()) {
+			target.getSqlStatementData().aggregateTimerData(source.getSqlStatementData());
+		}
+
+		List<InvocationSequenceData> targetChildren = target.getNestedSequences();
+		List<InvocationSequenceData> sourceChildren = source.getNestedSequences();
+		for (int i = 0; i < targetChildren.size(); i++) {
+			fold(targetChildren.get(i), sourceChildren.get(i));
+		}
+	}
+
 	/**
 	 * Returns if the given {@link InvocationSequenceData} should be removed due to the exception
 	 * constructor delegation.
@@ -656,4 +1050,51 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 		throw new UnsupportedMethodException();
 	}
 
+	/**
+	 * Size of the invocation sequence recorded in one thread.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static class RecordedSize {
+
+		/**
+		 * Amount of the recorded nested invocations.
+		 */
+		private long childCount;
+
+		/**
+		 * Estimated size in bytes of the recorded nested invocations.
+		 */
+		private long estimatedSize;
+
+		/**
+		 * Amount of the nested invocations that were not recorded.
+		 */
+		private long truncatedChildCount;
+
+		/**
+		 * Root of the open subtree that was started after the limit was reached.
+		 * <code>null</code> if there is none.
+		 */
+		private InvocationSequenceData overflowRoot;
+
+		/**
+		 * Amount of the closed invocations in the overflow subtree.
+		 */
+		private long overflowChildCount;
+
+		/**
+		 * Max amount of the invocations in the overflow subtree, the child count of the previous
+		 * sibling of the root.
+		 */
+		private long overflowMaxChildCount;
+
+		/**
+		 * If the overflow subtree can not be folded anymore and is truncated when the root closes.
+		 */
+		private boolean overflowTruncated;
+
+	}
+
 }
@@ -53,6 +53,17 @@ public class AggregateTimerStorage implements ITimerStorage {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public void addData(double time, double cpuTime, long count) {
+		if (cpuTime < 0) {
+			timerRawVO.add(time, count);
+		} else {
+			timerRawVO.add(time, cpuTime, count);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,74 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ParameterContentData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.util.HistogramUtil;
+
+/**
+ * Timer storage that in addition to the values of the {@link StripedTimerStorage} records the
+ * durations in the log-bucketed histogram (see {@link HistogramUtil}). The histogram is attached
+ * to the {@link TimerData} when {@link #finalizeDataObject()} is called, so that the percentiles of
+ * the durations can be calculated on the CMR.
+ * <p>
+ * The histogram has a fixed size of {@value HistogramUtil#LENGTH} buckets, thus the memory per
+ * method stays bounded no matter how many invocations are recorded.
+ *
+ * @author agent
+ *
+ */
+public class HistogramTimerStorage extends StripedTimerStorage {
+
+	/**
+	 * Bucket counts of the histogram.
+	 */
+	private final AtomicLongArray histogram = new AtomicLongArray(HistogramUtil.LENGTH);
+
+	/**
+	 * Default constructor which initializes a {@link TimerData} object.
+	 *
+	 * @param timeStamp
+	 *            The time stamp.
+	 * @param platformIdent
+	 *            The platform ID.
+	 * @param sensorTypeIdent
+	 *            The sensor type ID.
+	 * @param methodIdent
+	 *            The method ID.
+	 * @param parameterContentData
+	 *            The content of the parameter/fields.
+	 * @param charting
+	 *            If TimerData's charting should be set or not.
+	 */
+	public HistogramTimerStorage(Timestamp timeStamp, long platformIdent, long sensorTypeIdent, long methodIdent, List<ParameterContentData> parameterContentData, boolean charting) {
+		super(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addData(double time, double cpuTime, long count) {
+		super.addData(time, cpuTime, count);
+		histogram.addAndGet(HistogramUtil.getIndex(time), count);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public DefaultData finalizeDataObject() {
+		TimerData timerData = (TimerData) super.finalizeDataObject();
+		long[] counts = HistogramUtil.newHistogram();
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = histogram.get(i);
+		}
+		timerData.setHistogram(counts);
+		return timerData;
+	}
+
+}
@@ -20,4 +20,17 @@ public interface ITimerStorage extends IObjectStorage {
 	 */
 	void addData(double time, double cpuTime);
 
+	/**
+	 * Processes the time and cpu time value that stands for the given amount of calls. Used when
+	 * only one of the given amount of calls is measured.
+	 *
+	 * @param time
+	 *            The time value.
+	 * @param cpuTime
+	 *            The cpu time value.
+	 * @param count
+	 *            Amount of calls the values stand for.
+	 */
+	void addData(double time, double cpuTime, long count);
+
 }
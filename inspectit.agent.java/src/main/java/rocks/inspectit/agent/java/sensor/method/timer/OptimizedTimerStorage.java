@@ -46,15 +46,22 @@ public class OptimizedTimerStorage implements ITimerStorage {
 	 * {@inheritDoc}
 	 */
 	public void addData(double time, double cpuTime) {
-		timerData.increaseCount();
-		timerData.addDuration(time);
+		addData(time, cpuTime, 1L);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void addData(double time, double cpuTime, long count) {
+		timerData.setCount(timerData.getCount() + count);
+		timerData.addDuration(time * count);
 
 		timerData.calculateMax(time);
 		timerData.calculateMin(time);
 
 		// only add the cpu time if it greater than zero
 		if (cpuTime >= 0) {
-			timerData.addCpuDuration(cpuTime);
+			timerData.addCpuDuration(cpuTime * count);
 
 			timerData.calculateCpuMax(cpuTime);
 			timerData.calculateCpuMin(cpuTime);
@@ -52,6 +52,17 @@ public class PlainTimerStorage implements ITimerStorage {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public void addData(double time, double cpuTime, long count) {
+		if (cpuTime < 0) {
+			timerRawVO.add(time, count);
+		} else {
+			timerRawVO.add(time, cpuTime, count);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
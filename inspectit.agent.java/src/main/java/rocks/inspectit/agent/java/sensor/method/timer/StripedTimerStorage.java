@@ -0,0 +1,281 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ParameterContentData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+
+/**
+ * Timer storage for methods that are executed by many threads at the same time. Instead of
+ * updating one shared {@link TimerData}, the values are aggregated in a number of cells (similar
+ * to the <code>LongAdder</code> of Java 8). Each thread updates the cell selected by its id with
+ * compare-and-set operations, so no measurement is lost and the threads do not compete for the
+ * same cache line. The cells are merged into the {@link TimerData} when
+ * {@link #finalizeDataObject()} is called.
+ * <p>
+ * Cells are created lazily, thus a storage of a method that is executed by a single thread holds
+ * only one cell.
+ *
+ * @author agent
+ *
+ */
+public class StripedTimerStorage implements ITimerStorage {
+
+	/**
+	 * Max amount of cells.
+	 */
+	private static final int MAX_CELLS = 64;
+
+	/**
+	 * Amount of cells, next power of two of the double amount of the available processors.
+	 */
+	private static final int CELLS;
+
+	/**
+	 * Index of the count in the cell.
+	 */
+	private static final int COUNT = 0;
+
+	/**
+	 * Index of the duration in the cell.
+	 */
+	private static final int DURATION = 1;
+
+	/**
+	 * Index of the min in the cell.
+	 */
+	private static final int MIN = 2;
+
+	/**
+	 * Index of the max in the cell.
+	 */
+	private static final int MAX = 3;
+
+	/**
+	 * Index of the cpu duration in the cell.
+	 */
+	private static final int CPU_DURATION = 4;
+
+	/**
+	 * Index of the cpu min in the cell.
+	 */
+	private static final int CPU_MIN = 5;
+
+	/**
+	 * Index of the cpu max in the cell.
+	 */
+	private static final int CPU_MAX = 6;
+
+	/**
+	 * Size of the cell array. Bigger than needed so that two cells never share a cache line.
+	 */
+	private static final int CELL_SIZE = 16;
+
+	static {
+		int cells = 1;
+		int wanted = Runtime.getRuntime().availableProcessors() << 1;
+		while ((cells < wanted) && (cells < MAX_CELLS)) {
+			cells <<= 1;
+		}
+		CELLS = cells;
+	}
+
+	/**
+	 * The timer data object holding the identification of the measurement and receiving the merged
+	 * values.
+	 */
+	private final TimerData timerData;
+
+	/**
+	 * Lazily created cells.
+	 */
+	private final AtomicReferenceArray<AtomicLongArray> cells = new AtomicReferenceArray<AtomicLongArray>(CELLS);
+
+	/**
+	 * Default constructor which initializes a {@link TimerData} object.
+	 *
+	 * @param timeStamp
+	 *            The time stamp.
+	 * @param platformIdent
+	 *            The platform ID.
+	 * @param sensorTypeIdent
+	 *            The sensor type ID.
+	 * @param methodIdent
+	 *            The method ID.
+	 * @param parameterContentData
+	 *            The content of the parameter/fields.
+	 * @param charting
+	 *            If TimerData's charting should be set or not.
+	 */
+	public StripedTimerStorage(Timestamp timeStamp, long platformIdent, long sensorTypeIdent, long methodIdent, List<ParameterContentData> parameterContentData, boolean charting) {
+		timerData = new TimerData(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData);
+		timerData.setCharting(charting);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void addData(double time, double cpuTime) {
+		addData(time, cpuTime, 1L);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void addData(double time, double cpuTime, long count) {
+		AtomicLongArray cell = getCell();
+
+		cell.addAndGet(COUNT, count);
+		add(cell, DURATION, time * count);
+		min(cell, MIN, time);
+		max(cell, MAX, time);
+
+		// only add the cpu time if it greater than zero
+		if (cpuTime >= 0) {
+			add(cell, CPU_DURATION, cpuTime * count);
+			min(cell, CPU_MIN, cpuTime);
+			max(cell, CPU_MAX, cpuTime);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Must not be called while data is still added.
+	 */
+	public DefaultData finalizeDataObject() {
+		long count = 0;
+		double duration = 0;
+		double cpuDuration = 0;
+		for (int i = 0; i < CELLS; i++) {
+			AtomicLongArray cell = cells.get(i);
+			if ((null == cell) || (0 == cell.get(COUNT))) {
+				continue;
+			}
+
+			count += cell.get(COUNT);
+			duration += get(cell, DURATION);
+			timerData.calculateMin(get(cell, MIN));
+			timerData.calculateMax(get(cell, MAX));
+
+			double cpuMin = get(cell, CPU_MIN);
+			if (cpuMin != Double.POSITIVE_INFINITY) {
+				cpuDuration += get(cell, CPU_DURATION);
+				timerData.calculateCpuMin(cpuMin);
+				timerData.calculateCpuMax(get(cell, CPU_MAX));
+			}
+		}
+
+		timerData.setCount(count);
+		timerData.setDuration(duration);
+		timerData.setCpuDuration(cpuDuration);
+		return timerData;
+	}
+
+	/**
+	 * Returns the cell of the current thread, creates one if it does not exist.
+	 *
+	 * @return Cell of the current thread.
+	 */
+	private AtomicLongArray getCell() {
+		int index = (int) Thread.currentThread().getId() & (CELLS - 1);
+		AtomicLongArray cell = cells.get(index);
+		if (null == cell) {
+			AtomicLongArray newCell = new AtomicLongArray(CELL_SIZE);
+			newCell.set(MIN, Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+			newCell.set(MAX, Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+			newCell.set(CPU_MIN, Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+			newCell.set(CPU_MAX, Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+			if (cells.compareAndSet(index, null, newCell)) {
+				cell = newCell;
+			} else {
+				cell = cells.get(index);
+			}
+		}
+		return cell;
+	}
+
+	/**
+	 * Returns the double value in the cell.
+	 *
+	 * @param cell
+	 *            Cell.
+	 * @param index
+	 *            Index of the value.
+	 * @return Double value.
+	 */
+	private static double get(AtomicLongArray cell, int index) {
+		return Double.longBitsToDouble(cell.get(index));
+	}
+
+	/**
+	 * Atomically adds the value to the double value in the cell.
+	 *
+	 * @param cell
+	 *            Cell.
+	 * @param index
+	 *            Index of the value.
+	 * @param value
+	 *            Value to add.
+	 */
+	private static void add(AtomicLongArray cell, int index, double value) {
+		while (true) {
+			long current = cell.get(index);
+			long updated = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + value);
+			if (cell.compareAndSet(index, current, updated)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Atomically sets the double value in the cell to the given value if the given value is
+	 * smaller.
+	 *
+	 * @param cell
+	 *            Cell.
+	 * @param index
+	 *            Index of the value.
+	 * @param value
+	 *            Value to compare.
+	 */
+	private static void min(AtomicLongArray cell, int index, double value) {
+		while (true) {
+			long current = cell.get(index);
+			if (Double.longBitsToDouble(current) <= value) {
+				return;
+			}
+			if (cell.compareAndSet(index, current, Double.doubleToRawLongBits(value))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Atomically sets the double value in the cell to the given value if the given value is
+	 * bigger.
+	 *
+	 * @param cell
+	 *            Cell.
+	 * @param index
+	 *            Index of the value.
+	 * @param value
+	 *            Value to compare.
+	 */
+	private static void max(AtomicLongArray cell, int index, double value) {
+		while (true) {
+			long current = cell.get(index);
+			if (Double.longBitsToDouble(current) >= value) {
+				return;
+			}
+			if (cell.compareAndSet(index, current, Double.doubleToRawLongBits(value))) {
+				return;
+			}
+		}
+	}
+
+}
@@ -15,15 +15,17 @@ import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
 import rocks.inspectit.agent.java.hooking.IConstructorHook;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.hooking.impl.MethodOverhead;
 import rocks.inspectit.agent.java.sensor.method.averagetimer.AverageTimerHook;
+import rocks.inspectit.agent.java.sensor.method.invocationsequence.InvocationSequenceHook;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
+import rocks.inspectit.agent.java.util.ThreadLocalLongStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.data.ParameterContentData;
 
 /**
- * The hook implementation for the timer sensor. It uses the {@link ThreadLocalStack} class to save
- * the time when the method was called.
+ * The hook implementation for the timer sensor. It uses the {@link ThreadLocalLongStack} class to
+ * save the time when the method was called, thus no objects are created for the measurement.
  * <p>
  * The difference to the {@link AverageTimerHook} is that it's using {@link ITimerStorage} objects
  * to save the values. The {@link ITimerStorage} is responsible for the actual data saving, so
@@ -42,7 +44,7 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
+	private final ThreadLocalLongStack timeStack = new ThreadLocalLongStack();
 
 	/**
 	 * The timer used for accurate measuring.
@@ -88,7 +90,7 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Long> threadCpuTimeStack = new ThreadLocalStack<Long>();
+	private final ThreadLocalLongStack threadCpuTimeStack = new ThreadLocalLongStack();
 
 	/**
 	 * The only constructor which needs the used {@link ICoreService} implementation and the used
@@ -139,9 +141,9 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 * {@inheritDoc}
 	 */
 	public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentNanoTime());
 		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+			threadCpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
 		}
 	}
 
@@ -149,9 +151,9 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 * {@inheritDoc}
 	 */
 	public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentNanoTime());
 		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+			threadCpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
 		}
 	}
 
@@ -159,16 +161,16 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 * {@inheritDoc}
 	 */
 	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
-		double endTime = timeStack.pop().doubleValue();
-		double startTime = timeStack.pop().doubleValue();
-		double duration = endTime - startTime;
+		long endTime = timeStack.pop();
+		long startTime = timeStack.pop();
+		double duration = Timer.toMillis(endTime - startTime);
 
 		// default setting to a negative number
 		double cpuDuration = -1.0d;
 		if (enabled) {
-			long cpuEndTime = threadCpuTimeStack.pop().longValue();
-			long cpuStartTime = threadCpuTimeStack.pop().longValue();
-			cpuDuration = (cpuEndTime - cpuStartTime) / 1000000.0d;
+			long cpuEndTime = threadCpuTimeStack.pop();
+			long cpuStartTime = threadCpuTimeStack.pop();
+			cpuDuration = Timer.toMillis(cpuEndTime - cpuStartTime);
 		}
 
 		List<ParameterContentData> parameterContentData = null;
@@ -184,6 +186,14 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 			}
 		}
 
+		// when only one of N calls is sampled, the measured call stands for all N calls, but
+		// inside of an invocation sequence every call is executed
+		long count = 1L;
+		MethodOverhead methodOverhead = rsc.getMethodOverhead();
+		if ((null != methodOverhead) && !(coreService instanceof InvocationSequenceHook)) {
+			count = Math.max(1L, methodOverhead.getSamplingRate());
+		}
+
 		ITimerStorage storage = (ITimerStorage) coreService.getObjectStorage(sensorTypeId, methodId, prefix);
 
 		if (null == storage) {
@@ -195,7 +205,7 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 				boolean charting = Boolean.TRUE.equals(rsc.getSettings().get("charting"));
 
 				storage = timerStorageFactory.newStorage(timestamp, platformId, sensorTypeId, methodId, parameterContentData, charting);
-				storage.addData(duration, cpuDuration);
+				addData(storage, duration, cpuDuration, count);
 
 				coreService.addObjectStorage(sensorTypeId, methodId, prefix, storage);
 			} catch (IdNotAvailableException e) {
@@ -203,6 +213,27 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 					LOG.debug("Could not save the timer data because of an unavailable id. " + e.getMessage());
 				}
 			}
+		} else {
+			addData(storage, duration, cpuDuration, count);
+		}
+	}
+
+	/**
+	 * Adds the data to the storage. The count is only passed if the call stands for more than one
+	 * call.
+	 *
+	 * @param storage
+	 *            Timer storage.
+	 * @param duration
+	 *            The time value.
+	 * @param cpuDuration
+	 *            The cpu time value.
+	 * @param count
+	 *            Amount of calls the values stand for.
+	 */
+	private void addData(ITimerStorage storage, double duration, double cpuDuration, long count) {
+		if (count > 1) {
+			storage.addData(duration, cpuDuration, count);
 		} else {
 			storage.addData(duration, cpuDuration);
 		}
@@ -212,9 +243,9 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 * {@inheritDoc}
 	 */
 	public void beforeConstructor(long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentNanoTime());
 		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+			threadCpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
 		}
 	}
 
@@ -222,9 +253,9 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 * {@inheritDoc}
 	 */
 	public void afterConstructor(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		timeStack.push(timer.getCurrentNanoTime());
 		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+			threadCpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
 		}
 		// just call the second after body method directly
 		secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, null, rsc);
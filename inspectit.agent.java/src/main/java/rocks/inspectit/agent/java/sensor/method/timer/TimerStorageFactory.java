@@ -35,6 +35,16 @@ public final class TimerStorageFactory {
 	 */
 	public static final int OPTIMIZED = 2;
 
+	/**
+	 * Optimized mode for the methods executed by many threads concurrently.
+	 */
+	public static final int STRIPED = 3;
+
+	/**
+	 * Striped mode that additionally records the histogram of the durations.
+	 */
+	public static final int HISTOGRAM = 4;
+
 	/**
 	 * The default mode.
 	 */
@@ -69,7 +79,8 @@ public final class TimerStorageFactory {
 
 	/**
 	 * If given {@link Map} contains a key named <b>mode</b>, it is checked against the keywords
-	 * <b>raw</b>, <b>aggregate</b> and <b>optimized</b>.
+	 * <b>raw</b>, <b>aggregate</b>, <b>optimized</b>, <b>striped</b> and
+	 * <b>histogram</b>.
 	 *
 	 * @param parameters
 	 *            The parameters.
@@ -84,6 +95,10 @@ public final class TimerStorageFactory {
 				setMode(AGGREGATE_BEFORE_SEND);
 			} else if ("optimized".equals(mode)) {
 				setMode(OPTIMIZED);
+			} else if ("striped".equals(mode)) {
+				setMode(STRIPED);
+			} else if ("histogram".equals(mode)) {
+				setMode(HISTOGRAM);
 			}
 		}
 	}
@@ -92,7 +107,9 @@ public final class TimerStorageFactory {
 	 * Sets the mode for this factory. It can be one of the following: <br>
 	 * <b>RAW_DATA_TRANSMISSION</b> <br>
 	 * <b>AGGREGATE_BEFORE_SEND</b> <br>
-	 * <b>OPTIMIZED</b>
+	 * <b>OPTIMIZED</b> <br>
+	 * <b>STRIPED</b> <br>
+	 * <b>HISTOGRAM</b>
 	 *
 	 * @param mode
 	 *            The mode to set.
@@ -127,6 +144,10 @@ public final class TimerStorageFactory {
 			return new AggregateTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
 		case OPTIMIZED:
 			return new OptimizedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
+		case STRIPED:
+			return new StripedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
+		case HISTOGRAM:
+			return new HistogramTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
 		default:
 			return new OptimizedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
 		}
@@ -1,7 +1,6 @@
 package rocks.inspectit.agent.java.sensor.platform;
 
 import java.sql.Timestamp;
-import java.util.Calendar;
 
 import rocks.inspectit.agent.java.sensor.platform.provider.RuntimeInfoProvider;
 import rocks.inspectit.agent.java.sensor.platform.provider.factory.PlatformSensorInfoProviderFactory;
@@ -43,19 +42,22 @@ public class ClassLoadingInformation extends AbstractPlatformSensor {
 
 		if (loadedClassCount < this.classLoadingInformationData.getMinLoadedClassCount()) {
 			this.classLoadingInformationData.setMinLoadedClassCount(loadedClassCount);
-		} else if (loadedClassCount > this.classLoadingInformationData.getMaxLoadedClassCount()) {
+		}
+		if (loadedClassCount > this.classLoadingInformationData.getMaxLoadedClassCount()) {
 			this.classLoadingInformationData.setMaxLoadedClassCount(loadedClassCount);
 		}
 
 		if (totalLoadedClassCount < this.classLoadingInformationData.getMinTotalLoadedClassCount()) {
 			this.classLoadingInformationData.setMinTotalLoadedClassCount(totalLoadedClassCount);
-		} else if (totalLoadedClassCount > this.classLoadingInformationData.getMaxTotalLoadedClassCount()) {
+		}
+		if (totalLoadedClassCount > this.classLoadingInformationData.getMaxTotalLoadedClassCount()) {
 			this.classLoadingInformationData.setMaxTotalLoadedClassCount(totalLoadedClassCount);
 		}
 
 		if (unloadedClassCount < this.classLoadingInformationData.getMinUnloadedClassCount()) {
 			this.classLoadingInformationData.setMinUnloadedClassCount(unloadedClassCount);
-		} else if (unloadedClassCount > this.classLoadingInformationData.getMaxUnloadedClassCount()) {
+		}
+		if (unloadedClassCount > this.classLoadingInformationData.getMaxUnloadedClassCount()) {
 			this.classLoadingInformationData.setMaxUnloadedClassCount(unloadedClassCount);
 		}
 	}
@@ -107,7 +109,7 @@ public class ClassLoadingInformation extends AbstractPlatformSensor {
 		this.classLoadingInformationData.setMinUnloadedClassCount(Long.MAX_VALUE);
 		this.classLoadingInformationData.setMaxUnloadedClassCount(0L);
 
-		Timestamp timestamp = new Timestamp(Calendar.getInstance().getTimeInMillis());
+		Timestamp timestamp = new Timestamp(System.currentTimeMillis());
 		this.classLoadingInformationData.setTimeStamp(timestamp);
 	}
 
@@ -1,7 +1,6 @@
 package rocks.inspectit.agent.java.sensor.platform;
 
 import java.sql.Timestamp;
-import java.util.Calendar;
 
 import rocks.inspectit.agent.java.sensor.platform.provider.RuntimeInfoProvider;
 import rocks.inspectit.agent.java.sensor.platform.provider.factory.PlatformSensorInfoProviderFactory;
@@ -39,7 +38,8 @@ public class CompilationInformation extends AbstractPlatformSensor {
 
 		if (totalCompilationTime < this.compilationInformationData.getMinTotalCompilationTime()) {
 			this.compilationInformationData.setMinTotalCompilationTime(totalCompilationTime);
-		} else if (totalCompilationTime > this.compilationInformationData.getMaxTotalCompilationTime()) {
+		}
+		if (totalCompilationTime > this.compilationInformationData.getMaxTotalCompilationTime()) {
 			this.compilationInformationData.setMaxTotalCompilationTime(totalCompilationTime);
 		}
 	}
@@ -75,7 +75,7 @@ public class CompilationInformation extends AbstractPlatformSensor {
 		this.compilationInformationData.setMinTotalCompilationTime(Long.MAX_VALUE);
 		this.compilationInformationData.setMaxTotalCompilationTime(0L);
 
-		Timestamp timestamp = new Timestamp(Calendar.getInstance().getTimeInMillis());
+		Timestamp timestamp = new Timestamp(System.currentTimeMillis());
 		this.compilationInformationData.setTimeStamp(timestamp);
 	}
 
@@ -1,7 +1,6 @@
 package rocks.inspectit.agent.java.sensor.platform;
 
 import java.sql.Timestamp;
-import java.util.Calendar;
 
 import rocks.inspectit.agent.java.sensor.platform.provider.OperatingSystemInfoProvider;
 import rocks.inspectit.agent.java.sensor.platform.provider.factory.PlatformSensorInfoProviderFactory;
@@ -83,7 +82,7 @@ public class CpuInformation extends AbstractPlatformSensor {
 		this.cpuInformationData.setMinCpuUsage(Float.MAX_VALUE);
 		this.cpuInformationData.setMaxCpuUsage(0f);
 
-		Timestamp timestamp = new Timestamp(Calendar.getInstance().getTimeInMillis());
+		Timestamp timestamp = new Timestamp(System.currentTimeMillis());
 		this.cpuInformationData.setTimeStamp(timestamp);
 	}
 
@@ -1,7 +1,7 @@
 package rocks.inspectit.agent.java.sensor.platform;
 
+import java.lang.management.MemoryUsage;
 import java.sql.Timestamp;
-import java.util.Calendar;
 
 import rocks.inspectit.agent.java.sensor.platform.provider.MemoryInfoProvider;
 import rocks.inspectit.agent.java.sensor.platform.provider.OperatingSystemInfoProvider;
@@ -37,10 +37,13 @@ public class MemoryInformation extends AbstractPlatformSensor {
 		long freePhysMemory = this.getOsBean().getFreePhysicalMemorySize();
 		long freeSwapSpace = this.getOsBean().getFreeSwapSpaceSize();
 		long comittedVirtualMemSize = this.getOsBean().getCommittedVirtualMemorySize();
-		long usedHeapMemorySize = this.getMemoryBean().getHeapMemoryUsage().getUsed();
-		long comittedHeapMemorySize = this.getMemoryBean().getHeapMemoryUsage().getCommitted();
-		long usedNonHeapMemorySize = this.getMemoryBean().getNonHeapMemoryUsage().getUsed();
-		long comittedNonHeapMemorySize = this.getMemoryBean().getNonHeapMemoryUsage().getCommitted();
+		// each memory usage read creates a new MemoryUsage object, thus read it only once
+		MemoryUsage heapMemoryUsage = this.getMemoryBean().getHeapMemoryUsage();
+		MemoryUsage nonHeapMemoryUsage = this.getMemoryBean().getNonHeapMemoryUsage();
+		long usedHeapMemorySize = heapMemoryUsage.getUsed();
+		long comittedHeapMemorySize = heapMemoryUsage.getCommitted();
+		long usedNonHeapMemorySize = nonHeapMemoryUsage.getUsed();
+		long comittedNonHeapMemorySize = nonHeapMemoryUsage.getCommitted();
 
 		this.memoryInformationData.incrementCount();
 		this.memoryInformationData.addFreePhysMemory(freePhysMemory);
@@ -53,43 +56,50 @@ public class MemoryInformation extends AbstractPlatformSensor {
 
 		if (freePhysMemory < this.memoryInformationData.getMinFreePhysMemory()) {
 			this.memoryInformationData.setMinFreePhysMemory(freePhysMemory);
-		} else if (freePhysMemory > this.memoryInformationData.getMaxFreePhysMemory()) {
+		}
+		if (freePhysMemory > this.memoryInformationData.getMaxFreePhysMemory()) {
 			this.memoryInformationData.setMaxFreePhysMemory(freePhysMemory);
 		}
 
 		if (freeSwapSpace < this.memoryInformationData.getMinFreeSwapSpace()) {
 			this.memoryInformationData.setMinFreeSwapSpace(freeSwapSpace);
-		} else if (freeSwapSpace > this.memoryInformationData.getMaxFreeSwapSpace()) {
+		}
+		if (freeSwapSpace > this.memoryInformationData.getMaxFreeSwapSpace()) {
 			this.memoryInformationData.setMaxFreeSwapSpace(freeSwapSpace);
 		}
 
 		if (comittedVirtualMemSize < this.memoryInformationData.getMinComittedVirtualMemSize()) {
 			this.memoryInformationData.setMinComittedVirtualMemSize(comittedVirtualMemSize);
-		} else if (comittedVirtualMemSize > this.memoryInformationData.getMaxComittedVirtualMemSize()) {
+		}
+		if (comittedVirtualMemSize > this.memoryInformationData.getMaxComittedVirtualMemSize()) {
 			this.memoryInformationData.setMaxComittedVirtualMemSize(comittedVirtualMemSize);
 		}
 
 		if (usedHeapMemorySize < this.memoryInformationData.getMinUsedHeapMemorySize()) {
 			this.memoryInformationData.setMinUsedHeapMemorySize(usedHeapMemorySize);
-		} else if (usedHeapMemorySize > this.memoryInformationData.getMaxUsedHeapMemorySize()) {
+		}
+		if (usedHeapMemorySize > this.memoryInformationData.getMaxUsedHeapMemorySize()) {
 			this.memoryInformationData.setMaxUsedHeapMemorySize(usedHeapMemorySize);
 		}
 
 		if (comittedHeapMemorySize < this.memoryInformationData.getMinComittedHeapMemorySize()) {
 			this.memoryInformationData.setMinComittedHeapMemorySize(comittedHeapMemorySize);
-		} else if (comittedHeapMemorySize > this.memoryInformationData.getMaxComittedHeapMemorySize()) {
+		}
+		if (comittedHeapMemorySize > this.memoryInformationData.getMaxComittedHeapMemorySize()) {
 			this.memoryInformationData.setMaxComittedHeapMemorySize(comittedHeapMemorySize);
 		}
 
 		if (usedNonHeapMemorySize < this.memoryInformationData.getMinUsedNonHeapMemorySize()) {
 			this.memoryInformationData.setMinUsedNonHeapMemorySize(usedNonHeapMemorySize);
-		} else if (usedNonHeapMemorySize > this.memoryInformationData.getMaxUsedNonHeapMemorySize()) {
+		}
+		if (usedNonHeapMemorySize > this.memoryInformationData.getMaxUsedNonHeapMemorySize()) {
 			this.memoryInformationData.setMaxUsedNonHeapMemorySize(usedNonHeapMemorySize);
 		}
 
 		if (comittedNonHeapMemorySize < this.memoryInformationData.getMinComittedNonHeapMemorySize()) {
 			this.memoryInformationData.setMinComittedNonHeapMemorySize(comittedNonHeapMemorySize);
-		} else if (comittedNonHeapMemorySize > this.memoryInformationData.getMaxComittedNonHeapMemorySize()) {
+		}
+		if (comittedNonHeapMemorySize > this.memoryInformationData.getMaxComittedNonHeapMemorySize()) {
 			this.memoryInformationData.setMaxComittedNonHeapMemorySize(comittedNonHeapMemorySize);
 		}
 	}
@@ -173,7 +183,7 @@ public class MemoryInformation extends AbstractPlatformSensor {
 		this.memoryInformationData.setMinComittedNonHeapMemorySize(Long.MAX_VALUE);
 		this.memoryInformationData.setMaxComittedNonHeapMemorySize(0L);
 
-		Timestamp timestamp = new Timestamp(Calendar.getInstance().getTimeInMillis());
+		Timestamp timestamp = new Timestamp(System.currentTimeMillis());
 		this.memoryInformationData.setTimeStamp(timestamp);
 	}
 
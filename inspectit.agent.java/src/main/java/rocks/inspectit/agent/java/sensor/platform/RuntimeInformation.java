@@ -1,7 +1,6 @@
 package rocks.inspectit.agent.java.sensor.platform;
 
 import java.sql.Timestamp;
-import java.util.Calendar;
 
 import rocks.inspectit.agent.java.sensor.platform.provider.RuntimeInfoProvider;
 import rocks.inspectit.agent.java.sensor.platform.provider.factory.PlatformSensorInfoProviderFactory;
@@ -49,7 +48,7 @@ public class RuntimeInformation extends AbstractPlatformSensor {
 
 		newRuntimeInformationData.setTimeStamp(this.runtimeInformationData.getTimeStamp());
 
-		return this.runtimeInformationData;
+		return newRuntimeInformationData;
 	}
 
 	/**
@@ -59,7 +58,7 @@ public class RuntimeInformation extends AbstractPlatformSensor {
 	public void reset() {
 		this.runtimeInformationData.setUptime(0L);
 
-		Timestamp timestamp = new Timestamp(Calendar.getInstance().getTimeInMillis());
+		Timestamp timestamp = new Timestamp(System.currentTimeMillis());
 		this.runtimeInformationData.setTimeStamp(timestamp);
 	}
 
@@ -22,6 +22,8 @@ import org.springframework.core.io.ClassPathResource;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import rocks.inspectit.agent.java.analyzer.IClassHashFunction;
+import rocks.inspectit.agent.java.analyzer.impl.ClassHashFunctionFactory;
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AbstractSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxSensorTypeConfig;
@@ -98,6 +100,15 @@ public class SpringConfiguration implements BeanDefinitionRegistryPostProcessor
 		return Executors.newScheduledThreadPool(3, threadFactory);
 	}
 
+	/**
+	 * @return Returns classHashFunction
+	 */
+	@Bean(name = "classHashFunction")
+	@Scope(BeanDefinition.SCOPE_SINGLETON)
+	public IClassHashFunction getClassHashFunction() {
+		return ClassHashFunctionFactory.createClassHashFunction();
+	}
+
 	/**
 	 * Creates the client bean.
 	 *
@@ -0,0 +1,140 @@
+package rocks.inspectit.agent.java.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The ThreadLocalLongStack is the primitive counterpart of the {@link ThreadLocalStack}. It keeps
+ * the values of each thread in a growing <code>long</code> array, thus pushing and popping values
+ * does not create any objects (no boxing and no list nodes). Only the first usage in a thread and
+ * the growing of the array allocate memory.
+ * <p>
+ * This stack is meant to be used by the hooks to save the time stamps when the measured method was
+ * called.
+ *
+ * @author agent
+ */
+public class ThreadLocalLongStack extends ThreadLocal<ThreadLocalLongStack.LongStack> {
+
+	/**
+	 * Initial capacity of the stack of each thread.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public LongStack initialValue() { // NOPMD
+		return new LongStack();
+	}
+
+	/**
+	 * Pushes the specified value onto the stack.
+	 *
+	 * @param value
+	 *            the value to push onto the stack.
+	 */
+	public void push(long value) {
+		super.get().push(value);
+	}
+
+	/**
+	 * Returns the last pushed value.
+	 *
+	 * @return The last pushed value.
+	 * @throws NoSuchElementException
+	 *             If the stack is empty.
+	 */
+	public long pop() throws NoSuchElementException {
+		return super.get().pop();
+	}
+
+	/**
+	 * Returns the last pushed value without removing it.
+	 *
+	 * @return The last pushed value.
+	 * @throws NoSuchElementException
+	 *             If the stack is empty.
+	 */
+	public long getLast() throws NoSuchElementException {
+		return super.get().getLast();
+	}
+
+	/**
+	 * Returns if the stack of the current thread is empty.
+	 *
+	 * @return <code>true</code> if no value is on the stack of the current thread.
+	 */
+	public boolean isEmpty() {
+		return 0 == super.get().size;
+	}
+
+	/**
+	 * Simple array backed stack of primitive long values. Not thread safe as it's always used by
+	 * one thread only.
+	 *
+	 * @author agent
+	 */
+	public static final class LongStack {
+
+		/**
+		 * Values on the stack.
+		 */
+		private long[] values = new long[INITIAL_CAPACITY];
+
+		/**
+		 * Current size of the stack.
+		 */
+		private int size;
+
+		/**
+		 * Pushes the specified value onto the stack.
+		 *
+		 * @param value
+		 *            the value to push onto the stack.
+		 */
+		void push(long value) {
+			if (size == values.length) {
+				long[] grown = new long[values.length << 1];
+				System.arraycopy(values, 0, grown, 0, size);
+				values = grown;
+			}
+			values[size++] = value;
+		}
+
+		/**
+		 * Returns and removes the last pushed value.
+		 *
+		 * @return The last pushed value.
+		 */
+		long pop() {
+			if (0 == size) {
+				throw new NoSuchElementException();
+			}
+			return values[--size];
+		}
+
+		/**
+		 * Returns the last pushed value without removing it.
+		 *
+		 * @return The last pushed value.
+		 */
+		long getLast() {
+			if (0 == size) {
+				throw new NoSuchElementException();
+			}
+			return values[size - 1];
+		}
+
+		/**
+		 * Gets {@link #size}.
+		 *
+		 * @return {@link #size}
+		 */
+		public int size() {
+			return size;
+		}
+
+	}
+
+}
@@ -19,7 +19,29 @@ public class Timer {
 	 * @return The time as a double value.
 	 */
 	public double getCurrentTime() {
-		return System.nanoTime() / 1000000.0d;
+		return toMillis(getCurrentNanoTime());
+	}
+
+	/**
+	 * Returns the current value of the timer in nanoseconds. Hooks should prefer this method as the
+	 * returned primitive <code>long</code> can be saved without any boxing or precision loss. Only
+	 * the differences of two returned values are meaningful.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getCurrentNanoTime() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Converts the given nanoseconds to milliseconds as expected by the data objects.
+	 *
+	 * @param nanos
+	 *            Time in nanoseconds.
+	 * @return Time in milliseconds.
+	 */
+	public static double toMillis(long nanos) {
+		return nanos / 1000000.0d;
 	}
 
 }
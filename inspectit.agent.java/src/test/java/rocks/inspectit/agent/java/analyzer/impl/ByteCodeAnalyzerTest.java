@@ -9,17 +9,20 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
-import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.fail;
 
 import info.novatec.inspectit.org.objectweb.asm.ClassReader;
 import info.novatec.inspectit.org.objectweb.asm.ClassWriter;
@@ -30,11 +33,8 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
@@ -42,6 +42,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.slf4j.Logger;
@@ -51,6 +52,7 @@ import org.testng.annotations.Test;
 
 import rocks.inspectit.agent.java.Agent;
 import rocks.inspectit.agent.java.IAgent;
+import rocks.inspectit.agent.java.analyzer.IClassHashFunction;
 import rocks.inspectit.agent.java.analyzer.classes.AbstractSubTest;
 import rocks.inspectit.agent.java.analyzer.classes.TestClass;
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
@@ -63,7 +65,7 @@ import rocks.inspectit.agent.java.core.IdNotAvailableException;
 import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
 import rocks.inspectit.agent.java.instrumentation.InstrumenterFactory;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
-import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.IMethodInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
@@ -109,6 +111,9 @@ public class ByteCodeAnalyzerTest extends TestBase {
 	@Mock
 	ClassHashHelper classHashHelper;
 
+	@Spy
+	IClassHashFunction classHashFunction = new Murmur3ClassHashFunction();
+
 	@Mock
 	InstrumenterFactory instrumenterFactory;
 
@@ -127,9 +132,6 @@ public class ByteCodeAnalyzerTest extends TestBase {
 	@Mock
 	List<IMethodSensor> methodSensors;
 
-	@Mock
-	Future<Object> future;
-
 	@Mock
 	IAgent agent;
 
@@ -147,14 +149,6 @@ public class ByteCodeAnalyzerTest extends TestBase {
 				return null;
 			}
 		}).when(executorService).submit(Matchers.<Runnable> any());
-		doAnswer(new Answer<Future<Object>>() {
-			@Override
-			public Future<Object> answer(InvocationOnMock invocation) throws Throwable {
-				final Object result = ((Callable<?>) invocation.getArguments()[0]).call();
-				when(future.get(anyLong(), Matchers.<TimeUnit> any())).thenReturn(result);
-				return future;
-			}
-		}).when(executorService).submit(Matchers.<Callable> any());
 
 		// method sensor and config
 		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
@@ -192,11 +186,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<List> typesCaptor = ArgumentCaptor.forClass(List.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeBatch(eq(platformId.longValue()), Matchers.<List<String>> any(), typesCaptor.capture())).thenReturn(Collections.singletonList(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -214,7 +208,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(not(nullValue())));
 
 			verify(connection, times(3)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeBatch(platformId.longValue(), Collections.singletonList(hashCaptor.getValue()), typesCaptor.getValue());
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			assertThat(captor.getValue().size(), is(1));
@@ -256,11 +250,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<List> typesCaptor = ArgumentCaptor.forClass(List.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeBatch(eq(platformId.longValue()), Matchers.<List<String>> any(), typesCaptor.capture())).thenReturn(Collections.singletonList(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -278,7 +272,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(not(nullValue())));
 
 			verify(connection, times(3)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeBatch(platformId.longValue(), Collections.singletonList(hashCaptor.getValue()), typesCaptor.getValue());
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			assertThat(captor.getValue().size(), is(1));
@@ -320,11 +314,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<List> typesCaptor = ArgumentCaptor.forClass(List.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeBatch(eq(platformId.longValue()), Matchers.<List<String>> any(), typesCaptor.capture())).thenReturn(Collections.singletonList(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long sscId = 13L;
 			long sensorId = 17L;
@@ -339,7 +333,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(not(nullValue())));
 
 			verify(connection, times(3)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeBatch(platformId.longValue(), Collections.singletonList(hashCaptor.getValue()), typesCaptor.getValue());
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			assertThat(captor.getValue().size(), is(1));
@@ -381,8 +375,46 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			// but we asked for the instrumentation result
 			verify(classHashHelper, times(1)).getInstrumentationDefinition(fqnCaptor.getValue());
-			verifyNoMoreInteractions(classHashHelper);
-			verifyZeroInteractions(platformManager, connection, hookDispatcherMapper, agent);
+			// not connected, thus class stays marked for the reconciliation
+			verify(connection, times(1)).isConnected();
+			verify(classHashHelper, never()).startReconciliation(anyString());
+			verifyNoMoreInteractions(classHashHelper, connection);
+			verifyZeroInteractions(platformManager, hookDispatcherMapper, agent);
+		}
+
+		@Test
+		public void notToBeSentReconciliation() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<List> typesCaptor = ArgumentCaptor.forClass(List.class);
+			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(true);
+			when(classHashHelper.getInstrumentationDefinition(fqnCaptor.capture())).thenReturn(null);
+			when(classHashHelper.startReconciliation(className)).thenReturn(true);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeBatch(eq(platformId.longValue()), Matchers.<List<String>> any(), typesCaptor.capture())).thenReturn(Collections.<InstrumentationDefinition> singletonList(null));
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// served from the cache
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
+			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).getInstrumentationDefinition(fqnCaptor.getValue());
+			verify(classHashHelper, times(1)).startReconciliation(fqnCaptor.getValue());
+			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
+			// but class was sent to the CMR
+			verify(connection, times(2)).isConnected();
+			verify(connection, times(1)).analyzeBatch(platformId.longValue(), Collections.singletonList(hashCaptor.getValue()), typesCaptor.getValue());
+			assertThat(((Type) typesCaptor.getValue().get(0)).getFQN(), is(className));
+			verify(classHashHelper, times(1)).registerSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).registerInstrumentationDefinition(fqnCaptor.getValue(), null);
+			verifyNoMoreInteractions(connection, classHashHelper);
+			verifyZeroInteractions(hookDispatcherMapper);
 		}
 
 		@Test
@@ -425,6 +457,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			// but we asked for the instrumentation result and instrumented
 			verify(classHashHelper, times(1)).getInstrumentationDefinition(fqnCaptor.getValue());
+			verify(classHashHelper, times(1)).startReconciliation(fqnCaptor.getValue());
 			ArgumentCaptor<RegisteredSensorConfig> rscCaptor = ArgumentCaptor.forClass(RegisteredSensorConfig.class);
 			verify(hookDispatcherMapper, times(1)).addMapping(eq(rscId), rscCaptor.capture());
 			assertThat(rscCaptor.getValue().getId(), is(rscId));
@@ -453,11 +486,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<List> typesCaptor = ArgumentCaptor.forClass(List.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(null);
+			when(connection.analyzeBatch(eq(platformId.longValue()), Matchers.<List<String>> any(), typesCaptor.capture())).thenReturn(Collections.<InstrumentationDefinition> singletonList(null));
 
 			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
 
@@ -465,7 +498,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(nullValue()));
 
 			verify(connection, times(2)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeBatch(platformId.longValue(), Collections.singletonList(hashCaptor.getValue()), typesCaptor.getValue());
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
@@ -516,11 +549,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<List> typesCaptor = ArgumentCaptor.forClass(List.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeBatch(eq(platformId.longValue()), Matchers.<List<String>> any(), typesCaptor.capture())).thenReturn(Collections.singletonList(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			when(sensorInstrumentationPoint.getId()).thenReturn(rscId);
@@ -531,7 +564,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(nullValue()));
 
 			verify(connection, times(2)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeBatch(platformId.longValue(), Collections.singletonList(hashCaptor.getValue()), typesCaptor.getValue());
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
@@ -570,12 +603,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(methodInstrumentationConfig.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sensorInstrumentationPoint));
 			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
 
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<List> typesCaptor = ArgumentCaptor.forClass(List.class);
 			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(classHashHelper.isAnalyzed(AbstractSubTest.class.getName())).thenReturn(false);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeBatch(eq(platformId.longValue()), Matchers.<List<String>> any(), typesCaptor.capture())).thenReturn(Collections.singletonList(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -593,8 +626,8 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(not(nullValue())));
 
 			verify(connection, times(5)).isConnected();
-			verify(connection, times(1)).analyze(eq(platformId.longValue()), anyString(), eq(classCaptor.getAllValues().get(0)));
-			verify(connection, times(1)).analyze(eq(platformId.longValue()), anyString(), eq(classCaptor.getAllValues().get(1)));
+			verify(connection, times(1)).analyzeBatch(eq(platformId.longValue()), Matchers.<List<String>> any(), eq(typesCaptor.getAllValues().get(0)));
+			verify(connection, times(1)).analyzeBatch(eq(platformId.longValue()), Matchers.<List<String>> any(), eq(typesCaptor.getAllValues().get(1)));
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			InOrder inOrder = inOrder(agent);
@@ -606,8 +639,8 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat((Map<Long, long[]>) captor.getValue(), hasEntry(rscId, sensorIds));
 
 			// assert sent classes order
-			assertThat(classCaptor.getAllValues().get(0).getFQN(), is(AbstractSubTest.class.getName()));
-			assertThat(classCaptor.getAllValues().get(1).getFQN(), is(TestClass.class.getName()));
+			assertThat(((Type) typesCaptor.getAllValues().get(0).get(0)).getFQN(), is(AbstractSubTest.class.getName()));
+			assertThat(((Type) typesCaptor.getAllValues().get(1).get(0)).getFQN(), is(TestClass.class.getName()));
 
 			// class hash verfications
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
@@ -634,6 +667,71 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verifyNoMoreInteractions(hookDispatcherMapper, connection, classHashHelper);
 		}
 
+		@Test
+		public void interfaceNotWaitedFor() throws Exception {
+			String className = Runnable.class.getName();
+			byte[] byteCode = getByteCode(className);
+
+			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			// never send the queued analysis, we would hit the time-out if waiting
+			doReturn(null).when(executorService).submit(Matchers.<Runnable> any());
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, null);
+
+			assertThat(instrumentedByteCode, is(nullValue()));
+
+			verify(executorService, times(1)).submit(Matchers.<Runnable> any());
+			verify(connection, times(1)).isConnected();
+			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
+			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
+			verifyZeroInteractions(hookDispatcherMapper, agent);
+			verifyNoMoreInteractions(connection, classHashHelper);
+		}
+
+		@Test
+		public void batchScheduledAgainAfterRejection() throws Exception {
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			// first submit is rejected, second one is accepted but never run
+			doThrow(new RejectedExecutionException()).doReturn(null).when(executorService).submit(Matchers.<Runnable> any());
+
+			try {
+				byteCodeAnalyzer.analyzeAndInstrument(getByteCode(Runnable.class.getName()), Runnable.class.getName(), null);
+				fail("Rejected execution must be propagated.");
+			} catch (RejectedExecutionException e) {
+				// expected
+			}
+			byteCodeAnalyzer.analyzeAndInstrument(getByteCode(Comparable.class.getName()), Comparable.class.getName(), null);
+
+			verify(executorService, times(2)).submit(Matchers.<Runnable> any());
+		}
+
+		@Test
+		public void rejectedAnalysisQueuedAgain() throws Exception {
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			// first submit is rejected, second one is accepted but never run
+			doThrow(new RejectedExecutionException()).doReturn(null).when(executorService).submit(Matchers.<Runnable> any());
+
+			try {
+				byteCodeAnalyzer.analyzeAndInstrument(getByteCode(Runnable.class.getName()), Runnable.class.getName(), null);
+				fail("Rejected execution must be propagated.");
+			} catch (RejectedExecutionException e) {
+				// expected
+			}
+			// same type is not in flight any more
+			byteCodeAnalyzer.analyzeAndInstrument(getByteCode(Runnable.class.getName()), Runnable.class.getName(), null);
+
+			verify(executorService, times(2)).submit(Matchers.<Runnable> any());
+		}
+
 		@Test
 		public void analyzeTimeout() throws Exception {
 			String className = TestClass.class.getName();
@@ -645,13 +743,8 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			doAnswer(new Answer<Future<Object>>() {
-				@Override
-				public Future<Object> answer(InvocationOnMock invocation) throws Throwable {
-					when(future.get(anyLong(), Matchers.<TimeUnit> any())).thenThrow(TimeoutException.class);
-					return future;
-				}
-			}).when(executorService).submit(Matchers.<Callable> any());
+			// never send the queued analysis
+			doReturn(null).when(executorService).submit(Matchers.<Runnable> any());
 
 			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
 
@@ -677,14 +770,14 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			doAnswer(new Answer<Future<Object>>() {
+			// interrupt the thread waiting for the analysis
+			doAnswer(new Answer<Void>() {
 				@Override
-				public Future<Object> answer(InvocationOnMock invocation) throws Throwable {
-					when(future.get(anyLong(), Matchers.<TimeUnit> any())).thenThrow(InterruptedException.class);
-					return future;
+				public Void answer(InvocationOnMock invocation) throws Throwable {
+					Thread.currentThread().interrupt();
+					return null;
 				}
-			}).when(executorService).submit(Matchers.<Callable> any());
-
+			}).when(executorService).submit(Matchers.<Runnable> any());
 
 			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
 
@@ -718,11 +811,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<List> typesCaptor = ArgumentCaptor.forClass(List.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeBatch(eq(platformId.longValue()), Matchers.<List<String>> any(), typesCaptor.capture())).thenReturn(Collections.singletonList(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -745,7 +838,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(Thread.interrupted(), is(true));
 
 			verify(connection, times(3)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeBatch(platformId.longValue(), Collections.singletonList(hashCaptor.getValue()), typesCaptor.getValue());
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			assertThat(captor.getValue().size(), is(1));
@@ -0,0 +1,87 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.analyzer.IClassHashFunction;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link ClassHashFunctionFactory} and the created {@link IClassHashFunction}s.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class ClassHashFunctionFactoryTest extends TestBase {
+
+	public static class CreateClassHashFunction extends ClassHashFunctionFactoryTest {
+
+		@Test
+		public void defaultFunction() {
+			IClassHashFunction function = ClassHashFunctionFactory.createClassHashFunction(null);
+
+			assertThat(function, is(instanceOf(Murmur3ClassHashFunction.class)));
+		}
+
+		@Test
+		public void murmur3() {
+			IClassHashFunction function = ClassHashFunctionFactory.createClassHashFunction("MURMUR3");
+
+			assertThat(function, is(instanceOf(Murmur3ClassHashFunction.class)));
+		}
+
+		@Test
+		public void sha256() {
+			IClassHashFunction function = ClassHashFunctionFactory.createClassHashFunction("sha256");
+
+			assertThat(function, is(instanceOf(Sha256ClassHashFunction.class)));
+		}
+
+		@Test
+		public void unknown() {
+			IClassHashFunction function = ClassHashFunctionFactory.createClassHashFunction("md5");
+
+			assertThat(function, is(instanceOf(Murmur3ClassHashFunction.class)));
+		}
+	}
+
+	public static class Hash extends ClassHashFunctionFactoryTest {
+
+		@Test
+		public void sha256Compatible() {
+			byte[] bytes = "byte code".getBytes();
+
+			String hash = new Sha256ClassHashFunction().hash(bytes);
+
+			assertThat(hash, is(DigestUtils.sha256Hex(bytes)));
+		}
+
+		@Test
+		public void murmur3SameBytes() {
+			IClassHashFunction function = new Murmur3ClassHashFunction();
+
+			String hash = function.hash("byte code".getBytes());
+
+			assertThat(hash.length(), is(32));
+			assertThat(hash, is(function.hash("byte code".getBytes())));
+			assertThat(hash, is(not(function.hash("byte code 2".getBytes()))));
+		}
+
+		@Test
+		public void murmur3NeverEqualToSha256() {
+			byte[] bytes = "byte code".getBytes();
+
+			String murmur3 = new Murmur3ClassHashFunction().hash(bytes);
+			String sha256 = new Sha256ClassHashFunction().hash(bytes);
+
+			assertThat(murmur3.length(), is(not(sha256.length())));
+		}
+	}
+
+}
@@ -29,6 +29,7 @@ import org.testng.annotations.Test;
 import com.esotericsoftware.kryo.io.Input;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.io.FileResolver;
 import rocks.inspectit.agent.java.spring.PrototypesProvider;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
@@ -50,6 +51,9 @@ public class ClassHashHelperTest extends TestBase {
 	@Mock
 	IConfigurationStorage configurationStorage;
 
+	@Mock
+	IPlatformManager platformManager;
+
 	@Mock
 	PrototypesProvider prototypesProvider;
 
@@ -131,7 +135,66 @@ public class ClassHashHelperTest extends TestBase {
 			verify(executorService, times(1)).scheduleAtFixedRate(Matchers.<Runnable> any(), anyLong(), anyLong(), Matchers.<TimeUnit> any());
 			assertThat(helper.isEmpty(), is(true));
 			assertThat(new File(TEST_CACHE_FILE).exists(), is(false));
-			verifyZeroInteractions(serializationManager);
+		}
+
+		@Test
+		public void snapshotSameRevisionCacheOnCmrNot() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("revision");
+			when(platformManager.getPlatformId()).thenReturn(10L);
+			new File(TEST_CACHE_FILE).createNewFile();
+			Map<String, Collection<String>> hashes = Collections.<String, Collection<String>> singletonMap(fqn, Collections.singleton(hash));
+			Map<String, InstrumentationDefinition> definitions = Collections.singletonMap(fqn, instrumentationResult);
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(new ClassCacheSnapshot("10/revision", hashes, definitions));
+
+			helper.afterPropertiesSet();
+
+			assertThat(helper.isSent(fqn, hash), is(true));
+			assertThat(helper.getInstrumentationDefinition(fqn), is(instrumentationResult));
+			assertThat(new File(TEST_CACHE_FILE).exists(), is(true));
+		}
+
+		@Test
+		public void snapshotOtherRevisionCacheOnCmrNot() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("otherRevision");
+			when(platformManager.getPlatformId()).thenReturn(10L);
+			new File(TEST_CACHE_FILE).createNewFile();
+			Map<String, Collection<String>> hashes = Collections.<String, Collection<String>> singletonMap(fqn, Collections.singleton(hash));
+			Map<String, InstrumentationDefinition> definitions = Collections.singletonMap(fqn, instrumentationResult);
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(new ClassCacheSnapshot("10/revision", hashes, definitions));
+
+			helper.afterPropertiesSet();
+
+			assertThat(helper.isEmpty(), is(true));
+			assertThat(new File(TEST_CACHE_FILE).exists(), is(false));
+		}
+
+		@Test
+		public void snapshotOtherRevisionCacheOnCmr() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("otherRevision");
+			when(platformManager.getPlatformId()).thenReturn(10L);
+			new File(TEST_CACHE_FILE).createNewFile();
+			Map<String, Collection<String>> hashes = Collections.<String, Collection<String>> singletonMap(fqn, Collections.singleton(hash));
+			Map<String, InstrumentationDefinition> definitions = Collections.singletonMap(fqn, instrumentationResult);
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(new ClassCacheSnapshot("10/revision", hashes, definitions));
+
+			helper.afterPropertiesSet();
+
+			// hashes are known, but definitions are outdated
+			assertThat(helper.isSent(fqn, hash), is(true));
+			assertThat(helper.getInstrumentationDefinition(fqn), is(nullValue()));
+			assertThat(helper.startReconciliation(fqn), is(false));
 		}
 
 		@Test
@@ -245,6 +308,68 @@ public class ClassHashHelperTest extends TestBase {
 		}
 	}
 
+	public class StartReconciliation extends ClassHashHelperTest {
+
+		@Test
+		public void notRegistered() throws Exception {
+			helper.afterPropertiesSet();
+
+			assertThat(helper.startReconciliation("fqn"), is(false));
+		}
+
+		@Test
+		public void onlyOnce() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			when(configurationStorage.getConfigurationRevision()).thenReturn("revision");
+			when(platformManager.getPlatformId()).thenReturn(10L);
+			new File(TEST_CACHE_FILE).createNewFile();
+			Map<String, Collection<String>> hashes = Collections.<String, Collection<String>> singletonMap(fqn, Collections.singleton(hash));
+			Map<String, InstrumentationDefinition> definitions = Collections.emptyMap();
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(new ClassCacheSnapshot("10/revision", hashes, definitions));
+			helper.afterPropertiesSet();
+
+			assertThat(helper.startReconciliation(fqn), is(true));
+			assertThat(helper.startReconciliation(fqn), is(false));
+		}
+
+		@Test
+		public void markedAgain() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			when(configurationStorage.getConfigurationRevision()).thenReturn("revision");
+			when(platformManager.getPlatformId()).thenReturn(10L);
+			new File(TEST_CACHE_FILE).createNewFile();
+			Map<String, Collection<String>> hashes = Collections.<String, Collection<String>> singletonMap(fqn, Collections.singleton(hash));
+			Map<String, InstrumentationDefinition> definitions = Collections.emptyMap();
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(new ClassCacheSnapshot("10/revision", hashes, definitions));
+			helper.afterPropertiesSet();
+
+			assertThat(helper.startReconciliation(fqn), is(true));
+			helper.markForReconciliation(fqn);
+
+			assertThat(helper.startReconciliation(fqn), is(true));
+			assertThat(helper.startReconciliation(fqn), is(false));
+		}
+
+		@Test
+		public void sentToCmr() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			when(configurationStorage.getConfigurationRevision()).thenReturn("revision");
+			when(platformManager.getPlatformId()).thenReturn(10L);
+			new File(TEST_CACHE_FILE).createNewFile();
+			Map<String, Collection<String>> hashes = Collections.<String, Collection<String>> singletonMap(fqn, Collections.singleton(hash));
+			Map<String, InstrumentationDefinition> definitions = Collections.emptyMap();
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(new ClassCacheSnapshot("10/revision", hashes, definitions));
+			helper.afterPropertiesSet();
+
+			helper.registerSent(fqn, hash);
+
+			assertThat(helper.startReconciliation(fqn), is(false));
+		}
+	}
+
 	public class RegisterSent extends ClassHashHelperTest {
 
 		@Test
@@ -0,0 +1,177 @@
+package rocks.inspectit.agent.java.buffer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.storage.serializer.ISerializer;
+import rocks.inspectit.shared.all.storage.serializer.SerializationException;
+
+@SuppressWarnings("PMD")
+public class SpillBufferStrategyTest {
+
+	private SpillBufferStrategy bufferStrategy;
+
+	@BeforeMethod
+	public void initTestClass() {
+		bufferStrategy = new SpillBufferStrategy();
+		bufferStrategy.log = LoggerFactory.getLogger(SpillBufferStrategy.class);
+		bufferStrategy.serializer = new KryoSerializer();
+
+		Map<String, String> settings = new HashMap<String, String>();
+		settings.put("replayRate", "0");
+		bufferStrategy.init(settings);
+	}
+
+	@Test
+	public void addAndRetrieve() {
+		bufferStrategy.addMeasurements(Collections.<DefaultData> emptyList());
+
+		assertThat(bufferStrategy.hasNext(), is(true));
+		List<DefaultData> list = bufferStrategy.next();
+		assertThat(list, is(equalTo(Collections.<DefaultData> emptyList())));
+
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	@Test
+	public void emptyBuffer() {
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	@Test(expectedExceptions = { NoSuchElementException.class })
+	public void noSuchElementException() {
+		bufferStrategy.next();
+	}
+
+	@Test(expectedExceptions = { IllegalArgumentException.class })
+	public void addNullMeasurement() {
+		bufferStrategy.addMeasurements(null);
+	}
+
+	@Test
+	public void spilledInOrder() {
+		List<List<DefaultData>> lists = new ArrayList<List<DefaultData>>();
+		for (int i = 0; i < 10; i++) {
+			List<DefaultData> list = createList("select " + i, 1);
+			lists.add(list);
+			bufferStrategy.addMeasurements(list);
+		}
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(bufferStrategy.hasNext(), is(true));
+			List<DefaultData> list = bufferStrategy.next();
+			assertThat(list, hasSize(1));
+			assertThat(((SqlStatementData) list.get(0)).getSql(), is("select " + i));
+		}
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	@Test
+	public void spilledBeforeNewlyAdded() {
+		for (int i = 0; i < 3; i++) {
+			bufferStrategy.addMeasurements(createList("select " + i, 1));
+		}
+		assertThat(((SqlStatementData) bufferStrategy.next().get(0)).getSql(), is("select 0"));
+
+		bufferStrategy.addMeasurements(createList("select 3", 1));
+
+		assertThat(((SqlStatementData) bufferStrategy.next().get(0)).getSql(), is("select 1"));
+		assertThat(((SqlStatementData) bufferStrategy.next().get(0)).getSql(), is("select 2"));
+		assertThat(((SqlStatementData) bufferStrategy.next().get(0)).getSql(), is("select 3"));
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	@Test
+	public void oldestDroppedWhenFull() {
+		Map<String, String> settings = new HashMap<String, String>();
+		settings.put("maxSize", "1");
+		bufferStrategy.init(settings);
+
+		// each list has around 300 KB, so only three fit into one megabyte
+		char[] chars = new char[300000];
+		Arrays.fill(chars, 'a');
+		String sql = new String(chars);
+		for (int i = 0; i < 6; i++) {
+			bufferStrategy.addMeasurements(createList(sql + i, 1));
+		}
+
+		for (int i = 1; i < 6; i++) {
+			assertThat(((SqlStatementData) bufferStrategy.next().get(0)).getSql(), is(sql + i));
+		}
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	@Test
+	public void tooBigDropped() {
+		Map<String, String> settings = new HashMap<String, String>();
+		settings.put("maxSize", "1");
+		bufferStrategy.init(settings);
+
+		char[] chars = new char[2000000];
+		Arrays.fill(chars, 'a');
+		bufferStrategy.addMeasurements(createList(new String(chars), 1));
+		bufferStrategy.addMeasurements(createList("select 1", 1));
+		bufferStrategy.addMeasurements(createList("select 2", 1));
+
+		assertThat(((SqlStatementData) bufferStrategy.next().get(0)).getSql(), is("select 1"));
+		assertThat(((SqlStatementData) bufferStrategy.next().get(0)).getSql(), is("select 2"));
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	private List<DefaultData> createList(String sql, int size) {
+		List<DefaultData> list = new ArrayList<DefaultData>();
+		for (int i = 0; i < size; i++) {
+			SqlStatementData sqlStatementData = new SqlStatementData();
+			sqlStatementData.setSql(sql);
+			list.add(sqlStatementData);
+		}
+		return list;
+	}
+
+	private static class KryoSerializer implements ISerializer {
+
+		private final Kryo kryo = new Kryo();
+
+		@Override
+		public void serialize(Object object, Output output) throws SerializationException {
+			kryo.writeClassAndObject(output, object);
+			output.flush();
+		}
+
+		@Override
+		public void serialize(Object object, Output output, Map<?, ?> kryoPreferences) throws SerializationException {
+			serialize(object, output);
+		}
+
+		@Override
+		public Object deserialize(Input input) throws SerializationException {
+			return kryo.readClassAndObject(input);
+		}
+
+		@Override
+		public <T> T copy(T object) {
+			return kryo.copy(object);
+		}
+	}
+
+}
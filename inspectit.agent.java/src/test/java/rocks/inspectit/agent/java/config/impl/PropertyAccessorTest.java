@@ -4,8 +4,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -445,6 +450,75 @@ public class PropertyAccessorTest extends AbstractLogSupport {
 
 	}
 
+	@Test
+	public void samePathDifferentClasses() throws PropertyAccessException {
+		PropertyPathStart start = new PropertyPathStart();
+		start.setName("name");
+		start.setSignaturePosition(0);
+		start.setContentType(ParameterContentType.PARAM);
+		start.setPathToContinue(new PropertyPath("name"));
+
+		// repeated calls use the compiled path, also when the class changes
+		assertThat(propertyAccessor.getPropertyContent(start, null, new Object[] { new Person("Peter") }, resultValueMock), is("Peter"));
+		assertThat(propertyAccessor.getPropertyContent(start, null, new Object[] { new Pet("Rex") }, resultValueMock), is("Rex"));
+		assertThat(propertyAccessor.getPropertyContent(start, null, new Object[] { new Person("Hans") }, resultValueMock), is("Hans"));
+		assertThat(propertyAccessor.getPropertyContent(start, null, new Object[] { new Pet("Lassie") }, resultValueMock), is("Lassie"));
+	}
+
+	@Test(expectedExceptions = { PropertyAccessException.class })
+	public void failureRepeated() throws PropertyAccessException {
+		PropertyPathStart start = new PropertyPathStart();
+		start.setName("name");
+		start.setSignaturePosition(0);
+		start.setContentType(ParameterContentType.PARAM);
+		start.setPathToContinue(new PropertyPath("notValid"));
+
+		try {
+			propertyAccessor.getPropertyContent(start, null, new Object[] { new Person("Peter") }, resultValueMock);
+		} catch (PropertyAccessException e) {
+			// expected, second call must fail as well
+		}
+		propertyAccessor.getPropertyContent(start, null, new Object[] { new Person("Peter") }, resultValueMock);
+	}
+
+	@SuppressWarnings("unused")
+	@Test
+	public void classLoaderNotReachable() throws Exception {
+		CompiledPropertyPath compiledPath = new CompiledPropertyPath(new PropertyPath("value"));
+
+		WeakReference<ClassLoader> classLoaderReference = accessInOtherClassLoader(compiledPath);
+		for (int i = 0; (i < 10) && (null != classLoaderReference.get()); i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		assertThat(classLoaderReference.get(), is(nullValue()));
+	}
+
+	private WeakReference<ClassLoader> accessInOtherClassLoader(CompiledPropertyPath compiledPath) throws Exception {
+		URL location = Holder.class.getProtectionDomain().getCodeSource().getLocation();
+		URLClassLoader classLoader = new URLClassLoader(new URL[] { location }, null);
+		Object holder = classLoader.loadClass(Holder.class.getName()).newInstance();
+
+		assertThat(holder.getClass(), is(not(equalTo((Object) Holder.class))));
+		assertThat(compiledPath.access(holder), is((Object) "value"));
+		return new WeakReference<ClassLoader>(classLoader);
+	}
+
+	public static class Holder {
+		private final String value = "value";
+	}
+
+	private static class Pet {
+
+		private final String name;
+
+		public Pet(String name) {
+			this.name = name;
+		}
+
+	}
+
 	@SuppressWarnings("unused")
 	private static class Person {
 
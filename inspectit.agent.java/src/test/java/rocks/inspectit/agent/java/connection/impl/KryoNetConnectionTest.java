@@ -29,6 +29,7 @@ import org.testng.annotations.Test;
 
 import com.esotericsoftware.kryonet.rmi.TimeoutException;
 
+import rocks.inspectit.agent.java.connection.DataObjectsSentListener;
 import rocks.inspectit.agent.java.connection.RetryStrategy;
 import rocks.inspectit.agent.java.connection.ServerUnavailableException;
 import rocks.inspectit.shared.all.cmr.service.IAgentService;
@@ -144,6 +145,36 @@ public class KryoNetConnectionTest extends TestBase {
 			verifyNoMoreInteractions(agentStorageService);
 		}
 
+		@Test
+		public void sentListenerNotified() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			DataObjectsSentListener listener = mock(DataObjectsSentListener.class);
+			connection.addDataObjectsSentListener(listener);
+			List<DefaultData> measurements = new ArrayList<DefaultData>();
+			measurements.add(new TimerData());
+
+			connection.sendDataObjects(measurements);
+
+			verify(listener, times(1)).dataObjectsSent(measurements);
+			verifyNoMoreInteractions(listener);
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void sentListenerNotNotifiedOnTimeout() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			doThrow(TimeoutException.class).when(agentStorageService).addDataObjects(Matchers.<List<? extends DefaultData>> any());
+			DataObjectsSentListener listener = mock(DataObjectsSentListener.class);
+			connection.addDataObjectsSentListener(listener);
+			List<DefaultData> measurements = new ArrayList<DefaultData>();
+			measurements.add(new TimerData());
+
+			try {
+				connection.sendDataObjects(measurements);
+			} finally {
+				verifyZeroInteractions(listener);
+			}
+		}
+
 		@Test(expectedExceptions = { ServerUnavailableException.class })
 		public void timeout() throws Exception {
 			when(client.isConnected()).thenReturn(true);
@@ -216,6 +247,30 @@ public class KryoNetConnectionTest extends TestBase {
 			verifyNoMoreInteractions(agentService);
 		}
 
+		@Test
+		public void compressionNegotiated() throws Exception {
+			AgentConfig agentConfiguration = mock(AgentConfig.class);
+			when(agentConfiguration.getTransferCompressionThreshold()).thenReturn(1024);
+			when(client.isConnected()).thenReturn(true);
+			doReturn(agentConfiguration).when(agentService).register(Matchers.<List<String>> any(), anyString(), anyString());
+
+			connection.register("agentName", "version");
+
+			verify(client, times(1)).setCompressionThreshold(1024);
+		}
+
+		@Test
+		public void stringDictionaryNegotiated() throws Exception {
+			AgentConfig agentConfiguration = mock(AgentConfig.class);
+			when(agentConfiguration.isTransferStringDictionary()).thenReturn(true);
+			when(client.isConnected()).thenReturn(true);
+			doReturn(agentConfiguration).when(agentService).register(Matchers.<List<String>> any(), anyString(), anyString());
+
+			connection.register("agentName", "version");
+
+			verify(client, times(1)).setStringDictionaryEnabled(true);
+		}
+
 		@Test(expectedExceptions = { ServerUnavailableException.class })
 		public void timeout() throws Exception {
 			when(client.isConnected()).thenReturn(true);
@@ -457,6 +512,105 @@ public class KryoNetConnectionTest extends TestBase {
 		}
 	}
 
+	public static class AnalyzeBatch extends KryoNetConnectionTest {
+
+		@Test
+		public void analyzeAndInstrument() throws Exception {
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			List<InstrumentationDefinition> results = new ArrayList<InstrumentationDefinition>();
+			results.add(instrumentationResult);
+			results.add(null);
+			when(client.isConnected()).thenReturn(true);
+			doReturn(results).when(agentService).analyzeBatch(anyLong(), Matchers.<List<String>> any(), Matchers.<List<Type>> any());
+			long id = 7;
+			List<String> hashes = new ArrayList<String>();
+			hashes.add("hash1");
+			hashes.add("hash2");
+			List<Type> types = new ArrayList<Type>();
+			types.add(mock(Type.class));
+			types.add(mock(Type.class));
+
+			List<InstrumentationDefinition> receivedResults = connection.analyzeBatch(id, hashes, types);
+			assertThat(receivedResults, is(results));
+
+			verify(agentService, times(1)).analyzeBatch(id, hashes, types);
+			verifyNoMoreInteractions(agentService);
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void timeout() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			doThrow(TimeoutException.class).when(agentService).analyzeBatch(anyLong(), Matchers.<List<String>> any(), Matchers.<List<Type>> any());
+			long id = 7;
+			List<String> hashes = Collections.singletonList("hash");
+			List<Type> types = Collections.singletonList(mock(Type.class));
+
+			try {
+				connection.analyzeBatch(id, hashes, types);
+			} catch (ServerUnavailableException e) {
+				assertThat(e.isServerTimeout(), is(true));
+				throw e;
+			} finally {
+				verify(agentService, times(1)).analyzeBatch(id, hashes, types);
+				verifyNoMoreInteractions(agentService);
+			}
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void remoteException() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			doThrow(RuntimeException.class).when(agentService).analyzeBatch(anyLong(), Matchers.<List<String>> any(), Matchers.<List<Type>> any());
+			long id = 7;
+			List<String> hashes = Collections.singletonList("hash");
+			List<Type> types = Collections.singletonList(mock(Type.class));
+
+			try {
+				connection.analyzeBatch(id, hashes, types);
+			} catch (ServerUnavailableException e) {
+				assertThat(e.isServerTimeout(), is(false));
+				throw e;
+			} finally {
+				// fail fast call, only one attempt
+				verify(agentService, times(1)).analyzeBatch(id, hashes, types);
+				verifyNoMoreInteractions(agentService);
+				verify(client).stop();
+			}
+		}
+
+		@Test(expectedExceptions = { BusinessException.class })
+		public void businessException() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			doThrow(BusinessException.class).when(agentService).analyzeBatch(anyLong(), Matchers.<List<String>> any(), Matchers.<List<Type>> any());
+			long id = 7;
+			List<String> hashes = Collections.singletonList("hash");
+			List<Type> types = Collections.singletonList(mock(Type.class));
+
+			try {
+				connection.analyzeBatch(id, hashes, types);
+			} finally {
+				verify(agentService, times(1)).analyzeBatch(id, hashes, types);
+				verifyNoMoreInteractions(agentService);
+			}
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void notConnected() throws Exception {
+			when(client.isConnected()).thenReturn(false);
+			long id = 7;
+			List<String> hashes = Collections.singletonList("hash");
+			List<Type> types = Collections.singletonList(mock(Type.class));
+
+			try {
+				connection.analyzeBatch(id, hashes, types);
+			} catch (ServerUnavailableException e) {
+				assertThat(e.isServerTimeout(), is(false));
+				throw e;
+			} finally {
+				verifyZeroInteractions(agentService);
+			}
+		}
+	}
+
 	public static class AnalyzeJmxAttributes extends KryoNetConnectionTest {
 
 		@Test
@@ -529,6 +683,32 @@ public class KryoNetConnectionTest extends TestBase {
 		}
 	}
 
+	public static class OverheadGoverned extends KryoNetConnectionTest {
+
+		@Test
+		public void overheadGoverned() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			Map<Long, long[]> governedMethods = Collections.emptyMap();
+			long id = 7;
+
+			connection.overheadGoverned(id, governedMethods);
+
+			verify(agentService, times(1)).overheadGoverned(id, governedMethods);
+			verifyNoMoreInteractions(agentService);
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void notConnected() throws Exception {
+			when(client.isConnected()).thenReturn(false);
+
+			try {
+				connection.overheadGoverned(7L, Collections.<Long, long[]> emptyMap());
+			} finally {
+				verifyZeroInteractions(agentService);
+			}
+		}
+	}
+
 	public static class InstrumentationApplied extends KryoNetConnectionTest {
 
 		@Test
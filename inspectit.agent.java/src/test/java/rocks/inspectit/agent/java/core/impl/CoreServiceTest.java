@@ -3,6 +3,7 @@ package rocks.inspectit.agent.java.core.impl;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -14,7 +15,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.slf4j.Logger;
@@ -29,6 +35,8 @@ import rocks.inspectit.agent.java.core.IObjectStorage;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.ListListener;
 import rocks.inspectit.agent.java.sending.ISendingStrategy;
+import rocks.inspectit.agent.java.sensor.method.timer.ITimerStorage;
+import rocks.inspectit.agent.java.sensor.method.timer.OptimizedTimerStorage;
 import rocks.inspectit.agent.java.sensor.method.timer.PlainTimerStorage;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.ExceptionEvent;
@@ -367,4 +375,113 @@ public class CoreServiceTest extends TestBase {
 		assertThat(objectStorage, is(equalTo(((IObjectStorage) timerStorage))));
 	}
 
+	@Test
+	public void sendAll() throws ServerUnavailableException {
+		List<DefaultData> first = Collections.<DefaultData> singletonList(new TimerData());
+		List<DefaultData> second = Collections.<DefaultData> singletonList(new TimerData());
+		when(bufferStrategy.hasNext()).thenReturn(true, true, false);
+		when(bufferStrategy.next()).thenReturn(first, second);
+		when(connection.isConnected()).thenReturn(true);
+		when(connection.canSendDataObjects()).thenReturn(true);
+
+		boolean backedUp = coreService.send();
+
+		assertThat(backedUp, is(false));
+		verify(connection).sendDataObjects(first);
+		verify(connection).sendDataObjects(second);
+	}
+
+	@Test
+	public void sendBackedUp() throws ServerUnavailableException {
+		List<DefaultData> first = Collections.<DefaultData> singletonList(new TimerData());
+		when(bufferStrategy.hasNext()).thenReturn(true);
+		when(bufferStrategy.next()).thenReturn(first);
+		when(connection.isConnected()).thenReturn(true);
+		when(connection.canSendDataObjects()).thenReturn(true, false);
+
+		boolean backedUp = coreService.send();
+
+		assertThat(backedUp, is(true));
+		verify(bufferStrategy, times(1)).next();
+		verify(connection, times(1)).sendDataObjects(first);
+	}
+
+	@Test
+	public void sendNotConnected() throws ServerUnavailableException {
+		when(bufferStrategy.hasNext()).thenReturn(true);
+		when(connection.isConnected()).thenReturn(false);
+
+		boolean backedUp = coreService.send();
+
+		assertThat(backedUp, is(false));
+		verify(bufferStrategy, times(0)).next();
+	}
+
+	/**
+	 * Many threads are adding measurements while the data is prepared over and over again. No
+	 * measurement must be lost in the switch of the epochs.
+	 */
+	@Test(timeOut = 60000)
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void concurrentPreparationLosesNoData() throws Exception {
+		final long sensorTypeId = 1;
+		final int threads = 8;
+		final int iterations = 50000;
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < threads; i++) {
+			// each thread own method, so that storages are not shared between the threads
+			final long methodId = i;
+			futures.add(executorService.submit(new Runnable() {
+				public void run() {
+					try {
+						startLatch.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					for (int j = 0; j < iterations; j++) {
+						Object epoch = coreService.enter();
+						try {
+							ITimerStorage storage = (ITimerStorage) coreService.getObjectStorage(sensorTypeId, methodId, null);
+							if (null == storage) {
+								storage = new OptimizedTimerStorage(null, 0, sensorTypeId, methodId, null, false);
+								coreService.addObjectStorage(sensorTypeId, methodId, null, storage);
+							}
+							storage.addData(1.0d, 1.0d);
+						} finally {
+							coreService.leave(epoch);
+						}
+					}
+				}
+			}));
+		}
+
+		startLatch.countDown();
+		boolean finished = false;
+		while (!finished) {
+			coreService.prepareData();
+			finished = true;
+			for (Future<?> future : futures) {
+				finished &= future.isDone();
+			}
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executorService.shutdown();
+		coreService.prepareData();
+
+		ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+		verify(bufferStrategy, atLeastOnce()).addMeasurements(captor.capture());
+		long count = 0;
+		for (List<?> dataList : captor.getAllValues()) {
+			for (Object data : dataList) {
+				count += ((TimerData) data).getCount();
+			}
+		}
+		assertThat(count, is(equalTo((long) threads * iterations)));
+	}
+
 }
@@ -0,0 +1,108 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class MethodSensorRegistryTest extends TestBase {
+
+	MethodSensorRegistry<String> registry;
+
+	@BeforeMethod
+	public void init() {
+		registry = new MethodSensorRegistry<String>();
+	}
+
+	public class Get extends MethodSensorRegistryTest {
+
+		@Test
+		public void empty() {
+			assertThat(registry.isEmpty(), is(true));
+			assertThat(registry.get(1L, 2L, null), is(nullValue()));
+			assertThat(registry.get(1L, 2L, "prefix"), is(nullValue()));
+		}
+
+		@Test
+		public void noPrefix() {
+			registry.put(1L, 2L, null, "value");
+
+			assertThat(registry.isEmpty(), is(false));
+			assertThat(registry.get(1L, 2L, null), is("value"));
+			assertThat(registry.get(1L, 2L, "prefix"), is(nullValue()));
+			assertThat(registry.get(2L, 1L, null), is(nullValue()));
+			assertThat(registry.get(3L, 2L, null), is(nullValue()));
+		}
+
+		@Test
+		public void prefix() {
+			registry.put(1L, 2L, "prefix", "value");
+
+			assertThat(registry.get(1L, 2L, "prefix"), is("value"));
+			assertThat(registry.get(1L, 2L, "other"), is(nullValue()));
+			assertThat(registry.get(1L, 2L, null), is(nullValue()));
+		}
+
+		@Test
+		public void overwrite() {
+			registry.put(1L, 2L, null, "value");
+			registry.put(1L, 2L, null, "other");
+			registry.put(1L, 2L, "prefix", "value");
+			registry.put(1L, 2L, "prefix", "other");
+
+			assertThat(registry.get(1L, 2L, null), is("other"));
+			assertThat(registry.get(1L, 2L, "prefix"), is("other"));
+		}
+
+		@Test
+		public void moreSensorTypesOnMethod() {
+			registry.put(1L, 2L, null, "one");
+			registry.put(3L, 2L, null, "three");
+			registry.put(4L, 2L, "prefix", "four");
+
+			assertThat(registry.get(1L, 2L, null), is("one"));
+			assertThat(registry.get(3L, 2L, null), is("three"));
+			assertThat(registry.get(4L, 2L, "prefix"), is("four"));
+		}
+	}
+
+	public class AddValuesTo extends MethodSensorRegistryTest {
+
+		@Test
+		public void values() {
+			registry.put(1L, 2L, null, "one");
+			registry.put(1L, 2L, "prefix", "two");
+			registry.put(3L, 2L, null, "three");
+			registry.put(1L, 4L, "prefix", "four");
+			List<String> values = new ArrayList<String>();
+
+			registry.addValuesTo(values);
+
+			assertThat(values, containsInAnyOrder("one", "two", "three", "four"));
+		}
+
+		@Test
+		public void cleared() {
+			registry.put(1L, 2L, null, "one");
+			registry.clear();
+			List<String> values = new ArrayList<String>();
+
+			registry.addValuesTo(values);
+
+			assertThat(values, is(empty()));
+			assertThat(registry.isEmpty(), is(true));
+			assertThat(registry.get(1L, 2L, null), is(nullValue()));
+		}
+	}
+
+}
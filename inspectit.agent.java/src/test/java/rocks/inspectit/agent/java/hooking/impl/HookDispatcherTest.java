@@ -1,6 +1,7 @@
 package rocks.inspectit.agent.java.hooking.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.anyLong;
@@ -28,8 +29,10 @@ import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.config.impl.SpecialSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IEpochGuard;
 import rocks.inspectit.agent.java.hooking.IConstructorHook;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.hooking.IOverheadGovernor;
 import rocks.inspectit.agent.java.hooking.ISpecialHook;
 import rocks.inspectit.agent.java.sensor.exception.ExceptionSensor;
 import rocks.inspectit.agent.java.sensor.exception.ExceptionSensorHook;
@@ -51,6 +54,9 @@ public class HookDispatcherTest extends TestBase {
 	@Mock
 	ICoreService coreService;
 
+	@Mock
+	IEpochGuard epochGuard;
+
 	@Mock
 	IConfigurationStorage configurationStorage;
 
@@ -60,6 +66,9 @@ public class HookDispatcherTest extends TestBase {
 	@Mock
 	ExceptionSensor exceptionSensor;
 
+	@Mock
+	IOverheadGovernor overheadGovernor;
+
 	public class MethodHook extends HookDispatcherTest {
 
 		@Test
@@ -87,6 +96,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfig, times(2)).getMethodSensors();
 
 			verifyZeroInteractions(object, coreService, returnValue);
+			verify(registeredSensorConfig, times(1)).getMethodOverhead();
 			verifyNoMoreInteractions(registeredSensorConfig);
 		}
 
@@ -126,6 +136,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(methodHook, times(1)).secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, returnValue, registeredSensorConfig);
 
 			verifyZeroInteractions(object, coreService, returnValue);
+			verify(registeredSensorConfig, times(1)).getMethodOverhead();
 			verifyNoMoreInteractions(registeredSensorConfig, methodHook);
 		}
 
@@ -191,9 +202,245 @@ public class HookDispatcherTest extends TestBase {
 
 			verifyZeroInteractions(object, coreService, returnValue);
 			verifyNoMoreInteractions(methodHookOne, methodHookTwo, methodHookThree);
+			verify(registeredSensorConfig, times(1)).getMethodOverhead();
 			verifyNoMoreInteractions(registeredSensorConfig);
 		}
 
+		@Test
+		public void dispatchOneMethodHookWithContext() {
+			long sensorTypeId = 7L;
+			IMethodSensor methodSensor = mock(IMethodSensor.class);
+			IMethodHook methodHook = mock(IMethodHook.class);
+			MethodSensorTypeConfig methodSensorConfig = mock(MethodSensorTypeConfig.class);
+			when(methodSensor.getHook()).thenReturn(methodHook);
+			when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorConfig);
+			when(methodSensorConfig.getId()).thenReturn(sensorTypeId);
+
+			RegisteredSensorConfig registeredSensorConfig = mock(RegisteredSensorConfig.class);
+			when(registeredSensorConfig.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+			when(registeredSensorConfig.getMethodSensorsReverse()).thenReturn(Collections.singletonList(methodSensor));
+
+			int methodId = 3;
+			Object object = mock(Object.class);
+			Object[] parameters = new Object[0];
+			Object returnValue = mock(Object.class);
+
+			hookDispatcher.addMapping(methodId, registeredSensorConfig);
+
+			Object context = hookDispatcher.dispatchMethodBeforeBody(methodId, object, parameters);
+			assertThat(context, is((Object) registeredSensorConfig));
+			verify(registeredSensorConfig, times(1)).isStartsInvocation();
+			verify(registeredSensorConfig, times(1)).getMethodSensorsReverse();
+			verify(methodHook, times(1)).beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
+
+			hookDispatcher.dispatchMethodAfterBody(methodId, context, object, parameters, returnValue);
+			verify(registeredSensorConfig, times(2)).isStartsInvocation();
+			verify(registeredSensorConfig, times(2)).getMethodSensors();
+			InOrder inOrder = inOrder(methodHook);
+			inOrder.verify(methodHook, times(1)).firstAfterBody(methodId, sensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+			inOrder.verify(methodHook, times(1)).secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+
+			verifyZeroInteractions(object, coreService, returnValue);
+			verify(registeredSensorConfig, times(2)).getMethodOverhead();
+			verifyNoMoreInteractions(registeredSensorConfig, methodHook);
+		}
+
+		@Test
+		public void dispatchSampledMethod() {
+			long sensorTypeId = 7L;
+			IMethodSensor methodSensor = mock(IMethodSensor.class);
+			IMethodHook methodHook = mock(IMethodHook.class);
+			MethodSensorTypeConfig methodSensorConfig = mock(MethodSensorTypeConfig.class);
+			when(methodSensor.getHook()).thenReturn(methodHook);
+			when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorConfig);
+			when(methodSensorConfig.getId()).thenReturn(sensorTypeId);
+
+			int methodId = 3;
+			MethodOverhead methodOverhead = new MethodOverhead(methodId);
+			methodOverhead.setSamplingRate(2);
+			RegisteredSensorConfig registeredSensorConfig = mock(RegisteredSensorConfig.class);
+			when(registeredSensorConfig.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+			when(registeredSensorConfig.getMethodSensorsReverse()).thenReturn(Collections.singletonList(methodSensor));
+			when(registeredSensorConfig.getMethodOverhead()).thenReturn(methodOverhead);
+
+			Object object = mock(Object.class);
+			Object[] parameters = new Object[0];
+			Object returnValue = mock(Object.class);
+
+			hookDispatcher.addMapping(methodId, registeredSensorConfig);
+			verify(overheadGovernor).register(methodId, registeredSensorConfig);
+
+			// first call is not in the sample
+			Object context = hookDispatcher.dispatchMethodBeforeBody(methodId, object, parameters);
+			assertThat(context, is(nullValue()));
+			hookDispatcher.dispatchMethodAfterBody(methodId, context, object, parameters, returnValue);
+			verifyZeroInteractions(methodHook);
+
+			// second call is
+			context = hookDispatcher.dispatchMethodBeforeBody(methodId, object, parameters);
+			assertThat(context, is((Object) registeredSensorConfig));
+			hookDispatcher.dispatchMethodAfterBody(methodId, context, object, parameters, returnValue);
+			verify(methodHook, times(1)).beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
+			verify(methodHook, times(1)).firstAfterBody(methodId, sensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+			verify(methodHook, times(1)).secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+
+			verifyZeroInteractions(object, coreService, returnValue);
+			verifyNoMoreInteractions(methodHook);
+		}
+
+		@Test
+		public void dispatchCountOnlyMethod() {
+			IMethodSensor methodSensor = mock(IMethodSensor.class);
+
+			int methodId = 3;
+			MethodOverhead methodOverhead = new MethodOverhead(methodId);
+			methodOverhead.setSamplingRate(MethodOverhead.COUNT_ONLY);
+			RegisteredSensorConfig registeredSensorConfig = mock(RegisteredSensorConfig.class);
+			when(registeredSensorConfig.getMethodSensorsReverse()).thenReturn(Collections.singletonList(methodSensor));
+			when(registeredSensorConfig.getMethodOverhead()).thenReturn(methodOverhead);
+
+			hookDispatcher.addMapping(methodId, registeredSensorConfig);
+			for (int i = 0; i < 10; i++) {
+				Object context = hookDispatcher.dispatchMethodBeforeBody(methodId, null, new Object[0]);
+				assertThat(context, is(nullValue()));
+			}
+
+			assertThat(methodOverhead.takeCalls(), is(10L));
+			verifyZeroInteractions(methodSensor);
+		}
+
+		@Test
+		public void dispatchSampledMethodInInvocationTrace() {
+			long methodSensorTypeId = 7L;
+			IMethodSensor methodSensor = mock(IMethodSensor.class);
+			IMethodHook methodHook = mock(IMethodHook.class);
+			MethodSensorTypeConfig methodSensorConfig = mock(MethodSensorTypeConfig.class);
+			when(methodSensor.getHook()).thenReturn(methodHook);
+			when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorConfig);
+			when(methodSensorConfig.getId()).thenReturn(methodSensorTypeId);
+
+			long invocSensorTypeId = 13L;
+			MethodSensorTypeConfig invocSensorType = mock(MethodSensorTypeConfig.class);
+			InvocationSequenceHook invocHook = mock(InvocationSequenceHook.class);
+			when(invocationSequenceSensor.getSensorTypeConfig()).thenReturn(invocSensorType);
+			when(invocationSequenceSensor.getHook()).thenReturn(invocHook);
+			when(invocSensorType.getId()).thenReturn(invocSensorTypeId);
+
+			RegisteredSensorConfig registeredSensorConfig = mock(RegisteredSensorConfig.class);
+			when(registeredSensorConfig.isStartsInvocation()).thenReturn(true);
+			List<IMethodSensor> sensors = Arrays.<IMethodSensor> asList(invocationSequenceSensor);
+			when(registeredSensorConfig.getMethodSensors()).thenReturn(sensors);
+			when(registeredSensorConfig.getMethodSensorsReverse()).thenReturn(sensors);
+			long methodId = 3L;
+			hookDispatcher.addMapping(methodId, registeredSensorConfig);
+
+			MethodOverhead methodOverhead = new MethodOverhead(15L);
+			methodOverhead.setSamplingRate(MethodOverhead.COUNT_ONLY);
+			RegisteredSensorConfig registeredSensorConfigTwo = mock(RegisteredSensorConfig.class);
+			List<IMethodSensor> sensorsTwo = Arrays.<IMethodSensor> asList(methodSensor);
+			when(registeredSensorConfigTwo.getMethodSensors()).thenReturn(sensorsTwo);
+			when(registeredSensorConfigTwo.getMethodSensorsReverse()).thenReturn(sensorsTwo);
+			when(registeredSensorConfigTwo.getMethodOverhead()).thenReturn(methodOverhead);
+			long methodIdTwo = 15L;
+			hookDispatcher.addMapping(methodIdTwo, registeredSensorConfigTwo);
+
+			Object object = mock(Object.class);
+			Object[] parameters = new Object[0];
+			Object returnValue = mock(Object.class);
+
+			// not sampled outside of the invocation
+			assertThat(hookDispatcher.dispatchMethodBeforeBody(methodIdTwo, object, parameters), is(nullValue()));
+			verifyZeroInteractions(methodHook);
+
+			// but every call is executed inside of it
+			Object context = hookDispatcher.dispatchMethodBeforeBody(methodId, object, parameters);
+			for (int i = 0; i < 2; i++) {
+				Object contextTwo = hookDispatcher.dispatchMethodBeforeBody(methodIdTwo, object, parameters);
+				assertThat(contextTwo, is(instanceOf(MethodInvocationContext.class)));
+				hookDispatcher.dispatchMethodAfterBody(methodIdTwo, contextTwo, object, parameters, returnValue);
+			}
+			hookDispatcher.dispatchMethodAfterBody(methodId, context, object, parameters, returnValue);
+
+			verify(invocHook, times(2)).beforeBody(eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(registeredSensorConfigTwo));
+			verify(methodHook, times(2)).beforeBody(methodIdTwo, methodSensorTypeId, object, parameters, registeredSensorConfigTwo);
+			verify(methodHook, times(2)).secondAfterBody(invocHook, methodIdTwo, methodSensorTypeId, object, parameters, returnValue, registeredSensorConfigTwo);
+			verify(invocHook, times(2)).secondAfterBody(eq(coreService), eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(returnValue), eq(registeredSensorConfigTwo));
+			assertThat(methodOverhead.takeCalls(), is(3L));
+		}
+
+		@Test
+		public void dispatchAfterBodyNoContext() {
+			RegisteredSensorConfig registeredSensorConfig = mock(RegisteredSensorConfig.class);
+			int methodId = 3;
+			Object object = mock(Object.class);
+			Object[] parameters = new Object[0];
+			Object returnValue = mock(Object.class);
+
+			hookDispatcher.addMapping(methodId, registeredSensorConfig);
+			hookDispatcher.dispatchMethodAfterBody(methodId, null, object, parameters, returnValue);
+
+			verifyZeroInteractions(registeredSensorConfig, object, coreService, returnValue, epochGuard);
+		}
+
+		@Test
+		public void dispatchMethodHookWithContextInInvocationTrace() {
+			long methodSensorTypeId = 7L;
+			IMethodSensor methodSensor = mock(IMethodSensor.class);
+			IMethodHook methodHook = mock(IMethodHook.class);
+			MethodSensorTypeConfig methodSensorConfig = mock(MethodSensorTypeConfig.class);
+			when(methodSensor.getHook()).thenReturn(methodHook);
+			when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorConfig);
+			when(methodSensorConfig.getId()).thenReturn(methodSensorTypeId);
+
+			long invocSensorTypeId = 13L;
+			MethodSensorTypeConfig invocSensorType = mock(MethodSensorTypeConfig.class);
+			InvocationSequenceHook invocHook = mock(InvocationSequenceHook.class);
+			when(invocationSequenceSensor.getSensorTypeConfig()).thenReturn(invocSensorType);
+			when(invocationSequenceSensor.getHook()).thenReturn(invocHook);
+			when(invocSensorType.getId()).thenReturn(invocSensorTypeId);
+
+			RegisteredSensorConfig registeredSensorConfig = mock(RegisteredSensorConfig.class);
+			when(registeredSensorConfig.isStartsInvocation()).thenReturn(true);
+			List<IMethodSensor> sensors = Arrays.<IMethodSensor> asList(invocationSequenceSensor);
+			when(registeredSensorConfig.getMethodSensors()).thenReturn(sensors);
+			when(registeredSensorConfig.getMethodSensorsReverse()).thenReturn(sensors);
+			long methodId = 3L;
+			hookDispatcher.addMapping(methodId, registeredSensorConfig);
+
+			RegisteredSensorConfig registeredSensorConfigTwo = mock(RegisteredSensorConfig.class);
+			List<IMethodSensor> sensorsTwo = Arrays.<IMethodSensor> asList(methodSensor);
+			when(registeredSensorConfigTwo.getMethodSensors()).thenReturn(sensorsTwo);
+			when(registeredSensorConfigTwo.getMethodSensorsReverse()).thenReturn(sensorsTwo);
+			long methodIdTwo = 15L;
+			hookDispatcher.addMapping(methodIdTwo, registeredSensorConfigTwo);
+
+			Object object = mock(Object.class);
+			Object[] parameters = new Object[0];
+			Object returnValue = mock(Object.class);
+
+			Object context = hookDispatcher.dispatchMethodBeforeBody(methodId, object, parameters);
+			Object contextTwo = hookDispatcher.dispatchMethodBeforeBody(methodIdTwo, object, parameters);
+			verify(invocHook, times(1)).beforeBody(methodId, invocSensorTypeId, object, parameters, registeredSensorConfig);
+			verify(invocHook, times(1)).beforeBody(eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(registeredSensorConfigTwo));
+			verify(methodHook, times(1)).beforeBody(methodIdTwo, methodSensorTypeId, object, parameters, registeredSensorConfigTwo);
+
+			hookDispatcher.dispatchMethodAfterBody(methodIdTwo, contextTwo, object, parameters, returnValue);
+			verify(methodHook, times(1)).firstAfterBody(methodIdTwo, methodSensorTypeId, object, parameters, returnValue, registeredSensorConfigTwo);
+			verify(methodHook, times(1)).secondAfterBody(invocHook, methodIdTwo, methodSensorTypeId, object, parameters, returnValue, registeredSensorConfigTwo);
+			verify(invocHook, times(1)).secondAfterBody(eq(coreService), eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(returnValue), eq(registeredSensorConfigTwo));
+
+			hookDispatcher.dispatchMethodAfterBody(methodId, context, object, parameters, returnValue);
+			verify(invocHook, times(1)).firstAfterBody(methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+			verify(invocHook, times(1)).secondAfterBody(coreService, methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+
+			// invocation sequence is finished, next method is not in the invocation context
+			Object contextThree = hookDispatcher.dispatchMethodBeforeBody(methodIdTwo, object, parameters);
+			assertThat(contextThree, is((Object) registeredSensorConfigTwo));
+
+			verifyZeroInteractions(object, coreService, returnValue);
+			verifyNoMoreInteractions(invocHook);
+		}
+
 		@Test
 		public void dispatchOneMethodHookWithInvocationTrace() {
 			long methodSensorTypeId = 7L;
@@ -296,6 +543,8 @@ public class HookDispatcherTest extends TestBase {
 
 			// verify that no further interactions happened
 			verifyZeroInteractions(object, coreService, returnValue, invocHook);
+			verify(registeredSensorConfig, times(1)).getMethodOverhead();
+			verify(registeredSensorConfigTwo, times(1)).getMethodOverhead();
 			verifyNoMoreInteractions(registeredSensorConfig, registeredSensorConfigTwo);
 			verifyNoMoreInteractions(methodHook, invocHook);
 		}
@@ -502,6 +751,7 @@ public class HookDispatcherTest extends TestBase {
 
 			// verify that no further interactions happened
 			verifyZeroInteractions(object, coreService, returnValue, invocHook);
+			verify(registeredSensorConfig, times(1)).getMethodOverhead();
 			verifyNoMoreInteractions(registeredSensorConfig, registeredSensorConfigTwo);
 			verifyNoMoreInteractions(constructorHook, invocHook);
 		}
@@ -584,6 +834,7 @@ public class HookDispatcherTest extends TestBase {
 
 			verifyZeroInteractions(object, coreService, returnValue);
 			verifyNoMoreInteractions(methodHook, exceptionHook);
+			verify(registeredSensorConfig, times(1)).getMethodOverhead();
 			verifyNoMoreInteractions(registeredSensorConfig, registeredConstructorSensorConfig);
 		}
 
@@ -685,6 +936,7 @@ public class HookDispatcherTest extends TestBase {
 
 			verifyZeroInteractions(object, coreService, returnValue);
 			verifyNoMoreInteractions(methodHookOne, methodHookTwo, methodHookThree, exceptionHook);
+			verify(registeredSensorConfig, times(1)).getMethodOverhead();
 			verifyNoMoreInteractions(registeredConstructorSensorConfig, registeredSensorConfig);
 		}
 
@@ -825,6 +1077,8 @@ public class HookDispatcherTest extends TestBase {
 
 			verifyZeroInteractions(object, coreService, returnValue);
 			verifyNoMoreInteractions(methodHook, exceptionHook, invocHook);
+			verify(registeredSensorConfig, times(1)).getMethodOverhead();
+			verify(registeredSensorConfigTwo, times(1)).getMethodOverhead();
 			verifyNoMoreInteractions(registeredSensorConfig, registeredSensorConfigTwo, registeredConstructorSensorConfig);
 		}
 	}
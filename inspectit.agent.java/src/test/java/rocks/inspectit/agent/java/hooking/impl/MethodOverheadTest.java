@@ -0,0 +1,104 @@
+package rocks.inspectit.agent.java.hooking.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link MethodOverhead}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class MethodOverheadTest extends TestBase {
+
+	public static class TakeCalls extends MethodOverheadTest {
+
+		@Test
+		public void sinceLastTake() {
+			MethodOverhead methodOverhead = new MethodOverhead(1L);
+
+			for (int i = 0; i < 10; i++) {
+				methodOverhead.call();
+			}
+			assertThat(methodOverhead.takeCalls(), is(10L));
+
+			methodOverhead.call();
+			assertThat(methodOverhead.takeCalls(), is(1L));
+			assertThat(methodOverhead.takeCalls(), is(0L));
+		}
+
+		@Test(timeOut = 60000)
+		public void concurrentCalls() throws Exception {
+			final MethodOverhead methodOverhead = new MethodOverhead(1L);
+			final int threads = 16;
+			final int iterations = 10000;
+			final CountDownLatch startLatch = new CountDownLatch(1);
+			ExecutorService executorService = Executors.newFixedThreadPool(threads);
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executorService.submit(new Runnable() {
+					public void run() {
+						try {
+							startLatch.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							return;
+						}
+						for (int j = 0; j < iterations; j++) {
+							long call = methodOverhead.call();
+							if (methodOverhead.isMeasured(call)) {
+								methodOverhead.addBeforeBodyCost(10L);
+							}
+						}
+					}
+				}));
+			}
+
+			startLatch.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			executorService.shutdown();
+
+			assertThat(methodOverhead.takeCalls(), is((long) threads * iterations));
+			assertThat(methodOverhead.takeAverageCost(), is(10d));
+		}
+	}
+
+	public static class TakeAverageCost extends MethodOverheadTest {
+
+		@Test
+		public void sinceLastTake() {
+			MethodOverhead methodOverhead = new MethodOverhead(1L);
+
+			methodOverhead.addBeforeBodyCost(10L);
+			methodOverhead.addAfterBodyCost(10L);
+			assertThat(methodOverhead.takeAverageCost(), is(20d));
+
+			methodOverhead.addBeforeBodyCost(40L);
+			assertThat(methodOverhead.takeAverageCost(), is(40d));
+		}
+
+		@Test
+		public void lastKnownWhenNothingMeasured() {
+			MethodOverhead methodOverhead = new MethodOverhead(1L);
+
+			methodOverhead.addBeforeBodyCost(30L);
+			assertThat(methodOverhead.takeAverageCost(), is(30d));
+			assertThat(methodOverhead.takeAverageCost(), is(30d));
+		}
+	}
+
+}
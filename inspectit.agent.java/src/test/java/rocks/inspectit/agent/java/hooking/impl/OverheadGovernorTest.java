@@ -0,0 +1,224 @@
+package rocks.inspectit.agent.java.hooking.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.config.StorageException;
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link OverheadGovernor}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class OverheadGovernorTest extends TestBase {
+
+	@InjectMocks
+	OverheadGovernor overheadGovernor;
+
+	@Mock
+	Logger log;
+
+	@Mock
+	IConfigurationStorage configurationStorage;
+
+	@Mock
+	IConnection connection;
+
+	@Mock
+	IPlatformManager platformManager;
+
+	public static class Register extends OverheadGovernorTest {
+
+		@Test
+		public void governed() {
+			RegisteredSensorConfig rsc = new RegisteredSensorConfig();
+
+			overheadGovernor.register(1L, rsc);
+
+			assertThat(rsc.getMethodOverhead(), is(notNullValue()));
+			assertThat(rsc.getMethodOverhead().getMethodId(), is(1L));
+			assertThat(rsc.getMethodOverhead().getSamplingRate(), is(1));
+		}
+
+		@Test
+		public void startsInvocationNotGoverned() {
+			RegisteredSensorConfig rsc = new RegisteredSensorConfig();
+			rsc.setStartsInvocation(true);
+
+			overheadGovernor.register(1L, rsc);
+
+			assertThat(rsc.getMethodOverhead(), is(nullValue()));
+		}
+	}
+
+	public static class AdjustSamplingRates extends OverheadGovernorTest {
+
+		@Test
+		public void underBudgets() {
+			MethodOverhead methodOverhead = register(1L);
+			calls(methodOverhead, 100, 1000L);
+
+			boolean changed = overheadGovernor.adjustSamplingRates(1000, 1000000d, 1d);
+
+			assertThat(changed, is(false));
+			assertThat(methodOverhead.getSamplingRate(), is(1));
+		}
+
+		@Test
+		public void callRateBudget() {
+			MethodOverhead methodOverhead = register(1L);
+			calls(methodOverhead, 10000, 0L);
+
+			boolean changed = overheadGovernor.adjustSamplingRates(1000, 0d, 1d);
+
+			assertThat(changed, is(true));
+			assertThat(methodOverhead.getSamplingRate(), is(16));
+		}
+
+		@Test
+		public void callRateBudgetNeverCountOnly() {
+			MethodOverhead methodOverhead = register(1L);
+			calls(methodOverhead, 100000, 0L);
+
+			overheadGovernor.adjustSamplingRates(1, 0d, 1d);
+
+			assertThat(methodOverhead.getSamplingRate(), is(OverheadGovernor.MAX_SAMPLING_RATE));
+		}
+
+		@Test
+		public void overheadBudgetMostExpensiveSampled() {
+			MethodOverhead cheap = register(1L);
+			calls(cheap, 1000, 100L);
+			MethodOverhead expensive = register(2L);
+			calls(expensive, 1000, 10000L);
+
+			// 0.1 ms and 10 ms spent, budget of 6 ms
+			boolean changed = overheadGovernor.adjustSamplingRates(0, 6000000d, 1d);
+
+			assertThat(changed, is(true));
+			assertThat(cheap.getSamplingRate(), is(1));
+			assertThat(expensive.getSamplingRate(), is(2));
+		}
+
+		@Test
+		public void overheadBudgetCountOnly() {
+			MethodOverhead methodOverhead = register(1L);
+			calls(methodOverhead, 100000, 100000L);
+
+			overheadGovernor.adjustSamplingRates(0, 1d, 1d);
+
+			assertThat(methodOverhead.getSamplingRate(), is(MethodOverhead.COUNT_ONLY));
+		}
+
+		@Test
+		public void relaxed() {
+			MethodOverhead methodOverhead = register(1L);
+			methodOverhead.setSamplingRate(8);
+			calls(methodOverhead, 100, 1000L);
+
+			boolean changed = overheadGovernor.adjustSamplingRates(1000, 1000000d, 1d);
+
+			assertThat(changed, is(true));
+			assertThat(methodOverhead.getSamplingRate(), is(4));
+		}
+
+		@Test
+		public void countOnlyRelaxed() {
+			MethodOverhead methodOverhead = register(1L);
+			methodOverhead.setSamplingRate(MethodOverhead.COUNT_ONLY);
+			calls(methodOverhead, 100, 0L);
+
+			overheadGovernor.adjustSamplingRates(0, 0d, 1d);
+
+			assertThat(methodOverhead.getSamplingRate(), is(OverheadGovernor.MAX_SAMPLING_RATE));
+		}
+	}
+
+	public static class Govern extends OverheadGovernorTest {
+
+		@Test
+		@SuppressWarnings("unchecked")
+		public void reported() throws Exception {
+			when(configurationStorage.getGovernorCallRateBudget()).thenReturn(1);
+			when(configurationStorage.getGovernorOverheadBudget()).thenReturn(0);
+			when(connection.isConnected()).thenReturn(true);
+			when(platformManager.getPlatformId()).thenReturn(10L);
+			MethodOverhead methodOverhead = register(1L);
+			calls(methodOverhead, 1000, 0L);
+			register(2L);
+
+			overheadGovernor.govern();
+
+			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+			verify(connection).overheadGoverned(eq(10L), captor.capture());
+			Map<Long, long[]> governedMethods = captor.getValue();
+			assertThat(governedMethods.size(), is(1));
+			assertThat(governedMethods, hasKey(1L));
+			assertThat(governedMethods.get(1L)[0], is((long) methodOverhead.getSamplingRate()));
+		}
+
+		@Test
+		public void notReportedWithoutChange() throws Exception {
+			when(configurationStorage.getGovernorCallRateBudget()).thenReturn(1000);
+			when(configurationStorage.getGovernorOverheadBudget()).thenReturn(50);
+			when(connection.isConnected()).thenReturn(true);
+			register(1L);
+
+			overheadGovernor.govern();
+
+			verify(connection, never()).overheadGoverned(anyLong(), anyMapOf(Long.class, long[].class));
+		}
+
+		@Test
+		public void notRegistered() throws Exception {
+			when(configurationStorage.getGovernorCallRateBudget()).thenThrow(new StorageException("Agent configuration is not set."));
+			MethodOverhead methodOverhead = register(1L);
+			calls(methodOverhead, 1000000, 0L);
+
+			overheadGovernor.govern();
+
+			assertThat(methodOverhead.getSamplingRate(), is(1));
+			verify(connection, never()).overheadGoverned(anyLong(), anyMapOf(Long.class, long[].class));
+		}
+	}
+
+	MethodOverhead register(long id) {
+		RegisteredSensorConfig rsc = new RegisteredSensorConfig();
+		overheadGovernor.register(id, rsc);
+		return rsc.getMethodOverhead();
+	}
+
+	static void calls(MethodOverhead methodOverhead, int count, long cost) {
+		for (int i = 0; i < count; i++) {
+			long call = methodOverhead.call();
+			if (methodOverhead.isMeasured(call)) {
+				methodOverhead.addBeforeBodyCost(cost);
+			}
+		}
+	}
+
+}
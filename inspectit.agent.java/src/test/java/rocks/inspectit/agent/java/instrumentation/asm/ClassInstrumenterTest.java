@@ -166,8 +166,35 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], "stringNullParameter");
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], "stringNullParameter");
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], "stringNullParameter");
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
+		@Test
+		public void methodHookContext() throws Exception {
+			String methodName = "stringNullParameter";
+			long methodId = 3L;
+			Object context = new Object();
+
+			when(sip.getId()).thenReturn(methodId);
+			when(hookDispatcher.dispatchMethodBeforeBody(eq(methodId), anyObject(), (Object[]) anyObject())).thenReturn(context);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName);
+			doAnswer(METHOD_INSTRUMENTER_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			this.callMethod(testClass, methodName, null);
+
+			// context from the before body must be passed to the after body
+			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, context, testClass, new Object[0], "stringNullParameter");
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -194,8 +221,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, null, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, null, new Object[0], null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, null, new Object[0], null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, null, new Object[0], null);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -220,8 +246,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], "stringNullParameter");
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], "stringNullParameter");
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], "stringNullParameter");
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -246,8 +271,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], 3);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], 3);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], 3);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -272,8 +296,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], 5.3D);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], 5.3D);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], 5.3D);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -298,8 +321,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], Float.MAX_VALUE);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], Float.MAX_VALUE);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], Float.MAX_VALUE);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -324,8 +346,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], (byte) 127);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], (byte) 127);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], (byte) 127);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -350,8 +371,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], (short) 16345);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], (short) 16345);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], (short) 16345);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -376,8 +396,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], false);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], false);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], false);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -402,8 +421,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], '\u1234');
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], '\u1234');
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], '\u1234');
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -428,8 +446,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, null, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, null, new Object[0], null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, null, new Object[0], null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, null, new Object[0], null);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -454,8 +471,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, null, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, null, new Object[0], "stringNullParameterStatic");
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, null, new Object[0], "stringNullParameterStatic");
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, null, new Object[0], "stringNullParameterStatic");
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -481,8 +497,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, parameters);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, parameters);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, parameters, null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, parameters, null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, parameters, null);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -508,8 +523,41 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, parameters);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, parameters);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, parameters, "stringOneParameter");
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, parameters, "stringOneParameter");
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, parameters, "stringOneParameter");
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
+		@Test
+		public void stringOneParameterNotNeeded() throws Exception {
+			String methodName = "stringOneParameter";
+			Object[] parameters = { "java.lang.String" };
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName, String.class);
+			doAnswer(new Answer<MethodVisitor>() {
+				@Override
+				public MethodVisitor answer(InvocationOnMock invocation) throws Throwable {
+					Object[] arguments = invocation.getArguments();
+					return getMethodInstrumenter((MethodVisitor) arguments[1], (Integer) arguments[2], (String) arguments[3], (String) arguments[4], sip.getId(), (Boolean) arguments[5], false, false);
+				}
+			}).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			Object result = this.callMethod(testClass, methodName, parameters);
+
+			// neither parameters nor return value are passed
+			assertThat(result, is((Object) "stringOneParameter"));
+			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, null, null);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -535,8 +583,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, parameters);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, parameters);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, parameters, null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, parameters, null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, parameters, null);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -562,8 +609,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, parameters);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, parameters);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, parameters, null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, parameters, null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, parameters, null);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -588,8 +634,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], new int[] { 1, 2, 3 });
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], new int[] { 1, 2, 3 });
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], new int[] { 1, 2, 3 });
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -614,8 +659,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], new String[] { "test123", "bla" });
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], new String[] { "test123", "bla" });
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], new String[] { "test123", "bla" });
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -645,8 +689,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			}
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], null);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -675,8 +718,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			}
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, parameters);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, parameters, null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, parameters, null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, parameters, null);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -701,8 +743,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], 3);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], 3);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], 3);
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
@@ -929,8 +970,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], null);
 
 			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
 			verify(hookDispatcher).dispatchBeforeCatch(eq(methodId), captor.capture());
@@ -996,13 +1036,11 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 
 			// first method
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], null);
 
 			// inner method
 			verify(hookDispatcher).dispatchMethodBeforeBody(innerMethodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(innerMethodId, testClass, new Object[0], null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(innerMethodId, testClass, new Object[0], null);
+			verify(hookDispatcher).dispatchMethodAfterBody(innerMethodId, null, testClass, new Object[0], null);
 
 			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
 			verify(hookDispatcher).dispatchOnThrowInBody(eq(innerMethodId), eq(testClass), (Object[]) anyObject(), captor.capture());
@@ -1042,13 +1080,11 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 
 			// first method
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, null, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, null, new Object[0], null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, null, new Object[0], null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, null, new Object[0], null);
 
 			// inner method
 			verify(hookDispatcher).dispatchMethodBeforeBody(innerMethodId, null, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(innerMethodId, null, new Object[0], null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(innerMethodId, null, new Object[0], null);
+			verify(hookDispatcher).dispatchMethodAfterBody(innerMethodId, null, null, new Object[0], null);
 
 			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
 			verify(hookDispatcher).dispatchOnThrowInBody(eq(innerMethodId), eq(null), (Object[]) anyObject(), captor.capture());
@@ -1099,8 +1135,7 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 
 			// inner method
 			verify(hookDispatcher).dispatchMethodBeforeBody(eq(innerMethodId), anyObject(), eq(new Object[0]));
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(eq(innerMethodId), anyObject(), eq(new Object[0]), eq(null));
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(eq(innerMethodId), anyObject(), eq(new Object[0]), eq(null));
+			verify(hookDispatcher).dispatchMethodAfterBody(eq(innerMethodId), eq(null), anyObject(), eq(new Object[0]), eq(null));
 
 			verify(hookDispatcher).dispatchOnThrowInBody(eq(innerMethodId), anyObject(), eq(new Object[0]), captor.capture());
 			assertThat(captor.getValue().getClass().getName(), is(equalTo(MyTestException.class.getName())));
@@ -1138,16 +1173,14 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			this.callMethod(testClass, methodName, null);
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, new Object[0], null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, new Object[0], null);
+			verify(hookDispatcher).dispatchMethodAfterBody(methodId, null, testClass, new Object[0], null);
 
 			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
 			verify(hookDispatcher).dispatchBeforeCatch(eq(methodId), captor.capture());
 			assertThat(captor.getValue().getClass().getName(), is(equalTo(MyTestException.class.getName())));
 
 			verify(hookDispatcher).dispatchMethodBeforeBody(innerMethodId, testClass, new Object[0]);
-			verify(hookDispatcher).dispatchFirstMethodAfterBody(innerMethodId, testClass, new Object[0], null);
-			verify(hookDispatcher).dispatchSecondMethodAfterBody(innerMethodId, testClass, new Object[0], null);
+			verify(hookDispatcher).dispatchMethodAfterBody(innerMethodId, null, testClass, new Object[0], null);
 
 			captor = ArgumentCaptor.forClass(Object.class);
 			verify(hookDispatcher).dispatchOnThrowInBody(eq(innerMethodId), eq(testClass), (Object[]) anyObject(), captor.capture());
@@ -1165,7 +1198,12 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 	}
 
 	protected static MethodInstrumenter getMethodInstrumenter(MethodVisitor superMethodVisitor, int access, String name, String desc, long id, boolean enhancedExceptionSensor) {
-		return new MethodInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor) {
+		return getMethodInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor, true, true);
+	}
+
+	protected static MethodInstrumenter getMethodInstrumenter(MethodVisitor superMethodVisitor, int access, String name, String desc, long id, boolean enhancedExceptionSensor, boolean parametersNeeded,
+			boolean returnValueNeeded) {
+		return new MethodInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor, parametersNeeded, returnValueNeeded) {
 			@Override
 			protected void loadHookDispatcher() {
 				mv.visitFieldInsn(Opcodes.GETSTATIC, Type.getInternalName(ClassInstrumenterTest.class), "dispatcher", Type.getDescriptor(IHookDispatcher.class));
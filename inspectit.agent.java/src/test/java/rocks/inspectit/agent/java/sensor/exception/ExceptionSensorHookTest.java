@@ -3,11 +3,15 @@ package rocks.inspectit.agent.java.sensor.exception;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -18,9 +22,12 @@ import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 import java.sql.Timestamp;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.testng.annotations.BeforeMethod;
@@ -29,18 +36,23 @@ import org.testng.annotations.Test;
 import rocks.inspectit.agent.java.AbstractLogSupport;
 import rocks.inspectit.agent.java.analyzer.classes.MyTestException;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
 import rocks.inspectit.agent.java.util.StringConstraint;
 import rocks.inspectit.shared.all.communication.ExceptionEvent;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 
 @SuppressWarnings("PMD")
 public class ExceptionSensorHookTest extends AbstractLogSupport {
 	@Mock
 	private IPlatformManager platformManager;
 
+	@Mock
+	private IConnection connection;
+
 	@Mock
 	private ICoreService coreService;
 
@@ -58,7 +70,7 @@ public class ExceptionSensorHookTest extends AbstractLogSupport {
 		stringLength = 1000;
 		parameter = new HashMap<String, Object>();
 		parameter.put("stringLength", String.valueOf(stringLength));
-		exceptionHook = new ExceptionSensorHook(platformManager, parameter);
+		exceptionHook = new ExceptionSensorHook(platformManager, connection, parameter);
 	}
 
 	@Test
@@ -246,6 +258,125 @@ public class ExceptionSensorHookTest extends AbstractLogSupport {
 		verifyNoMoreInteractions(platformManager);
 	}
 
+	@Test
+	public void stackTraceSentOncePerFingerprint() throws IdNotAvailableException {
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		long platformId = 1L;
+		Object[] parameters = new Object[0];
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		MyTestException[] exceptions = new MyTestException[3];
+		for (int i = 0; i < exceptions.length; i++) {
+			// same line, thus same stack trace
+			exceptions[i] = new MyTestException("message" + i);
+		}
+		MyTestException otherException = new MyTestException("other");
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptions[0], parameters, registeredSensorConfig);
+		ArgumentCaptor<ExceptionSensorData> sentCaptor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService).addExceptionSensorData(eq(sensorTypeId), anyLong(), sentCaptor.capture());
+		exceptionHook.dataObjectsSent(Collections.singletonList(sentCaptor.getValue()));
+		for (int i = 1; i < exceptions.length; i++) {
+			exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptions[i], parameters, registeredSensorConfig);
+		}
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, otherException, parameters, registeredSensorConfig);
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(4)).addExceptionSensorData(eq(sensorTypeId), anyLong(), captor.capture());
+		List<ExceptionSensorData> data = captor.getAllValues();
+		assertThat(data.get(0).getStackTrace(), is(notNullValue()));
+		assertThat(data.get(1).getStackTrace(), is(nullValue()));
+		assertThat(data.get(2).getStackTrace(), is(nullValue()));
+		assertThat(data.get(3).getStackTrace(), is(notNullValue()));
+		assertThat(data.get(1).getStackTraceFingerprint(), is(data.get(0).getStackTraceFingerprint()));
+		assertThat(data.get(2).getStackTraceFingerprint(), is(data.get(0).getStackTraceFingerprint()));
+		assertThat(data.get(3).getStackTraceFingerprint(), is(not(data.get(0).getStackTraceFingerprint())));
+	}
+
+	@Test
+	public void stackTraceSentAgainAfterReconnect() throws IdNotAvailableException {
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		Object[] parameters = new Object[0];
+		when(platformManager.getPlatformId()).thenReturn(1L, 1L, 2L);
+		when(connection.getConnectionEpoch()).thenReturn(1L, 2L, 2L);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		MyTestException[] exceptions = new MyTestException[3];
+		for (int i = 0; i < exceptions.length; i++) {
+			// same line, thus same stack trace
+			exceptions[i] = new MyTestException("message" + i);
+		}
+		for (MyTestException exception : exceptions) {
+			exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exception, parameters, registeredSensorConfig);
+			ArgumentCaptor<ExceptionSensorData> sentCaptor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+			verify(coreService, atLeastOnce()).addExceptionSensorData(eq(sensorTypeId), anyLong(), sentCaptor.capture());
+			exceptionHook.dataObjectsSent(Collections.singletonList(sentCaptor.getValue()));
+		}
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(3)).addExceptionSensorData(eq(sensorTypeId), anyLong(), captor.capture());
+		List<ExceptionSensorData> data = captor.getAllValues();
+		// new connection and new registration
+		assertThat(data.get(0).getStackTrace(), is(notNullValue()));
+		assertThat(data.get(1).getStackTrace(), is(notNullValue()));
+		assertThat(data.get(2).getStackTrace(), is(notNullValue()));
+	}
+
+	@Test
+	public void stackTraceSentAgainIfNotDelivered() throws IdNotAvailableException {
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		Object[] parameters = new Object[0];
+		when(platformManager.getPlatformId()).thenReturn(1L);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		MyTestException[] exceptions = new MyTestException[2];
+		for (int i = 0; i < exceptions.length; i++) {
+			// same line, thus same stack trace
+			exceptions[i] = new MyTestException("message" + i);
+		}
+		for (MyTestException exception : exceptions) {
+			exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exception, parameters, registeredSensorConfig);
+		}
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(2)).addExceptionSensorData(eq(sensorTypeId), anyLong(), captor.capture());
+		List<ExceptionSensorData> data = captor.getAllValues();
+		// first data was never delivered, for example dropped by the buffer strategy
+		assertThat(data.get(0).getStackTrace(), is(notNullValue()));
+		assertThat(data.get(1).getStackTrace(), is(notNullValue()));
+	}
+
+	@Test
+	public void stackTraceDeliveredInInvocation() throws IdNotAvailableException {
+		long constructorId = 5L;
+		long sensorTypeId = 3L;
+		Object[] parameters = new Object[0];
+		when(platformManager.getPlatformId()).thenReturn(1L);
+		when(registeredSensorConfig.getTargetClassFqn()).thenReturn(MyTestException.class.getName());
+
+		MyTestException[] exceptions = new MyTestException[2];
+		for (int i = 0; i < exceptions.length; i++) {
+			// same line, thus same stack trace
+			exceptions[i] = new MyTestException("message" + i);
+		}
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptions[0], parameters, registeredSensorConfig);
+		ArgumentCaptor<ExceptionSensorData> sentCaptor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService).addExceptionSensorData(eq(sensorTypeId), anyLong(), sentCaptor.capture());
+		InvocationSequenceData nested = new InvocationSequenceData();
+		nested.setExceptionSensorDataObjects(Collections.singletonList(sentCaptor.getValue()));
+		InvocationSequenceData invocation = new InvocationSequenceData();
+		invocation.setNestedSequences(Collections.singletonList(nested));
+		exceptionHook.dataObjectsSent(Collections.singletonList(invocation));
+		exceptionHook.afterConstructor(coreService, constructorId, sensorTypeId, exceptions[1], parameters, registeredSensorConfig);
+
+		ArgumentCaptor<ExceptionSensorData> captor = ArgumentCaptor.forClass(ExceptionSensorData.class);
+		verify(coreService, times(2)).addExceptionSensorData(eq(sensorTypeId), anyLong(), captor.capture());
+		assertThat(captor.getAllValues().get(1).getStackTrace(), is(nullValue()));
+	}
+
 	@Test
 	public void platformIdNotAvailable() throws IdNotAvailableException {
 		// set up data
@@ -3,8 +3,11 @@ package rocks.inspectit.agent.java.sensor.jmx;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -12,11 +15,13 @@ import static org.mockito.Mockito.when;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
-import javax.management.AttributeNotFoundException;
+import javax.management.Attribute;
+import javax.management.AttributeList;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanAttributeInfo;
-import javax.management.MBeanException;
 import javax.management.MBeanInfo;
 import javax.management.MBeanServer;
 import javax.management.MBeanServerNotification;
@@ -208,14 +213,14 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(value);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(attributeList(testAttributeName, value));
 			jmxSensor.init(sensorTypeConfig);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), eq(jmxSensor), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
@@ -257,7 +262,7 @@ public class JmxSensorTest extends TestBase {
 			when(platformManager.getPlatformId()).thenReturn(platformIdent);
 			when(connection.isConnected()).thenReturn(true);
 			when(connection.analyzeJmxAttributes(eq(platformIdent), Matchers.<Collection<JmxAttributeDescriptor>> any())).thenReturn(Collections.<JmxAttributeDescriptor> emptyList());
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(value);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(attributeList(testAttributeName, value));
 			jmxSensor.init(sensorTypeConfig);
 
 			jmxSensor.update(coreService);
@@ -300,7 +305,7 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenThrow(throwableClass);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenThrow(throwableClass);
 			jmxSensor.init(sensorTypeConfig);
 
 			// update twice
@@ -310,7 +315,7 @@ public class JmxSensorTest extends TestBase {
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), eq(jmxSensor), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 		}
@@ -346,14 +351,14 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(null);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(attributeList(testAttributeName, null));
 			jmxSensor.init(sensorTypeConfig);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), eq(jmxSensor), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
@@ -397,14 +402,14 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(new int[] { 1, 2, 3 });
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(attributeList(testAttributeName, new int[] { 1, 2, 3 }));
 			jmxSensor.init(sensorTypeConfig);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), eq(jmxSensor), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
@@ -448,14 +453,14 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(new String[] { "1", "2", "3" });
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(attributeList(testAttributeName, new String[] { "1", "2", "3" }));
 			jmxSensor.init(sensorTypeConfig);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), eq(jmxSensor), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
@@ -468,10 +473,89 @@ public class JmxSensorTest extends TestBase {
 			assertThat(valueCaptor.getValue().getValue(), is("[1, 2, 3]"));
 		}
 
+		@Test
+		public void collectDataAttributeNotReturned() throws Exception {
+			String testAttributeName = "TestAttributename";
+			ObjectName objectName = new ObjectName("Testdomain:Test=TestObjectName,name=test");
+			initWithAttribute(objectName, testAttributeName, 0L);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList());
+
+			// update twice
+			jmxSensor.update(coreService);
+			jmxSensor.lastDataCollectionTimestamp = 0;
+			jmxSensor.update(coreService);
+
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
+			verifyZeroInteractions(coreService);
+		}
+
+		@Test
+		public void collectIntervalNotPassed() throws Exception {
+			String testAttributeName = "TestAttributename";
+			ObjectName objectName = new ObjectName("Testdomain:Test=TestObjectName,name=test");
+			initWithAttribute(objectName, testAttributeName, 60000L);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(attributeList(testAttributeName, "value"));
+
+			// update twice
+			jmxSensor.update(coreService);
+			jmxSensor.lastDataCollectionTimestamp = 0;
+			jmxSensor.update(coreService);
+
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
+			verify(coreService).addJmxSensorValueData(anyLong(), anyString(), anyString(), Matchers.<JmxSensorValueData> any());
+		}
+
+		@Test
+		public void changeDetectionSameValueNotSent() throws Exception {
+			String testAttributeName = "TestAttributename";
+			ObjectName objectName = new ObjectName("Testdomain:Test=TestObjectName,name=test");
+			Map<String, Object> parameters = new HashMap<String, Object>();
+			parameters.put("changeDetection", "true");
+			parameters.put("heartbeatInterval", "60000");
+			when(sensorTypeConfig.getParameters()).thenReturn(parameters);
+			initWithAttribute(objectName, testAttributeName, 1L);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(attributeList(testAttributeName, 10L), attributeList(testAttributeName, 10L),
+					attributeList(testAttributeName, 11L));
+
+			// update three times
+			jmxSensor.update(coreService);
+			Thread.sleep(2L);
+			jmxSensor.lastDataCollectionTimestamp = 0;
+			jmxSensor.update(coreService);
+			Thread.sleep(2L);
+			jmxSensor.lastDataCollectionTimestamp = 0;
+			jmxSensor.update(coreService);
+
+			verify(mBeanServer, times(3)).getAttributes(objectName, new String[] { testAttributeName });
+			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
+			verify(coreService, times(2)).addJmxSensorValueData(anyLong(), anyString(), anyString(), valueCaptor.capture());
+			assertThat(valueCaptor.getAllValues().get(0).getValue(), is("10"));
+			assertThat(valueCaptor.getAllValues().get(1).getValue(), is("11"));
+		}
+
+		@Test
+		public void changeDetectionHeartbeat() throws Exception {
+			String testAttributeName = "TestAttributename";
+			ObjectName objectName = new ObjectName("Testdomain:Test=TestObjectName,name=test");
+			Map<String, Object> parameters = new HashMap<String, Object>();
+			parameters.put("changeDetection", "true");
+			parameters.put("heartbeatInterval", "0");
+			when(sensorTypeConfig.getParameters()).thenReturn(parameters);
+			initWithAttribute(objectName, testAttributeName, 1L);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(attributeList(testAttributeName, "value"));
+
+			// update twice
+			jmxSensor.update(coreService);
+			Thread.sleep(2L);
+			jmxSensor.lastDataCollectionTimestamp = 0;
+			jmxSensor.update(coreService);
+
+			verify(coreService, times(2)).addJmxSensorValueData(anyLong(), anyString(), anyString(), Matchers.<JmxSensorValueData> any());
+		}
+
 		@DataProvider(name = "throwableProvider")
 		public Object[][] getThrowables() {
-			return new Object[][] { { AttributeNotFoundException.class }, { InstanceNotFoundException.class }, { MBeanException.class }, { ReflectionException.class },
-				{ RuntimeMBeanException.class } };
+			return new Object[][] { { InstanceNotFoundException.class }, { ReflectionException.class }, { RuntimeMBeanException.class } };
 		}
 
 	}
@@ -514,7 +598,7 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(value);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(attributeList(testAttributeName, value));
 			MBeanServerNotification notification = new MBeanServerNotification(MBeanServerNotification.REGISTRATION_NOTIFICATION, this, 1, objectName);
 
 			jmxSensor.handleNotification(notification, null);
@@ -532,7 +616,7 @@ public class JmxSensorTest extends TestBase {
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verifyNoMoreInteractions(mBeanServer);
 
 			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
@@ -589,4 +673,33 @@ public class JmxSensorTest extends TestBase {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Initializes the sensor with one monitored attribute of the given MBean.
+	 */
+	void initWithAttribute(ObjectName objectName, String attributeName, final long collectInterval) throws Exception {
+		MBeanAttributeInfo mBeanAttributeInfo = new MBeanAttributeInfo(attributeName, "test-type", "test-description", true, false, false);
+		when(sensorTypeConfig.getId()).thenReturn(13L);
+		when(mBeanServer.queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null))).thenReturn(Collections.singleton(objectName));
+		when(mBeanServer.getMBeanInfo(Matchers.<ObjectName> any())).thenReturn(mBeanInfo);
+		when(mBeanInfo.getAttributes()).thenReturn(new MBeanAttributeInfo[] { mBeanAttributeInfo });
+		when(platformManager.getPlatformId()).thenReturn(11L);
+		when(connection.isConnected()).thenReturn(true);
+		when(connection.analyzeJmxAttributes(eq(11L), Matchers.<Collection<JmxAttributeDescriptor>> any())).thenAnswer(new Answer<Collection<JmxAttributeDescriptor>>() {
+			public Collection<JmxAttributeDescriptor> answer(InvocationOnMock invocation) throws Throwable {
+				Collection<JmxAttributeDescriptor> descriptors = (Collection<JmxAttributeDescriptor>) invocation.getArguments()[1];
+				for (JmxAttributeDescriptor d : descriptors) {
+					d.setId(17L);
+					d.setCollectInterval(collectInterval);
+				}
+				return descriptors;
+			}
+		});
+		jmxSensor.init(sensorTypeConfig);
+	}
+
+	static AttributeList attributeList(String attributeName, Object value) {
+		AttributeList attributeList = new AttributeList();
+		attributeList.add(new Attribute(attributeName, value));
+		return attributeList;
+	}
+}
@@ -105,9 +105,9 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1323.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue);
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1323000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue);
 		when(rsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
 		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
 
@@ -121,7 +121,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(2)).getCurrentTime();
+		verify(timer, times(2)).getCurrentNanoTime();
 		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId), Matchers.<String> anyObject(), captor.capture());
 
@@ -129,7 +129,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(invocation.getPlatformIdent(), is(platformId));
 		assertThat(invocation.getMethodIdent(), is(methodId));
 		assertThat(invocation.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(invocation.getDuration(), is(secondTimerValue - firstTimerValue));
+		assertThat(invocation.getDuration(), is(Timer.toMillis(secondTimerValue - firstTimerValue)));
 		assertThat(invocation.getNestedSequences(), is(empty()));
 		assertThat(invocation.getChildCount(), is(0L));
 		assertThat(invocation.getTimerData(), is(timerData));
@@ -153,11 +153,11 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1323.0d;
-		double thirdTimerValue = 1881.0d;
-		double fourthTimerValue = 2562.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue);
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1323000000L;
+		long thirdTimerValue = 1881000000L;
+		long fourthTimerValue = 2562000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue);
 		when(rsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
 		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
 
@@ -168,7 +168,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(4)).getCurrentTime();
+		verify(timer, times(4)).getCurrentNanoTime();
 		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
 
@@ -176,14 +176,14 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(invocation.getPlatformIdent(), is(platformId));
 		assertThat(invocation.getMethodIdent(), is(methodId1));
 		assertThat(invocation.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(invocation.getDuration(), is(fourthTimerValue - firstTimerValue));
+		assertThat(invocation.getDuration(), is(Timer.toMillis(fourthTimerValue - firstTimerValue)));
 		assertThat(invocation.getNestedSequences(), hasSize(1));
 		assertThat(invocation.getChildCount(), is(1L));
 		InvocationSequenceData child = invocation.getNestedSequences().iterator().next();
 		assertThat(child.getPlatformIdent(), is(platformId));
 		assertThat(child.getMethodIdent(), is(methodId2));
 		assertThat(child.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(child.getDuration(), is(thirdTimerValue - secondTimerValue));
+		assertThat(child.getDuration(), is(Timer.toMillis(thirdTimerValue - secondTimerValue)));
 		assertThat(child.getNestedSequences(), is(empty()));
 		assertThat(child.getParentSequence(), is(invocation));
 		assertThat(child.getChildCount(), is(0L));
@@ -209,11 +209,11 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1323.0d;
-		double thirdTimerValue = 1881.0d;
-		double fourthTimerValue = 2562.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue);
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1323000000L;
+		long thirdTimerValue = 1881000000L;
+		long fourthTimerValue = 2562000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue);
 
 		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
 		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
@@ -222,7 +222,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(4)).getCurrentTime();
+		verify(timer, times(4)).getCurrentNanoTime();
 		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
 
@@ -230,14 +230,14 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(invocation.getPlatformIdent(), is(platformId));
 		assertThat(invocation.getMethodIdent(), is(methodId1));
 		assertThat(invocation.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(invocation.getDuration(), is(fourthTimerValue - firstTimerValue));
+		assertThat(invocation.getDuration(), is(Timer.toMillis(fourthTimerValue - firstTimerValue)));
 		assertThat(invocation.getNestedSequences(), hasSize(1));
 		assertThat(invocation.getChildCount(), is(1L));
 		InvocationSequenceData child = invocation.getNestedSequences().iterator().next();
 		assertThat(child.getPlatformIdent(), is(platformId));
 		assertThat(child.getMethodIdent(), is(methodId1));
 		assertThat(child.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(child.getDuration(), is(thirdTimerValue - secondTimerValue));
+		assertThat(child.getDuration(), is(Timer.toMillis(thirdTimerValue - secondTimerValue)));
 		assertThat(child.getNestedSequences(), is(empty()));
 		assertThat(child.getParentSequence(), is(invocation));
 		assertThat(child.getChildCount(), is(0L));
@@ -260,10 +260,10 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1200.0d;
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1200000000L;
 		Long minDuration = 201L;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue);
 		Map<String, Object> map = new HashMap<String, Object>();
 		map.put("minduration", minDuration);
 		when(rsc.getSettings()).thenReturn(map);
@@ -274,17 +274,17 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(2)).getCurrentTime();
+		verify(timer, times(2)).getCurrentNanoTime();
 		verifyZeroInteractions(coreService);
 
-		secondTimerValue = 1202.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue);
+		secondTimerValue = 1202000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue);
 
 		invocationSequenceHook.beforeBody(methodId, sensorTypeId, object, parameters, rsc);
 		invocationSequenceHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(4)).getCurrentTime();
+		verify(timer, times(4)).getCurrentNanoTime();
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId), Matchers.<String> anyObject(), Matchers.<InvocationSequenceData> anyObject());
 	}
 
@@ -328,12 +328,12 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1323.0d;
-		double thirdTimerValue = 1881.0d;
-		double fourthTimerValue = 2562.0d;
-		double fifthTimerValue = 3221.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue, fifthTimerValue);
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1323000000L;
+		long thirdTimerValue = 1881000000L;
+		long fourthTimerValue = 2562000000L;
+		long fifthTimerValue = 3221000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue, fifthTimerValue);
 
 		RegisteredSensorConfig removingRsc = mock(RegisteredSensorConfig.class);
 		MethodSensorTypeConfig exceptionSensorConfig = mock(MethodSensorTypeConfig.class);
@@ -353,7 +353,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(5)).getCurrentTime();
+		verify(timer, times(5)).getCurrentNanoTime();
 		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
 
@@ -361,14 +361,14 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(invocation.getPlatformIdent(), is(platformId));
 		assertThat(invocation.getMethodIdent(), is(methodId1));
 		assertThat(invocation.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(invocation.getDuration(), is(fifthTimerValue - firstTimerValue));
+		assertThat(invocation.getDuration(), is(Timer.toMillis(fifthTimerValue - firstTimerValue)));
 		assertThat(invocation.getNestedSequences(), hasSize(1));
 		assertThat(invocation.getChildCount(), is(1L));
 		InvocationSequenceData child = invocation.getNestedSequences().iterator().next();
 		assertThat(child.getPlatformIdent(), is(platformId));
 		assertThat(child.getMethodIdent(), is(methodId3));
 		assertThat(child.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(child.getDuration(), is(fourthTimerValue - thirdTimerValue));
+		assertThat(child.getDuration(), is(Timer.toMillis(fourthTimerValue - thirdTimerValue)));
 		assertThat(child.getNestedSequences(), is(empty()));
 		assertThat(child.getParentSequence(), is(invocation));
 		assertThat(child.getChildCount(), is(0L));
@@ -389,10 +389,10 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1323.0d;
-		double thirdTimerValue = 1881.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue);
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1323000000L;
+		long thirdTimerValue = 1881000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue);
 
 		RegisteredSensorConfig removingRsc = mock(RegisteredSensorConfig.class);
 		MethodSensorTypeConfig exceptionSensorConfig = mock(MethodSensorTypeConfig.class);
@@ -409,7 +409,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(3)).getCurrentTime();
+		verify(timer, times(3)).getCurrentNanoTime();
 		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
 
@@ -417,7 +417,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(invocation.getPlatformIdent(), is(platformId));
 		assertThat(invocation.getMethodIdent(), is(methodId1));
 		assertThat(invocation.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(invocation.getDuration(), is(thirdTimerValue - firstTimerValue));
+		assertThat(invocation.getDuration(), is(Timer.toMillis(thirdTimerValue - firstTimerValue)));
 		assertThat(invocation.getNestedSequences(), hasSize(0));
 		assertThat(invocation.getChildCount(), is(0L));
 	}
@@ -437,11 +437,11 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1323.0d;
-		double thirdTimerValue = 1881.0d;
-		double fourthTimerValue = 2562.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue);
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1323000000L;
+		long thirdTimerValue = 1881000000L;
+		long fourthTimerValue = 2562000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue);
 
 		RegisteredSensorConfig removingRsc = mock(RegisteredSensorConfig.class);
 		MethodSensorTypeConfig exceptionSensorConfig = mock(MethodSensorTypeConfig.class);
@@ -462,7 +462,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(4)).getCurrentTime();
+		verify(timer, times(4)).getCurrentNanoTime();
 		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
 
@@ -470,14 +470,14 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(invocation.getPlatformIdent(), is(platformId));
 		assertThat(invocation.getMethodIdent(), is(methodId1));
 		assertThat(invocation.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(invocation.getDuration(), is(fourthTimerValue - firstTimerValue));
+		assertThat(invocation.getDuration(), is(Timer.toMillis(fourthTimerValue - firstTimerValue)));
 		assertThat(invocation.getNestedSequences(), hasSize(1));
 		assertThat(invocation.getChildCount(), is(1L));
 		InvocationSequenceData child = invocation.getNestedSequences().iterator().next();
 		assertThat(child.getPlatformIdent(), is(platformId));
 		assertThat(child.getMethodIdent(), is(methodId2));
 		assertThat(child.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(child.getDuration(), is(thirdTimerValue - secondTimerValue));
+		assertThat(child.getDuration(), is(Timer.toMillis(thirdTimerValue - secondTimerValue)));
 		assertThat(child.getNestedSequences(), is(empty()));
 		assertThat(child.getParentSequence(), is(invocation));
 		assertThat(child.getChildCount(), is(0L));
@@ -499,10 +499,10 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1323.0d;
-		double thirdTimerValue = 1881.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue);
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1323000000L;
+		long thirdTimerValue = 1881000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue);
 
 		RegisteredSensorConfig removingRsc = mock(RegisteredSensorConfig.class);
 		MethodSensorTypeConfig sqlSensorConfig = mock(MethodSensorTypeConfig.class);
@@ -519,7 +519,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(3)).getCurrentTime();
+		verify(timer, times(3)).getCurrentNanoTime();
 		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
 
@@ -527,7 +527,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(invocation.getPlatformIdent(), is(platformId));
 		assertThat(invocation.getMethodIdent(), is(methodId1));
 		assertThat(invocation.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(invocation.getDuration(), is(thirdTimerValue - firstTimerValue));
+		assertThat(invocation.getDuration(), is(Timer.toMillis(thirdTimerValue - firstTimerValue)));
 		assertThat(invocation.getNestedSequences(), hasSize(0));
 		assertThat(invocation.getChildCount(), is(0L));
 	}
@@ -547,11 +547,11 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1323.0d;
-		double thirdTimerValue = 1881.0d;
-		double fourthTimerValue = 2562.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue);
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1323000000L;
+		long thirdTimerValue = 1881000000L;
+		long fourthTimerValue = 2562000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue);
 
 		RegisteredSensorConfig removingRsc = mock(RegisteredSensorConfig.class);
 		MethodSensorTypeConfig sqlSensorConfig = mock(MethodSensorTypeConfig.class);
@@ -573,7 +573,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(4)).getCurrentTime();
+		verify(timer, times(4)).getCurrentNanoTime();
 		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
 
@@ -581,14 +581,14 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(invocation.getPlatformIdent(), is(platformId));
 		assertThat(invocation.getMethodIdent(), is(methodId1));
 		assertThat(invocation.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(invocation.getDuration(), is(fourthTimerValue - firstTimerValue));
+		assertThat(invocation.getDuration(), is(Timer.toMillis(fourthTimerValue - firstTimerValue)));
 		assertThat(invocation.getNestedSequences(), hasSize(1));
 		assertThat(invocation.getChildCount(), is(1L));
 		InvocationSequenceData child = invocation.getNestedSequences().iterator().next();
 		assertThat(child.getPlatformIdent(), is(platformId));
 		assertThat(child.getMethodIdent(), is(methodId2));
 		assertThat(child.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(child.getDuration(), is(thirdTimerValue - secondTimerValue));
+		assertThat(child.getDuration(), is(Timer.toMillis(thirdTimerValue - secondTimerValue)));
 		assertThat(child.getNestedSequences(), is(empty()));
 		assertThat(child.getParentSequence(), is(invocation));
 		assertThat(child.getChildCount(), is(0L));
@@ -610,10 +610,10 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1323.0d;
-		double thirdTimerValue = 1881.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue);
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1323000000L;
+		long thirdTimerValue = 1881000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue);
 
 		RegisteredSensorConfig removingRsc = mock(RegisteredSensorConfig.class);
 		MethodSensorTypeConfig logSensorConfig = mock(MethodSensorTypeConfig.class);
@@ -630,7 +630,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(3)).getCurrentTime();
+		verify(timer, times(3)).getCurrentNanoTime();
 		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
 
@@ -638,7 +638,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(invocation.getPlatformIdent(), is(platformId));
 		assertThat(invocation.getMethodIdent(), is(methodId1));
 		assertThat(invocation.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(invocation.getDuration(), is(thirdTimerValue - firstTimerValue));
+		assertThat(invocation.getDuration(), is(Timer.toMillis(thirdTimerValue - firstTimerValue)));
 		assertThat(invocation.getNestedSequences(), hasSize(0));
 		assertThat(invocation.getChildCount(), is(0L));
 	}
@@ -658,11 +658,11 @@ public class InvocationSequenceHookTest extends TestBase {
 
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
-		double firstTimerValue = 1000.0d;
-		double secondTimerValue = 1323.0d;
-		double thirdTimerValue = 1881.0d;
-		double fourthTimerValue = 2562.0d;
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue);
+		long firstTimerValue = 1000000000L;
+		long secondTimerValue = 1323000000L;
+		long thirdTimerValue = 1881000000L;
+		long fourthTimerValue = 2562000000L;
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue, secondTimerValue, thirdTimerValue, fourthTimerValue);
 
 		RegisteredSensorConfig removingRsc = mock(RegisteredSensorConfig.class);
 		MethodSensorTypeConfig logSensorConfig = mock(MethodSensorTypeConfig.class);
@@ -683,7 +683,7 @@ public class InvocationSequenceHookTest extends TestBase {
 		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
 		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
 
-		verify(timer, times(4)).getCurrentTime();
+		verify(timer, times(4)).getCurrentNanoTime();
 		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
 
@@ -691,14 +691,14 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(invocation.getPlatformIdent(), is(platformId));
 		assertThat(invocation.getMethodIdent(), is(methodId1));
 		assertThat(invocation.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(invocation.getDuration(), is(fourthTimerValue - firstTimerValue));
+		assertThat(invocation.getDuration(), is(Timer.toMillis(fourthTimerValue - firstTimerValue)));
 		assertThat(invocation.getNestedSequences(), hasSize(1));
 		assertThat(invocation.getChildCount(), is(1L));
 		InvocationSequenceData child = invocation.getNestedSequences().iterator().next();
 		assertThat(child.getPlatformIdent(), is(platformId));
 		assertThat(child.getMethodIdent(), is(methodId2));
 		assertThat(child.getSensorTypeIdent(), is(sensorTypeId));
-		assertThat(child.getDuration(), is(thirdTimerValue - secondTimerValue));
+		assertThat(child.getDuration(), is(Timer.toMillis(thirdTimerValue - secondTimerValue)));
 		assertThat(child.getNestedSequences(), is(empty()));
 		assertThat(child.getParentSequence(), is(invocation));
 		assertThat(child.getChildCount(), is(0L));
@@ -770,6 +770,145 @@ public class InvocationSequenceHookTest extends TestBase {
 		verifyZeroInteractions(timer, coreService);
 	}
 
+	/**
+	 * Tests that repeated nested invocations are folded and the different ones are not recorded
+	 * once the max child count is reached.
+	 */
+	@Test
+	public void maxChildCountFoldedAndTruncated() throws IdNotAvailableException {
+		Map<String, Object> param = new HashMap<String, Object>();
+		param.put("maxChildCount", "1");
+		invocationSequenceHook = new InvocationSequenceHook(timer, platformManager, propertyAccessor, param, false);
+
+		long methodId1 = 3L;
+		long methodId2 = 23L;
+		long methodId3 = 24L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		when(rsc.getMethodSensors()).thenReturn(Collections.<IMethodSensor> emptyList());
+		when(timer.getCurrentNanoTime()).thenReturn(1000000000L, 1100000000L, 1200000000L, 1300000000L, 1600000000L, 1700000000L, 1800000000L, 1900000000L);
+
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		for (int i = 0; i < 2; i++) {
+			invocationSequenceHook.beforeBody(methodId2, sensorTypeId, object, parameters, rsc);
+			TimerData timerData = new TimerData();
+			timerData.setCount(1L);
+			timerData.setDuration(100d);
+			invocationSequenceHook.addMethodSensorData(0, 0, "", timerData);
+			invocationSequenceHook.firstAfterBody(methodId2, sensorTypeId, object, parameters, result, rsc);
+			invocationSequenceHook.secondAfterBody(coreService, methodId2, sensorTypeId, object, parameters, result, rsc);
+		}
+		invocationSequenceHook.beforeBody(methodId3, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.firstAfterBody(methodId3, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId3, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
+
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
+
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getNestedSequences(), hasSize(1));
+		assertThat(invocation.getChildCount(), is(1L));
+		assertThat(invocation.getTruncatedChildCount(), is(1L));
+		InvocationSequenceData child = invocation.getNestedSequences().iterator().next();
+		assertThat(child.getMethodIdent(), is(methodId2));
+		assertThat(child.getFoldedCount(), is(1L));
+		assertThat(child.getDuration(), is(Timer.toMillis(400000000L)));
+		assertThat(child.getTimerData().getCount(), is(2L));
+		assertThat(child.getTimerData().getDuration(), is(200d));
+	}
+
+	/**
+	 * Tests that loop bodies with nested loops opened after the max child count is reached are
+	 * folded with their complete subtree, and that a bigger body is not recorded.
+	 */
+	@Test
+	public void maxChildCountNestedLoopFolded() throws IdNotAvailableException {
+		Map<String, Object> param = new HashMap<String, Object>();
+		param.put("maxChildCount", "3");
+		invocationSequenceHook = new InvocationSequenceHook(timer, platformManager, propertyAccessor, param, false);
+
+		long methodId1 = 3L;
+		long methodId2 = 23L;
+		long methodId3 = 24L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		when(rsc.getMethodSensors()).thenReturn(Collections.<IMethodSensor> emptyList());
+		when(timer.getCurrentNanoTime()).thenReturn(1000000000L);
+
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		int[] innerCalls = new int[] { 2, 2, 2, 3 };
+		for (int calls : innerCalls) {
+			invocationSequenceHook.beforeBody(methodId2, sensorTypeId, object, parameters, rsc);
+			for (int i = 0; i < calls; i++) {
+				invocationSequenceHook.beforeBody(methodId3, sensorTypeId, object, parameters, rsc);
+				invocationSequenceHook.firstAfterBody(methodId3, sensorTypeId, object, parameters, result, rsc);
+				invocationSequenceHook.secondAfterBody(coreService, methodId3, sensorTypeId, object, parameters, result, rsc);
+			}
+			invocationSequenceHook.firstAfterBody(methodId2, sensorTypeId, object, parameters, result, rsc);
+			invocationSequenceHook.secondAfterBody(coreService, methodId2, sensorTypeId, object, parameters, result, rsc);
+		}
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
+
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
+
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getNestedSequences(), hasSize(1));
+		assertThat(invocation.getChildCount(), is(3L));
+		assertThat(invocation.getTruncatedChildCount(), is(4L));
+		InvocationSequenceData body = invocation.getNestedSequences().iterator().next();
+		assertThat(body.getMethodIdent(), is(methodId2));
+		assertThat(body.getFoldedCount(), is(2L));
+		assertThat(body.getChildCount(), is(2L));
+		assertThat(body.getNestedSequences(), hasSize(2));
+		for (InvocationSequenceData inner : body.getNestedSequences()) {
+			assertThat(inner.getMethodIdent(), is(methodId3));
+			assertThat(inner.getFoldedCount(), is(2L));
+		}
+	}
+
+	/**
+	 * Tests that nothing is folded or truncated when the limits are not set.
+	 */
+	@Test
+	public void noLimits() throws IdNotAvailableException {
+		long methodId1 = 3L;
+		long methodId2 = 23L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		when(rsc.getMethodSensors()).thenReturn(Collections.<IMethodSensor> emptyList());
+		when(timer.getCurrentNanoTime()).thenReturn(1000000000L);
+
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		for (int i = 0; i < 3; i++) {
+			invocationSequenceHook.beforeBody(methodId2, sensorTypeId, object, parameters, rsc);
+			invocationSequenceHook.firstAfterBody(methodId2, sensorTypeId, object, parameters, result, rsc);
+			invocationSequenceHook.secondAfterBody(coreService, methodId2, sensorTypeId, object, parameters, result, rsc);
+		}
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
+
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
+
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getNestedSequences(), hasSize(3));
+		assertThat(invocation.getChildCount(), is(3L));
+		assertThat(invocation.getTruncatedChildCount(), is(0L));
+	}
+
 	@DataProvider(name = "skippingSensors")
 	public Object[][] skippingSensors() {
 		return new Object[][] { { ConnectionSensor.class }, { PreparedStatementParameterSensor.class } };
@@ -82,17 +82,17 @@ public class StatementHookTest extends AbstractLogSupport {
 		parameters[0] = "SELECT * FROM TEST";
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.453d;
-		Double secondTimerValue = 1323.675d;
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
 		statementHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
-		verify(timer, times(1)).getCurrentTime();
+		verify(timer, times(1)).getCurrentNanoTime();
 
 		statementHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
-		verify(timer, times(2)).getCurrentTime();
+		verify(timer, times(2)).getCurrentNanoTime();
 
 		statementHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
 		verify(platformManager).getPlatformId();
@@ -117,23 +117,23 @@ public class StatementHookTest extends AbstractLogSupport {
 		parameters[0] = "SELECT * FROM TEST";
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.453d;
-		Double secondTimerValue = 1323.675d;
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
 		statementHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
-		verify(timer, times(1)).getCurrentTime();
+		verify(timer, times(1)).getCurrentNanoTime();
 
 		statementHook2.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
-		verify(timer, times(2)).getCurrentTime();
+		verify(timer, times(2)).getCurrentNanoTime();
 		statementHook2.firstAfterBody(methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
-		verify(timer, times(3)).getCurrentTime();
+		verify(timer, times(3)).getCurrentNanoTime();
 		statementHook2.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
 
 		statementHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
-		verify(timer, times(4)).getCurrentTime();
+		verify(timer, times(4)).getCurrentNanoTime();
 
 		statementHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
 
@@ -158,10 +158,10 @@ public class StatementHookTest extends AbstractLogSupport {
 		parameters[0] = "SELECT * FROM TEST";
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.453d;
-		Double secondTimerValue = 1323.675d;
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
 		doThrow(new IdNotAvailableException("")).when(platformManager).getPlatformId();
 
 		statementHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
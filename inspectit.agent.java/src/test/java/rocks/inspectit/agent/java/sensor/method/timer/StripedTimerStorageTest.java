@@ -0,0 +1,121 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link StripedTimerStorage}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class StripedTimerStorageTest extends TestBase {
+
+	public static class FinalizeDataObject extends StripedTimerStorageTest {
+
+		@Test
+		public void noData() {
+			StripedTimerStorage storage = new StripedTimerStorage(null, 1L, 2L, 3L, null, true);
+
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getPlatformIdent(), is(1L));
+			assertThat(timerData.getSensorTypeIdent(), is(2L));
+			assertThat(timerData.getMethodIdent(), is(3L));
+			assertThat(timerData.isCharting(), is(true));
+			assertThat(timerData.getCount(), is(0L));
+			assertThat(timerData.getMin(), is(-1d));
+			assertThat(timerData.getMax(), is(-1d));
+			assertThat(timerData.getCpuMin(), is(-1d));
+			assertThat(timerData.getCpuMax(), is(-1d));
+		}
+
+		@Test
+		public void data() {
+			StripedTimerStorage storage = new StripedTimerStorage(null, 1L, 2L, 3L, null, false);
+
+			storage.addData(10d, 5d);
+			storage.addData(20d, 1d);
+			storage.addData(5d, -1d);
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getCount(), is(3L));
+			assertThat(timerData.getDuration(), is(closeTo(35d, 0.0001d)));
+			assertThat(timerData.getMin(), is(5d));
+			assertThat(timerData.getMax(), is(20d));
+			assertThat(timerData.getCpuDuration(), is(closeTo(6d, 0.0001d)));
+			assertThat(timerData.getCpuMin(), is(1d));
+			assertThat(timerData.getCpuMax(), is(5d));
+		}
+
+		@Test
+		public void sampledData() {
+			StripedTimerStorage storage = new StripedTimerStorage(null, 1L, 2L, 3L, null, false);
+
+			storage.addData(10d, 5d, 4L);
+			storage.addData(20d, 1d);
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getCount(), is(5L));
+			assertThat(timerData.getDuration(), is(closeTo(60d, 0.0001d)));
+			assertThat(timerData.getMin(), is(10d));
+			assertThat(timerData.getMax(), is(20d));
+			assertThat(timerData.getCpuDuration(), is(closeTo(21d, 0.0001d)));
+		}
+
+		@Test(timeOut = 60000)
+		public void concurrentData() throws Exception {
+			final StripedTimerStorage storage = new StripedTimerStorage(null, 1L, 2L, 3L, null, false);
+			final int threads = 16;
+			final int iterations = 10000;
+			final CountDownLatch startLatch = new CountDownLatch(1);
+			ExecutorService executorService = Executors.newFixedThreadPool(threads);
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int i = 0; i < threads; i++) {
+				final double time = i + 1;
+				futures.add(executorService.submit(new Runnable() {
+					public void run() {
+						try {
+							startLatch.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							return;
+						}
+						for (int j = 0; j < iterations; j++) {
+							storage.addData(time, 1d);
+						}
+					}
+				}));
+			}
+
+			startLatch.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			executorService.shutdown();
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getCount(), is((long) threads * iterations));
+			// sum of 1..threads for each iteration
+			assertThat(timerData.getDuration(), is(closeTo(((threads * (threads + 1)) / 2d) * iterations, 0.0001d)));
+			assertThat(timerData.getCpuDuration(), is(closeTo((double) threads * iterations, 0.0001d)));
+			assertThat(timerData.getMin(), is(1d));
+			assertThat(timerData.getMax(), is((double) threads));
+		}
+	}
+
+}
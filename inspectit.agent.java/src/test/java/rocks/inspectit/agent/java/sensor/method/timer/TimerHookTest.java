@@ -38,6 +38,8 @@ import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IObjectStorage;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
+import rocks.inspectit.agent.java.hooking.impl.MethodOverhead;
+import rocks.inspectit.agent.java.sensor.method.invocationsequence.InvocationSequenceHook;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
@@ -86,21 +88,21 @@ public class TimerHookTest extends AbstractLogSupport {
 		Object[] parameters = new Object[0];
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.0d;
-		Double secondTimerValue = 1323.0d;
-		Double thirdTimerValue = 1894.0d;
-		Double fourthTimerValue = 2812.0d;
+		Long firstTimerValue = 1000000000L;
+		Long secondTimerValue = 1323000000L;
+		Long thirdTimerValue = 1894000000L;
+		Long fourthTimerValue = 2812000000L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue).thenReturn(thirdTimerValue).thenReturn(fourthTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue).thenReturn(thirdTimerValue).thenReturn(fourthTimerValue);
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 		when(registeredSensorConfig.getSettings()).thenReturn(Collections.<String, Object> singletonMap("charting", Boolean.TRUE));
 
 		// First call
 		timerHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
-		verify(timer, times(1)).getCurrentTime();
+		verify(timer, times(1)).getCurrentNanoTime();
 
 		timerHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
-		verify(timer, times(2)).getCurrentTime();
+		verify(timer, times(2)).getCurrentNanoTime();
 
 		timerHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
 		verify(platformManager).getPlatformId();
@@ -108,15 +110,15 @@ public class TimerHookTest extends AbstractLogSupport {
 		verify(registeredSensorConfig).isPropertyAccess();
 
 		PlainTimerStorage plainTimerStorage = new PlainTimerStorage(null, platformId, sensorTypeId, methodId, null, true);
-		plainTimerStorage.addData(secondTimerValue - firstTimerValue, 0.0d);
+		plainTimerStorage.addData(Timer.toMillis(secondTimerValue - firstTimerValue), 0.0d);
 		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodId), (String) eq(null), argThat(new PlainTimerStorageVerifier(plainTimerStorage)));
 
 		// second one
 		timerHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
-		verify(timer, times(3)).getCurrentTime();
+		verify(timer, times(3)).getCurrentNanoTime();
 
 		timerHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
-		verify(timer, times(4)).getCurrentTime();
+		verify(timer, times(4)).getCurrentNanoTime();
 
 		when(coreService.getObjectStorage(sensorTypeId, methodId, null)).thenReturn(plainTimerStorage);
 		timerHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
@@ -128,9 +130,10 @@ public class TimerHookTest extends AbstractLogSupport {
 		assertThat(timerRawVO.getPlatformIdent(), is(equalTo(platformId)));
 		assertThat(timerRawVO.getMethodIdent(), is(equalTo(methodId)));
 		assertThat(timerRawVO.getSensorTypeIdent(), is(equalTo(sensorTypeId)));
-		assertThat(timerRawVO.getData().get(0).getData()[0], is(equalTo(secondTimerValue - firstTimerValue)));
-		assertThat(timerRawVO.getData().get(0).getData()[1], is(equalTo(fourthTimerValue - thirdTimerValue)));
+		assertThat(timerRawVO.getData().get(0).getData()[0], is(equalTo(Timer.toMillis(secondTimerValue - firstTimerValue))));
+		assertThat(timerRawVO.getData().get(0).getData()[1], is(equalTo(Timer.toMillis(fourthTimerValue - thirdTimerValue))));
 
+		verify(registeredSensorConfig, times(2)).getMethodOverhead();
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
@@ -178,10 +181,10 @@ public class TimerHookTest extends AbstractLogSupport {
 		Object[] parameters = new Object[0];
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.453d;
-		Double secondTimerValue = 1323.675d;
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
 		doThrow(new IdNotAvailableException("")).when(platformManager).getPlatformId();
 
 		timerHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
@@ -201,10 +204,10 @@ public class TimerHookTest extends AbstractLogSupport {
 		Object[] parameters = new Object[2];
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.453d;
-		Double secondTimerValue = 1323.675d;
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 		when(registeredSensorConfig.isPropertyAccess()).thenReturn(true);
 
@@ -226,10 +229,10 @@ public class TimerHookTest extends AbstractLogSupport {
 		Object[] parameters = new Object[2];
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.453d;
-		Double secondTimerValue = 1323.675d;
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 		when(registeredSensorConfig.getSettings()).thenReturn(Collections.<String, Object> singletonMap("charting", Boolean.TRUE));
 
@@ -259,19 +262,19 @@ public class TimerHookTest extends AbstractLogSupport {
 		Object[] parameters = new Object[0];
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.453d;
-		Double secondTimerValue = 1323.675d;
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
 		when(registeredSensorConfig.getSettings()).thenReturn(Collections.<String, Object> singletonMap("charting", Boolean.TRUE));
 
 		timerHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
-		verify(timer, times(1)).getCurrentTime();
+		verify(timer, times(1)).getCurrentNanoTime();
 
 		timerHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
-		verify(timer, times(2)).getCurrentTime();
+		verify(timer, times(2)).getCurrentNanoTime();
 
 		timerHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
 		verify(platformManager).getPlatformId();
@@ -280,9 +283,10 @@ public class TimerHookTest extends AbstractLogSupport {
 		verify(registeredSensorConfig).getSettings();
 
 		AggregateTimerStorage aggregateTimerStorage = new AggregateTimerStorage(null, platformId, sensorTypeId, methodId, null, true);
-		aggregateTimerStorage.addData(secondTimerValue - firstTimerValue, -1.0d);
+		aggregateTimerStorage.addData(Timer.toMillis(secondTimerValue - firstTimerValue), -1.0d);
 		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodId), (String) eq(null), argThat(new AggregateTimerStorageVerifier(aggregateTimerStorage)));
 
+		verify(registeredSensorConfig, times(1)).getMethodOverhead();
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
@@ -341,19 +345,19 @@ public class TimerHookTest extends AbstractLogSupport {
 		Object[] parameters = new Object[0];
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.453d;
-		Double secondTimerValue = 1323.675d;
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
 		when(registeredSensorConfig.getSettings()).thenReturn(Collections.<String, Object> singletonMap("charting", Boolean.TRUE));
 
 		timerHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
-		verify(timer, times(1)).getCurrentTime();
+		verify(timer, times(1)).getCurrentNanoTime();
 
 		timerHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
-		verify(timer, times(2)).getCurrentTime();
+		verify(timer, times(2)).getCurrentNanoTime();
 
 		timerHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
 		verify(platformManager).getPlatformId();
@@ -362,13 +366,82 @@ public class TimerHookTest extends AbstractLogSupport {
 		verify(registeredSensorConfig).getSettings();
 
 		OptimizedTimerStorage optimizedTimerStorage = new OptimizedTimerStorage(null, platformId, sensorTypeId, methodId, null, true);
-		optimizedTimerStorage.addData(secondTimerValue - firstTimerValue, -1.0d);
+		optimizedTimerStorage.addData(Timer.toMillis(secondTimerValue - firstTimerValue), -1.0d);
 		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodId), (String) eq(null), argThat(new OptimizedTimerStorageVerifier(optimizedTimerStorage)));
 
+		verify(registeredSensorConfig, times(1)).getMethodOverhead();
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
 
+	@Test
+	public void sampledMethodCountScaled() throws IdNotAvailableException {
+		Map<String, Object> settings = new HashMap<String, Object>();
+		settings.put("mode", "optimized");
+		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, ManagementFactory.getThreadMXBean());
+
+		long platformId = 1L;
+		long methodId = 3L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
+
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getSettings()).thenReturn(Collections.<String, Object> singletonMap("charting", Boolean.TRUE));
+		MethodOverhead methodOverhead = mock(MethodOverhead.class);
+		when(methodOverhead.getSamplingRate()).thenReturn(8);
+		when(registeredSensorConfig.getMethodOverhead()).thenReturn(methodOverhead);
+
+		timerHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
+		timerHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
+		timerHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
+
+		OptimizedTimerStorage optimizedTimerStorage = new OptimizedTimerStorage(null, platformId, sensorTypeId, methodId, null, true);
+		optimizedTimerStorage.addData(Timer.toMillis(secondTimerValue - firstTimerValue), -1.0d, 8L);
+		assertThat(((TimerData) optimizedTimerStorage.finalizeDataObject()).getCount(), is(8L));
+		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodId), (String) eq(null), argThat(new OptimizedTimerStorageVerifier(optimizedTimerStorage)));
+	}
+
+	@Test
+	public void sampledMethodInInvocationNotScaled() throws IdNotAvailableException {
+		Map<String, Object> settings = new HashMap<String, Object>();
+		settings.put("mode", "optimized");
+		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, ManagementFactory.getThreadMXBean());
+
+		long platformId = 1L;
+		long methodId = 3L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
+
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(registeredSensorConfig.getSettings()).thenReturn(Collections.<String, Object> singletonMap("charting", Boolean.TRUE));
+		MethodOverhead methodOverhead = mock(MethodOverhead.class);
+		when(methodOverhead.getSamplingRate()).thenReturn(8);
+		when(registeredSensorConfig.getMethodOverhead()).thenReturn(methodOverhead);
+		InvocationSequenceHook invocationHook = mock(InvocationSequenceHook.class);
+
+		timerHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
+		timerHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
+		timerHook.secondAfterBody(invocationHook, methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
+
+		OptimizedTimerStorage optimizedTimerStorage = new OptimizedTimerStorage(null, platformId, sensorTypeId, methodId, null, true);
+		optimizedTimerStorage.addData(Timer.toMillis(secondTimerValue - firstTimerValue), -1.0d);
+		assertThat(((TimerData) optimizedTimerStorage.finalizeDataObject()).getCount(), is(1L));
+		verify(invocationHook).addObjectStorage(eq(sensorTypeId), eq(methodId), (String) eq(null), argThat(new OptimizedTimerStorageVerifier(optimizedTimerStorage)));
+		verifyZeroInteractions(coreService);
+	}
+
 	/**
 	 * Inner class used to verify the contents of AggregateTimerStorage objects.
 	 */
@@ -421,23 +494,23 @@ public class TimerHookTest extends AbstractLogSupport {
 		Object[] parameters = new Object[0];
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.453d;
-		Double secondTimerValue = 1323.675d;
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
 
 		Long firstCpuTimerValue = 5000L;
 		Long secondCpuTimerValue = 6872L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue);
 		when(threadMXBean.getCurrentThreadCpuTime()).thenReturn(firstCpuTimerValue).thenReturn(secondCpuTimerValue);
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
 		when(registeredSensorConfig.getSettings()).thenReturn(Collections.<String, Object> singletonMap("charting", Boolean.TRUE));
 
 		timerHook.beforeBody(methodId, sensorTypeId, object, parameters, registeredSensorConfig);
-		verify(timer, times(1)).getCurrentTime();
+		verify(timer, times(1)).getCurrentNanoTime();
 
 		timerHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
-		verify(timer, times(2)).getCurrentTime();
+		verify(timer, times(2)).getCurrentNanoTime();
 
 		timerHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, registeredSensorConfig);
 		verify(platformManager).getPlatformId();
@@ -446,9 +519,10 @@ public class TimerHookTest extends AbstractLogSupport {
 		verify(registeredSensorConfig).getSettings();
 
 		PlainTimerStorage plainTimerStorage = new PlainTimerStorage(null, platformId, sensorTypeId, methodId, null, true);
-		plainTimerStorage.addData(secondTimerValue - firstTimerValue, (secondCpuTimerValue - firstCpuTimerValue) / 1000000.0d);
+		plainTimerStorage.addData(Timer.toMillis(secondTimerValue - firstTimerValue), (secondCpuTimerValue - firstCpuTimerValue) / 1000000.0d);
 		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodId), (String) eq(null), argThat(new PlainTimerStorageVerifier(plainTimerStorage)));
 
+		verify(registeredSensorConfig, times(1)).getMethodOverhead();
 		verifyNoMoreInteractions(timer, platformManager, coreService, registeredSensorConfig);
 		verifyZeroInteractions(propertyAccessor, object, result);
 	}
@@ -463,17 +537,17 @@ public class TimerHookTest extends AbstractLogSupport {
 		Object[] parameters = new Object[0];
 		Object result = mock(Object.class);
 
-		Double firstTimerValue = 1000.453d;
-		Double secondTimerValue = 1323.675d;
-		Double thirdTimerValue = 1578.92d;
-		Double fourthTimerValue = 2319.712d;
+		Long firstTimerValue = 1000453000L;
+		Long secondTimerValue = 1323675000L;
+		Long thirdTimerValue = 1578920000L;
+		Long fourthTimerValue = 2319712000L;
 
 		Long firstCpuTimerValue = 5000L;
 		Long secondCpuTimerValue = 6872L;
 		Long thirdCpuTimerValue = 8412L;
 		Long fourthCpuTimerValue = 15932L;
 
-		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue).thenReturn(thirdTimerValue).thenReturn(fourthTimerValue);
+		when(timer.getCurrentNanoTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue).thenReturn(thirdTimerValue).thenReturn(fourthTimerValue);
 		when(threadMXBean.getCurrentThreadCpuTime()).thenReturn(firstCpuTimerValue).thenReturn(secondCpuTimerValue).thenReturn(thirdCpuTimerValue).thenReturn(fourthCpuTimerValue);
 		when(platformManager.getPlatformId()).thenReturn(platformId);
 
@@ -483,13 +557,13 @@ public class TimerHookTest extends AbstractLogSupport {
 		timerHook.firstAfterBody(methodIdTwo, sensorTypeId, object, parameters, result, registeredSensorConfig);
 		timerHook.secondAfterBody(coreService, methodIdTwo, sensorTypeId, object, parameters, result, registeredSensorConfig);
 		PlainTimerStorage plainTimerStorageTwo = new PlainTimerStorage(null, platformId, sensorTypeId, methodIdTwo, null, true);
-		plainTimerStorageTwo.addData(thirdTimerValue - secondTimerValue, (thirdCpuTimerValue - secondCpuTimerValue) / 1000000.0d);
+		plainTimerStorageTwo.addData(Timer.toMillis(thirdTimerValue - secondTimerValue), (thirdCpuTimerValue - secondCpuTimerValue) / 1000000.0d);
 		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodIdTwo), (String) eq(null), argThat(new PlainTimerStorageVerifier(plainTimerStorageTwo)));
 
 		timerHook.firstAfterBody(methodIdOne, sensorTypeId, object, parameters, result, registeredSensorConfig);
 		timerHook.secondAfterBody(coreService, methodIdOne, sensorTypeId, object, parameters, result, registeredSensorConfig);
 		PlainTimerStorage plainTimerStorageOne = new PlainTimerStorage(null, platformId, sensorTypeId, methodIdOne, null, true);
-		plainTimerStorageOne.addData(fourthTimerValue - firstTimerValue, (fourthCpuTimerValue - firstCpuTimerValue) / 1000000.0d);
+		plainTimerStorageOne.addData(Timer.toMillis(fourthTimerValue - firstTimerValue), (fourthCpuTimerValue - firstCpuTimerValue) / 1000000.0d);
 		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodIdOne), (String) eq(null), argThat(new PlainTimerStorageVerifier(plainTimerStorageOne)));
 	}
 
@@ -3,6 +3,7 @@ package rocks.inspectit.agent.java.sensor.platform;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.management.MemoryUsage;
@@ -174,6 +175,31 @@ public class MemoryInformationTest extends TestBase {
 			assertThat(collector.getTotalComittedNonHeapMemorySize(), is(40L));
 		}
 
+		@Test
+		void maxIsCalculatedForDecreasingValues() {
+			this.mockCollectorWithDefaults();
+
+			when(this.osBean.getFreePhysicalMemorySize()).thenReturn(10L).thenReturn(9L);
+
+			this.cut.gather();
+			this.cut.gather();
+
+			MemoryInformationData collector = (MemoryInformationData) this.cut.get();
+
+			assertThat(collector.getMinFreePhysMemory(), is(9L));
+			assertThat(collector.getMaxFreePhysMemory(), is(10L));
+		}
+
+		@Test
+		void memoryUsageReadOncePerGather() {
+			this.mockCollectorWithDefaults();
+
+			this.cut.gather();
+
+			verify(this.memoryBean).getHeapMemoryUsage();
+			verify(this.memoryBean).getNonHeapMemoryUsage();
+		}
+
 		@Test
 		void countIsIncremented() {
 			this.mockCollectorWithDefaults();
@@ -3,6 +3,7 @@ package rocks.inspectit.agent.java.sensor.platform;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.when;
 
 import java.sql.Timestamp;
@@ -76,6 +77,7 @@ public class RuntimeInformationTest extends TestBase {
 			assertThat(runtimeInformationData.getUptime(), is(4L));
 
 			assertThat(runtimeInformationData.getTimeStamp().getTime(), is(5L));
+			assertThat(runtimeInformationData, is(not(sameInstance(collector))));
 		}
 	}
 
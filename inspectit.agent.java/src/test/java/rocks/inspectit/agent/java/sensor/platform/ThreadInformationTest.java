@@ -101,6 +101,19 @@ public class ThreadInformationTest extends TestBase {
 			assertThat(collector.getTotalTotalStartedThreadCount(), is(40L));
 		}
 
+		@Test
+		void maxIsCalculatedForDecreasingValues() {
+			when(this.threadBean.getThreadCount()).thenReturn(10).thenReturn(9);
+
+			this.cut.gather();
+			this.cut.gather();
+
+			ThreadInformationData collector = (ThreadInformationData) this.cut.get();
+
+			assertThat(collector.getMinThreadCount(), is(9));
+			assertThat(collector.getMaxThreadCount(), is(10));
+		}
+
 		@Test
 		void countIsIncremented() {
 			this.cut.gather();
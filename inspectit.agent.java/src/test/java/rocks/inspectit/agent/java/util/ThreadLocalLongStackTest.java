@@ -0,0 +1,72 @@
+package rocks.inspectit.agent.java.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.NoSuchElementException;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("PMD")
+public class ThreadLocalLongStackTest {
+
+	private ThreadLocalLongStack threadLocalStack;
+
+	@BeforeMethod
+	public void initTestClass() {
+		threadLocalStack = new ThreadLocalLongStack();
+	}
+
+	@Test
+	public void emptyStack() {
+		assertThat(threadLocalStack.isEmpty(), is(true));
+	}
+
+	@Test
+	public void oneValue() {
+		threadLocalStack.push(10L);
+
+		assertThat(threadLocalStack.isEmpty(), is(false));
+		assertThat(threadLocalStack.getLast(), is(10L));
+		assertThat(threadLocalStack.pop(), is(10L));
+		assertThat(threadLocalStack.isEmpty(), is(true));
+	}
+
+	@Test(expectedExceptions = { NoSuchElementException.class })
+	public void noSuchElement() {
+		threadLocalStack.pop();
+	}
+
+	@Test(expectedExceptions = { NoSuchElementException.class })
+	public void noSuchElementLast() {
+		threadLocalStack.getLast();
+	}
+
+	@Test(invocationCount = 10, threadPoolSize = 10)
+	public void stackTest() {
+		ThreadLocalLongStack stack = threadLocalStack;
+		stack.push(1L);
+		stack.push(2L);
+		stack.push(3L);
+
+		assertThat(stack.pop(), is(3L));
+		assertThat(stack.pop(), is(2L));
+		assertThat(stack.pop(), is(1L));
+	}
+
+	@Test
+	public void grow() {
+		int count = 1000;
+		for (long i = 0; i < count; i++) {
+			threadLocalStack.push(i);
+		}
+
+		assertThat(threadLocalStack.get().size(), is(count));
+		for (long i = count - 1; i >= 0; i--) {
+			assertThat(threadLocalStack.pop(), is(i));
+		}
+		assertThat(threadLocalStack.isEmpty(), is(true));
+	}
+
+}
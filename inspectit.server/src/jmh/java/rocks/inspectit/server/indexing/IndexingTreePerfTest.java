@@ -23,6 +23,7 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
+import rocks.inspectit.server.cache.impl.BufferProperties;
 import rocks.inspectit.server.indexing.impl.RootBranchFactory;
 import rocks.inspectit.server.indexing.impl.RootBranchFactory.RootBranch;
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
@@ -131,6 +132,7 @@ public class IndexingTreePerfTest {
 		forkJoinPool = new ForkJoinPool(numberOfProcessors);
 
 		RootBranchFactory rootBranchFactory = new RootBranchFactory();
+		rootBranchFactory.setBufferProperties(new BufferProperties());
 		indexingTree = rootBranchFactory.getObject();
 
 		CacheIdGeneratorCmrProcessor idProcessor = new CacheIdGeneratorCmrProcessor();
@@ -1,6 +1,9 @@
 package rocks.inspectit.server.cache.impl;
 
+import java.io.IOException;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -25,6 +28,7 @@ import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.cmr.property.spring.PropertyUpdate;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.spring.logger.Log;
+import rocks.inspectit.shared.all.storage.serializer.SerializationException;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 
 /**
@@ -62,6 +66,12 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 	@Autowired
 	IBufferTreeComponent<E> indexingTree;
 
+	/**
+	 * Storage where the evicted elements are kept if the buffer segments are active.
+	 */
+	@Autowired
+	BufferSegmentStorage segmentStorage;
+
 	/**
 	 * Atomic reference to the first object.
 	 */
@@ -281,7 +291,8 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 	 * <p>
 	 * The executing thread will wait until the current occupancy percentage of the buffer is
 	 * smaller than eviction occupancy percentage. This method also sets the cleaning flag after
-	 * every {@value #elementsCountForMaintenance}th element evicted.
+	 * every {@value #elementsCountForMaintenance}th element evicted. If the buffer segments are
+	 * active the evicted elements are written to the {@link BufferSegmentStorage}.
 	 * <p>
 	 * This method is designed for multiply thread access.
 	 */
@@ -300,6 +311,8 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 			}
 		}
 
+		boolean keepEvicted = bufferProperties.isSegmentsActive();
+		List<E> evictedElements = null;
 		while (true) {
 			clearReadLock.lock();
 			try {
@@ -317,9 +330,13 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 				long evictionFragmentMaxSize = (long) (this.getMaxSize() * bufferProperties.getEvictionFragmentSizePercentage());
 				long fragmentSize = 0;
 				int elementsInFragment = 0;
+				List<E> fragmentElements = keepEvicted ? new ArrayList<E>() : null;
 
 				// iterate until size of the eviction fragment is reached
 				while (fragmentSize < evictionFragmentMaxSize) {
+					if (keepEvicted) {
+						fragmentElements.add(newLastElement.getObject());
+					}
 					fragmentSize += newLastElement.getBufferElementSize();
 					newLastElement.setBufferElementState(BufferElementState.EVICTED);
 					elementsInFragment++;
@@ -340,6 +357,8 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 					// add evicted elements to the total count
 					elementsEvicted.addAndGet(elementsInFragment);
 
+					evictedElements = fragmentElements;
+
 					// if the last is now pointing to the empty buffer element, it means that we
 					// have
 					// evicted all elements, so first should also point to empty buffer element
@@ -356,6 +375,14 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 			}
 		}
 
+		// write outside of the lock so that clearing is not blocked by the IO
+		if (null != evictedElements) {
+			try {
+				segmentStorage.write(evictedElements);
+			} catch (IOException | SerializationException e) {
+				log.warn("Evicted buffer elements could not be written to the buffer segment.", e);
+			}
+		}
 	}
 
 	/**
@@ -508,6 +535,9 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 			elementsIndexed.set(0);
 			elementsEvicted.set(0);
 			indexingTree.clearAll();
+			if (bufferProperties.isSegmentsActive()) {
+				segmentStorage.clearAll();
+			}
 			indexingTreeSize.set(0);
 			dataAddedInBytes.set(0);
 			dataRemovedInBytes.set(0);
@@ -107,6 +107,30 @@ public class BufferProperties {
 	@Value(value = "${buffer.indexingWaitTime}")
 	long indexingWaitTime;
 
+	/**
+	 * If the indexing tree should have an additional branch level for the method idents.
+	 */
+	@Value(value = "${buffer.indexingTreeMethodIdentBranch}")
+	boolean indexingTreeMethodIdentBranch;
+
+	/**
+	 * If the evicted elements should be kept in the compressed segment files.
+	 */
+	@Value(value = "${buffer.segmentsActive}")
+	boolean segmentsActive;
+
+	/**
+	 * Folder where the segment files are saved.
+	 */
+	@Value(value = "${buffer.segmentsFolder}")
+	String segmentsFolder;
+
+	/**
+	 * Max amount of bytes that segment files can occupy on the disk.
+	 */
+	@Value(value = "${buffer.segmentsMaxDiskSize}")
+	long segmentsMaxDiskSize;
+
 	/**
 	 * Size of old space occupancy till which min occupancy will be active.
 	 */
@@ -237,6 +261,43 @@ public class BufferProperties {
 		return indexingWaitTime;
 	}
 
+	/**
+	 * Returns if the indexing tree should have an additional branch level for the method idents.
+	 *
+	 * @return Returns if the indexing tree should have an additional branch level for the method
+	 *         idents.
+	 */
+	public boolean isIndexingTreeMethodIdentBranch() {
+		return indexingTreeMethodIdentBranch;
+	}
+
+	/**
+	 * Returns if the evicted elements should be kept in the compressed segment files.
+	 *
+	 * @return Returns if the evicted elements should be kept in the compressed segment files.
+	 */
+	public boolean isSegmentsActive() {
+		return segmentsActive;
+	}
+
+	/**
+	 * Returns the folder where the segment files are saved.
+	 *
+	 * @return Returns the folder where the segment files are saved.
+	 */
+	public String getSegmentsFolder() {
+		return segmentsFolder;
+	}
+
+	/**
+	 * Returns the max amount of bytes that segment files can occupy on the disk.
+	 *
+	 * @return Returns the max amount of bytes that segment files can occupy on the disk.
+	 */
+	public long getSegmentsMaxDiskSize() {
+		return segmentsMaxDiskSize;
+	}
+
 	/**
 	 * @return the minOldSpaceOccupancyActiveTillOldGenSize
 	 */
@@ -459,6 +520,10 @@ public class BufferProperties {
 			log.info("||-Eviction fragment size percentage: " + NumberFormat.getInstance().format(evictionFragmentSizePercentage * 100) + "%");
 			log.info("||-Indexing tree cleaning threads: " + NumberFormat.getInstance().format(indexingTreeCleaningThreads));
 			log.info("||-Indexing waiting time: " + NumberFormat.getInstance().format(indexingWaitTime) + " ms");
+			log.info("||-Indexing tree method ident branch: " + indexingTreeMethodIdentBranch);
+			log.info("||-Segments active: " + segmentsActive);
+			log.info("||-Segments folder: " + segmentsFolder);
+			log.info("||-Segments max disk size: " + NumberFormat.getInstance().format(segmentsMaxDiskSize) + " bytes");
 			log.info("||-Min old generation occupancy percentage active till: " + NumberFormat.getInstance().format(minOldSpaceOccupancyActiveTillOldGenSize) + " bytes");
 			log.info("||-Max old generation occupancy percentage active from: " + NumberFormat.getInstance().format(maxOldSpaceOccupancyActiveFromOldGenSize) + " bytes");
 			log.info("||-Min old generation occupancy percentage: " + NumberFormat.getInstance().format(minOldSpaceOccupancy * 100) + "%");
@@ -0,0 +1,641 @@
+package rocks.inspectit.server.cache.impl;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.MethodSensorData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.all.spring.logger.Log;
+import rocks.inspectit.shared.all.storage.serializer.ISerializer;
+import rocks.inspectit.shared.all.storage.serializer.SerializationException;
+import rocks.inspectit.shared.all.storage.serializer.provider.SerializationManagerProvider;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.buffer.impl.TopElementsCollector;
+
+/**
+ * Second tier of the buffer. The fragments evicted from the {@link AtomicBuffer} are serialized,
+ * compressed and written to the segment files, so that they stay available for the queries until
+ * the max disk size defined in the {@link BufferProperties} is reached. Each segment keeps a small
+ * summary (time range, ids, platforms, object types and method idents) so that the segments that
+ * can not contain any data of a query are never read. The segments are read one after another and
+ * the elements of a segment are aggregated or collected before the next one is read, so that only
+ * the elements of one segment are held in memory.
+ * <p>
+ * The segments live only as long as the CMR is running, thus all existing segment files are
+ * deleted on start.
+ *
+ * @author agent
+ *
+ */
+@Component
+public class BufferSegmentStorage {
+
+	/**
+	 * Extension of the segment files.
+	 */
+	private static final String SEGMENT_FILE_EXTENSION = ".segment";
+
+	/**
+	 * Amount of elements serialized at once.
+	 */
+	private static final int CHUNK_SIZE = 1024;
+
+	/** The logger of this class. */
+	@Log
+	Logger log;
+
+	/**
+	 * Buffer properties.
+	 */
+	@Autowired
+	BufferProperties bufferProperties;
+
+	/**
+	 * Serialization manager provider for creating the serializers.
+	 */
+	@Autowired
+	SerializationManagerProvider serializationManagerProvider;
+
+	/**
+	 * Segments ordered from the oldest to the newest one.
+	 */
+	private final List<BufferSegment> segments = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Current amount of bytes the segment files occupy on disk.
+	 */
+	private final AtomicLong segmentsDiskSize = new AtomicLong();
+
+	/**
+	 * Lock for adding and deleting the segments, so that the disk size and the segment list stay
+	 * consistent.
+	 */
+	private final Lock segmentsLock = new ReentrantLock();
+
+	/**
+	 * Counter for the segment file names.
+	 */
+	private final AtomicLong segmentCounter = new AtomicLong();
+
+	/**
+	 * Writes the evicted elements to a new segment. If the max disk size is exceeded afterwards,
+	 * the oldest segments are deleted.
+	 * <p>
+	 * The elements are serialized in chunks and each written chunk is cleared in the given list,
+	 * so that the elements can be garbage collected while the rest of the segment is written.
+	 *
+	 * @param elements
+	 *            Evicted elements, the list must support setting of the elements.
+	 * @throws IOException
+	 *             If writing of the segment file fails.
+	 * @throws SerializationException
+	 *             If serialization of the elements fails.
+	 */
+	public void write(List<? extends DefaultData> elements) throws IOException, SerializationException {
+		if (elements.isEmpty()) {
+			return;
+		}
+
+		BufferSegment segment = new BufferSegment(getSegmentsFolder().resolve(segmentCounter.incrementAndGet() + SEGMENT_FILE_EXTENSION));
+		segment.include(elements);
+
+		ISerializer serializer = serializationManagerProvider.createSerializer();
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			Files.createDirectories(segment.path.getParent());
+			try (Output output = new Output(new DeflaterOutputStream(Files.newOutputStream(segment.path), deflater))) {
+				int size = elements.size();
+				output.writeInt(((size - 1) / CHUNK_SIZE) + 1, true);
+				for (int from = 0; from < size; from += CHUNK_SIZE) {
+					int to = Math.min(from + CHUNK_SIZE, size);
+					serializer.serialize(new ArrayList<>(elements.subList(from, to)), output);
+					for (int i = from; i < to; i++) {
+						elements.set(i, null);
+					}
+				}
+			}
+			segment.diskSize = Files.size(segment.path);
+		} catch (IOException | SerializationException e) {
+			deleteFile(segment.path);
+			throw e;
+		} finally {
+			deflater.end();
+		}
+
+		segmentsLock.lock();
+		try {
+			segments.add(segment);
+			segmentsDiskSize.addAndGet(segment.diskSize);
+
+			// delete oldest, but always keep the newest one
+			while ((segmentsDiskSize.get() > bufferProperties.getSegmentsMaxDiskSize()) && (segments.size() > 1)) {
+				BufferSegment oldest = segments.remove(0);
+				segmentsDiskSize.addAndGet(-oldest.diskSize);
+				deleteFile(oldest.path);
+			}
+		} finally {
+			segmentsLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the segments currently stored. The returned snapshot does not change when segments
+	 * are added or deleted afterwards, thus one query can check the ids and read the segments
+	 * against the same set of segments.
+	 *
+	 * @return Returns the segments currently stored.
+	 */
+	public SegmentsSnapshot getSnapshot() {
+		return new SegmentsSnapshot(new ArrayList<>(segments));
+	}
+
+	/**
+	 * Returns the elements in the segments of the snapshot that satisfy the query. Only the
+	 * segments whose summary matches the query are read. Reading stops as soon as the limit is
+	 * reached.
+	 *
+	 * @param <E>
+	 *            Type of the elements.
+	 * @param snapshot
+	 *            Segments to read.
+	 * @param query
+	 *            Query.
+	 * @param limit
+	 *            Max amount of elements to return. Value <code>-1</code> means no limit.
+	 * @return Returns the elements in the segments that satisfy the query.
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends DefaultData> List<E> query(SegmentsSnapshot snapshot, IIndexQuery query, int limit) {
+		List<E> results = new ArrayList<>();
+		ISerializer serializer = serializationManagerProvider.createSerializer();
+		for (BufferSegment segment : snapshot.segments) {
+			if ((limit > -1) && (results.size() >= limit)) {
+				break;
+			}
+			for (DefaultData element : readComplied(segment, serializer, query)) {
+				if ((limit > -1) && (results.size() >= limit)) {
+					break;
+				}
+				results.add((E) element);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Passes all elements in the segments of the snapshot that satisfy the query to the given
+	 * {@link AggregationPerformer}.
+	 *
+	 * @param <E>
+	 *            Type of the elements.
+	 * @param snapshot
+	 *            Segments to read.
+	 * @param query
+	 *            Query.
+	 * @param aggregationPerformer
+	 *            Performer to aggregate the elements with.
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends DefaultData> void query(SegmentsSnapshot snapshot, IIndexQuery query, AggregationPerformer<E> aggregationPerformer) {
+		ISerializer serializer = serializationManagerProvider.createSerializer();
+		for (BufferSegment segment : snapshot.segments) {
+			for (DefaultData element : readComplied(segment, serializer, query)) {
+				aggregationPerformer.processElement((E) element);
+			}
+		}
+	}
+
+	/**
+	 * Offers all elements in the segments of the snapshot that satisfy the query to the given
+	 * {@link TopElementsCollector}.
+	 *
+	 * @param <E>
+	 *            Type of the elements.
+	 * @param snapshot
+	 *            Segments to read.
+	 * @param query
+	 *            Query.
+	 * @param collector
+	 *            Collector of the first elements.
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends DefaultData> void query(SegmentsSnapshot snapshot, IIndexQuery query, TopElementsCollector<E> collector) {
+		ISerializer serializer = serializationManagerProvider.createSerializer();
+		for (BufferSegment segment : snapshot.segments) {
+			for (DefaultData element : readComplied(segment, serializer, query)) {
+				collector.offer((E) element);
+			}
+		}
+	}
+
+	/**
+	 * Returns the element with the id of the template from the segments.
+	 *
+	 * @param template
+	 *            Template holding the id of the wanted element.
+	 * @return Returns the element or <code>null</code> if none of the segments holds it.
+	 */
+	public DefaultData get(DefaultData template) {
+		ISerializer serializer = null;
+		for (BufferSegment segment : segments) {
+			if (!segment.containsId(template.getId())) {
+				continue;
+			}
+
+			if (null == serializer) {
+				serializer = serializationManagerProvider.createSerializer();
+			}
+			for (DefaultData element : read(segment, serializer)) {
+				if (element.getId() == template.getId()) {
+					return element;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Deletes all segments.
+	 */
+	public void clearAll() {
+		segmentsLock.lock();
+		try {
+			for (BufferSegment segment : segments) {
+				deleteFile(segment.path);
+			}
+			segments.clear();
+			segmentsDiskSize.set(0);
+		} finally {
+			segmentsLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the current amount of bytes the segment files occupy on disk.
+	 *
+	 * @return Returns the current amount of bytes the segment files occupy on disk.
+	 */
+	public long getSegmentsDiskSize() {
+		return segmentsDiskSize.get();
+	}
+
+	/**
+	 * Returns the number of segments.
+	 *
+	 * @return Returns the number of segments.
+	 */
+	public int getSegmentsCount() {
+		return segments.size();
+	}
+
+	/**
+	 * Reads the elements of the segment that satisfy the query. Returns an empty list without
+	 * reading if the summary of the segment does not match the query.
+	 *
+	 * @param segment
+	 *            Segment to read.
+	 * @param serializer
+	 *            Serializer to use.
+	 * @param query
+	 *            Query.
+	 * @return List of elements satisfying the query.
+	 */
+	private List<DefaultData> readComplied(BufferSegment segment, ISerializer serializer, IIndexQuery query) {
+		if (!segment.mightContain(query)) {
+			return Collections.emptyList();
+		}
+
+		List<DefaultData> results = new ArrayList<>();
+		for (DefaultData element : read(segment, serializer)) {
+			if (element.isQueryComplied(query)) {
+				results.add(element);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Reads all elements of the segment.
+	 *
+	 * @param segment
+	 *            Segment to read.
+	 * @param serializer
+	 *            Serializer to use.
+	 * @return List of elements or empty list if segment could not be read.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<DefaultData> read(BufferSegment segment, ISerializer serializer) {
+		try (Input input = new Input(new InflaterInputStream(Files.newInputStream(segment.path)))) {
+			int chunks = input.readInt(true);
+			List<DefaultData> elements = new ArrayList<>(chunks * CHUNK_SIZE);
+			for (int i = 0; i < chunks; i++) {
+				elements.addAll((List<DefaultData>) serializer.deserialize(input));
+			}
+			return elements;
+		} catch (IOException | SerializationException | KryoException e) {
+			// segment can be deleted in meantime
+			if (segments.contains(segment)) {
+				log.warn("Error reading the buffer segment file " + segment.path + ".", e);
+			}
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Deletes the file, problems are only logged.
+	 *
+	 * @param path
+	 *            File to delete.
+	 */
+	private void deleteFile(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			log.warn("Error deleting the buffer segment file " + path + ".", e);
+		}
+	}
+
+	/**
+	 * @return Returns the folder of the segment files.
+	 */
+	private Path getSegmentsFolder() {
+		return Paths.get(bufferProperties.getSegmentsFolder()).toAbsolutePath();
+	}
+
+	/**
+	 * Is executed after dependency injection is done to perform any initialization.
+	 *
+	 * @throws Exception
+	 *             if an error occurs during {@link PostConstruct}
+	 */
+	@PostConstruct
+	public void postConstruct() throws Exception {
+		if (!bufferProperties.isSegmentsActive()) {
+			return;
+		}
+
+		// segments from last run can not be queried, so delete them
+		Path folder = getSegmentsFolder();
+		if (Files.isDirectory(folder)) {
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, "*" + SEGMENT_FILE_EXTENSION)) {
+				for (Path path : stream) {
+					deleteFile(path);
+				}
+			}
+		}
+
+		if (log.isInfoEnabled()) {
+			log.info("|-Keeping evicted buffer data in the folder " + folder + " up to " + NumberFormat.getInstance().format(bufferProperties.getSegmentsMaxDiskSize()) + " bytes...");
+		}
+	}
+
+	/**
+	 * Unchangeable list of the segments.
+	 *
+	 * @author agent
+	 *
+	 */
+	public static class SegmentsSnapshot {
+
+		/**
+		 * Segments ordered from the oldest to the newest one.
+		 */
+		private final List<BufferSegment> segments;
+
+		/**
+		 * Lowest id in all segments.
+		 */
+		private long minId = Long.MAX_VALUE;
+
+		/**
+		 * Highest id in all segments.
+		 */
+		private long maxId = Long.MIN_VALUE;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param segments
+		 *            Segments ordered from the oldest to the newest one.
+		 */
+		private SegmentsSnapshot(List<BufferSegment> segments) {
+			this.segments = segments;
+			for (BufferSegment segment : segments) {
+				minId = Math.min(minId, segment.minId);
+				maxId = Math.max(maxId, segment.maxId);
+			}
+		}
+
+		/**
+		 * Returns if there are no segments.
+		 *
+		 * @return Returns if there are no segments.
+		 */
+		public boolean isEmpty() {
+			return segments.isEmpty();
+		}
+
+		/**
+		 * Returns if one of the segments holds the element with the given id. Most elements still
+		 * in the buffer are newer than all segments, thus they are resolved by the id range only.
+		 *
+		 * @param id
+		 *            Id of the element.
+		 * @return Returns if one of the segments holds the element with the given id.
+		 */
+		public boolean containsId(long id) {
+			if ((id < minId) || (id > maxId)) {
+				return false;
+			}
+			// newest segments first as they overlap with the buffer
+			for (int i = segments.size() - 1; i >= 0; i--) {
+				if (segments.get(i).containsId(id)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Summary of one segment file.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static class BufferSegment {
+
+		/**
+		 * Segment file.
+		 */
+		private final Path path;
+
+		/**
+		 * Size of the file.
+		 */
+		private long diskSize;
+
+		/**
+		 * Lowest id of the elements.
+		 */
+		private long minId = Long.MAX_VALUE;
+
+		/**
+		 * Highest id of the elements.
+		 */
+		private long maxId = Long.MIN_VALUE;
+
+		/**
+		 * Ids of the elements as offsets to the {@link #minId}.
+		 */
+		private BitSet ids;
+
+		/**
+		 * Oldest time stamp of the elements.
+		 */
+		private long fromTime = Long.MAX_VALUE;
+
+		/**
+		 * Newest time stamp of the elements.
+		 */
+		private long toTime = Long.MIN_VALUE;
+
+		/**
+		 * Platform idents of the elements.
+		 */
+		private final Set<Long> platformIdents = new HashSet<>();
+
+		/**
+		 * Classes of the elements.
+		 */
+		private final Set<Class<?>> objectClasses = new HashSet<>();
+
+		/**
+		 * Method idents of the elements, <code>0</code> for the elements not bounded to a method.
+		 */
+		private final Set<Long> methodIdents = new HashSet<>();
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param path
+		 *            Segment file.
+		 */
+		BufferSegment(Path path) {
+			this.path = path;
+		}
+
+		/**
+		 * Includes the elements in the summary.
+		 *
+		 * @param elements
+		 *            Elements written to the segment.
+		 */
+		void include(List<? extends DefaultData> elements) {
+			for (DefaultData element : elements) {
+				include(element);
+			}
+			// ids are given out by one counter, thus one bit per id in the range is compact
+			ids = new BitSet(Math.toIntExact((maxId - minId) + 1));
+			for (DefaultData element : elements) {
+				ids.set((int) (element.getId() - minId));
+			}
+		}
+
+		/**
+		 * Returns if the segment holds the element with the given id.
+		 *
+		 * @param id
+		 *            Id of the element.
+		 * @return Returns if the segment holds the element with the given id.
+		 */
+		boolean containsId(long id) {
+			return (id >= minId) && (id <= maxId) && ids.get((int) (id - minId));
+		}
+
+		/**
+		 * Includes the element in the summary.
+		 *
+		 * @param element
+		 *            Element written to the segment.
+		 */
+		private void include(DefaultData element) {
+			minId = Math.min(minId, element.getId());
+			maxId = Math.max(maxId, element.getId());
+			if (null != element.getTimeStamp()) {
+				fromTime = Math.min(fromTime, element.getTimeStamp().getTime());
+				toTime = Math.max(toTime, element.getTimeStamp().getTime());
+			}
+			platformIdents.add(element.getPlatformIdent());
+			objectClasses.add(element.getClass());
+			if (element instanceof MethodSensorData) {
+				methodIdents.add(((MethodSensorData) element).getMethodIdent());
+			} else {
+				methodIdents.add(0L);
+			}
+		}
+
+		/**
+		 * Checks the query against the summary.
+		 *
+		 * @param query
+		 *            Query.
+		 * @return <code>false</code> if segment surely holds no element satisfying the query.
+		 */
+		boolean mightContain(IIndexQuery query) {
+			if (query.getMinId() > maxId) {
+				return false;
+			}
+			if ((0 != query.getPlatformIdent()) && !platformIdents.contains(query.getPlatformIdent())) {
+				return false;
+			}
+			if ((0 != query.getMethodIdent()) && !methodIdents.contains(query.getMethodIdent())) {
+				return false;
+			}
+			if ((null != query.getObjectClasses()) && Collections.disjoint(query.getObjectClasses(), objectClasses)) {
+				return false;
+			}
+			if (query.isIntervalSet()) {
+				// interval can be open on one side
+				Timestamp from = query.getFromDate();
+				Timestamp to = query.getToDate();
+				if ((null != from) && (from.getTime() > toTime)) {
+					return false;
+				}
+				if ((null != to) && (to.getTime() < fromTime)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
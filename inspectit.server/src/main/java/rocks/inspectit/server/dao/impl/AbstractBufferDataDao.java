@@ -9,11 +9,14 @@ import java.util.concurrent.ForkJoinPool;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import rocks.inspectit.server.cache.impl.BufferSegmentStorage;
+import rocks.inspectit.server.cache.impl.BufferSegmentStorage.SegmentsSnapshot;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
 import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+import rocks.inspectit.shared.cs.indexing.buffer.impl.TopElementsCollector;
 
 /**
  * Abstract class for all buffer data DAO service.
@@ -39,6 +42,12 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	@Qualifier("indexingTreeForkJoinPool")
 	private ForkJoinPool forkJoinPool;
 
+	/**
+	 * Storage holding the elements evicted from the buffer.
+	 */
+	@Autowired
+	private BufferSegmentStorage segmentStorage;
+
 	/**
 	 * Executes the query on the indexing tree.
 	 *
@@ -158,6 +167,11 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	 * Executes the query on the indexing tree. If the {@link IAggregator} is not <code>null</code>
 	 * then the results will be aggregated based on the given {@link IAggregator}. Results can be
 	 * sorted by comparator. Furthermore the result list can be limited.
+	 * <p>
+	 * If the query defines a time interval, the elements evicted to the buffer segments are
+	 * included in the results. The segments are aggregated or collected one by one. An evicted
+	 * element stays in the indexing tree until it is garbage collected, thus the elements of the
+	 * tree that are held by a segment are skipped so that each one is included only once.
 	 *
 	 * @param indexQuery
 	 *            Index query to execute.
@@ -172,30 +186,129 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	 * @return Result list.
 	 */
 	protected List<E> executeQuery(IIndexQuery indexQuery, IAggregator<E> aggregator, Comparator<? super E> comparator, int limit, boolean useForkJoin) {
+		// segments are only searched when the query is bounded by time
+		if (!indexQuery.isIntervalSet()) {
+			return executeBufferQuery(indexQuery, aggregator, comparator, limit, useForkJoin);
+		}
+		SegmentsSnapshot snapshot = segmentStorage.getSnapshot();
+		if (snapshot.isEmpty()) {
+			return executeBufferQuery(indexQuery, aggregator, comparator, limit, useForkJoin);
+		}
+
+		if (null != aggregator) {
+			AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+			indexingTree.query(indexQuery, new SkippingAggregationPerformer<>(aggregationPerformer, snapshot));
+			segmentStorage.query(snapshot, indexQuery, aggregationPerformer);
+			return sortAndLimit(aggregationPerformer.getResultList(), comparator, limit);
+		}
+
+		if ((null != comparator) && (limit > -1)) {
+			// an element skipped in the tree is offered from its segment, thus the first elements
+			// of the tree are enough
+			TopElementsCollector<E> collector = new TopElementsCollector<>(comparator, limit);
+			for (E element : executeBufferQuery(indexQuery, null, comparator, limit, useForkJoin)) {
+				if (!snapshot.containsId(element.getId())) {
+					collector.offer(element);
+				}
+			}
+			segmentStorage.query(snapshot, indexQuery, collector);
+			return collector.getSortedElements();
+		}
+
+		List<E> data = segmentStorage.query(snapshot, indexQuery, limit);
+		for (E element : executeBufferQuery(indexQuery, null, null, -1, useForkJoin)) {
+			if (!snapshot.containsId(element.getId())) {
+				data.add(element);
+			}
+		}
+		return sortAndLimit(data, comparator, limit);
+	}
+
+	/**
+	 * Executes the query on the indexing tree only.
+	 *
+	 * @param indexQuery
+	 *            Index query to execute.
+	 * @param aggregator
+	 *            {@link IAggregator}. Pass <code>null</code> if no aggregation is needed.
+	 * @param comparator
+	 *            If supplied the final result list will be sorted by this comparator.
+	 * @param limit
+	 *            Limit the number of results by given number. Value <code>-1</code> means no limit.
+	 * @param useForkJoin
+	 *            true, if forkJoinPool should be used
+	 * @return Result list.
+	 */
+	private List<E> executeBufferQuery(IIndexQuery indexQuery, IAggregator<E> aggregator, Comparator<? super E> comparator, int limit, boolean useForkJoin) {
+		// without aggregation only the first elements are needed, thus no need to load all of them
+		if ((null == aggregator) && (null != comparator) && (limit > -1)) {
+			if (useForkJoin) {
+				return indexingTree.query(indexQuery, comparator, limit, forkJoinPool);
+			} else {
+				return indexingTree.query(indexQuery, comparator, limit);
+			}
+		}
+
 		List<E> data;
 
-		if (useForkJoin) {
+		if (null != aggregator) {
+			// aggregate in the tree so that the list of all raw elements is never created
+			if (useForkJoin) {
+				data = indexingTree.query(indexQuery, aggregator, forkJoinPool);
+			} else {
+				AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+				indexingTree.query(indexQuery, aggregationPerformer);
+				data = aggregationPerformer.getResultList();
+			}
+		} else if (useForkJoin) {
 			data = indexingTree.query(indexQuery, forkJoinPool);
 		} else {
 			data = indexingTree.query(indexQuery);
 		}
-		if (null != aggregator) {
-			AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
-			aggregationPerformer.processCollection(data);
-			data = aggregationPerformer.getResultList();
-		}
 
+		return sortAndLimit(data, comparator, limit);
+	}
+
+	/**
+	 * Sorts the data if comparator is given and limits the list size.
+	 *
+	 * @param data
+	 *            Result list.
+	 * @param comparator
+	 *            Comparator or <code>null</code>.
+	 * @param limit
+	 *            Limit or <code>-1</code> for no limit.
+	 * @return Sorted and limited list.
+	 */
+	private List<E> sortAndLimit(List<E> data, Comparator<? super E> comparator, int limit) {
 		if (null != comparator) {
 			Collections.sort(data, comparator);
 		}
 
 		if ((limit > -1) && (data.size() > limit)) {
-			data = new ArrayList<>(data.subList(0, limit));
+			return new ArrayList<>(data.subList(0, limit));
 		}
 
 		return data;
 	}
 
+	/**
+	 * Returns the element with the id of the template. If the element is not in the indexing tree
+	 * any more, it's searched in the buffer segments.
+	 *
+	 * @param template
+	 *            Template holding the id.
+	 * @return Element or <code>null</code> if it can not be found.
+	 */
+	@SuppressWarnings("unchecked")
+	protected E get(E template) {
+		E element = indexingTree.get(template);
+		if ((null == element) && (segmentStorage.getSegmentsCount() > 0)) {
+			element = (E) segmentStorage.get(template);
+		}
+		return element;
+	}
+
 	/**
 	 * Gets {@link #indexingTree}.
 	 *
@@ -204,4 +317,51 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	protected IBufferTreeComponent<E> getIndexingTree() {
 		return indexingTree;
 	}
+
+	/**
+	 * {@link AggregationPerformer} that passes the elements to another performer, except the ones
+	 * held by a buffer segment.
+	 *
+	 * @param <E>
+	 *            Type of the elements.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static class SkippingAggregationPerformer<E extends DefaultData> extends AggregationPerformer<E> {
+
+		/**
+		 * Performer receiving the elements.
+		 */
+		private final AggregationPerformer<E> aggregationPerformer;
+
+		/**
+		 * Segments holding the elements to skip.
+		 */
+		private final SegmentsSnapshot snapshot;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param aggregationPerformer
+		 *            Performer receiving the elements.
+		 * @param snapshot
+		 *            Segments holding the elements to skip.
+		 */
+		SkippingAggregationPerformer(AggregationPerformer<E> aggregationPerformer, SegmentsSnapshot snapshot) {
+			super(aggregationPerformer.getAggregator());
+			this.aggregationPerformer = aggregationPerformer;
+			this.snapshot = snapshot;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void processElement(E element) {
+			if (!snapshot.containsId(element.getId())) {
+				aggregationPerformer.processElement(element);
+			}
+		}
+	}
 }
@@ -121,7 +121,7 @@ public class BufferInvocationDataDaoImpl extends AbstractBufferDataDao<Invocatio
 	 */
 	@Override
 	public InvocationSequenceData getInvocationSequenceDetail(InvocationSequenceData template) {
-		return super.getIndexingTree().get(template);
+		return super.get(template);
 	}
 
 	/**
@@ -4,8 +4,10 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import rocks.inspectit.server.cache.impl.BufferProperties;
 import rocks.inspectit.server.indexing.impl.RootBranchFactory.RootBranch;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferBranchIndexer;
@@ -13,6 +15,7 @@ import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.Branch;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.BufferBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.MethodIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.ObjectTypeIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.PlatformIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
@@ -20,6 +23,10 @@ import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
 /**
  * Factory that creates the root branch for indexing tree. This root branch will be injected in
  * Spring as a bean.
+ * <p>
+ * The tree is indexed by the platform ident, object type and time stamp. If set in the
+ * {@link BufferProperties}, the method idents are indexed between the object type and the time
+ * stamp, so that queries for one method only touch the leafs of that method.
  *
  * @author Ivan Senic
  *
@@ -27,17 +34,37 @@ import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
 @Component
 public class RootBranchFactory implements FactoryBean<RootBranch<DefaultData>> {
 
+	/**
+	 * Buffer properties defining the indexing levels.
+	 */
+	@Autowired
+	BufferProperties bufferProperties;
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public RootBranch<DefaultData> getObject() throws Exception {
 		BufferBranchIndexer<DefaultData> timestampIndexer = new BufferBranchIndexer<>(new TimestampIndexer<>());
-		BufferBranchIndexer<DefaultData> objectTypeIndexer = new BufferBranchIndexer<>(new ObjectTypeIndexer<>(), timestampIndexer);
+		BufferBranchIndexer<DefaultData> objectTypeChildIndexer = timestampIndexer;
+		if (bufferProperties.isIndexingTreeMethodIdentBranch()) {
+			objectTypeChildIndexer = new BufferBranchIndexer<>(new MethodIdentIndexer<>(), timestampIndexer);
+		}
+		BufferBranchIndexer<DefaultData> objectTypeIndexer = new BufferBranchIndexer<>(new ObjectTypeIndexer<>(), objectTypeChildIndexer);
 		BufferBranchIndexer<DefaultData> platformIndexer = new BufferBranchIndexer<>(new PlatformIdentIndexer<>(), objectTypeIndexer);
 		return new RootBranch<>(platformIndexer);
 	}
 
+	/**
+	 * Sets {@link #bufferProperties}.
+	 *
+	 * @param bufferProperties
+	 *            New value for {@link #bufferProperties}
+	 */
+	public void setBufferProperties(BufferProperties bufferProperties) {
+		this.bufferProperties = bufferProperties;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
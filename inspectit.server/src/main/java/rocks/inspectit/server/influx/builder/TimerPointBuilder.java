@@ -62,6 +62,13 @@ public class TimerPointBuilder extends DefaultDataPointBuilder<TimerData> {
 		builder.addField(Series.Methods.FIELD_CPU_TIME, data.getCpuAverage());
 		builder.addField(Series.Methods.FIELD_MAX_CPU_TIME, data.getCpuMax());
 		builder.addField(Series.Methods.FIELD_COUNT, data.getCount());
+
+		// percentiles only if the histogram was collected
+		if (data.isHistogramAvailable()) {
+			builder.addField(Series.Methods.FIELD_P50_DURATION, data.getDurationAtPercentile(50));
+			builder.addField(Series.Methods.FIELD_P95_DURATION, data.getDurationAtPercentile(95));
+			builder.addField(Series.Methods.FIELD_P99_DURATION, data.getDurationAtPercentile(99));
+		}
 	}
 
 }
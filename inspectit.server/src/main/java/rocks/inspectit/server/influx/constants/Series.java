@@ -108,6 +108,21 @@ public interface Series {
 		 */
 		String FIELD_COUNT = "count";
 
+		/**
+		 * Median duration field.
+		 */
+		String FIELD_P50_DURATION = "p50Duration";
+
+		/**
+		 * 95th percentile duration field.
+		 */
+		String FIELD_P95_DURATION = "p95Duration";
+
+		/**
+		 * 99th percentile duration field.
+		 */
+		String FIELD_P99_DURATION = "p99Duration";
+
 		/**
 		 * Simple method name tag.
 		 */
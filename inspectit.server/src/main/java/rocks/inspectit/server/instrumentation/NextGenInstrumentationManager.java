@@ -173,6 +173,32 @@ public class NextGenInstrumentationManager implements ApplicationListener<AgentD
 		return classCache.getInstrumentationService().addAndGetInstrumentationResult(classType, configurationHolder.getAgentConfiguration(), configurationHolder.getInstrumentationAppliers());
 	}
 
+	/**
+	 * Analyzes all given types in the given order.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashes
+	 *            Class hash codes, one for each type.
+	 * @param sentTypes
+	 *            Types sent by the agent.
+	 * @return List of instrumentation definitions in the same order as the given types.
+	 * @throws BusinessException
+	 *             If agent with specified id does not exist.
+	 * @see #analyze(long, String, Type)
+	 */
+	public List<InstrumentationDefinition> analyzeBatch(long platformIdent, List<String> hashes, List<Type> sentTypes) throws BusinessException {
+		if (hashes.size() != sentTypes.size()) {
+			throw new IllegalArgumentException("Count of hashes (" + hashes.size() + ") and types (" + sentTypes.size() + ") to analyze must be same.");
+		}
+
+		List<InstrumentationDefinition> results = new ArrayList<InstrumentationDefinition>(sentTypes.size());
+		for (int i = 0; i < sentTypes.size(); i++) {
+			results.add(analyze(platformIdent, hashes.get(i), sentTypes.get(i)));
+		}
+		return results;
+	}
+
 	/**
 	 * Generates {@link RefreshInstrumentationTimestampsJob} for the given method IDs.
 	 *
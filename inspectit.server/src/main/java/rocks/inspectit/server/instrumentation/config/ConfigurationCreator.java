@@ -6,6 +6,7 @@ import java.util.Collections;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
@@ -48,6 +49,31 @@ public class ConfigurationCreator {
 	@Autowired
 	private ConfigurationResolver configurationResolver;
 
+	/**
+	 * Size in bytes above which the agents should compress the data sent to the CMR. Negative
+	 * value disables the compression.
+	 */
+	@Value("${cmr.transferCompressionThreshold}")
+	int transferCompressionThreshold = -1;
+
+	/**
+	 * If the agents should encode the repeated strings with the connection string dictionary.
+	 */
+	@Value("${cmr.transferStringDictionary}")
+	boolean transferStringDictionary;
+
+	/**
+	 * Max calls per second of one method that are executed with the hooks on the agent.
+	 */
+	@Value("${cmr.governorCallRateBudget}")
+	int governorCallRateBudget;
+
+	/**
+	 * Max time in milliseconds per second the agent may spend in the hooks.
+	 */
+	@Value("${cmr.governorOverheadBudget}")
+	int governorOverheadBudget;
+
 	/**
 	 * Returns proper configuration for the agent with the correctly set IDs for the agent and
 	 * sensors.
@@ -125,6 +151,15 @@ public class ConfigurationCreator {
 
 		// set configuration info
 		agentConfiguration.setConfigurationInfo(configurationResolver.getConfigurationInfo(environment));
+		agentConfiguration.setConfigurationRevision(configurationResolver.getConfigurationRevision(environment));
+
+		// announce that compressed transfer and string dictionary are supported
+		agentConfiguration.setTransferCompressionThreshold(transferCompressionThreshold);
+		agentConfiguration.setTransferStringDictionary(transferStringDictionary);
+
+		// budgets of the overhead governor
+		agentConfiguration.setGovernorCallRateBudget(governorCallRateBudget);
+		agentConfiguration.setGovernorOverheadBudget(governorOverheadBudget);
 
 		return agentConfiguration;
 	}
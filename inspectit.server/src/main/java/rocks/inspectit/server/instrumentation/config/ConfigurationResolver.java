@@ -275,6 +275,47 @@ public class ConfigurationResolver {
 		return stringBuilder.toString();
 	}
 
+	/**
+	 * Returns the configuration revision based on the given {@link Environment}. The revision is
+	 * composed of the environment and all active profile IDs together with their revisions, thus
+	 * it changes with every change of the environment or its active profiles. Agents can use it to
+	 * check if the locally persisted instrumentation definitions are still valid.
+	 *
+	 * @param environment
+	 *            {@link Environment}.
+	 * @return Configuration revision
+	 */
+	public String getConfigurationRevision(Environment environment) {
+		if (null == environment) {
+			return null;
+		}
+
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append(environment.getId()).append('@').append(environment.getRevision());
+
+		// sort to always have same revision for same profiles
+		List<String> profileIds = new ArrayList<>(environment.getProfileIds());
+		Collections.sort(profileIds);
+		for (String profileId : profileIds) {
+			try {
+				Profile profile = configurationInterfaceManager.getProfile(profileId);
+				// don't include inactive profiles
+				if (!profile.isActive()) {
+					continue;
+				}
+
+				stringBuilder.append(';').append(profileId).append('@').append(profile.getRevision());
+			} catch (Exception e) {
+				if (log.isDebugEnabled()) {
+					log.debug("Profile with id " + profileId + " ignored during configuration revision creation due to the exception.", e);
+				}
+				continue;
+			}
+		}
+
+		return stringBuilder.toString();
+	}
+
 	/**
 	 * Tries to locate one {@link Environment} for the given agent name and IPs. If only one
 	 * {@link Environment} fits the agent by current mappings this one will be returned. Otherwise
@@ -84,6 +84,10 @@ public class ExceptionSensorInstrumentationApplier extends AbstractSensorInstrum
 		// set to rsc
 		sensorInstrumentationPoint.addSensorId(sensorId, exceptionSensorTypeConfig.getPriority());
 
+		// exception sensor works with the parameters and the return value
+		sensorInstrumentationPoint.setParametersNeeded(true);
+		sensorInstrumentationPoint.setReturnValueNeeded(true);
+
 		// add all settings
 		sensorInstrumentationPoint.addSettings(exceptionSensorAssignment.getSettings());
 	}
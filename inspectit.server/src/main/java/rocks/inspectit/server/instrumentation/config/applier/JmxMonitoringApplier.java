@@ -72,6 +72,7 @@ public class JmxMonitoringApplier extends GenericApplier {
 			// register and set ID
 			long id = registrationService.registerJmxSensorDefinitionDataIdent(agentConfiguration.getPlatformId(), objectName, attributeName, description, type, isIs, readable, writable);
 			jmxAttributeDescriptor.setId(id);
+			jmxAttributeDescriptor.setCollectInterval(jmxSensorAssignment.getCollectInterval());
 
 			return true;
 		}
@@ -2,24 +2,47 @@ package rocks.inspectit.server.processor.impl;
 
 import javax.persistence.EntityManager;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
 
 /**
- * Processor that connects error messages in the {@link ExceptionSensorData}.
+ * Processor that connects error messages in the {@link ExceptionSensorData}. In addition restores
+ * the stack traces the agent did not send because they were already sent with the same stack
+ * trace fingerprint.
  *
  * @author Ivan Senic
  *
  */
 public class ExceptionMessageCmrProcessor extends AbstractCmrDataProcessor {
 
+	/**
+	 * Max amount of stack traces kept for the fingerprints.
+	 */
+	private static final int MAX_STACK_TRACES = 10000;
+
+	/**
+	 * Prefixes of the stack trace lines that start a cause or a suppressed throwable.
+	 */
+	private static final String[] CAUSE_PREFIXES = { "Caused by: ", "Suppressed: " };
+
+	/**
+	 * Stack traces without the first line (throwable type and message) and without the messages
+	 * of the causes by fingerprint.
+	 */
+	private final Cache<Long, String> stackTraces = CacheBuilder.newBuilder().maximumSize(MAX_STACK_TRACES).build();
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	protected void processData(DefaultData defaultData, EntityManager entityManager) {
-		connectErrorMessagesInExceptionData((ExceptionSensorData) defaultData);
+		ExceptionSensorData exceptionSensorData = (ExceptionSensorData) defaultData;
+		resolveStackTrace(exceptionSensorData);
+		connectErrorMessagesInExceptionData(exceptionSensorData);
 	}
 
 	/**
@@ -30,6 +53,82 @@ public class ExceptionMessageCmrProcessor extends AbstractCmrDataProcessor {
 		return defaultData instanceof ExceptionSensorData;
 	}
 
+	/**
+	 * Remembers the stack trace of the fingerprint if it was sent or restores it if only the
+	 * fingerprint was sent.
+	 *
+	 * @param exceptionSensorData
+	 *            Parent exception data, thus the one that has exception event CREATED.
+	 */
+	private void resolveStackTrace(ExceptionSensorData exceptionSensorData) {
+		long fingerprint = exceptionSensorData.getStackTraceFingerprint();
+		if (0 == fingerprint) {
+			return;
+		}
+
+		String stackTrace = exceptionSensorData.getStackTrace();
+		if (null != stackTrace) {
+			int index = stackTrace.indexOf('\n');
+			if (index >= 0) {
+				stackTraces.put(fingerprint, removeMessages(stackTrace.substring(index + 1)));
+			}
+		} else {
+			String frames = stackTraces.getIfPresent(fingerprint);
+			if (null != frames) {
+				StringBuilder stringBuilder = new StringBuilder();
+				stringBuilder.append(exceptionSensorData.getThrowableType());
+				if (null != exceptionSensorData.getErrorMessage()) {
+					stringBuilder.append(": ").append(exceptionSensorData.getErrorMessage());
+				}
+				stringBuilder.append('\n').append(frames);
+				exceptionSensorData.setStackTrace(stringBuilder.toString());
+			}
+		}
+	}
+
+	/**
+	 * Removes the messages from the stack trace frames, as the messages of the causes belong to the
+	 * throwable the stack trace was sent with and not to the ones that share its fingerprint. Cause
+	 * lines only keep the cause type and the message lines are skipped.
+	 *
+	 * @param frames
+	 *            Stack trace without the first line.
+	 * @return Stack trace frames with cause types only.
+	 */
+	private String removeMessages(String frames) {
+		StringBuilder stringBuilder = new StringBuilder(frames.length());
+		// lines before the first frame belong to a multi-line message of the throwable
+		boolean inMessage = true;
+		for (String line : frames.split("\n", -1)) {
+			String trimmed = line.trim();
+			String causePrefix = null;
+			for (String prefix : CAUSE_PREFIXES) {
+				if (trimmed.startsWith(prefix)) {
+					causePrefix = prefix;
+				}
+			}
+
+			if (null != causePrefix) {
+				int messageIndex = trimmed.indexOf(": ", causePrefix.length());
+				stringBuilder.append(line.substring(0, line.indexOf(causePrefix)));
+				stringBuilder.append((messageIndex >= 0) ? trimmed.substring(0, messageIndex) : trimmed);
+				stringBuilder.append('\n');
+				inMessage = true;
+			} else if (trimmed.startsWith("at ") || (trimmed.startsWith("...") && trimmed.endsWith("more"))) {
+				stringBuilder.append(line).append('\n');
+				inMessage = false;
+			} else if (!inMessage && !trimmed.isEmpty()) {
+				stringBuilder.append(line).append('\n');
+			}
+		}
+
+		// keep the ending of the original frames
+		if (!frames.endsWith("\n") && (stringBuilder.length() > 0)) {
+			stringBuilder.setLength(stringBuilder.length() - 1);
+		}
+		return stringBuilder.toString();
+	}
+
 	/**
 	 * Connects exception message between linked exception data.
 	 *
@@ -149,10 +149,12 @@ public class InvocationModifierCmrProcessor extends AbstractChainedCmrDataProces
 		TimerData timerData = invData.getTimerData();
 		if (null != timerData) {
 			double exclusiveTime = invData.getTimerData().getDuration() - exclusiveDurationDelta;
-			timerData.setExclusiveCount(1L);
+			// invocations folded by the agent hold the sum of all repeated calls
+			long exclusiveCount = 1L + invData.getFoldedCount();
+			timerData.setExclusiveCount(exclusiveCount);
 			timerData.setExclusiveDuration(exclusiveTime);
-			timerData.calculateExclusiveMax(exclusiveTime);
-			timerData.calculateExclusiveMin(exclusiveTime);
+			timerData.calculateExclusiveMax(exclusiveTime / exclusiveCount);
+			timerData.calculateExclusiveMin(exclusiveTime / exclusiveCount);
 			timerData.addInvocationParentId(topInvocationParent.getId());
 			passToChainedProcessors(invData.getTimerData(), entityManager);
 		}
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 
 import rocks.inspectit.server.instrumentation.NextGenInstrumentationManager;
 import rocks.inspectit.server.spring.aop.MethodLog;
+import rocks.inspectit.server.util.AgentStatusDataProvider;
 import rocks.inspectit.shared.all.cmr.service.IAgentService;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
@@ -41,6 +42,12 @@ public class AgentService implements IAgentService {
 	@Autowired
 	NextGenInstrumentationManager nextGenInstrumentationManager;
 
+	/**
+	 * {@link AgentStatusDataProvider}.
+	 */
+	@Autowired
+	AgentStatusDataProvider agentStatusDataProvider;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -68,6 +75,15 @@ public class AgentService implements IAgentService {
 		return nextGenInstrumentationManager.analyze(platformIdent, hash, sentType);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@MethodLog
+	public List<InstrumentationDefinition> analyzeBatch(long platformIdent, List<String> hashes, List<Type> sentTypes) throws BusinessException {
+		return nextGenInstrumentationManager.analyzeBatch(platformIdent, hashes, sentTypes);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -77,6 +93,15 @@ public class AgentService implements IAgentService {
 		nextGenInstrumentationManager.instrumentationApplied(platformId, methodToSensorMap);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@MethodLog
+	public void overheadGoverned(long platformId, Map<Long, long[]> governedMethods) {
+		agentStatusDataProvider.registerGovernedMethods(platformId, governedMethods);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
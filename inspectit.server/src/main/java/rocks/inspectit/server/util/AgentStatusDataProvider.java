@@ -169,6 +169,26 @@ public class AgentStatusDataProvider implements InitializingBean, ApplicationLis
 		}
 	}
 
+	/**
+	 * Registers the methods currently governed by the overhead governor of the agent.
+	 *
+	 * @param platformIdent
+	 *            ID of the platform ident.
+	 * @param governedMethods
+	 *            Map containing method id as key and the sampling rate and calls per second as
+	 *            value.
+	 */
+	public void registerGovernedMethods(long platformIdent, Map<Long, long[]> governedMethods) {
+		AgentStatusData agentStatusData = agentStatusDataMap.get(platformIdent);
+		if (null != agentStatusData) {
+			agentStatusData.setGovernedMethods(governedMethods);
+
+			if (log.isDebugEnabled()) {
+				log.debug("Platform " + platformIdent + " reported " + governedMethods.size() + " method(s) sampled or counted only due to the agent overhead.");
+			}
+		}
+	}
+
 	/**
 	 * @return Returns the map of platform ident IDs and dates when the last data was received.
 	 */
@@ -1,6 +1,7 @@
 package rocks.inspectit.server.cache.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.anyLong;
@@ -10,9 +11,12 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
 
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -49,6 +53,12 @@ public class AtomicBufferTest extends AbstractTestNGLogSupport {
 	@Mock
 	private IBufferTreeComponent<DefaultData> indexingTree;
 
+	@Mock
+	private BufferSegmentStorage segmentStorage;
+
+	@Captor
+	private ArgumentCaptor<List<DefaultData>> evictedCaptor;
+
 	/**
 	 * Init.
 	 *
@@ -61,6 +71,7 @@ public class AtomicBufferTest extends AbstractTestNGLogSupport {
 		buffer.bufferProperties = bufferProperties;
 		buffer.objectSizes = objectSizes;
 		buffer.indexingTree = indexingTree;
+		buffer.segmentStorage = segmentStorage;
 		buffer.log = LoggerFactory.getLogger(AtomicBuffer.class);
 		when(bufferProperties.getIndexingTreeCleaningThreads()).thenReturn(1);
 		buffer.postConstruct();
@@ -131,6 +142,46 @@ public class AtomicBufferTest extends AbstractTestNGLogSupport {
 		assertThat(buffer.getEvictedElemenets(), is(elements / 2));
 	}
 
+	/**
+	 * Tests that the evicted elements are written to the segment storage when the buffer segments
+	 * are active.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void evictionWritesSegment() throws Exception {
+		when(bufferProperties.getInitialBufferSize()).thenReturn(4L);
+		when(bufferProperties.getEvictionOccupancyPercentage()).thenReturn(0.1f);
+		when(bufferProperties.getEvictionFragmentSizePercentage()).thenReturn(0.5f);
+		when(bufferProperties.isSegmentsActive()).thenReturn(true);
+		buffer.postConstruct();
+
+		DefaultData[] data = new DefaultData[4];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = mock(DefaultData.class);
+			when(data[i].getObjectSize(objectSizes)).thenReturn(1L);
+		}
+
+		BufferAnalyzer bufferAnalyzer = new BufferAnalyzer(buffer);
+		bufferAnalyzer.start();
+
+		for (DefaultData defaultData : data) {
+			buffer.put(new BufferElement<>(defaultData));
+		}
+
+		// wait to be analyzed
+		while (buffer.getAnalyzedElements() < data.length) {
+			Thread.sleep(50);
+		}
+
+		buffer.evict();
+		bufferAnalyzer.interrupt();
+
+		verify(segmentStorage).write(evictedCaptor.capture());
+		assertThat(evictedCaptor.getValue(), contains(data[0], data[1]));
+		assertThat(buffer.getEvictedElemenets(), is(2L));
+	}
+
 	/**
 	 * Tests that size of the elements is correctly analyzed and added to the buffer size.
 	 *
@@ -0,0 +1,380 @@
+package rocks.inspectit.server.cache.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.esotericsoftware.kryo.io.Input;
+
+import rocks.inspectit.server.cache.impl.BufferSegmentStorage.SegmentsSnapshot;
+import rocks.inspectit.server.test.AbstractTestNGLogSupport;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.AggregatedTimerData;
+import rocks.inspectit.shared.all.communication.data.HttpTimerData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.storage.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.storage.serializer.provider.SerializationManagerProvider;
+import rocks.inspectit.shared.all.storage.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.TimerDataAggregator;
+import rocks.inspectit.shared.cs.indexing.buffer.impl.TopElementsCollector;
+import rocks.inspectit.shared.cs.indexing.impl.IndexQuery;
+import rocks.inspectit.shared.cs.indexing.restriction.impl.CachingIndexQueryRestrictionProcessor;
+import rocks.inspectit.shared.cs.storage.serializer.SerializationManagerPostProcessor;
+
+/**
+ * Testing of the functionality of the {@link BufferSegmentStorage}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class BufferSegmentStorageTest extends AbstractTestNGLogSupport {
+
+	private static final String SEGMENTS_FOLDER = "bufferSegmentsTest";
+
+	/**
+	 * Class under test.
+	 */
+	private BufferSegmentStorage segmentStorage;
+
+	@Mock
+	private BufferProperties bufferProperties;
+
+	@Mock
+	private SerializationManagerProvider serializationManagerProvider;
+
+	@InjectMocks
+	private ClassSchemaManager schemaManager;
+
+	@Mock
+	private Logger log;
+
+	private SerializationManager serializer;
+
+	private IndexQuery query;
+
+	private TimerData timerData;
+
+	private SqlStatementData sqlData;
+
+	private HttpTimerData httpData;
+
+	/**
+	 * Init.
+	 *
+	 * @throws Exception
+	 */
+	@BeforeMethod
+	public void init() throws Exception {
+		MockitoAnnotations.initMocks(this);
+
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, schemaManager.getClass().getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+		SerializationManager serializationManager = new SerializationManager();
+		serializationManager.setSchemaManager(schemaManager);
+		serializationManager.setKryoNetNetwork(new KryoNetNetwork());
+		serializationManager.initKryo();
+		new SerializationManagerPostProcessor().postProcessAfterInitialization(serializationManager, "bufferSegmentStorageTest");
+		serializer = spy(serializationManager);
+
+		segmentStorage = new BufferSegmentStorage();
+		segmentStorage.bufferProperties = bufferProperties;
+		segmentStorage.serializationManagerProvider = serializationManagerProvider;
+		segmentStorage.log = LoggerFactory.getLogger(BufferSegmentStorage.class);
+		when(bufferProperties.isSegmentsActive()).thenReturn(true);
+		when(bufferProperties.getSegmentsFolder()).thenReturn(SEGMENTS_FOLDER);
+		when(bufferProperties.getSegmentsMaxDiskSize()).thenReturn(Long.MAX_VALUE);
+		when(serializationManagerProvider.createSerializer()).thenReturn(serializer);
+		segmentStorage.postConstruct();
+
+		timerData = new TimerData(new Timestamp(1000L), 1L, 1L, 10L);
+		timerData.setId(1L);
+		timerData.setCount(1L);
+		timerData.setDuration(10d);
+		sqlData = new SqlStatementData(new Timestamp(2000L), 2L, 1L, 20L, "SELECT 1");
+		sqlData.setId(2L);
+		sqlData.setCount(1L);
+		sqlData.setDuration(20d);
+		httpData = new HttpTimerData(new Timestamp(3000L), 1L, 1L, 10L);
+		httpData.setId(3L);
+
+		query = new IndexQuery();
+		query.setRestrictionProcessor(new CachingIndexQueryRestrictionProcessor());
+	}
+
+	/**
+	 * Tests that the mixed elements written to the segment are deserialized with the same values.
+	 */
+	@Test
+	public void roundTrip() throws Exception {
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData, sqlData, httpData));
+
+		List<DefaultData> result = segmentStorage.query(segmentStorage.getSnapshot(), query, -1);
+
+		assertThat(result, contains((DefaultData) timerData, sqlData, httpData));
+		assertThat(result.get(0), is(instanceOf(TimerData.class)));
+		assertThat(((TimerData) result.get(0)).getDuration(), is(10d));
+		assertThat(result.get(1), is(instanceOf(SqlStatementData.class)));
+		assertThat(((SqlStatementData) result.get(1)).getSql(), is("SELECT 1"));
+		assertThat(result.get(2), is(instanceOf(HttpTimerData.class)));
+		assertThat(segmentStorage.getSegmentsCount(), is(1));
+	}
+
+	/**
+	 * Tests that the elements are written in chunks and released in the given list.
+	 */
+	@Test
+	public void writeInChunks() throws Exception {
+		List<DefaultData> elements = new ArrayList<>();
+		for (long id = 1; id <= 2500; id++) {
+			TimerData element = new TimerData(new Timestamp(id), 1L, 1L, 10L);
+			element.setId(id);
+			elements.add(element);
+		}
+		List<DefaultData> written = new ArrayList<>(elements);
+
+		segmentStorage.write(written);
+
+		assertThat(written, everyItem(nullValue()));
+		assertThat(segmentStorage.query(segmentStorage.getSnapshot(), query, -1), is(elements));
+		verify(serializer, times(3)).deserialize(any(Input.class));
+	}
+
+	/**
+	 * Tests that written segment is read and filtered with the query.
+	 */
+	@Test
+	public void query() throws Exception {
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData, sqlData));
+
+		query.setPlatformIdent(2L);
+		List<DefaultData> result = segmentStorage.query(segmentStorage.getSnapshot(), query, -1);
+
+		assertThat(result, contains((DefaultData) sqlData));
+	}
+
+	/**
+	 * Tests that reading stops when the limit is reached.
+	 */
+	@Test
+	public void queryLimit() throws Exception {
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData));
+		segmentStorage.write(Arrays.<DefaultData> asList(sqlData));
+
+		List<DefaultData> result = segmentStorage.query(segmentStorage.getSnapshot(), query, 1);
+
+		assertThat(result, contains((DefaultData) timerData));
+		verify(serializer).deserialize(any(Input.class));
+	}
+
+	/**
+	 * Tests that elements of all segments are aggregated.
+	 */
+	@Test
+	public void queryAggregation() throws Exception {
+		TimerData otherTimerData = new TimerData(new Timestamp(4000L), 1L, 1L, 10L);
+		otherTimerData.setId(4L);
+		otherTimerData.setCount(1L);
+		otherTimerData.setDuration(30d);
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData));
+		segmentStorage.write(Arrays.<DefaultData> asList(otherTimerData));
+
+		query.setObjectClasses(Collections.<Class<?>> singletonList(TimerData.class));
+		AggregationPerformer<TimerData> aggregationPerformer = new AggregationPerformer<>(new TimerDataAggregator());
+		segmentStorage.query(segmentStorage.getSnapshot(), query, aggregationPerformer);
+
+		List<TimerData> result = aggregationPerformer.getResultList();
+		assertThat(result, hasSize(1));
+		assertThat(result.get(0), is(instanceOf(AggregatedTimerData.class)));
+		assertThat(result.get(0).getCount(), is(2L));
+		assertThat(result.get(0).getDuration(), is(40d));
+	}
+
+	/**
+	 * Tests that the first elements of all segments are collected.
+	 */
+	@Test
+	public void queryTopElements() throws Exception {
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData));
+		segmentStorage.write(Arrays.<DefaultData> asList(sqlData, httpData));
+
+		TopElementsCollector<DefaultData> collector = new TopElementsCollector<>(new Comparator<DefaultData>() {
+			@Override
+			public int compare(DefaultData o1, DefaultData o2) {
+				return Long.compare(o2.getId(), o1.getId());
+			}
+		}, 2);
+		segmentStorage.query(segmentStorage.getSnapshot(), query, collector);
+
+		assertThat(collector.getSortedElements(), contains((DefaultData) httpData, sqlData));
+	}
+
+	/**
+	 * Tests that segment is not read if its summary does not match the query.
+	 */
+	@Test
+	public void querySkipsSegment() throws Exception {
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData, sqlData));
+
+		query.setPlatformIdent(3L);
+		assertThat(segmentStorage.query(segmentStorage.getSnapshot(), query, -1), is(empty()));
+
+		query.setPlatformIdent(0L);
+		query.setMethodIdent(30L);
+		assertThat(segmentStorage.query(segmentStorage.getSnapshot(), query, -1), is(empty()));
+
+		query.setMethodIdent(0L);
+		query.setFromDate(new Timestamp(3000L));
+		query.setToDate(new Timestamp(4000L));
+		assertThat(segmentStorage.query(segmentStorage.getSnapshot(), query, -1), is(empty()));
+
+		query.setFromDate(null);
+		query.setToDate(null);
+		query.setMinId(3L);
+		assertThat(segmentStorage.query(segmentStorage.getSnapshot(), query, -1), is(empty()));
+
+		verify(serializer, never()).deserialize(any(Input.class));
+	}
+
+	/**
+	 * Tests the query with only the from date set.
+	 */
+	@Test
+	public void queryFromDateOnly() throws Exception {
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData, sqlData));
+
+		query.setFromDate(new Timestamp(1500L));
+		assertThat(segmentStorage.query(segmentStorage.getSnapshot(), query, -1), contains((DefaultData) sqlData));
+
+		query.setFromDate(new Timestamp(3000L));
+		assertThat(segmentStorage.query(segmentStorage.getSnapshot(), query, -1), is(empty()));
+	}
+
+	/**
+	 * Tests the query with only the to date set.
+	 */
+	@Test
+	public void queryToDateOnly() throws Exception {
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData, sqlData));
+
+		query.setToDate(new Timestamp(1500L));
+		assertThat(segmentStorage.query(segmentStorage.getSnapshot(), query, -1), contains((DefaultData) timerData));
+
+		query.setToDate(new Timestamp(500L));
+		assertThat(segmentStorage.query(segmentStorage.getSnapshot(), query, -1), is(empty()));
+	}
+
+	/**
+	 * Tests that the snapshot knows the ids held by the segments and does not change with the
+	 * segments written afterwards.
+	 */
+	@Test
+	public void snapshotContainsId() throws Exception {
+		TimerData otherTimerData = new TimerData(new Timestamp(4000L), 1L, 1L, 10L);
+		otherTimerData.setId(5L);
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData, httpData));
+		segmentStorage.write(Arrays.<DefaultData> asList(otherTimerData));
+
+		SegmentsSnapshot snapshot = segmentStorage.getSnapshot();
+		segmentStorage.write(Arrays.<DefaultData> asList(sqlData));
+
+		assertThat(snapshot.isEmpty(), is(false));
+		assertThat(snapshot.containsId(1L), is(true));
+		assertThat(snapshot.containsId(2L), is(false));
+		assertThat(snapshot.containsId(3L), is(true));
+		assertThat(snapshot.containsId(4L), is(false));
+		assertThat(snapshot.containsId(5L), is(true));
+		assertThat(snapshot.containsId(6L), is(false));
+		assertThat(segmentStorage.getSnapshot().containsId(2L), is(true));
+	}
+
+	/**
+	 * Tests that element can be retrieved by id.
+	 */
+	@Test
+	public void get() throws Exception {
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData, sqlData));
+
+		TimerData template = new TimerData();
+		template.setId(1L);
+		assertThat(segmentStorage.get(template), is((DefaultData) timerData));
+
+		template.setId(3L);
+		assertThat(segmentStorage.get(template), is(nullValue()));
+	}
+
+	/**
+	 * Tests that oldest segments are deleted when max disk size is reached.
+	 */
+	@Test
+	public void maxDiskSize() throws Exception {
+		when(bufferProperties.getSegmentsMaxDiskSize()).thenReturn(1L);
+
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData));
+		segmentStorage.write(Arrays.<DefaultData> asList(sqlData));
+
+		assertThat(segmentStorage.getSegmentsCount(), is(1));
+		assertThat(Files.exists(Paths.get(SEGMENTS_FOLDER, "1.segment")), is(false));
+		assertThat(Files.exists(Paths.get(SEGMENTS_FOLDER, "2.segment")), is(true));
+		assertThat(segmentStorage.getSegmentsDiskSize(), is(Files.size(Paths.get(SEGMENTS_FOLDER, "2.segment"))));
+	}
+
+	/**
+	 * Tests that all segments are deleted.
+	 */
+	@Test
+	public void clearAll() throws Exception {
+		segmentStorage.write(Arrays.<DefaultData> asList(timerData));
+		segmentStorage.write(Arrays.<DefaultData> asList(sqlData));
+
+		segmentStorage.clearAll();
+
+		assertThat(segmentStorage.getSegmentsCount(), is(0));
+		assertThat(segmentStorage.getSegmentsDiskSize(), is(0L));
+		assertThat(Files.exists(Paths.get(SEGMENTS_FOLDER, "1.segment")), is(false));
+		assertThat(Files.exists(Paths.get(SEGMENTS_FOLDER, "2.segment")), is(false));
+	}
+
+	/**
+	 * Deletes the segments folder.
+	 */
+	@AfterMethod
+	public void deleteFolder() throws IOException {
+		segmentStorage.clearAll();
+		Files.deleteIfExists(Paths.get(SEGMENTS_FOLDER));
+	}
+}
@@ -0,0 +1,151 @@
+package rocks.inspectit.server.ci;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Date;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.cs.ci.Environment;
+import rocks.inspectit.shared.cs.ci.Profile;
+import rocks.inspectit.shared.cs.ci.assignment.impl.JmxBeanSensorAssignment;
+import rocks.inspectit.shared.cs.ci.profile.data.JmxDefinitionProfileData;
+import rocks.inspectit.shared.cs.ci.sensor.jmx.JmxSensorConfig;
+import rocks.inspectit.shared.cs.ci.sensor.method.impl.InvocationSequenceSensorConfig;
+import rocks.inspectit.shared.cs.jaxb.JAXBTransformator;
+import rocks.inspectit.shared.cs.storage.util.DeleteFileVisitor;
+
+/**
+ * Tests that the configuration interface objects saved by the {@link ConfigurationInterfaceManager}
+ * can be loaded again with the validation against the CI schema.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class CiSchemaTest extends TestBase {
+
+	/**
+	 * What folder to use for testing.
+	 */
+	private static final String TEST_FOLDER = "testCiSchema";
+
+	private JAXBTransformator transformator;
+
+	private Path schemaPath;
+
+	/**
+	 * Init with the schema shipped with the CMR.
+	 */
+	@BeforeMethod
+	public void init() {
+		ConfigurationInterfacePathResolver pathResolver = new ConfigurationInterfacePathResolver();
+		pathResolver.init();
+		schemaPath = pathResolver.getSchemaPath();
+		transformator = new JAXBTransformator();
+		assertThat(Files.exists(schemaPath), is(true));
+	}
+
+	public static class EnvironmentRoundTrip extends CiSchemaTest {
+
+		@Test
+		public void invocationSequenceLimits() throws Exception {
+			Environment environment = createEnvironment();
+			InvocationSequenceSensorConfig config = (InvocationSequenceSensorConfig) environment.getMethodSensorTypeConfig(InvocationSequenceSensorConfig.class);
+			config.setMaxChildCount(500L);
+			config.setMaxSize(10L * 1024 * 1024 * 1024);
+
+			Environment loaded = marshallAndUnmarshall(environment, Environment.class);
+
+			InvocationSequenceSensorConfig loadedConfig = (InvocationSequenceSensorConfig) loaded.getMethodSensorTypeConfig(InvocationSequenceSensorConfig.class);
+			assertThat(loadedConfig.getMaxChildCount(), is(500L));
+			assertThat(loadedConfig.getMaxSize(), is(10L * 1024 * 1024 * 1024));
+		}
+
+		@Test
+		public void jmxChangeDetection() throws Exception {
+			Environment environment = createEnvironment();
+			environment.getJmxSensorConfig().setChangeDetection(true);
+			environment.getJmxSensorConfig().setHeartbeatInterval(30000L);
+
+			Environment loaded = marshallAndUnmarshall(environment, Environment.class);
+
+			JmxSensorConfig loadedConfig = loaded.getJmxSensorConfig();
+			assertThat(loadedConfig.isChangeDetection(), is(true));
+			assertThat(loadedConfig.getHeartbeatInterval(), is(30000L));
+		}
+	}
+
+	public static class ProfileRoundTrip extends CiSchemaTest {
+
+		@Test
+		public void jmxCollectInterval() throws Exception {
+			JmxBeanSensorAssignment assignment = new JmxBeanSensorAssignment();
+			assignment.setDomain("java.lang");
+			assignment.setObjectNameParameters(Collections.singletonMap("type", "Memory"));
+			assignment.setAttributes(Collections.singleton("HeapMemoryUsage"));
+			assignment.setCollectInterval(5000L);
+			JmxDefinitionProfileData profileData = new JmxDefinitionProfileData();
+			profileData.setJmxBeanAssignments(Collections.singletonList(assignment));
+			Profile profile = new Profile();
+			profile.setId("profile");
+			profile.setName("profile");
+			profile.setCreatedDate(new Date());
+			profile.setProfileData(profileData);
+
+			Profile loaded = marshallAndUnmarshall(profile, Profile.class);
+
+			JmxBeanSensorAssignment loadedAssignment = ((JmxDefinitionProfileData) loaded.getProfileData()).getJmxBeanAssignments().get(0);
+			assertThat(loadedAssignment.getDomain(), is("java.lang"));
+			assertThat(loadedAssignment.getCollectInterval(), is(5000L));
+		}
+	}
+
+	/**
+	 * Creates environment with the attributes required by the schema.
+	 *
+	 * @return Environment.
+	 */
+	protected Environment createEnvironment() {
+		Environment environment = new Environment();
+		environment.setId("environment");
+		environment.setName("environment");
+		environment.setCreatedDate(new Date());
+		return environment;
+	}
+
+	/**
+	 * Marshalls the object to the test folder and unmarshalls it again with the schema validation.
+	 *
+	 * @param object
+	 *            Object to marshall.
+	 * @param rootClass
+	 *            Root class.
+	 * @return Unmarshalled object.
+	 */
+	protected <T> T marshallAndUnmarshall(T object, Class<T> rootClass) throws Exception {
+		Path path = Paths.get(TEST_FOLDER).resolve("object.xml");
+		transformator.marshall(path, object, null);
+		return transformator.unmarshall(path, schemaPath, rootClass);
+	}
+
+	/**
+	 * Clean test folder after each test.
+	 */
+	@AfterMethod
+	public void cleanUp() throws IOException {
+		if (Files.exists(Paths.get(TEST_FOLDER))) {
+			Files.walkFileTree(Paths.get(TEST_FOLDER), new DeleteFileVisitor());
+			Files.deleteIfExists(Paths.get(TEST_FOLDER));
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package rocks.inspectit.server.dao.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.server.cache.impl.BufferSegmentStorage;
+import rocks.inspectit.server.cache.impl.BufferSegmentStorage.SegmentsSnapshot;
+import rocks.inspectit.server.test.AbstractTestNGLogSupport;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.TimerDataAggregator;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+import rocks.inspectit.shared.cs.indexing.buffer.impl.TopElementsCollector;
+import rocks.inspectit.shared.cs.indexing.impl.IndexQuery;
+
+/**
+ * Tests that the {@link AbstractBufferDataDao} merges the results of the buffer segments and the
+ * indexing tree.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class AbstractBufferDataDaoTest extends AbstractTestNGLogSupport {
+
+	/**
+	 * Comparator ascending by id.
+	 */
+	private static final Comparator<TimerData> ID_COMPARATOR = new Comparator<TimerData>() {
+		@Override
+		public int compare(TimerData o1, TimerData o2) {
+			return Long.compare(o1.getId(), o2.getId());
+		}
+	};
+
+	/**
+	 * Class under test.
+	 */
+	@InjectMocks
+	private TimerDataBufferDao dao;
+
+	@Mock
+	private IBufferTreeComponent<TimerData> indexingTree;
+
+	@Mock
+	private BufferSegmentStorage segmentStorage;
+
+	@Mock
+	private SegmentsSnapshot snapshot;
+
+	private IndexQuery query;
+
+	/**
+	 * Elements written to the segments.
+	 */
+	private List<TimerData> segmentElements;
+
+	/**
+	 * Elements still in the indexing tree.
+	 */
+	private List<TimerData> treeElements;
+
+	/**
+	 * Init. Elements 1-4 are evicted to the segments, where 3 and 4 are not yet garbage collected
+	 * from the indexing tree that also holds the elements 5 and 6.
+	 */
+	@BeforeMethod
+	@SuppressWarnings("unchecked")
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+
+		List<TimerData> elements = new ArrayList<>();
+		for (long id = 1; id <= 6; id++) {
+			TimerData timerData = new TimerData(new Timestamp(id * 1000L), 1L, 1L, 1L);
+			timerData.setId(id);
+			timerData.setCount(1L);
+			timerData.setDuration(id);
+			elements.add(timerData);
+		}
+		segmentElements = elements.subList(0, 4);
+		treeElements = elements.subList(2, 6);
+
+		query = new IndexQuery();
+		query.setFromDate(new Timestamp(0L));
+		query.setToDate(new Timestamp(10000L));
+
+		when(segmentStorage.getSnapshot()).thenReturn(snapshot);
+		when(snapshot.containsId(anyLong())).thenAnswer(new Answer<Boolean>() {
+			@Override
+			public Boolean answer(InvocationOnMock invocation) throws Throwable {
+				long id = (Long) invocation.getArguments()[0];
+				for (TimerData timerData : segmentElements) {
+					if (timerData.getId() == id) {
+						return true;
+					}
+				}
+				return false;
+			}
+		});
+		when(segmentStorage.<TimerData> query(eq(snapshot), eq(query), anyInt())).thenAnswer(new Answer<List<TimerData>>() {
+			@Override
+			public List<TimerData> answer(InvocationOnMock invocation) throws Throwable {
+				return new ArrayList<>(segmentElements);
+			}
+		});
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				AggregationPerformer<TimerData> aggregationPerformer = (AggregationPerformer<TimerData>) invocation.getArguments()[2];
+				for (TimerData timerData : segmentElements) {
+					aggregationPerformer.processElement(timerData);
+				}
+				return null;
+			}
+		}).when(segmentStorage).query(eq(snapshot), eq(query), Matchers.<AggregationPerformer<TimerData>> any());
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				TopElementsCollector<TimerData> collector = (TopElementsCollector<TimerData>) invocation.getArguments()[2];
+				for (TimerData timerData : segmentElements) {
+					collector.offer(timerData);
+				}
+				return null;
+			}
+		}).when(segmentStorage).query(eq(snapshot), eq(query), Matchers.<TopElementsCollector<TimerData>> any());
+
+		when(indexingTree.query(query)).thenAnswer(new Answer<List<TimerData>>() {
+			@Override
+			public List<TimerData> answer(InvocationOnMock invocation) throws Throwable {
+				return new ArrayList<>(treeElements);
+			}
+		});
+		when(indexingTree.query(eq(query), Matchers.<Comparator<TimerData>> any(), anyInt())).thenAnswer(new Answer<List<TimerData>>() {
+			@Override
+			public List<TimerData> answer(InvocationOnMock invocation) throws Throwable {
+				Comparator<TimerData> comparator = (Comparator<TimerData>) invocation.getArguments()[1];
+				int limit = (Integer) invocation.getArguments()[2];
+				List<TimerData> result = new ArrayList<>(treeElements);
+				Collections.sort(result, comparator);
+				return new ArrayList<>(result.subList(0, Math.min(limit, result.size())));
+			}
+		});
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				AggregationPerformer<TimerData> aggregationPerformer = (AggregationPerformer<TimerData>) invocation.getArguments()[1];
+				for (TimerData timerData : treeElements) {
+					aggregationPerformer.processElement(timerData);
+				}
+				return null;
+			}
+		}).when(indexingTree).query(eq(query), Matchers.<AggregationPerformer<TimerData>> any());
+	}
+
+	/**
+	 * Tests that each element is returned once.
+	 */
+	@Test
+	public void noDuplicates() {
+		List<TimerData> result = dao.executeQuery(query, false);
+
+		assertThat(result, hasSize(6));
+		assertThat(getIds(result), containsInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L));
+	}
+
+	/**
+	 * Tests that the first elements are taken from both the segments and the tree without gaps.
+	 */
+	@Test
+	public void noGapsWithComparatorAndLimit() {
+		assertThat(getIds(dao.executeQuery(query, ID_COMPARATOR, 4, false)), contains(1L, 2L, 3L, 4L));
+		assertThat(getIds(dao.executeQuery(query, Collections.reverseOrder(ID_COMPARATOR), 3, false)), contains(6L, 5L, 4L));
+		assertThat(getIds(dao.executeQuery(query, Collections.reverseOrder(ID_COMPARATOR), 6, false)), contains(6L, 5L, 4L, 3L, 2L, 1L));
+	}
+
+	/**
+	 * Tests that the elements in both segments and tree are aggregated once.
+	 */
+	@Test
+	public void aggregationNoDuplicates() {
+		List<TimerData> result = dao.executeQuery(query, new TimerDataAggregator(), false);
+
+		assertThat(result, hasSize(1));
+		assertThat(result.get(0).getCount(), is(6L));
+		assertThat(result.get(0).getDuration(), is(21d));
+	}
+
+	/**
+	 * Tests that the tree only is queried if the query has no interval.
+	 */
+	@Test
+	public void noIntervalTreeOnly() {
+		query.setFromDate(null);
+		query.setToDate(null);
+
+		assertThat(getIds(dao.executeQuery(query, false)), containsInAnyOrder(3L, 4L, 5L, 6L));
+	}
+
+	/**
+	 * Returns the ids of the elements.
+	 *
+	 * @param elements
+	 *            Elements.
+	 * @return Ids in the same order.
+	 */
+	private List<Long> getIds(List<TimerData> elements) {
+		List<Long> ids = new ArrayList<>();
+		for (TimerData timerData : elements) {
+			ids.add(timerData.getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * Concrete DAO for testing.
+	 */
+	public static class TimerDataBufferDao extends AbstractBufferDataDao<TimerData> {
+	}
+}
@@ -94,6 +94,30 @@ public class TimerPointBuilderTest extends AbstractPointBuilderTest {
 			assertThat(getFields(pointBuilder), hasEntry(Series.Methods.FIELD_MIN_CPU_TIME, (Object) data.getCpuMin()));
 			assertThat(getFields(pointBuilder), hasEntry(Series.Methods.FIELD_CPU_TIME, (Object) data.getCpuAverage()));
 			assertThat(getFields(pointBuilder), hasEntry(Series.Methods.FIELD_MAX_CPU_TIME, (Object) data.getCpuMax()));
+			assertThat(getFields(pointBuilder), not(hasKey(Series.Methods.FIELD_P50_DURATION)));
+			assertThat(getFields(pointBuilder), not(hasKey(Series.Methods.FIELD_P95_DURATION)));
+			assertThat(getFields(pointBuilder), not(hasKey(Series.Methods.FIELD_P99_DURATION)));
+		}
+
+		@Test
+		public void percentiles() throws Exception {
+			when(cachedDataService.getPlatformIdentForId(PLATFORM_ID)).thenReturn(platformIdent);
+			when(cachedDataService.getMethodIdentForId(METHOD_ID)).thenReturn(methodIdent);
+
+			long time = RandomUtils.nextLong();
+			when(data.getPlatformIdent()).thenReturn(PLATFORM_ID);
+			when(data.getMethodIdent()).thenReturn(METHOD_ID);
+			when(data.getTimeStamp()).thenReturn(new Timestamp(time));
+			when(data.isHistogramAvailable()).thenReturn(true);
+			when(data.getDurationAtPercentile(50)).thenReturn(RandomUtils.nextDouble());
+			when(data.getDurationAtPercentile(95)).thenReturn(RandomUtils.nextDouble());
+			when(data.getDurationAtPercentile(99)).thenReturn(RandomUtils.nextDouble());
+
+			Builder pointBuilder = builder.createBuilder(data);
+
+			assertThat(getFields(pointBuilder), hasEntry(Series.Methods.FIELD_P50_DURATION, (Object) data.getDurationAtPercentile(50)));
+			assertThat(getFields(pointBuilder), hasEntry(Series.Methods.FIELD_P95_DURATION, (Object) data.getDurationAtPercentile(95)));
+			assertThat(getFields(pointBuilder), hasEntry(Series.Methods.FIELD_P99_DURATION, (Object) data.getDurationAtPercentile(99)));
 		}
 
 		@Test
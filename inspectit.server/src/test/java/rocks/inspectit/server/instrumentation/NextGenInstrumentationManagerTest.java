@@ -14,6 +14,7 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -369,6 +370,67 @@ public class NextGenInstrumentationManagerTest extends TestBase {
 
 	}
 
+	public class AnalyzeBatch extends NextGenInstrumentationManagerTest {
+
+		@Mock
+		private Type type;
+
+		@Mock
+		private Type typeTwo;
+
+		private final static String HASH = "hash";
+
+		private final static String HASH_TWO = "hashTwo";
+
+		private final static long ID = 10;
+
+		@Test(expectedExceptions = BusinessException.class)
+		public void agentNotRegistered() throws BusinessException {
+			manager.analyzeBatch(ID, Collections.singletonList(HASH), Collections.singletonList(type));
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void sizeMismatch() throws BusinessException {
+			manager.analyzeBatch(ID, Arrays.asList(HASH, HASH_TWO), Collections.singletonList(type));
+		}
+
+		@Test
+		public void resultsInOrder() throws BusinessException, ClassCacheModificationException {
+			List<String> definedIPs = mock(List.class);
+			String agentName = "agentName";
+			String version = "v1";
+			when(registrationService.registerPlatformIdent(definedIPs, agentName, version)).thenReturn(ID);
+
+			manager.register(definedIPs, agentName, version);
+
+			ImmutableType nonClassType = mock(ImmutableType.class);
+			when(nonClassType.isClass()).thenReturn(false);
+			when(lookupService.findByHash(HASH)).thenReturn(nonClassType);
+			ClassType classType = mock(ClassType.class);
+			when(classType.isClass()).thenReturn(true);
+			when(classType.castToClass()).thenReturn(classType);
+			when(lookupService.findByHash(HASH_TWO)).thenReturn(classType);
+			when(configurationHolder.isInitialized()).thenReturn(true);
+			AgentConfig configuration = mock(AgentConfig.class);
+			Collection<IInstrumentationApplier> appliers = mock(Collection.class);
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(configurationHolder.getAgentConfiguration()).thenReturn(configuration);
+			when(configurationHolder.getInstrumentationAppliers()).thenReturn(appliers);
+			when(instrumentationService.addAndGetInstrumentationResult(classType, configuration, appliers)).thenReturn(instrumentationResult);
+
+			List<InstrumentationDefinition> results = manager.analyzeBatch(ID, Arrays.asList(HASH, HASH_TWO), Arrays.asList(type, typeTwo));
+
+			assertThat(results, hasSize(2));
+			assertThat(results.get(0), is(nullValue()));
+			assertThat(results.get(1), is(instrumentationResult));
+
+			verify(instrumentationService).addAndGetInstrumentationResult(classType, configuration, appliers);
+			verifyNoMoreInteractions(instrumentationService);
+			verifyZeroInteractions(modificationService);
+		}
+
+	}
+
 	public class AnalyzeJmxAttributes extends NextGenInstrumentationManagerTest {
 
 		private final static long ID = 10;
@@ -6,6 +6,8 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -473,6 +475,59 @@ public class ConfigurationResolverTest extends TestBase {
 
 	}
 
+	public static class GetConfigurationRevision extends ConfigurationResolverTest {
+
+		@Test
+		public void nullEnvironment() {
+			String revision = configurationResolver.getConfigurationRevision(null);
+
+			assertThat(revision, is(nullValue()));
+			verifyZeroInteractions(configurationInterfaceManager);
+		}
+
+		@Test
+		public void activeProfile() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenReturn(profile);
+			when(profile.isActive()).thenReturn(true);
+			when(profile.getRevision()).thenReturn(3);
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env@2;" + PROFILE_ID + "@3"));
+		}
+
+		@Test
+		public void profileNotActive() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenReturn(profile);
+			when(profile.isActive()).thenReturn(false);
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env@2"));
+		}
+
+		@Test
+		public void profileRevisionChanged() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenReturn(profile);
+			when(profile.isActive()).thenReturn(true);
+			when(profile.getRevision()).thenReturn(3, 4);
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+			String changedRevision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is(not(changedRevision)));
+		}
+	}
+
 	public static class GetJmxMonitoringAppliers extends ConfigurationResolverTest {
 
 		@Mock
@@ -68,6 +68,7 @@ public class JmxMonitoringApplierTest extends TestBase {
 			boolean isIs = false;
 			boolean readable = true;
 			boolean writable = false;
+			long collectInterval = 10000L;
 			when(filter.matches(assignment, descriptor)).thenReturn(true);
 			when(agentConfig.getPlatformId()).thenReturn(platformId);
 			when(descriptor.getAttributeName()).thenReturn(attributeName);
@@ -78,11 +79,13 @@ public class JmxMonitoringApplierTest extends TestBase {
 			when(descriptor.ismBeanAttributeIsIs()).thenReturn(isIs);
 			when(descriptor.ismBeanAttributeIsReadable()).thenReturn(readable);
 			when(descriptor.ismBeanAttributeIsWritable()).thenReturn(writable);
+			when(assignment.getCollectInterval()).thenReturn(collectInterval);
 
 			boolean added = applier.addMonitoringPoint(agentConfig, descriptor);
 
 			assertThat(added, is(true));
 			verify(registrationService).registerJmxSensorDefinitionDataIdent(platformId, objectName, attributeName, attributeDecs, attributeType, isIs, readable, writable);
+			verify(descriptor).setCollectInterval(collectInterval);
 		}
 
 		@Test
@@ -114,6 +114,7 @@ public class MethodSensorInstrumentationApplierTest extends TestBase {
 
 			IMethodSensorConfig methodSensorConfig = mock(IMethodSensorConfig.class);
 			when(methodSensorConfig.getClassName()).thenReturn(sensorClassName);
+			when(methodSensorConfig.isParametersNeeded()).thenReturn(true);
 			when(environment.getMethodSensorTypeConfig(Matchers.<Class<? extends IMethodSensorConfig>> any())).thenReturn(methodSensorConfig);
 
 			String packageName = "my.favorite.package";
@@ -154,6 +155,8 @@ public class MethodSensorInstrumentationApplierTest extends TestBase {
 			assertThat(rsc.getSensorIds().length, is(1));
 			assertThat(rsc.getSensorIds()[0], is(sensorId));
 			assertThat(rsc.getSettings(), is(settings));
+			assertThat(rsc.isParametersNeeded(), is(true));
+			assertThat(rsc.isReturnValueNeeded(), is(false));
 			assertThat(instrumentationConfig.getSpecialInstrumentationPoint(), is(nullValue()));
 		}
 
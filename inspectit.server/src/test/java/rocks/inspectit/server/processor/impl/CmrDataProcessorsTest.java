@@ -181,6 +181,60 @@ public class CmrDataProcessorsTest {
 		assertThat(child.getErrorMessage(), is("parentMsg"));
 	}
 
+	/**
+	 * Tests that the {@link ExceptionMessageCmrProcessor} restores the stack trace by fingerprint.
+	 */
+	@Test
+	public void exceptionMessageProcessorStackTraceFingerprint() {
+		ExceptionMessageCmrProcessor processor = new ExceptionMessageCmrProcessor();
+
+		ExceptionSensorData first = new ExceptionSensorData();
+		first.setThrowableType("java.lang.Exception");
+		first.setErrorMessage("first");
+		first.setStackTrace("java.lang.Exception: first\n\tat Class.method(Class.java:10)\n");
+		first.setStackTraceFingerprint(11L);
+		processor.process(first, entityManager);
+
+		ExceptionSensorData second = new ExceptionSensorData();
+		second.setThrowableType("java.lang.Exception");
+		second.setErrorMessage("second");
+		second.setStackTraceFingerprint(11L);
+		processor.process(second, entityManager);
+
+		ExceptionSensorData unknown = new ExceptionSensorData();
+		unknown.setThrowableType("java.lang.Exception");
+		unknown.setStackTraceFingerprint(12L);
+		processor.process(unknown, entityManager);
+
+		assertThat(first.getStackTrace(), is("java.lang.Exception: first\n\tat Class.method(Class.java:10)\n"));
+		assertThat(second.getStackTrace(), is("java.lang.Exception: second\n\tat Class.method(Class.java:10)\n"));
+		assertThat(unknown.getStackTrace(), is(nullValue()));
+	}
+
+	/**
+	 * Tests that the {@link ExceptionMessageCmrProcessor} does not restore the messages of the
+	 * first occurrence.
+	 */
+	@Test
+	public void exceptionMessageProcessorStackTraceFingerprintCauseMessages() {
+		ExceptionMessageCmrProcessor processor = new ExceptionMessageCmrProcessor();
+
+		ExceptionSensorData first = new ExceptionSensorData();
+		first.setThrowableType("java.lang.Exception");
+		first.setErrorMessage("first\nline");
+		first.setStackTrace("java.lang.Exception: first\nline\n\tat Class.method(Class.java:10)\nCaused by: java.io.IOException: cause\nmessage\n\tat Other.method(Other.java:5)\n\t... 1 more\n");
+		first.setStackTraceFingerprint(11L);
+		processor.process(first, entityManager);
+
+		ExceptionSensorData second = new ExceptionSensorData();
+		second.setThrowableType("java.lang.Exception");
+		second.setErrorMessage("second");
+		second.setStackTraceFingerprint(11L);
+		processor.process(second, entityManager);
+
+		assertThat(second.getStackTrace(), is("java.lang.Exception: second\n\tat Class.method(Class.java:10)\nCaused by: java.io.IOException\n\tat Other.method(Other.java:5)\n\t... 1 more\n"));
+	}
+
 	/**
 	 * Tests the {@link IndexerCmrProcessor}.
 	 */
@@ -456,6 +510,42 @@ public class CmrDataProcessorsTest {
 		assertThat(childTimer.getInvocationParentsIdSet(), hasItem(10L));
 	}
 
+	/**
+	 * Timer data of the folded invocation processing with {@link InvocationModifierCmrProcessor}.
+	 */
+	@Test
+	public void invocationProcessorFoldedTimerData() {
+		InvocationModifierCmrProcessor processor = new InvocationModifierCmrProcessor(Collections.singletonList(chainedProcessor));
+
+		InvocationSequenceData parent = new InvocationSequenceData();
+		parent.setId(10L);
+		TimerData parentTimer = new TimerData();
+		parentTimer.setCount(1L);
+		parentTimer.setDuration(10L);
+		parent.setTimerData(parentTimer);
+
+		InvocationSequenceData child = new InvocationSequenceData();
+		child.setId(20L);
+		child.setFoldedCount(3L);
+		TimerData childTimer = new TimerData();
+		childTimer.setCount(4L);
+		childTimer.setDuration(8L);
+		child.setTimerData(childTimer);
+		child.setParentSequence(parent);
+
+		parent.setNestedSequences(Collections.singletonList(child));
+
+		processor.process(parent, entityManager);
+
+		// exclusive times of the folded timer are for all calls
+		assertThat(parentTimer.getExclusiveDuration(), is(2d));
+		assertThat(parentTimer.getExclusiveCount(), is(1L));
+		assertThat(childTimer.getExclusiveDuration(), is(8d));
+		assertThat(childTimer.getExclusiveCount(), is(4L));
+		assertThat(childTimer.getExclusiveMax(), is(2d));
+		assertThat(childTimer.getExclusiveMin(), is(2d));
+	}
+
 	/**
 	 * Sql data processing with {@link InvocationModifierCmrProcessor}.
 	 */
@@ -218,6 +218,65 @@ public class KryoNetIntegrationTest extends AbstractTransactionalTestNGLogSuppor
 		}
 	}
 
+	public class CompressedSend extends KryoNetIntegrationTest {
+
+		@Test
+		public void compressible() throws IOException, InterruptedException {
+			List<String> toSend = new ArrayList<>();
+			for (int i = 0; i < 1024; i++) {
+				toSend.add("select * from table where id = ?");
+			}
+
+			client.setCompressionThreshold(0);
+			try {
+				client.sendTCP(toSend);
+
+				// sleep as the receiving is done in another thread
+				Thread.sleep(100);
+
+				verify(listener).received(Matchers.<Connection> anyObject(), eq(toSend));
+			} finally {
+				client.setCompressionThreshold(-1);
+			}
+		}
+
+		@Test(invocationCount = 10)
+		public void multiThreaded() throws InterruptedException, BrokenBarrierException, IOException {
+			int numThreads = 3;
+			int numObjects = 1024;
+
+			Set<Object> sendingObjectsSet = getObjectToSend(numObjects);
+			Queue<Object> queue = new ArrayBlockingQueue<>(numObjects);
+			queue.addAll(sendingObjectsSet);
+
+			client.setCompressionThreshold(0);
+			try {
+				CyclicBarrier cyclicBarrier = new CyclicBarrier(numThreads + 1);
+				List<Thread> threads = new ArrayList<>();
+				for (int i = 0; i < numThreads; i++) {
+					Sender sender = new Sender(cyclicBarrier, queue);
+					threads.add(sender);
+					sender.start();
+				}
+
+				cyclicBarrier.await();
+
+				for (Thread thread : threads) {
+					thread.join(10000);
+				}
+
+				// sleep as the receiving is done in another thread
+				Thread.sleep(100);
+
+				for (Object toSend : sendingObjectsSet) {
+					verify(listener).received(Matchers.<Connection> anyObject(), eq(toSend));
+				}
+			} finally {
+				client.setCompressionThreshold(-1);
+			}
+		}
+	}
+
 	protected Set<Object> getObjectToSend(int numObjects) {
 		Random random = new Random();
 		// use set to avoid possibility of same to send
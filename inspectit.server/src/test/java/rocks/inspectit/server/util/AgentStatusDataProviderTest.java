@@ -11,6 +11,8 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -135,6 +137,32 @@ public class AgentStatusDataProviderTest extends TestBase {
 		}
 	}
 
+	public class RegisterGovernedMethods extends AgentStatusDataProviderTest {
+
+		@Test
+		public void neverConnected() {
+			long platformIdent = 10L;
+
+			agentStatusDataProvider.registerGovernedMethods(platformIdent, Collections.singletonMap(1L, new long[] { 8L, 100000L }));
+
+			AgentStatusData agentStatusData = agentStatusDataProvider.getAgentStatusDataMap().get(platformIdent);
+			assertThat(agentStatusData, is(nullValue()));
+		}
+
+		@Test
+		public void connected() {
+			long platformIdent = 10L;
+			Map<Long, long[]> governedMethods = Collections.singletonMap(1L, new long[] { 8L, 100000L });
+			agentStatusDataProvider.registerConnected(platformIdent);
+
+			agentStatusDataProvider.registerGovernedMethods(platformIdent, governedMethods);
+
+			AgentStatusData agentStatusData = agentStatusDataProvider.getAgentStatusDataMap().get(platformIdent);
+			assertThat(agentStatusData, is(notNullValue()));
+			assertThat(agentStatusData.getGovernedMethods(), is(governedMethods));
+		}
+	}
+
 	public class HandleKeepAliveSignal extends AgentStatusDataProviderTest {
 
 		@Test
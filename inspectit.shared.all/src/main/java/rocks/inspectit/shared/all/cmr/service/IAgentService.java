@@ -63,6 +63,25 @@ public interface IAgentService {
 	 */
 	InstrumentationDefinition analyze(long platformIdent, String hash, Type type) throws BusinessException;
 
+	/**
+	 * Analyzes the given types in one call. Types are analyzed in the given order, thus the
+	 * depending types should be placed before the types that depend on them.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashes
+	 *            Class hash codes, one for each type.
+	 * @param types
+	 *            Parsed {@link Type}s representing classes being loaded on the agent.
+	 * @return List of instrumentation definitions in the same order as the given types. Element of
+	 *         the list is <code>null</code> if nothing should be instrumented for the type on the
+	 *         same position.
+	 * @throws BusinessException
+	 *             If agent with specified id does not exist.
+	 * @see #analyze(long, String, Type)
+	 */
+	List<InstrumentationDefinition> analyzeBatch(long platformIdent, List<String> hashes, List<Type> types) throws BusinessException;
+
 	/**
 	 * Informs the CMR that the methods have been instrumented on the agent.
 	 * 
@@ -73,6 +92,20 @@ public interface IAgentService {
 	 */
 	void instrumentationApplied(long platformId, Map<Long, long[]> methodToSensorMap);
 
+	/**
+	 * Informs the CMR about the methods the agent overhead governor currently samples or only
+	 * counts. The map replaces the one reported before, thus an empty map means that no method is
+	 * governed anymore.
+	 *
+	 * @param platformId
+	 *            Id of the agent.
+	 * @param governedMethods
+	 *            Map containing method id as key and the sampling rate and calls per second as
+	 *            value. Sampling rate <code>N</code> means that the sensors are executed on one of
+	 *            <code>N</code> calls, zero that the calls are only counted.
+	 */
+	void overheadGoverned(long platformId, Map<Long, long[]> governedMethods);
+
 	/**
 	 * Analyzes the given {@link JmxAttributeDescriptor} and decides which ones will be monitored,
 	 * based on the current configuration.
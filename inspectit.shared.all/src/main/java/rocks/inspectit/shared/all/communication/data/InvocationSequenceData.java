@@ -95,6 +95,18 @@ public class InvocationSequenceData extends MethodSensorData {
 	 */
 	private long childCount = 0;
 
+	/**
+	 * The count of the identical successive invocations that were folded into this one by the
+	 * agent. Zero if nothing was folded.
+	 */
+	private long foldedCount = 0;
+
+	/**
+	 * The count of the nested sequences (all levels) that were not recorded by the agent because
+	 * the size limit of the invocation sequence was reached.
+	 */
+	private long truncatedChildCount = 0;
+
 	/**
 	 * If the {@link SqlStatementData} is available in this or one of the nested invocations.
 	 */
@@ -344,6 +356,44 @@ public class InvocationSequenceData extends MethodSensorData {
 		return childCount;
 	}
 
+	/**
+	 * Gets {@link #foldedCount}.
+	 *
+	 * @return {@link #foldedCount}
+	 */
+	public long getFoldedCount() {
+		return foldedCount;
+	}
+
+	/**
+	 * Sets {@link #foldedCount}.
+	 *
+	 * @param foldedCount
+	 *            New value for {@link #foldedCount}
+	 */
+	public void setFoldedCount(long foldedCount) {
+		this.foldedCount = foldedCount;
+	}
+
+	/**
+	 * Gets {@link #truncatedChildCount}.
+	 *
+	 * @return {@link #truncatedChildCount}
+	 */
+	public long getTruncatedChildCount() {
+		return truncatedChildCount;
+	}
+
+	/**
+	 * Sets {@link #truncatedChildCount}.
+	 *
+	 * @param truncatedChildCount
+	 *            New value for {@link #truncatedChildCount}
+	 */
+	public void setTruncatedChildCount(long truncatedChildCount) {
+		this.truncatedChildCount = truncatedChildCount;
+	}
+
 	/**
 	 * Gets {@link #nestedSqlStatements}.
 	 *
@@ -494,7 +544,7 @@ public class InvocationSequenceData extends MethodSensorData {
 	@Override
 	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
 		long size = super.getObjectSize(objectSizes, doAlign);
-		size += objectSizes.getPrimitiveTypesSize(8, 0, 2, 0, 2, 3);
+		size += objectSizes.getPrimitiveTypesSize(8, 0, 2, 0, 4, 3);
 		size += objectSizes.getSizeOf(timerData);
 		size += objectSizes.getSizeOf(loggingData);
 		size += objectSizes.getSizeOf(sqlStatementData);
@@ -533,6 +583,8 @@ public class InvocationSequenceData extends MethodSensorData {
 		InvocationSequenceData clone = new InvocationSequenceData(this.getTimeStamp(), this.getPlatformIdent(), this.getSensorTypeIdent(), this.getMethodIdent());
 		clone.setId(this.getId());
 		clone.setChildCount(this.getChildCount());
+		clone.setFoldedCount(this.getFoldedCount());
+		clone.setTruncatedChildCount(this.getTruncatedChildCount());
 		clone.setDuration(this.getDuration());
 		clone.setEnd(this.getEnd());
 		clone.setNestedSequences(Collections.<InvocationSequenceData> emptyList());
@@ -1,11 +1,13 @@
 package rocks.inspectit.shared.all.communication.data;
 
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.persistence.Entity;
 import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 
 import org.codehaus.jackson.annotate.JsonAutoDetect;
 import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
@@ -14,6 +16,7 @@ import org.codehaus.jackson.annotate.JsonTypeInfo;
 
 import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.util.HistogramUtil;
 
 /**
  * The timer data class stores information about the execution time of a java method.
@@ -112,6 +115,13 @@ public class TimerData extends InvocationAwareData {
 	@JsonIgnore
 	private boolean charting;
 
+	/**
+	 * Optional histogram of the durations, see {@link HistogramUtil}. Only available if the data
+	 * was collected with a histogram timer storage.
+	 */
+	@Transient
+	private long[] histogram;
+
 	/**
 	 * Default no-args constructor.
 	 */
@@ -527,6 +537,48 @@ public class TimerData extends InvocationAwareData {
 		this.charting = charting;
 	}
 
+	/**
+	 * Gets {@link #histogram}.
+	 *
+	 * @return {@link #histogram}
+	 */
+	public long[] getHistogram() {
+		return histogram;
+	}
+
+	/**
+	 * Sets {@link #histogram}.
+	 *
+	 * @param histogram
+	 *            New value for {@link #histogram}
+	 */
+	public void setHistogram(long[] histogram) {
+		this.histogram = histogram;
+	}
+
+	/**
+	 * Whether or not this timer data contains the histogram of the durations.
+	 *
+	 * @return Whether or not this timer data contains the histogram of the durations.
+	 */
+	public boolean isHistogramAvailable() {
+		return null != histogram;
+	}
+
+	/**
+	 * Returns the duration at the given percentile based on the {@link #histogram}.
+	 *
+	 * @param percentile
+	 *            Percentile between 0 and 100.
+	 * @return Duration at the percentile or <code>-1</code> if no histogram is available.
+	 */
+	public double getDurationAtPercentile(double percentile) {
+		if (null == histogram) {
+			return -1;
+		}
+		return HistogramUtil.getValueAtPercentile(histogram, percentile);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -542,7 +594,10 @@ public class TimerData extends InvocationAwareData {
 	@Override
 	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
 		long size = super.getObjectSize(objectSizes, doAlign);
-		size += objectSizes.getPrimitiveTypesSize(0, 1, 0, 0, 2, 10);
+		size += objectSizes.getPrimitiveTypesSize(1, 1, 0, 0, 2, 10);
+		if (null != histogram) {
+			size += objectSizes.getSizeOfPrimitiveArray(histogram.length, objectSizes.getPrimitiveTypesSize(0, 0, 0, 0, 1, 0));
+		}
 		if (doAlign) {
 			return objectSizes.alignTo8Bytes(size);
 		} else {
@@ -614,6 +669,12 @@ public class TimerData extends InvocationAwareData {
 			this.calculateExclusiveMax(timerData.getExclusiveMax());
 			this.calculateExclusiveMin(timerData.getExclusiveMin());
 		}
+		if (timerData.isHistogramAvailable()) {
+			if (null == histogram) {
+				histogram = HistogramUtil.newHistogram();
+			}
+			HistogramUtil.merge(histogram, timerData.getHistogram());
+		}
 		this.charting = this.charting | timerData.isCharting();
 	}
 
@@ -648,6 +709,7 @@ public class TimerData extends InvocationAwareData {
 		temp = Double.doubleToLongBits(variance);
 		result = (prime * result) + (int) (temp ^ (temp >>> 32));
 		result = (prime * result) + (charting ? 1231 : 1237);
+		result = (prime * result) + Arrays.hashCode(histogram);
 		return result;
 	}
 
@@ -705,6 +767,9 @@ public class TimerData extends InvocationAwareData {
 		if (charting != other.charting) {
 			return false;
 		}
+		if (!Arrays.equals(histogram, other.histogram)) {
+			return false;
+		}
 		return true;
 	}
 
@@ -1,6 +1,7 @@
 package rocks.inspectit.shared.all.communication.data.cmr;
 
 import java.io.Serializable;
+import java.util.Map;
 
 /**
  * Class that holds agent status data.
@@ -70,6 +71,12 @@ public class AgentStatusData implements Serializable {
 	 */
 	private long serverTimestamp;
 
+	/**
+	 * Methods sampled or only counted by the agent overhead governor. Method id as key and the
+	 * sampling rate and calls per second as value.
+	 */
+	private Map<Long, long[]> governedMethods;
+
 	/**
 	 * No-arg constructor. Sets {@link #agentConnection} to {@link AgentConnection#NEVER_CONNECTED}.
 	 */
@@ -181,6 +188,25 @@ public class AgentStatusData implements Serializable {
 		this.connectionTimestamp = connectionTimestamp;
 	}
 
+	/**
+	 * Gets {@link #governedMethods}.
+	 *
+	 * @return {@link #governedMethods}
+	 */
+	public Map<Long, long[]> getGovernedMethods() {
+		return governedMethods;
+	}
+
+	/**
+	 * Sets {@link #governedMethods}.
+	 *
+	 * @param governedMethods
+	 *            New value for {@link #governedMethods}
+	 */
+	public void setGovernedMethods(Map<Long, long[]> governedMethods) {
+		this.governedMethods = governedMethods;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -193,6 +219,7 @@ public class AgentStatusData implements Serializable {
 		result = (prime * result) + (int) (serverTimestamp ^ (serverTimestamp >>> 32));
 		result = (prime * result) + (int) (lastKeepAliveTimestamp ^ (lastKeepAliveTimestamp >>> 32));
 		result = (prime * result) + (int) (connectionTimestamp ^ (connectionTimestamp >>> 32));
+		result = (prime * result) + ((governedMethods == null) ? 0 : governedMethods.hashCode());
 		return result;
 	}
 
@@ -226,6 +253,13 @@ public class AgentStatusData implements Serializable {
 		if (connectionTimestamp != other.connectionTimestamp) {
 			return false;
 		}
+		if (governedMethods == null) {
+			if (other.governedMethods != null) {
+				return false;
+			}
+		} else if (!governedMethods.equals(other.governedMethods)) {
+			return false;
+		}
 		return true;
 	}
 
@@ -89,6 +89,36 @@ public class TimerRawVO extends MethodSensorData {
 		container.add(time, cpuTime);
 	}
 
+	/**
+	 * Adds a new time value that stands for the given amount of calls to the current data
+	 * container.
+	 *
+	 * @param time
+	 *            The time value.
+	 * @param weight
+	 *            Amount of calls the value stands for.
+	 */
+	public void add(double time, long weight) {
+		createContainerIfNecessary();
+		container.add(time, weight);
+	}
+
+	/**
+	 * Adds a new time and cpu time value that stand for the given amount of calls to the current
+	 * data container.
+	 *
+	 * @param time
+	 *            The time value.
+	 * @param cpuTime
+	 *            The cpu time value.
+	 * @param weight
+	 *            Amount of calls the values stand for.
+	 */
+	public void add(double time, double cpuTime, long weight) {
+		createContainerIfNecessary();
+		container.add(time, cpuTime, weight);
+	}
+
 	/**
 	 * Creates a new container if it is necessary.
 	 */
@@ -122,7 +152,7 @@ public class TimerRawVO extends MethodSensorData {
 
 		double min = Double.MAX_VALUE;
 		double max = 0.0d;
-		int count = 0;
+		long count = 0;
 		double duration = 0.0d;
 
 		double cpuMin = Double.MAX_VALUE;
@@ -133,21 +163,21 @@ public class TimerRawVO extends MethodSensorData {
 			values = container.getData();
 			for (int j = 0; j < container.getCount(); j++) {
 				value = values[j];
-				duration += value;
+				duration += value * container.getWeight(j);
 				if (value < min) {
 					min = value;
 				}
 				if (value > max) {
 					max = value;
 				}
+				count += container.getWeight(j);
 			}
-			count += container.getCount();
 
 			values = container.getCpuData();
 			if (null != values) {
 				for (int j = 0; j < container.getCount(); j++) {
 					value = values[j];
-					cpuDuration += value;
+					cpuDuration += value * container.getWeight(j);
 					if (value < cpuMin) {
 						cpuMin = value;
 					}
@@ -203,6 +233,12 @@ public class TimerRawVO extends MethodSensorData {
 		 */
 		private double[] cpuData = new double[MAX_SIZE];
 
+		/**
+		 * Amount of calls each value stands for. Created only when a value standing for more than
+		 * one call is added, <code>null</code> means every value stands for one call.
+		 */
+		private long[] weights;
+
 		/**
 		 * The current position/count.
 		 */
@@ -237,6 +273,66 @@ public class TimerRawVO extends MethodSensorData {
 			count++;
 		}
 
+		/**
+		 * Adds a new time value that stands for the given amount of calls to the current data
+		 * container.
+		 *
+		 * @param time
+		 *            The time value.
+		 * @param weight
+		 *            Amount of calls the value stands for.
+		 */
+		public void add(double time, long weight) {
+			setWeight(weight);
+			add(time);
+		}
+
+		/**
+		 * Adds the given time and cpu time that stand for the given amount of calls to this timer.
+		 *
+		 * @param time
+		 *            the elapsed time.
+		 * @param cpuTime
+		 *            the cpu time.
+		 * @param weight
+		 *            Amount of calls the values stand for.
+		 */
+		public void add(double time, double cpuTime, long weight) {
+			setWeight(weight);
+			add(time, cpuTime);
+		}
+
+		/**
+		 * Sets the weight of the value at the current position.
+		 *
+		 * @param weight
+		 *            Amount of calls the value stands for.
+		 */
+		private void setWeight(long weight) {
+			if (null == weights) {
+				if (1L == weight) {
+					return;
+				}
+				weights = new long[MAX_SIZE];
+				Arrays.fill(weights, 1L);
+			}
+			weights[count] = weight;
+		}
+
+		/**
+		 * Returns the amount of calls the value at the given position stands for.
+		 *
+		 * @param index
+		 *            Position of the value.
+		 * @return Amount of calls the value stands for.
+		 */
+		public long getWeight(int index) {
+			if (null == weights) {
+				return 1L;
+			}
+			return weights[index];
+		}
+
 		/**
 		 * Returns if this container is full.
 		 *
@@ -303,6 +399,7 @@ public class TimerRawVO extends MethodSensorData {
 			result = (prime * result) + count;
 			result = (prime * result) + TimerRawContainer.hashCode(cpuData);
 			result = (prime * result) + TimerRawContainer.hashCode(data);
+			result = (prime * result) + Arrays.hashCode(weights);
 			return result;
 		}
 
@@ -330,6 +427,9 @@ public class TimerRawVO extends MethodSensorData {
 			if (!Arrays.equals(data, other.data)) {
 				return false;
 			}
+			if (!Arrays.equals(weights, other.weights)) {
+				return false;
+			}
 			return true;
 		}
 
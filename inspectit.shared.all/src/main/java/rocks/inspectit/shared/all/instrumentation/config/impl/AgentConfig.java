@@ -80,6 +80,37 @@ public class AgentConfig {
 	 */
 	private String configurationInfo;
 
+	/**
+	 * Revision of the configuration (environment and active profiles) the agent configuration is
+	 * created for. Agent can use it to check if the locally persisted instrumentation definitions
+	 * are still valid.
+	 */
+	private String configurationRevision;
+
+	/**
+	 * Data sent to the CMR with a serialized size bigger than this threshold in bytes should be
+	 * compressed. Negative value means that the CMR does not support compressed transfer.
+	 */
+	private int transferCompressionThreshold = -1;
+
+	/**
+	 * If the strings in the data sent to the CMR should be encoded with the connection string
+	 * dictionary.
+	 */
+	private boolean transferStringDictionary;
+
+	/**
+	 * Max calls per second of one method that are executed with the hooks. Zero or negative
+	 * value means no limit.
+	 */
+	private int governorCallRateBudget;
+
+	/**
+	 * Max time in milliseconds per second that may be spent in the hooks of all methods. Zero or
+	 * negative value means no limit.
+	 */
+	private int governorOverheadBudget;
+
 	/**
 	 * Gets {@link #platformId}.
 	 *
@@ -348,6 +379,101 @@ public class AgentConfig {
 		this.configurationInfo = configurationInfo;
 	}
 
+	/**
+	 * Gets {@link #configurationRevision}.
+	 *
+	 * @return {@link #configurationRevision}
+	 */
+	public String getConfigurationRevision() {
+		return configurationRevision;
+	}
+
+	/**
+	 * Sets {@link #configurationRevision}.
+	 *
+	 * @param configurationRevision
+	 *            New value for {@link #configurationRevision}
+	 */
+	public void setConfigurationRevision(String configurationRevision) {
+		this.configurationRevision = configurationRevision;
+	}
+
+	/**
+	 * Gets {@link #transferCompressionThreshold}.
+	 *
+	 * @return {@link #transferCompressionThreshold}
+	 */
+	public int getTransferCompressionThreshold() {
+		return transferCompressionThreshold;
+	}
+
+	/**
+	 * Sets {@link #transferCompressionThreshold}.
+	 *
+	 * @param transferCompressionThreshold
+	 *            New value for {@link #transferCompressionThreshold}
+	 */
+	public void setTransferCompressionThreshold(int transferCompressionThreshold) {
+		this.transferCompressionThreshold = transferCompressionThreshold;
+	}
+
+	/**
+	 * Gets {@link #transferStringDictionary}.
+	 *
+	 * @return {@link #transferStringDictionary}
+	 */
+	public boolean isTransferStringDictionary() {
+		return transferStringDictionary;
+	}
+
+	/**
+	 * Sets {@link #transferStringDictionary}.
+	 *
+	 * @param transferStringDictionary
+	 *            New value for {@link #transferStringDictionary}
+	 */
+	public void setTransferStringDictionary(boolean transferStringDictionary) {
+		this.transferStringDictionary = transferStringDictionary;
+	}
+
+	/**
+	 * Gets {@link #governorCallRateBudget}.
+	 *
+	 * @return {@link #governorCallRateBudget}
+	 */
+	public int getGovernorCallRateBudget() {
+		return governorCallRateBudget;
+	}
+
+	/**
+	 * Sets {@link #governorCallRateBudget}.
+	 *
+	 * @param governorCallRateBudget
+	 *            New value for {@link #governorCallRateBudget}
+	 */
+	public void setGovernorCallRateBudget(int governorCallRateBudget) {
+		this.governorCallRateBudget = governorCallRateBudget;
+	}
+
+	/**
+	 * Gets {@link #governorOverheadBudget}.
+	 *
+	 * @return {@link #governorOverheadBudget}
+	 */
+	public int getGovernorOverheadBudget() {
+		return governorOverheadBudget;
+	}
+
+	/**
+	 * Sets {@link #governorOverheadBudget}.
+	 *
+	 * @param governorOverheadBudget
+	 *            New value for {@link #governorOverheadBudget}
+	 */
+	public void setGovernorOverheadBudget(int governorOverheadBudget) {
+		this.governorOverheadBudget = governorOverheadBudget;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -358,6 +484,7 @@ public class AgentConfig {
 		result = (prime * result) + ((this.bufferStrategyConfig == null) ? 0 : this.bufferStrategyConfig.hashCode());
 		result = (prime * result) + (this.classCacheExistsOnCmr ? 1231 : 1237);
 		result = (prime * result) + ((this.configurationInfo == null) ? 0 : this.configurationInfo.hashCode());
+		result = (prime * result) + ((this.configurationRevision == null) ? 0 : this.configurationRevision.hashCode());
 		result = (prime * result) + ((this.exceptionSensorTypeConfig == null) ? 0 : this.exceptionSensorTypeConfig.hashCode());
 		result = (prime * result) + ((this.excludeClassesPatterns == null) ? 0 : this.excludeClassesPatterns.hashCode());
 		result = (prime * result) + ((this.initialInstrumentationResults == null) ? 0 : this.initialInstrumentationResults.hashCode());
@@ -367,6 +494,10 @@ public class AgentConfig {
 		result = (prime * result) + ((this.platformSensorTypeConfigs == null) ? 0 : this.platformSensorTypeConfigs.hashCode());
 		result = (prime * result) + ((this.sendingStrategyConfig == null) ? 0 : this.sendingStrategyConfig.hashCode());
 		result = (prime * result) + ((this.specialMethodSensorTypeConfigs == null) ? 0 : this.specialMethodSensorTypeConfigs.hashCode());
+		result = (prime * result) + this.transferCompressionThreshold;
+		result = (prime * result) + (this.transferStringDictionary ? 1231 : 1237);
+		result = (prime * result) + this.governorCallRateBudget;
+		result = (prime * result) + this.governorOverheadBudget;
 		return result;
 	}
 
@@ -402,6 +533,13 @@ public class AgentConfig {
 		} else if (!this.configurationInfo.equals(other.configurationInfo)) {
 			return false;
 		}
+		if (this.configurationRevision == null) {
+			if (other.configurationRevision != null) {
+				return false;
+			}
+		} else if (!this.configurationRevision.equals(other.configurationRevision)) {
+			return false;
+		}
 		if (this.exceptionSensorTypeConfig == null) {
 			if (other.exceptionSensorTypeConfig != null) {
 				return false;
@@ -461,6 +599,18 @@ public class AgentConfig {
 		} else if (!this.specialMethodSensorTypeConfigs.equals(other.specialMethodSensorTypeConfigs)) {
 			return false;
 		}
+		if (this.transferCompressionThreshold != other.transferCompressionThreshold) {
+			return false;
+		}
+		if (this.transferStringDictionary != other.transferStringDictionary) {
+			return false;
+		}
+		if (this.governorCallRateBudget != other.governorCallRateBudget) {
+			return false;
+		}
+		if (this.governorOverheadBudget != other.governorOverheadBudget) {
+			return false;
+		}
 		return true;
 	}
 
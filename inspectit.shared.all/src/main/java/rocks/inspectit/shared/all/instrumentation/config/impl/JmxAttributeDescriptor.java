@@ -53,6 +53,12 @@ public class JmxAttributeDescriptor {
 	 */
 	private boolean mBeanAttributeIsWritable;
 
+	/**
+	 * Interval in milliseconds in which the attribute is collected. Zero or negative for the
+	 * default interval of the sensor.
+	 */
+	private long collectInterval;
+
 	/**
 	 * Gets {@link #id}.
 	 *
@@ -224,6 +230,25 @@ public class JmxAttributeDescriptor {
 		this.mBeanAttributeIsWritable = mBeanAttributeIsWritable;
 	}
 
+	/**
+	 * Gets {@link #collectInterval}.
+	 *
+	 * @return {@link #collectInterval}
+	 */
+	public long getCollectInterval() {
+		return collectInterval;
+	}
+
+	/**
+	 * Sets {@link #collectInterval}.
+	 *
+	 * @param collectInterval
+	 *            New value for {@link #collectInterval}
+	 */
+	public void setCollectInterval(long collectInterval) {
+		this.collectInterval = collectInterval;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
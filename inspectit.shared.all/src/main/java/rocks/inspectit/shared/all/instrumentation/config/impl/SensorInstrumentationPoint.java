@@ -9,6 +9,7 @@ import java.util.Map;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
 
+import rocks.inspectit.shared.all.communication.data.ParameterContentType;
 import rocks.inspectit.shared.all.instrumentation.config.IMethodInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
 
@@ -59,6 +60,18 @@ public class SensorInstrumentationPoint implements IMethodInstrumentationPoint {
 	 */
 	private List<PropertyPathStart> propertyAccessorList;
 
+	/**
+	 * If any sensor on the method needs the method parameters. If not, the parameters are not
+	 * passed to the sensors, so that no parameter array is created per invocation.
+	 */
+	private boolean parametersNeeded;
+
+	/**
+	 * If any sensor on the method needs the return value. If not, the return value is not passed
+	 * to the sensors, so that primitive return values are not boxed per invocation.
+	 */
+	private boolean returnValueNeeded;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -230,6 +243,13 @@ public class SensorInstrumentationPoint implements IMethodInstrumentationPoint {
 			this.propertyAccessorList = new ArrayList<PropertyPathStart>(1);
 		}
 		this.propertyAccessorList.add(propertyPathStart);
+
+		// the property accessor reading parameters or return value needs them
+		if (ParameterContentType.PARAM.equals(propertyPathStart.getContentType())) {
+			parametersNeeded = true;
+		} else if (ParameterContentType.RETURN.equals(propertyPathStart.getContentType())) {
+			returnValueNeeded = true;
+		}
 	}
 
 	/**
@@ -239,4 +259,42 @@ public class SensorInstrumentationPoint implements IMethodInstrumentationPoint {
 		return CollectionUtils.isNotEmpty(propertyAccessorList);
 	}
 
+	/**
+	 * Gets {@link #parametersNeeded}.
+	 *
+	 * @return {@link #parametersNeeded}
+	 */
+	public boolean isParametersNeeded() {
+		return parametersNeeded;
+	}
+
+	/**
+	 * Sets {@link #parametersNeeded}.
+	 *
+	 * @param parametersNeeded
+	 *            New value for {@link #parametersNeeded}
+	 */
+	public void setParametersNeeded(boolean parametersNeeded) {
+		this.parametersNeeded = parametersNeeded;
+	}
+
+	/**
+	 * Gets {@link #returnValueNeeded}.
+	 *
+	 * @return {@link #returnValueNeeded}
+	 */
+	public boolean isReturnValueNeeded() {
+		return returnValueNeeded;
+	}
+
+	/**
+	 * Sets {@link #returnValueNeeded}.
+	 *
+	 * @param returnValueNeeded
+	 *            New value for {@link #returnValueNeeded}
+	 */
+	public void setReturnValueNeeded(boolean returnValueNeeded) {
+		this.returnValueNeeded = returnValueNeeded;
+	}
+
 }
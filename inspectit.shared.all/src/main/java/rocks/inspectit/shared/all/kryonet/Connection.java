@@ -69,6 +69,31 @@ public class Connection {
 		tcp = new TcpConnection(serialization, writeBufferSize, objectBufferSize, streamProvider);
 	}
 
+	/**
+	 * Sets the threshold in bytes above which the objects sent over TCP are compressed. Negative
+	 * value disables the compression. Must only be enabled if the remote end supports compressed
+	 * frames.
+	 *
+	 * @param compressionThreshold
+	 *            Threshold in bytes.
+	 */
+	// Added by ISE
+	public void setCompressionThreshold(int compressionThreshold) {
+		tcp.setCompressionThreshold(compressionThreshold);
+	}
+
+	/**
+	 * Sets if the strings sent over TCP should be encoded with the connection string dictionary.
+	 * Must only be enabled if the remote end supports the string dictionary.
+	 *
+	 * @param stringDictionaryEnabled
+	 *            If string dictionary should be used.
+	 */
+	// Added by ISE
+	public void setStringDictionaryEnabled(boolean stringDictionaryEnabled) {
+		tcp.setStringDictionaryEnabled(stringDictionaryEnabled);
+	}
+
 	/**
 	 * Returns the server assigned ID. Will return -1 if this connection has never been connected or
 	 * the last assigned ID if this connection has been disconnected.
@@ -380,6 +405,30 @@ public class Connection {
 		return tcp.writeBuffer.position();
 	}
 
+	/**
+	 * Returns the amount of objects that are serialized but still waiting to be written to the TCP
+	 * socket.
+	 *
+	 * @return Amount of objects waiting to be written.
+	 * @see TcpConnection#getWriteQueueSize()
+	 */
+	// Added by ISE
+	public int getTcpWriteQueueSize() {
+		return tcp.getWriteQueueSize();
+	}
+
+	/**
+	 * Returns the max amount of objects that can wait to be written to the TCP socket before the
+	 * sending blocks.
+	 *
+	 * @return Max amount of objects waiting to be written.
+	 * @see TcpConnection#getMaxWriteQueueSize()
+	 */
+	// Added by ISE
+	public int getMaxTcpWriteQueueSize() {
+		return tcp.getMaxWriteQueueSize();
+	}
+
 	/** @see #setIdleThreshold(float) */
 	public boolean isIdle() {
 		return tcp.writeBuffer.position() / (float) tcp.writeBuffer.capacity() < tcp.idleThreshold;
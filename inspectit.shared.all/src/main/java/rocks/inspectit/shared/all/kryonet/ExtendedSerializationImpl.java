@@ -12,6 +12,7 @@ import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.shared.all.storage.serializer.IKryoProvider;
 import rocks.inspectit.shared.all.storage.serializer.ISerializerProvider;
+import rocks.inspectit.shared.all.storage.serializer.impl.DictionaryStringSerializer;
 
 /**
  * Implementation of the {@link IExtendedSerialization} with some additional methods we need for
@@ -116,8 +117,15 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 	/**
 	 * {@inheritDoc}
 	 */
-	@SuppressWarnings("unchecked")
 	public void write(Connection connection, OutputStream outputStream, Object object) {
+		write(connection, outputStream, object, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("unchecked")
+	public void write(Connection connection, OutputStream outputStream, Object object, StringDictionary stringDictionary) {
 		Output output = new Output(outputStream);
 		IKryoProvider kryoProvider = serializerQueue.poll();
 
@@ -129,6 +137,9 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 		try {
 			Kryo kryo = kryoProvider.getKryo();
 			kryo.getContext().put("connection", connection);
+			if (null != stringDictionary) {
+				kryo.getGraphContext().put(DictionaryStringSerializer.DICTIONARY_KEY, stringDictionary);
+			}
 			kryo.writeClassAndObject(output, object);
 			output.flush();
 		} finally {
@@ -140,8 +151,15 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 	 * 
 	 * {@inheritDoc}
 	 */
-	@SuppressWarnings("unchecked")
 	public Object read(Connection connection, InputStream inputStream) {
+		return read(connection, inputStream, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("unchecked")
+	public Object read(Connection connection, InputStream inputStream, StringDictionary stringDictionary) {
 		Input input = new Input(inputStream);
 		IKryoProvider kryoProvider = serializerQueue.poll();
 
@@ -153,6 +171,9 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 		try {
 			Kryo kryo = kryoProvider.getKryo();
 			kryo.getContext().put("connection", connection);
+			if (null != stringDictionary) {
+				kryo.getGraphContext().put(DictionaryStringSerializer.DICTIONARY_KEY, stringDictionary);
+			}
 			return kryo.readClassAndObject(input);
 		} finally {
 			serializerQueue.offer(kryoProvider);
@@ -24,6 +24,21 @@ public interface IExtendedSerialization extends Serialization {
 	 */
 	void write(Connection connection, OutputStream outputStream, Object object);
 
+	/**
+	 * Writes object to the given {@link OutputStream} using the given {@link StringDictionary}
+	 * for the repeated strings.
+	 * 
+	 * @param connection
+	 *            Connection to be added to kryo context.
+	 * @param outputStream
+	 *            Stream to serialize object to.
+	 * @param object
+	 *            Object
+	 * @param stringDictionary
+	 *            Sending side string dictionary of the connection. Can be <code>null</code>.
+	 */
+	void write(Connection connection, OutputStream outputStream, Object object, StringDictionary stringDictionary);
+
 	/**
 	 * Reads object from the given {@link InputStream}.
 	 * 
@@ -34,4 +49,18 @@ public interface IExtendedSerialization extends Serialization {
 	 * @return De-serialized object.
 	 */
 	Object read(Connection connection, InputStream inputStream);
+
+	/**
+	 * Reads object from the given {@link InputStream} using the given {@link StringDictionary} to
+	 * resolve the repeated strings.
+	 * 
+	 * @param connection
+	 *            Connection to be added to kryo context.
+	 * @param inputStream
+	 *            Stream to de-serialize object from.
+	 * @param stringDictionary
+	 *            Receiving side string dictionary of the connection. Can be <code>null</code>.
+	 * @return De-serialized object.
+	 */
+	Object read(Connection connection, InputStream inputStream, StringDictionary stringDictionary);
 }
@@ -0,0 +1,173 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary of strings that were already transferred over one connection. The sending side
+ * assigns an ID to a string and transfers the definition together with the string once. Later the
+ * string is transferred as the ID only. The receiving side keeps the definitions in its own
+ * dictionary to resolve the IDs. As the definitions are (de-)serialized in the same order they
+ * are written to the socket, the receiving side always knows the ID before it is referenced.
+ * <p>
+ * Strings get an ID only on the second occurrence, so that unique strings do not fill the
+ * dictionary. The amount of IDs is limited to {@value #MAX_SIZE} and the total length of the
+ * defined strings to {@value #MAX_CHARACTERS} characters, as the dictionary is held for the
+ * lifetime of the connection. Strings shorter than {@value #MIN_LENGTH} or longer than
+ * {@value #MAX_LENGTH} characters are never placed in the dictionary.
+ * <p>
+ * Not thread-safe, the sending dictionary must only be used under the write lock of the
+ * connection and the receiving one only by the reading thread.
+ *
+ * @author agent
+ *
+ */
+public class StringDictionary {
+
+	/**
+	 * Max amount of strings in the dictionary.
+	 */
+	public static final int MAX_SIZE = 16384;
+
+	/**
+	 * Min length of the strings placed in the dictionary.
+	 */
+	public static final int MIN_LENGTH = 16;
+
+	/**
+	 * Max length of the strings placed in the dictionary.
+	 */
+	public static final int MAX_LENGTH = 1024;
+
+	/**
+	 * Max total length of all strings in the dictionary.
+	 */
+	public static final int MAX_CHARACTERS = 1024 * 1024;
+
+	/**
+	 * Max amount of strings seen once that are remembered.
+	 */
+	private static final int MAX_CANDIDATES = 4096;
+
+	/**
+	 * IDs of the defined strings (sending side).
+	 */
+	private final Map<String, Integer> ids = new HashMap<String, Integer>();
+
+	/**
+	 * Strings seen only once so far (sending side). Oldest are removed if there are too many.
+	 */
+	private final Map<String, Boolean> candidates = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+
+		/**
+		 * Generated UID.
+		 */
+		private static final long serialVersionUID = -2185458237425424011L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+			return size() > MAX_CANDIDATES;
+		}
+	};
+
+	/**
+	 * Defined strings by ID (receiving side).
+	 */
+	private final List<String> strings = new ArrayList<String>();
+
+	/**
+	 * Total length of the defined strings (sending side).
+	 */
+	private int definedCharacters;
+
+	/**
+	 * Returns the ID of the defined string.
+	 *
+	 * @param string
+	 *            String.
+	 * @return ID or <code>-1</code> if string is not defined.
+	 */
+	public int getId(String string) {
+		Integer id = ids.get(string);
+		if (null == id) {
+			return -1;
+		}
+		return id.intValue();
+	}
+
+	/**
+	 * Defines a new ID for the string if the string was seen before and there is space in the
+	 * dictionary. Otherwise only remembers the string as seen.
+	 *
+	 * @param string
+	 *            String that is not defined yet.
+	 * @return New ID or <code>-1</code> if the string should be transferred without ID.
+	 */
+	public int define(String string) {
+		int length = string.length();
+		if ((length < MIN_LENGTH) || (length > MAX_LENGTH) || (ids.size() >= MAX_SIZE) || ((definedCharacters + length) > MAX_CHARACTERS)) {
+			return -1;
+		}
+
+		if (null == candidates.remove(string)) {
+			candidates.put(string, Boolean.TRUE);
+			return -1;
+		}
+
+		int id = ids.size();
+		ids.put(string, Integer.valueOf(id));
+		definedCharacters += length;
+		return id;
+	}
+
+	/**
+	 * Puts the definition received from the sending side.
+	 *
+	 * @param id
+	 *            ID.
+	 * @param string
+	 *            String.
+	 */
+	public void put(int id, String string) {
+		if ((id < 0) || (id >= MAX_SIZE)) {
+			throw new IllegalArgumentException("String dictionary ID " + id + " is out of range.");
+		}
+
+		while (strings.size() <= id) {
+			strings.add(null);
+		}
+		strings.set(id, string);
+	}
+
+	/**
+	 * Returns the string with the given ID.
+	 *
+	 * @param id
+	 *            ID.
+	 * @return String.
+	 */
+	public String get(int id) {
+		String string = null;
+		if ((id >= 0) && (id < strings.size())) {
+			string = strings.get(id);
+		}
+		if (null == string) {
+			throw new IllegalStateException("String dictionary ID " + id + " is not defined.");
+		}
+		return string;
+	}
+
+	/**
+	 * Clears the dictionary.
+	 */
+	public void clear() {
+		ids.clear();
+		candidates.clear();
+		definedCharacters = 0;
+		strings.clear();
+	}
+
+}
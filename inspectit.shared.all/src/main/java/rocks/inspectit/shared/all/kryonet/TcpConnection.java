@@ -4,6 +4,7 @@ import static com.esotericsoftware.minlog.Log.DEBUG;
 import static com.esotericsoftware.minlog.Log.debug;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
@@ -15,6 +16,9 @@ import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import com.esotericsoftware.kryonet.KryoNetException;
 
@@ -41,6 +45,81 @@ class TcpConnection {
 	// Added by ISE
 	private static final int MAX_OUTPUT_STREAMS = 10;
 
+	/**
+	 * Flag set in the length of the frames that hold compressed objects.
+	 */
+	// Added by ISE
+	private static final int COMPRESSED_FLAG = 0x80000000;
+
+	/**
+	 * Flag set in the length of the frames that are serialized with the string dictionary.
+	 */
+	// Added by ISE
+	private static final int DICTIONARY_FLAG = 0x40000000;
+
+	/**
+	 * All flags that can be set in the length of the frame.
+	 */
+	// Added by ISE
+	private static final int FLAGS_MASK = COMPRESSED_FLAG | DICTIONARY_FLAG;
+
+	/**
+	 * Size of the byte arrays used during compression.
+	 */
+	// Added by ISE
+	private static final int COMPRESSION_CHUNK_SIZE = 8192;
+
+	/**
+	 * Objects with a serialized size bigger than this threshold are compressed before sending.
+	 * Negative value means no compression. Must only be enabled if the other side can read
+	 * compressed frames.
+	 */
+	// Added by ISE
+	private volatile int compressionThreshold = -1;
+
+	/**
+	 * Deflater for the compression, only used with the write lock.
+	 */
+	// Added by ISE
+	private Deflater deflater;
+
+	/**
+	 * Inflater for the decompression, only used by the reading thread.
+	 */
+	// Added by ISE
+	private final Inflater inflater = new Inflater();
+
+	/**
+	 * If the object currently being read is compressed.
+	 */
+	// Added by ISE
+	private boolean currentObjectCompressed;
+
+	/**
+	 * If the object currently being read is serialized with the string dictionary.
+	 */
+	// Added by ISE
+	private boolean currentObjectDictionary;
+
+	/**
+	 * If the strings sent should be encoded with the {@link #outgoingDictionary}. Must only be
+	 * enabled if the other side can read such frames.
+	 */
+	// Added by ISE
+	private volatile boolean stringDictionaryEnabled;
+
+	/**
+	 * Dictionary of the strings sent over this connection, only used with the write lock.
+	 */
+	// Added by ISE
+	private final StringDictionary outgoingDictionary = new StringDictionary();
+
+	/**
+	 * Dictionary of the strings received over this connection, only used by the reading thread.
+	 */
+	// Added by ISE
+	private final StringDictionary incomingDictionary = new StringDictionary();
+
 	/**
 	 * {@link StreamProvider} for creating streams.
 	 */
@@ -106,6 +185,7 @@ class TcpConnection {
 		readBuffer.clear();
 		readBuffer.flip();
 		currentObjectLength = 0;
+		clearDictionaries(); // Added by ISE
 		try {
 			this.socketChannel = socketChannel;
 			socketChannel.configureBlocking(false);
@@ -136,6 +216,7 @@ class TcpConnection {
 		readBuffer.clear();
 		readBuffer.flip();
 		currentObjectLength = 0;
+		clearDictionaries(); // Added by ISE
 		try {
 			SocketChannel socketChannel = selector.provider().openSocketChannel();
 			Socket socket = socketChannel.socket();
@@ -190,6 +271,9 @@ class TcpConnection {
 				}
 			}
 			currentObjectLength = serialization.readLength(readBuffer);
+			currentObjectCompressed = (currentObjectLength & COMPRESSED_FLAG) != 0;
+			currentObjectDictionary = (currentObjectLength & DICTIONARY_FLAG) != 0;
+			currentObjectLength &= ~FLAGS_MASK;
 
 			if (currentObjectLength <= 0) {
 				throw new KryoNetException("Invalid object length: " + currentObjectLength);
@@ -205,8 +289,17 @@ class TcpConnection {
 
 		// read object
 		Object object;
+		StringDictionary dictionary = currentObjectDictionary ? incomingDictionary : null;
 		try {
-			object = serialization.read(connection, socketInputStream);
+			if (currentObjectCompressed) {
+				inflater.reset();
+				InputStream inputStream = new InflaterInputStream(socketInputStream, inflater, COMPRESSION_CHUNK_SIZE);
+				object = serialization.read(connection, inputStream, dictionary);
+				// make sure that all bytes of the frame are consumed
+				skipRemaining();
+			} else {
+				object = serialization.read(connection, socketInputStream, dictionary);
+			}
 		} catch (Exception ex) {
 			throw new KryoNetException("Error during deserialization.", ex);
 		}
@@ -214,6 +307,25 @@ class TcpConnection {
 		return object;
 	}
 
+	/**
+	 * Reads all remaining bytes of the current frame from the socket input stream.
+	 *
+	 * @throws IOException
+	 *             If read fails.
+	 */
+	// Added by ISE
+	private void skipRemaining() throws IOException {
+		byte[] skipBuffer = null;
+		while (socketInputStream.hasRemaining()) {
+			if (null == skipBuffer) {
+				skipBuffer = new byte[COMPRESSION_CHUNK_SIZE];
+			}
+			if (socketInputStream.read(skipBuffer, 0, skipBuffer.length) < 0) {
+				break;
+			}
+		}
+	}
+
 	// Changed completely by ISE
 	public void writeOperation() throws IOException {
 		writeReentrantLock.lock();
@@ -296,20 +408,40 @@ class TcpConnection {
 			outputStream.write(new byte[lengthLength]);
 
 			// Write data and flush when done
+			StringDictionary dictionary = stringDictionaryEnabled ? outgoingDictionary : null;
 			try {
-				serialization.write(connection, outputStream, object);
+				serialization.write(connection, outputStream, object, dictionary);
 			} catch (KryoNetException ex) { // NOPMD
 				outputStream.close();
+				// definitions in the failed frame are never received, start from scratch
+				outgoingDictionary.clear();
 				throw new KryoNetException("Error serializing object of type: " + object.getClass().getName(), ex);
+			} catch (RuntimeException ex) { // NOPMD
+				outgoingDictionary.clear();
+				throw ex;
 			}
 			outputStream.flush(false);
 
-			// rewrite the size to the first buffer
+			// compress if the object is big enough and compression is negotiated
 			long writeSize = outputStream.getTotalWriteSize() - lengthLength;
+			int lengthFlag = (null != dictionary) ? DICTIONARY_FLAG : 0;
+			int threshold = compressionThreshold;
+			if ((threshold >= 0) && (writeSize > threshold)) {
+				ExtendedByteBufferOutputStream compressedStream = compress(outputStream, lengthLength, writeSize);
+				if (null != compressedStream) {
+					outputStream.prepare();
+					idleQueue.offer(outputStream);
+					outputStream = compressedStream;
+					writeSize = outputStream.getTotalWriteSize() - lengthLength;
+					lengthFlag |= COMPRESSED_FLAG;
+				}
+			}
+
+			// rewrite the size to the first buffer
 			ByteBuffer buffer = outputStream.getAllByteBuffers().iterator().next();
 			int position = buffer.position();
 			buffer.position(0);
-			serialization.writeLength(buffer, (int) writeSize);
+			serialization.writeLength(buffer, ((int) writeSize) | lengthFlag);
 			buffer.position(position);
 
 			// Write to socket if no data was queued.
@@ -330,6 +462,122 @@ class TcpConnection {
 		}
 	}
 
+	/**
+	 * Compresses the serialized object in the given stream to a new stream from the idle queue.
+	 * Caller must hold the write lock.
+	 *
+	 * @param outputStream
+	 *            Stream holding the length placeholder and the serialized object.
+	 * @param lengthLength
+	 *            Size of the length placeholder.
+	 * @param writeSize
+	 *            Size of the serialized object.
+	 * @return Stream holding the length placeholder and the compressed object or
+	 *         <code>null</code> if no idle stream is available or the compressed object is not
+	 *         smaller.
+	 * @throws IOException
+	 *             If writing to the stream fails.
+	 */
+	// Added by ISE
+	private ExtendedByteBufferOutputStream compress(ExtendedByteBufferOutputStream outputStream, int lengthLength, long writeSize) throws IOException {
+		// never block here, as the selector thread needs the write lock to free streams
+		ExtendedByteBufferOutputStream compressedStream = idleQueue.poll();
+		if (null == compressedStream) {
+			return null;
+		}
+
+		boolean compressed = false;
+		try {
+			if (null == deflater) {
+				deflater = new Deflater(Deflater.BEST_SPEED);
+			}
+			deflater.reset();
+
+			compressedStream.write(new byte[lengthLength]);
+			byte[] input = new byte[COMPRESSION_CHUNK_SIZE];
+			byte[] output = new byte[COMPRESSION_CHUNK_SIZE];
+			int skip = lengthLength;
+			for (ByteBuffer byteBuffer : outputStream.getAllByteBuffers()) {
+				ByteBuffer readBuffer = byteBuffer.duplicate();
+				while (readBuffer.hasRemaining()) {
+					if (skip > 0) {
+						int skipped = Math.min(skip, readBuffer.remaining());
+						readBuffer.position(readBuffer.position() + skipped);
+						skip -= skipped;
+						continue;
+					}
+
+					int length = Math.min(input.length, readBuffer.remaining());
+					readBuffer.get(input, 0, length);
+					deflater.setInput(input, 0, length);
+					while (!deflater.needsInput()) {
+						int compressedLength = deflater.deflate(output);
+						compressedStream.write(output, 0, compressedLength);
+					}
+				}
+			}
+			deflater.finish();
+			while (!deflater.finished()) {
+				int compressedLength = deflater.deflate(output);
+				compressedStream.write(output, 0, compressedLength);
+			}
+			compressedStream.flush(false);
+
+			compressed = (compressedStream.getTotalWriteSize() - lengthLength) < writeSize;
+		} finally {
+			// return the stream to the pool if it's not used, also when writing failed
+			if (!compressed) {
+				compressedStream.prepare();
+				idleQueue.offer(compressedStream);
+			}
+		}
+		return compressed ? compressedStream : null;
+	}
+
+	/**
+	 * Sets {@link #compressionThreshold}.
+	 *
+	 * @param compressionThreshold
+	 *            New value for {@link #compressionThreshold}
+	 */
+	// Added by ISE
+	public void setCompressionThreshold(int compressionThreshold) {
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	/**
+	 * Sets {@link #stringDictionaryEnabled}.
+	 *
+	 * @param stringDictionaryEnabled
+	 *            New value for {@link #stringDictionaryEnabled}
+	 */
+	// Added by ISE
+	public void setStringDictionaryEnabled(boolean stringDictionaryEnabled) {
+		writeReentrantLock.lock();
+		try {
+			if (stringDictionaryEnabled != this.stringDictionaryEnabled) {
+				outgoingDictionary.clear();
+			}
+			this.stringDictionaryEnabled = stringDictionaryEnabled;
+		} finally {
+			writeReentrantLock.unlock();
+		}
+	}
+
+	/**
+	 * Clears the string dictionaries, needed as each connection starts with the empty ones.
+	 */
+	// Added by ISE
+	private void clearDictionaries() {
+		writeReentrantLock.lock();
+		try {
+			outgoingDictionary.clear();
+		} finally {
+			writeReentrantLock.unlock();
+		}
+		incomingDictionary.clear();
+	}
+
 	/**
 	 * @return Returns if any data is queued for writing.
 	 */
@@ -396,4 +644,26 @@ class TcpConnection {
 			return size;
 		}
 	}
+
+	/**
+	 * Returns the amount of serialized objects that are waiting to be written to the socket. If
+	 * this amount reaches the amount of available output streams, the next send will block until
+	 * one is written.
+	 *
+	 * @return Amount of serialized objects that are waiting to be written to the socket.
+	 */
+	// Added by ISE
+	public int getWriteQueueSize() {
+		return writeQueue.size();
+	}
+
+	/**
+	 * Returns the amount of output streams available for serializing objects.
+	 *
+	 * @return Amount of output streams available for serializing objects.
+	 */
+	// Added by ISE
+	public int getMaxWriteQueueSize() {
+		return MAX_OUTPUT_STREAMS;
+	}
 }
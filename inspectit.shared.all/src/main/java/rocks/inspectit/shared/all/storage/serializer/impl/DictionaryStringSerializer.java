@@ -0,0 +1,108 @@
+package rocks.inspectit.shared.all.storage.serializer.impl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.shared.all.kryonet.StringDictionary;
+
+/**
+ * Serializes instances of {@link String}. If a {@link StringDictionary} is placed in the Kryo
+ * graph context under the {@link #DICTIONARY_KEY}, repeated strings are written as dictionary IDs.
+ * Otherwise the format is the same as with the default Kryo string serializer, thus the storage
+ * and all other usages are not affected.
+ *
+ * @author agent
+ */
+public class DictionaryStringSerializer extends Serializer<String> {
+
+	/**
+	 * Key of the {@link StringDictionary} in the Kryo graph context.
+	 */
+	public static final String DICTIONARY_KEY = "stringDictionary";
+
+	/**
+	 * Marker for the string written as is.
+	 */
+	private static final byte PLAIN = 0;
+
+	/**
+	 * Marker for the string written with the new dictionary ID.
+	 */
+	private static final byte DEFINITION = 1;
+
+	/**
+	 * Marker for the string written as dictionary ID only.
+	 */
+	private static final byte REFERENCE = 2;
+
+	/**
+	 * Default constructor.
+	 */
+	public DictionaryStringSerializer() {
+		setImmutable(true);
+		setAcceptsNull(true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(Kryo kryo, Output output, String object) {
+		StringDictionary dictionary = (StringDictionary) kryo.getGraphContext().get(DICTIONARY_KEY);
+		if (null == dictionary) {
+			output.writeString(object);
+			return;
+		}
+
+		if (null == object) {
+			output.writeByte(PLAIN);
+			output.writeString(object);
+			return;
+		}
+
+		int id = dictionary.getId(object);
+		if (id >= 0) {
+			output.writeByte(REFERENCE);
+			output.writeInt(id, true);
+			return;
+		}
+
+		id = dictionary.define(object);
+		if (id >= 0) {
+			output.writeByte(DEFINITION);
+			output.writeInt(id, true);
+		} else {
+			output.writeByte(PLAIN);
+		}
+		output.writeString(object);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String read(Kryo kryo, Input input, Class<String> type) {
+		StringDictionary dictionary = (StringDictionary) kryo.getGraphContext().get(DICTIONARY_KEY);
+		if (null == dictionary) {
+			return input.readString();
+		}
+
+		byte marker = input.readByte();
+		switch (marker) {
+		case PLAIN:
+			return input.readString();
+		case DEFINITION:
+			int id = input.readInt(true);
+			String string = input.readString();
+			dictionary.put(id, string);
+			return string;
+		case REFERENCE:
+			return dictionary.get(input.readInt(true));
+		default:
+			throw new IllegalStateException("Unknown string marker " + marker + ".");
+		}
+	}
+
+}
@@ -229,6 +229,8 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 	 */
 	private void registerClasses(Kryo kryo) {
 		/** Java native classes */
+		// String is registered by default, this only changes the serializer and keeps the ID
+		kryo.register(String.class, new DictionaryStringSerializer());
 		kryo.register(Class.class, new ClassSerializer());
 		kryo.register(ArrayList.class, new HibernateAwareCollectionSerializer(hibernateUtil)); // NOPMD
 		kryo.register(CopyOnWriteArrayList.class, new CollectionSerializer());
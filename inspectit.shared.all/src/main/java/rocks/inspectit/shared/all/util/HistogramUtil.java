@@ -0,0 +1,179 @@
+package rocks.inspectit.shared.all.util;
+
+/**
+ * Utility for the log-bucketed duration histograms carried by the
+ * {@link rocks.inspectit.shared.all.communication.data.TimerData}. The histogram is a plain
+ * <code>long</code> array of counts (similar to the HdrHistogram layout), so it can be serialized
+ * as is and merged without any allocation.
+ * <p>
+ * Durations are recorded in microseconds. Values smaller than {@value #SUB_BUCKET_COUNT}
+ * microseconds have their own bucket, bigger values are placed in one of the
+ * {@value #HALF_SUB_BUCKET_COUNT} linear sub-buckets of their power of two range. Thus the
+ * relative error of the returned percentiles is below 1/{@value #HALF_SUB_BUCKET_COUNT}. Values
+ * bigger than about 71 minutes are counted in the last bucket. The histogram has
+ * {@value #LENGTH} buckets, which is less than 4 KB.
+ *
+ * @author agent
+ *
+ */
+public final class HistogramUtil {
+
+	/**
+	 * Bits used for the sub-buckets.
+	 */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/**
+	 * Count of sub-buckets in the first bucket.
+	 */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Count of sub-buckets in all other buckets.
+	 */
+	private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT >> 1;
+
+	/**
+	 * Highest bit of the max trackable value in microseconds.
+	 */
+	private static final int MAX_VALUE_BIT = 31;
+
+	/**
+	 * Max trackable value in microseconds.
+	 */
+	private static final long MAX_VALUE = (1L << (MAX_VALUE_BIT + 1)) - 1;
+
+	/**
+	 * Length of the histogram array.
+	 */
+	public static final int LENGTH = ((MAX_VALUE_BIT - SUB_BUCKET_BITS + 2) * HALF_SUB_BUCKET_COUNT) + HALF_SUB_BUCKET_COUNT;
+
+	/**
+	 * Microseconds in one millisecond.
+	 */
+	private static final double MICROS_IN_MILLI = 1000d;
+
+	/**
+	 * Private constructor.
+	 */
+	private HistogramUtil() {
+	}
+
+	/**
+	 * Creates new empty histogram.
+	 *
+	 * @return New empty histogram.
+	 */
+	public static long[] newHistogram() {
+		return new long[LENGTH];
+	}
+
+	/**
+	 * Returns the index of the bucket in the histogram for the given duration.
+	 *
+	 * @param duration
+	 *            Duration in milliseconds.
+	 * @return Index of the bucket.
+	 */
+	public static int getIndex(double duration) {
+		long value = (long) (duration * MICROS_IN_MILLI);
+		if (value < SUB_BUCKET_COUNT) {
+			return (value < 0) ? 0 : (int) value;
+		}
+		if (value > MAX_VALUE) {
+			value = MAX_VALUE;
+		}
+
+		int bucket = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+		int subBucket = (int) (value >>> bucket);
+		return (bucket * HALF_SUB_BUCKET_COUNT) + subBucket;
+	}
+
+	/**
+	 * Records the duration in the histogram.
+	 *
+	 * @param histogram
+	 *            Histogram.
+	 * @param duration
+	 *            Duration in milliseconds.
+	 */
+	public static void record(long[] histogram, double duration) {
+		histogram[getIndex(duration)]++;
+	}
+
+	/**
+	 * Adds all counts of the source histogram to the target histogram.
+	 *
+	 * @param target
+	 *            Histogram to add to.
+	 * @param source
+	 *            Histogram to add.
+	 */
+	public static void merge(long[] target, long[] source) {
+		int length = Math.min(target.length, source.length);
+		for (int i = 0; i < length; i++) {
+			target[i] += source[i];
+		}
+	}
+
+	/**
+	 * Returns the total count of recorded values in the histogram.
+	 *
+	 * @param histogram
+	 *            Histogram.
+	 * @return Total count.
+	 */
+	public static long getTotalCount(long[] histogram) {
+		long count = 0;
+		for (long bucketCount : histogram) {
+			count += bucketCount;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the duration at the given percentile.
+	 *
+	 * @param histogram
+	 *            Histogram.
+	 * @param percentile
+	 *            Percentile between 0 and 100.
+	 * @return Duration in milliseconds (middle of the bucket the percentile falls in) or
+	 *         <code>-1</code> if the histogram is empty.
+	 */
+	public static double getValueAtPercentile(long[] histogram, double percentile) {
+		long totalCount = getTotalCount(histogram);
+		if (0 == totalCount) {
+			return -1;
+		}
+
+		double requested = Math.min(Math.max(percentile, 0d), 100d);
+		long countAtPercentile = Math.max(1L, (long) Math.ceil((requested / 100d) * totalCount));
+		long count = 0;
+		for (int i = 0; i < histogram.length; i++) {
+			count += histogram[i];
+			if (count >= countAtPercentile) {
+				return getMedianValue(i) / MICROS_IN_MILLI;
+			}
+		}
+		return getMedianValue(histogram.length - 1) / MICROS_IN_MILLI;
+	}
+
+	/**
+	 * Returns the value in the middle of the bucket with the given index.
+	 *
+	 * @param index
+	 *            Index of the bucket.
+	 * @return Value in microseconds.
+	 */
+	private static double getMedianValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int bucket = (index / HALF_SUB_BUCKET_COUNT) - 1;
+		int subBucket = (index % HALF_SUB_BUCKET_COUNT) + HALF_SUB_BUCKET_COUNT;
+		long lowest = ((long) subBucket) << bucket;
+		return lowest + ((1L << bucket) / 2d);
+	}
+
+}
@@ -2,6 +2,7 @@ package rocks.inspectit.shared.all.communication.data;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,6 +14,7 @@ import org.testng.annotations.Test;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.IAggregatedData;
 import rocks.inspectit.shared.all.communication.IIdsAwareAggregatedData;
+import rocks.inspectit.shared.all.util.HistogramUtil;
 
 @SuppressWarnings("PMD")
 public class AggregatedDataTest {
@@ -38,6 +40,35 @@ public class AggregatedDataTest {
 		}
 	}
 
+	/**
+	 * Tests that the histograms of the timer data are merged in the aggregation.
+	 */
+	@Test
+	public void histogramAggregation() {
+		TimerData first = new TimerData();
+		long[] firstHistogram = HistogramUtil.newHistogram();
+		HistogramUtil.record(firstHistogram, 1d);
+		first.setHistogram(firstHistogram);
+		TimerData second = new TimerData();
+		long[] secondHistogram = HistogramUtil.newHistogram();
+		HistogramUtil.record(secondHistogram, 1d);
+		HistogramUtil.record(secondHistogram, 100d);
+		second.setHistogram(secondHistogram);
+		TimerData noHistogram = new TimerData();
+
+		AggregatedTimerData aggregated = new AggregatedTimerData();
+		aggregated.aggregate(first);
+		aggregated.aggregate(noHistogram);
+		aggregated.aggregate(second);
+
+		assertThat(aggregated.isHistogramAvailable(), is(true));
+		assertThat(HistogramUtil.getTotalCount(aggregated.getHistogram()), is(3L));
+		assertThat(aggregated.getHistogram()[HistogramUtil.getIndex(1d)], is(2L));
+		assertThat(aggregated.getHistogram()[HistogramUtil.getIndex(100d)], is(1L));
+		// the aggregated data must not change the histogram of the aggregated objects
+		assertThat(HistogramUtil.getTotalCount(first.getHistogram()), is(1L));
+	}
+
 	@DataProvider(name = "normalDataProvider")
 	public Object[][] getDataForAggregationOfNormalData() {
 		Object[][] data = new Object[8][2];
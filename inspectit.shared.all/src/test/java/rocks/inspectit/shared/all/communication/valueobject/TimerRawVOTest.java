@@ -99,4 +99,31 @@ public class TimerRawVOTest {
 		assertThat(timerData.getCpuMin(), is(Math.min(cpu1, cpu2)));
 		assertThat(timerData.getCpuMax(), is(Math.max(cpu1, cpu2)));
 	}
+
+	/**
+	 * Tests that a value standing for more calls is stored once and weighted in the result.
+	 */
+	@Test
+	public void weightedTimeAndCpu() {
+		double time1 = 4.0d;
+		double time2 = 10.0d;
+
+		double cpu1 = 2.0d;
+		double cpu2 = 6.0d;
+
+		timerRawVO.add(time1, cpu1);
+		timerRawVO.add(time2, cpu2, 1024L);
+		DefaultData data = timerRawVO.finalizeData();
+
+		assertThat(timerRawVO.getData().size(), is(1));
+		assertThat(timerRawVO.getData().get(0).getCount(), is(2));
+		TimerData timerData = (TimerData) data;
+		assertThat(timerData.getCount(), is(1025L));
+		assertThat(timerData.getDuration(), is(time1 + (time2 * 1024)));
+		assertThat(timerData.getMin(), is(time1));
+		assertThat(timerData.getMax(), is(time2));
+		assertThat(timerData.getCpuDuration(), is(cpu1 + (cpu2 * 1024)));
+		assertThat(timerData.getCpuMin(), is(cpu1));
+		assertThat(timerData.getCpuMax(), is(cpu2));
+	}
 }
@@ -0,0 +1,140 @@
+package rocks.inspectit.shared.all.storage.serializer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.apache.commons.lang.StringUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.shared.all.kryonet.StringDictionary;
+
+@SuppressWarnings("PMD")
+public class DictionaryStringSerializerTest {
+
+	private static final String SQL = "SELECT * FROM USERS WHERE ID = ?";
+
+	private Kryo kryo;
+
+	private StringDictionary writeDictionary;
+
+	private StringDictionary readDictionary;
+
+	@BeforeMethod
+	public void init() {
+		kryo = new Kryo();
+		kryo.register(String.class, new DictionaryStringSerializer());
+		kryo.register(String[].class);
+		writeDictionary = new StringDictionary();
+		readDictionary = new StringDictionary();
+	}
+
+	@Test
+	public void noDictionarySameAsDefault() {
+		Kryo defaultKryo = new Kryo();
+
+		assertThat(write(SQL, null), is(equalTo(write(defaultKryo, SQL))));
+		assertThat(write(null, null), is(equalTo(write(defaultKryo, null))));
+	}
+
+	@Test
+	public void roundTrip() {
+		String[] strings = new String[] { SQL, "short", SQL, null, SQL, SQL };
+
+		for (int i = 0; i < 3; i++) {
+			Object result = read(write(strings, writeDictionary), readDictionary);
+
+			assertThat((String[]) result, is(arrayContaining(strings)));
+		}
+	}
+
+	@Test
+	public void referenceAfterSecondOccurrence() {
+		byte[] first = write(SQL, writeDictionary);
+		byte[] second = write(SQL, writeDictionary);
+		byte[] third = write(SQL, writeDictionary);
+
+		assertThat(third.length, is(lessThan(first.length)));
+		assertThat(third.length, is(lessThan(second.length)));
+		assertThat((String) read(first, readDictionary), is(SQL));
+		assertThat((String) read(second, readDictionary), is(SQL));
+		assertThat((String) read(third, readDictionary), is(SQL));
+	}
+
+	@Test
+	public void shortStringNotInDictionary() {
+		write("short", writeDictionary);
+		write("short", writeDictionary);
+
+		assertThat(writeDictionary.getId("short"), is(-1));
+	}
+
+	@Test
+	public void longStringNotInDictionary() {
+		String longString = StringUtils.repeat("x", StringDictionary.MAX_LENGTH + 1);
+		write(longString, writeDictionary);
+		write(longString, writeDictionary);
+
+		assertThat(writeDictionary.getId(longString), is(-1));
+	}
+
+	@Test
+	public void totalLengthLimited() {
+		int count = StringDictionary.MAX_CHARACTERS / StringDictionary.MAX_LENGTH;
+		for (int i = 0; i <= count; i++) {
+			String string = StringUtils.leftPad(String.valueOf(i), StringDictionary.MAX_LENGTH, 'x');
+			write(string, writeDictionary);
+			write(string, writeDictionary);
+
+			if (i < count) {
+				assertThat(writeDictionary.getId(string), is(i));
+			} else {
+				assertThat(writeDictionary.getId(string), is(-1));
+			}
+		}
+	}
+
+	@Test
+	public void nullString() {
+		assertThat(read(write(null, writeDictionary), readDictionary), is(nullValue()));
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void unknownReference() {
+		StringDictionary otherDictionary = new StringDictionary();
+		write(SQL, writeDictionary);
+		write(SQL, writeDictionary);
+		byte[] reference = write(SQL, writeDictionary);
+
+		read(reference, otherDictionary);
+	}
+
+	private byte[] write(Object object, StringDictionary dictionary) {
+		if (null != dictionary) {
+			kryo.getGraphContext().put(DictionaryStringSerializer.DICTIONARY_KEY, dictionary);
+		}
+		return write(kryo, object);
+	}
+
+	private byte[] write(Kryo kryo, Object object) {
+		Output output = new Output(1024, -1);
+		kryo.writeClassAndObject(output, object);
+		return output.toBytes();
+	}
+
+	private Object read(byte[] bytes, StringDictionary dictionary) {
+		if (null != dictionary) {
+			kryo.getGraphContext().put(DictionaryStringSerializer.DICTIONARY_KEY, dictionary);
+		}
+		return kryo.readClassAndObject(new Input(bytes));
+	}
+
+}
@@ -0,0 +1,89 @@
+package rocks.inspectit.shared.all.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the {@link HistogramUtil}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class HistogramUtilTest {
+
+	public static class GetIndex extends HistogramUtilTest {
+
+		@Test
+		public void smallValues() {
+			assertThat(HistogramUtil.getIndex(0d), is(0));
+			assertThat(HistogramUtil.getIndex(0.005d), is(5));
+			assertThat(HistogramUtil.getIndex(0.031d), is(31));
+			assertThat(HistogramUtil.getIndex(0.032d), is(32));
+		}
+
+		@Test
+		public void negativeValue() {
+			assertThat(HistogramUtil.getIndex(-1d), is(0));
+		}
+
+		@Test
+		public void bigValue() {
+			assertThat(HistogramUtil.getIndex(Double.MAX_VALUE), is(HistogramUtil.LENGTH - 1));
+		}
+
+		@Test
+		public void monotonic() {
+			int last = 0;
+			for (double duration = 0; duration < 100000d; duration = (duration * 1.1d) + 0.001d) {
+				int index = HistogramUtil.getIndex(duration);
+				assertThat(index >= last, is(true));
+				assertThat(index, is(lessThan(HistogramUtil.LENGTH)));
+				last = index;
+			}
+		}
+	}
+
+	public static class GetValueAtPercentile extends HistogramUtilTest {
+
+		@Test
+		public void empty() {
+			assertThat(HistogramUtil.getValueAtPercentile(HistogramUtil.newHistogram(), 50d), is(-1d));
+		}
+
+		@Test
+		public void percentiles() {
+			long[] histogram = HistogramUtil.newHistogram();
+			for (int i = 1; i <= 1000; i++) {
+				HistogramUtil.record(histogram, i);
+			}
+
+			assertThat(HistogramUtil.getValueAtPercentile(histogram, 50d), is(closeTo(500d, 500d / 16)));
+			assertThat(HistogramUtil.getValueAtPercentile(histogram, 95d), is(closeTo(950d, 950d / 16)));
+			assertThat(HistogramUtil.getValueAtPercentile(histogram, 99d), is(closeTo(990d, 990d / 16)));
+		}
+	}
+
+	public static class Merge extends HistogramUtilTest {
+
+		@Test
+		public void merge() {
+			long[] target = HistogramUtil.newHistogram();
+			HistogramUtil.record(target, 10d);
+			long[] source = HistogramUtil.newHistogram();
+			HistogramUtil.record(source, 10d);
+			HistogramUtil.record(source, 20d);
+
+			HistogramUtil.merge(target, source);
+
+			assertThat(HistogramUtil.getTotalCount(target), is(3L));
+			assertThat(target[HistogramUtil.getIndex(10d)], is(2L));
+			assertThat(target[HistogramUtil.getIndex(20d)], is(1L));
+		}
+	}
+
+}
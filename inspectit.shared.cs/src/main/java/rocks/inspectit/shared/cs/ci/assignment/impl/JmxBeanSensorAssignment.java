@@ -46,6 +46,13 @@ public class JmxBeanSensorAssignment implements ISensorAssignment<JmxSensorConfi
 	@XmlElementWrapper(name = "attributes", required = true)
 	private Set<String> attributes;
 
+	/**
+	 * Interval in milliseconds in which the attributes are collected. Zero or negative for the
+	 * default interval of the sensor.
+	 */
+	@XmlAttribute(name = "collect-interval")
+	private long collectInterval;
+
 	/**
 	 * Cached object name for easier matching.
 	 */
@@ -116,6 +123,25 @@ public class JmxBeanSensorAssignment implements ISensorAssignment<JmxSensorConfi
 		this.attributes = attributes;
 	}
 
+	/**
+	 * Gets {@link #collectInterval}.
+	 *
+	 * @return {@link #collectInterval}
+	 */
+	public long getCollectInterval() {
+		return collectInterval;
+	}
+
+	/**
+	 * Sets {@link #collectInterval}.
+	 *
+	 * @param collectInterval
+	 *            New value for {@link #collectInterval}
+	 */
+	public void setCollectInterval(long collectInterval) {
+		this.collectInterval = collectInterval;
+	}
+
 	/**
 	 * Gets {@link #objectName}.
 	 *
@@ -169,6 +195,7 @@ public class JmxBeanSensorAssignment implements ISensorAssignment<JmxSensorConfi
 		final int prime = 31;
 		int result = 1;
 		result = (prime * result) + ((attributes == null) ? 0 : attributes.hashCode());
+		result = (prime * result) + (int) (collectInterval ^ (collectInterval >>> 32));
 		result = (prime * result) + ((domain == null) ? 0 : domain.hashCode());
 		result = (prime * result) + ((objectNameParameters == null) ? 0 : objectNameParameters.hashCode());
 		return result;
@@ -196,6 +223,9 @@ public class JmxBeanSensorAssignment implements ISensorAssignment<JmxSensorConfi
 		} else if (!attributes.equals(other.attributes)) {
 			return false;
 		}
+		if (collectInterval != other.collectInterval) {
+			return false;
+		}
 		if (domain == null) {
 			if (other.domain != null) {
 				return false;
@@ -1,8 +1,11 @@
 package rocks.inspectit.shared.cs.ci.sensor.jmx;
 
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import rocks.inspectit.shared.cs.ci.sensor.ISensorConfig;
@@ -13,6 +16,7 @@ import rocks.inspectit.shared.cs.ci.sensor.ISensorConfig;
  * @author Ivan Senic
  *
  */
+@XmlAccessorType(XmlAccessType.FIELD)
 @XmlRootElement(name = "jmx-loading-sensor-config")
 public class JmxSensorConfig implements ISensorConfig {
 
@@ -21,6 +25,20 @@ public class JmxSensorConfig implements ISensorConfig {
 	 */
 	private static final String CLASS_NAME = "rocks.inspectit.agent.java.sensor.jmx.JmxSensor";
 
+	/**
+	 * If the attribute value should be sent only when changed or when the
+	 * {@link #heartbeatInterval} passed.
+	 */
+	@XmlAttribute(name = "change-detection")
+	private boolean changeDetection;
+
+	/**
+	 * Interval in milliseconds after which the unchanged attribute value is sent again when the
+	 * {@link #changeDetection} is active.
+	 */
+	@XmlAttribute(name = "heartbeat-interval")
+	private long heartbeatInterval = 60000L;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -34,7 +52,50 @@ public class JmxSensorConfig implements ISensorConfig {
 	 */
 	@Override
 	public Map<String, Object> getParameters() {
-		return Collections.emptyMap();
+		Map<String, Object> parameters = new HashMap<>();
+		if (changeDetection) {
+			parameters.put("changeDetection", "true");
+			parameters.put("heartbeatInterval", String.valueOf(heartbeatInterval));
+		}
+		return parameters;
+	}
+
+	/**
+	 * Gets {@link #changeDetection}.
+	 *
+	 * @return {@link #changeDetection}
+	 */
+	public boolean isChangeDetection() {
+		return changeDetection;
+	}
+
+	/**
+	 * Sets {@link #changeDetection}.
+	 *
+	 * @param changeDetection
+	 *            New value for {@link #changeDetection}
+	 */
+	public void setChangeDetection(boolean changeDetection) {
+		this.changeDetection = changeDetection;
+	}
+
+	/**
+	 * Gets {@link #heartbeatInterval}.
+	 *
+	 * @return {@link #heartbeatInterval}
+	 */
+	public long getHeartbeatInterval() {
+		return heartbeatInterval;
+	}
+
+	/**
+	 * Sets {@link #heartbeatInterval}.
+	 *
+	 * @param heartbeatInterval
+	 *            New value for {@link #heartbeatInterval}
+	 */
+	public void setHeartbeatInterval(long heartbeatInterval) {
+		this.heartbeatInterval = heartbeatInterval;
 	}
 
 	/**
@@ -45,6 +106,8 @@ public class JmxSensorConfig implements ISensorConfig {
 		final int prime = 31;
 		int result = 1;
 		result = (prime * result) + this.getClass().hashCode();
+		result = (prime * result) + (changeDetection ? 1231 : 1237);
+		result = (prime * result) + (int) (heartbeatInterval ^ (heartbeatInterval >>> 32));
 		return result;
 	}
 
@@ -62,6 +125,13 @@ public class JmxSensorConfig implements ISensorConfig {
 		if (getClass() != obj.getClass()) {
 			return false;
 		}
+		JmxSensorConfig other = (JmxSensorConfig) obj;
+		if (changeDetection != other.changeDetection) {
+			return false;
+		}
+		if (heartbeatInterval != other.heartbeatInterval) {
+			return false;
+		}
 		return true;
 	}
 
@@ -31,6 +31,22 @@ public abstract class AbstractMethodSensorConfig implements IMethodSensorConfig
 		return Collections.emptyMap();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isParametersNeeded() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isReturnValueNeeded() {
+		return true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
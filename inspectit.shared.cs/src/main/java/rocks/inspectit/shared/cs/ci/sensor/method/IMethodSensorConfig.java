@@ -35,4 +35,24 @@ public interface IMethodSensorConfig extends ISensorConfig {
 	 */
 	boolean isAdvanced();
 
+	/**
+	 * Defines if the sensor needs the parameters of the instrumented method. If none of the
+	 * sensors placed on a method needs them, the parameter array is not created when the method
+	 * is executed. Parameters needed by the parameter capturing (property accessors) are handled
+	 * separately.
+	 *
+	 * @return Returns <code>true</code> if sensor needs the method parameters.
+	 */
+	boolean isParametersNeeded();
+
+	/**
+	 * Defines if the sensor needs the return value of the instrumented method. If none of the
+	 * sensors placed on a method needs it, the return value is not passed to the sensors when the
+	 * method is executed. Return value needed by the parameter capturing (property accessors) is
+	 * handled separately.
+	 *
+	 * @return Returns <code>true</code> if sensor needs the method return value.
+	 */
+	boolean isReturnValueNeeded();
+
 }
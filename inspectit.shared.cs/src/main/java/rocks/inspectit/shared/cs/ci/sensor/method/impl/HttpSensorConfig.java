@@ -73,6 +73,22 @@ public class HttpSensorConfig extends StringConstraintSensorConfig implements IM
 		return false;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isParametersNeeded() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isReturnValueNeeded() {
+		return true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -1,5 +1,8 @@
 package rocks.inspectit.shared.cs.ci.sensor.method.impl;
 
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
@@ -25,6 +28,24 @@ public class InvocationSequenceSensorConfig extends StringConstraintSensorConfig
 	 */
 	public static final String CLASS_NAME = "rocks.inspectit.agent.java.sensor.method.invocationsequence.InvocationSequenceSensor";
 
+	/**
+	 * Maximum amount of nested invocations recorded in one invocation sequence. After this amount is
+	 * reached, the repeated invocations are folded and the rest is not recorded.
+	 * <p>
+	 * Negative or zero values means unlimited.
+	 */
+	@XmlAttribute(name = "max-child-count")
+	private long maxChildCount = 100000L;
+
+	/**
+	 * Maximum estimated size in bytes of the nested invocations recorded in one invocation sequence.
+	 * After this size is reached, the repeated invocations are folded and the rest is not recorded.
+	 * <p>
+	 * Negative or zero values means unlimited.
+	 */
+	@XmlAttribute(name = "max-size")
+	private long maxSize = 50L * 1024 * 1024;
+
 	/**
 	 * No-args constructor.
 	 */
@@ -64,4 +85,75 @@ public class InvocationSequenceSensorConfig extends StringConstraintSensorConfig
 		return true;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isParametersNeeded() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isReturnValueNeeded() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> getParameters() {
+		Map<String, Object> parameters = super.getParameters();
+
+		if (maxChildCount > 0) {
+			parameters.put("maxChildCount", String.valueOf(maxChildCount));
+		}
+		if (maxSize > 0) {
+			parameters.put("maxSize", String.valueOf(maxSize));
+		}
+
+		return parameters;
+	}
+
+	/**
+	 * Gets {@link #maxChildCount}.
+	 *
+	 * @return {@link #maxChildCount}
+	 */
+	public long getMaxChildCount() {
+		return maxChildCount;
+	}
+
+	/**
+	 * Sets {@link #maxChildCount}.
+	 *
+	 * @param maxChildCount
+	 *            New value for {@link #maxChildCount}
+	 */
+	public void setMaxChildCount(long maxChildCount) {
+		this.maxChildCount = maxChildCount;
+	}
+
+	/**
+	 * Gets {@link #maxSize}.
+	 *
+	 * @return {@link #maxSize}
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Sets {@link #maxSize}.
+	 *
+	 * @param maxSize
+	 *            New value for {@link #maxSize}
+	 */
+	public void setMaxSize(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
 }
@@ -64,4 +64,20 @@ public class PreparedStatementSensorConfig extends StringConstraintSensorConfig
 		return true;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isParametersNeeded() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isReturnValueNeeded() {
+		return true;
+	}
+
 }
@@ -0,0 +1,138 @@
+package rocks.inspectit.shared.cs.ci.strategy.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
+
+/**
+ * Configuration for the spill buffer strategy.
+ *
+ * @author agent
+ *
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlRootElement(name = "spill-buffer-strategy-config")
+public class SpillBufferStrategyConfig implements IStrategyConfig {
+
+	/**
+	 * Implementing class name.
+	 */
+	private static final String CLASS_NAME = "rocks.inspectit.agent.java.buffer.impl.SpillBufferStrategy";
+
+	/**
+	 * Max size of the off-heap buffer in megabytes.
+	 * <p>
+	 * Default size is {@value #maxSize}.
+	 */
+	@XmlAttribute(name = "max-size", required = true)
+	private int maxSize = 32;
+
+	/**
+	 * Max amount of buffered lists sent per second after the connection to the CMR is
+	 * re-established. Zero or negative value means no limit.
+	 * <p>
+	 * Default rate is {@value #replayRate}.
+	 */
+	@XmlAttribute(name = "replay-rate")
+	private int replayRate = 20;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, String> getSettings() {
+		Map<String, String> settings = new HashMap<>(2);
+		settings.put("maxSize", String.valueOf(maxSize));
+		settings.put("replayRate", String.valueOf(replayRate));
+		return settings;
+	}
+
+	/**
+	 * Gets {@link #maxSize}.
+	 *
+	 * @return {@link #maxSize}
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Sets {@link #maxSize}.
+	 *
+	 * @param maxSize
+	 *            New value for {@link #maxSize}
+	 */
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Gets {@link #replayRate}.
+	 *
+	 * @return {@link #replayRate}
+	 */
+	public int getReplayRate() {
+		return replayRate;
+	}
+
+	/**
+	 * Sets {@link #replayRate}.
+	 *
+	 * @param replayRate
+	 *            New value for {@link #replayRate}
+	 */
+	public void setReplayRate(int replayRate) {
+		this.replayRate = replayRate;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = (prime * result) + maxSize;
+		result = (prime * result) + replayRate;
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		SpillBufferStrategyConfig other = (SpillBufferStrategyConfig) obj;
+		if (maxSize != other.maxSize) {
+			return false;
+		}
+		if (replayRate != other.replayRate) {
+			return false;
+		}
+		return true;
+	}
+
+}
@@ -102,6 +102,38 @@ public class AggregationPerformer<E extends DefaultData> {
 
 	}
 
+	/**
+	 * Merges the aggregation results of the other performer into this one. The aggregated objects
+	 * of the other performer are taken over, thus the other performer should not be used any more
+	 * after this call.
+	 *
+	 * @param other
+	 *            Performer that must aggregate with an equal {@link IAggregator}.
+	 */
+	public void merge(AggregationPerformer<E> other) {
+		if (!aggregator.equals(other.aggregator)) {
+			throw new IllegalArgumentException("Aggregation performer to merge must use the same aggregator.");
+		}
+
+		for (Map.Entry<Object, IAggregatedData<E>> entry : other.aggregationMap.entrySet()) {
+			IAggregatedData<E> aggregatedObject = aggregationMap.get(entry.getKey());
+			if (null != aggregatedObject) {
+				aggregator.aggregate(aggregatedObject, entry.getValue().getData());
+			} else {
+				aggregationMap.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Returns aggregator used by this performer.
+	 *
+	 * @return Returns aggregator used by this performer.
+	 */
+	public IAggregator<E> getAggregator() {
+		return aggregator;
+	}
+
 	/**
 	 * Returns aggregation results.
 	 *
@@ -33,7 +33,8 @@ public class ExceptionDataAggregator implements IAggregator<ExceptionSensorData>
 		GROUP_EXCEPTION_OVERVIEW,
 
 		/**
-		 * Aggregation based on the stack trace and error message.
+		 * Aggregation based on the stack trace and error message. The stack trace fingerprint is
+		 * used instead of the stack trace if available.
 		 */
 		DISTINCT_STACK_TRACES,
 
@@ -89,6 +90,7 @@ public class ExceptionDataAggregator implements IAggregator<ExceptionSensorData>
 		}
 		if (exceptionAggregationType == ExceptionAggregationType.DISTINCT_STACK_TRACES) {
 			clone.setStackTrace(getCorrectStackTrace(exceptionData.getStackTrace()));
+			clone.setStackTraceFingerprint(exceptionData.getStackTraceFingerprint());
 		}
 		return clone;
 	}
@@ -111,6 +113,12 @@ public class ExceptionDataAggregator implements IAggregator<ExceptionSensorData>
 		} else if (exceptionAggregationType == ExceptionAggregationType.DISTINCT_STACK_TRACES) {
 			int result = 0;
 			result = (prime * result) + ((exceptionSensorData.getErrorMessage() == null) ? 0 : exceptionSensorData.getErrorMessage().hashCode());
+			long fingerprint = exceptionSensorData.getStackTraceFingerprint();
+			if (0 != fingerprint) {
+				// no need to look at the stack trace string when the fingerprint is known
+				result = (prime * result) + (int) (fingerprint ^ (fingerprint >>> 32));
+				return result;
+			}
 			result = (prime * result) + ((exceptionSensorData.getStackTrace() == null) ? 0 : getCorrectStackTrace(exceptionSensorData.getStackTrace()).hashCode());
 			return result;
 		}
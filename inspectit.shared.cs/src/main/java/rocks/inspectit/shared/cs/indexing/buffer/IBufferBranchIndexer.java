@@ -26,4 +26,12 @@ public interface IBufferBranchIndexer<E> extends IBranchIndexer<E> {
 	 */
 	IBufferBranchIndexer<E> getChildIndexer();
 
+	/**
+	 * Returns if the keys of this indexer are the start times (as {@link Long}) of the indexed
+	 * elements' time stamps, so that no element has the time stamp before its key.
+	 *
+	 * @return Returns if the keys are the start times of the indexed elements' time stamps.
+	 */
+	boolean isTimestampKeyed();
+
 }
@@ -1,8 +1,15 @@
 package rocks.inspectit.shared.cs.indexing.buffer;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
 
 /**
@@ -13,7 +20,65 @@ import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
  * @param <E>
  *            Type of the elements indexed.
  */
-public interface IBufferTreeComponent<E> extends ITreeComponent<E, E> {
+public interface IBufferTreeComponent<E extends DefaultData> extends ITreeComponent<E, E> {
+
+	/**
+	 * Returns the first elements in the order of the comparator that satisfy the query. In
+	 * contrast to sorting and limiting the result of {@link #query(IIndexQuery)} no more than the
+	 * limit of elements is held per tree component.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order of the result.
+	 * @param limit
+	 *            Max amount of elements to return.
+	 * @return Sorted list of at most limit elements, or empty list if nothing is found.
+	 */
+	List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit);
+
+	/**
+	 * Returns the first elements in the order of the comparator that satisfy the query. Uses
+	 * Join&Fork and creates a new task for each child.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order of the result.
+	 * @param limit
+	 *            Max amount of elements to return.
+	 * @param forkJoinPool
+	 *            The Pool which starts and manages the forks
+	 * @return Sorted list of at most limit elements, or empty list if nothing is found.
+	 */
+	List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit, ForkJoinPool forkJoinPool);
+
+	/**
+	 * Passes all elements that satisfy the query to the given {@link AggregationPerformer}. In
+	 * contrast to aggregating the result of {@link #query(IIndexQuery)} the list of all elements is
+	 * never created.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param aggregationPerformer
+	 *            Performer to aggregate the elements with.
+	 */
+	void query(IIndexQuery query, AggregationPerformer<E> aggregationPerformer);
+
+	/**
+	 * Returns the aggregated elements that satisfy the query. Uses Join&Fork and creates a new task
+	 * for each child. Each task aggregates on its own and the partial aggregation results are
+	 * merged.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param aggregator
+	 *            Aggregator to use.
+	 * @param forkJoinPool
+	 *            The Pool which starts and manages the forks
+	 * @return List of aggregated elements, or empty list if nothing is found.
+	 */
+	List<E> query(IIndexQuery query, IAggregator<E> aggregator, ForkJoinPool forkJoinPool);
 
 	/**
 	 * Cleans the indexing tree by submitting the {@link Runnable} to the provided
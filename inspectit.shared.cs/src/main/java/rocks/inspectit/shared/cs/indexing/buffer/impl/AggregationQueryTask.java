@@ -0,0 +1,85 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+
+/**
+ * Fork&Join task that aggregates the elements of a buffer tree component that satisfy the query.
+ * A task is forked for each branch to query and the partial aggregation results, that hold one
+ * aggregated object per aggregation key, are merged.
+ *
+ * @author agent
+ *
+ * @param <E>
+ *            Type of the elements aggregated.
+ */
+@SuppressWarnings("serial")
+public class AggregationQueryTask<E extends DefaultData> extends RecursiveTask<AggregationPerformer<E>> {
+
+	/**
+	 * Component to query.
+	 */
+	private final IBufferTreeComponent<E> treeComponent;
+
+	/**
+	 * The given query.
+	 */
+	private final IIndexQuery query;
+
+	/**
+	 * Aggregator to use.
+	 */
+	private final IAggregator<E> aggregator;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param treeComponent
+	 *            Component to query.
+	 * @param query
+	 *            Query.
+	 * @param aggregator
+	 *            Aggregator to use.
+	 */
+	public AggregationQueryTask(IBufferTreeComponent<E> treeComponent, IIndexQuery query, IAggregator<E> aggregator) {
+		this.treeComponent = treeComponent;
+		this.query = query;
+		this.aggregator = aggregator;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Leafs are aggregated directly, branches fork a task for each sub-component.
+	 */
+	@Override
+	protected AggregationPerformer<E> compute() {
+		AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+		if (!(treeComponent instanceof Branch)) {
+			treeComponent.query(query, aggregationPerformer);
+			return aggregationPerformer;
+		}
+
+		List<AggregationQueryTask<E>> forks = new ArrayList<>();
+		for (ITreeComponent<E, E> component : ((Branch<E>) treeComponent).getBranchesToQuery(query)) {
+			if (component instanceof IBufferTreeComponent) {
+				AggregationQueryTask<E> task = new AggregationQueryTask<>((IBufferTreeComponent<E>) component, query, aggregator);
+				forks.add(task);
+				task.fork();
+			}
+		}
+
+		for (AggregationQueryTask<E> fork : forks) {
+			aggregationPerformer.merge(fork.join());
+		}
+		return aggregationPerformer;
+	}
+}
@@ -1,12 +1,24 @@
 package rocks.inspectit.shared.cs.indexing.buffer.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.lang.ArrayUtils;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.comparator.DefaultDataComparatorEnum;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.AbstractBranch;
 import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 
@@ -45,6 +57,113 @@ public class Branch<E extends DefaultData> extends AbstractBranch<E, E> implemen
 		return bufferBranchIndexer.getNextTreeComponent();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the keys of this branch are ordered like the comparator, the components are queried in
+	 * the key order and the querying stops as soon as the remaining components can not hold any
+	 * element that comes before the already collected ones.
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		TopElementsCollector<E> collector = new TopElementsCollector<>(comparator, limit);
+		if (isKeyOrderedBy(comparator)) {
+			for (Long key : getOrderedKeys(query)) {
+				E last = collector.getLast();
+				if (collector.isFull() && ((null == last) || (key.longValue() > last.getTimeStamp().getTime()))) {
+					break;
+				}
+				queryComponent(getComponentMap().get(key), query, comparator, limit, collector);
+			}
+		} else {
+			for (ITreeComponent<E, E> treeComponent : getBranchesToQuery(query)) {
+				queryComponent(treeComponent, query, comparator, limit, collector);
+			}
+		}
+		return collector.getSortedElements();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit, ForkJoinPool forkJoinPool) {
+		return forkJoinPool.invoke(new TopElementsQueryTask<>(this, query, comparator, limit));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void query(IIndexQuery query, AggregationPerformer<E> aggregationPerformer) {
+		for (ITreeComponent<E, E> treeComponent : getBranchesToQuery(query)) {
+			if (treeComponent instanceof IBufferTreeComponent) {
+				((IBufferTreeComponent<E>) treeComponent).query(query, aggregationPerformer);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, IAggregator<E> aggregator, ForkJoinPool forkJoinPool) {
+		return forkJoinPool.invoke(new AggregationQueryTask<>(this, query, aggregator)).getResultList();
+	}
+
+	/**
+	 * Returns if the keys of this branch are ordered in the same way as the elements are ordered
+	 * by the given comparator. This is the case for the time stamp keys and the time stamp
+	 * comparator.
+	 *
+	 * @param comparator
+	 *            Comparator.
+	 * @return Returns if the keys of this branch are ordered like the comparator.
+	 */
+	boolean isKeyOrderedBy(Comparator<?> comparator) {
+		return (DefaultDataComparatorEnum.TIMESTAMP == comparator) && bufferBranchIndexer.isTimestampKeyed();
+	}
+
+	/**
+	 * Returns the time stamp keys of the components to query in ascending order.
+	 *
+	 * @param query
+	 *            Query.
+	 * @return Sorted keys.
+	 */
+	private List<Long> getOrderedKeys(IIndexQuery query) {
+		Object[] keys = bufferBranchIndexer.getKeys(query);
+		Collection<?> keyCollection = ArrayUtils.isEmpty(keys) ? getComponentMap().keySet() : Arrays.asList(keys);
+		List<Long> orderedKeys = new ArrayList<>(keyCollection.size());
+		for (Object key : keyCollection) {
+			if (key instanceof Long) {
+				orderedKeys.add((Long) key);
+			}
+		}
+		Collections.sort(orderedKeys);
+		return orderedKeys;
+	}
+
+	/**
+	 * Offers the first elements of the given tree component to the collector.
+	 *
+	 * @param treeComponent
+	 *            Component to query, can be <code>null</code>.
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order.
+	 * @param limit
+	 *            Max amount of elements.
+	 * @param collector
+	 *            Collector to offer the elements to.
+	 */
+	private void queryComponent(ITreeComponent<E, E> treeComponent, IIndexQuery query, Comparator<? super E> comparator, int limit, TopElementsCollector<E> collector) {
+		if (treeComponent instanceof IBufferTreeComponent) {
+			collector.offerAll(((IBufferTreeComponent<E>) treeComponent).query(query, comparator, limit));
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
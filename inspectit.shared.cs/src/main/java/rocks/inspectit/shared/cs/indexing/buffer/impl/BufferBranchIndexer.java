@@ -7,6 +7,7 @@ import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 import rocks.inspectit.shared.cs.indexing.indexer.IBranchIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
 
 /**
  * Implementation of branch indexer for the {@link IBufferTreeComponent}. This indexer is delegating
@@ -76,6 +77,14 @@ public class BufferBranchIndexer<E extends DefaultData> implements IBufferBranch
 		return childBufferIndexer;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isTimestampKeyed() {
+		return delegateIndexer instanceof TimestampIndexer;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -3,6 +3,7 @@ package rocks.inspectit.shared.cs.indexing.buffer.impl;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -17,6 +18,8 @@ import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.LeafTask;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 
 /**
@@ -138,6 +141,60 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		return forkJoinPool.invoke(getTaskForForkJoinQuery(query));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		TopElementsCollector<E> collector = new TopElementsCollector<>(comparator, limit);
+		Iterator<CustomWeakReference<E>> iterator = map.values().iterator();
+		while (iterator.hasNext()) {
+			WeakReference<E> weakReference = iterator.next();
+			if (null != weakReference) {
+				E element = weakReference.get();
+				if ((null != element) && element.isQueryComplied(query)) {
+					collector.offer(element);
+				}
+			}
+		}
+		return collector.getSortedElements();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit, ForkJoinPool forkJoinPool) {
+		return query(query, comparator, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void query(IIndexQuery query, AggregationPerformer<E> aggregationPerformer) {
+		Iterator<CustomWeakReference<E>> iterator = map.values().iterator();
+		while (iterator.hasNext()) {
+			WeakReference<E> weakReference = iterator.next();
+			if (null != weakReference) {
+				E element = weakReference.get();
+				if ((null != element) && element.isQueryComplied(query)) {
+					aggregationPerformer.processElement(element);
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, IAggregator<E> aggregator, ForkJoinPool forkJoinPool) {
+		AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+		query(query, aggregationPerformer);
+		return aggregationPerformer.getResultList();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
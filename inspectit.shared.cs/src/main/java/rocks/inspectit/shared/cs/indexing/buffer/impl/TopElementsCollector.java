@@ -0,0 +1,119 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Collects the first elements in the order of the given comparator, without holding more than
+ * the limit of elements at any time. The worst of the collected elements is always on the top of
+ * a bounded heap, so that each new element is either rejected with one comparison or replaces it.
+ *
+ * @author agent
+ *
+ * @param <E>
+ *            Type of the elements collected.
+ */
+public class TopElementsCollector<E> {
+
+	/**
+	 * Comparator defining the order.
+	 */
+	private final Comparator<? super E> comparator;
+
+	/**
+	 * Max amount of collected elements.
+	 */
+	private final int limit;
+
+	/**
+	 * Heap with the worst collected element on top.
+	 */
+	private final PriorityQueue<E> heap;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param comparator
+	 *            Comparator defining the order.
+	 * @param limit
+	 *            Max amount of collected elements.
+	 */
+	public TopElementsCollector(Comparator<? super E> comparator, int limit) {
+		if (null == comparator) {
+			throw new IllegalArgumentException("Comparator can not be null.");
+		}
+		if (limit < 0) {
+			throw new IllegalArgumentException("Limit can not be negative.");
+		}
+		this.comparator = comparator;
+		this.limit = limit;
+		this.heap = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)) + 1, Collections.reverseOrder(comparator));
+	}
+
+	/**
+	 * Offers the element to the collector.
+	 *
+	 * @param element
+	 *            Element.
+	 * @return <code>true</code> if element is collected, <code>false</code> if it is not among the
+	 *         first elements.
+	 */
+	public boolean offer(E element) {
+		if (heap.size() < limit) {
+			heap.add(element);
+			return true;
+		}
+		if ((0 == limit) || (comparator.compare(element, heap.peek()) >= 0)) {
+			return false;
+		}
+		heap.poll();
+		heap.add(element);
+		return true;
+	}
+
+	/**
+	 * Offers all elements to the collector.
+	 *
+	 * @param elements
+	 *            Elements.
+	 */
+	public void offerAll(Collection<? extends E> elements) {
+		for (E element : elements) {
+			offer(element);
+		}
+	}
+
+	/**
+	 * Returns if the limit of elements is collected.
+	 *
+	 * @return Returns if the limit of elements is collected.
+	 */
+	public boolean isFull() {
+		return heap.size() >= limit;
+	}
+
+	/**
+	 * Returns the last of the collected elements in the comparator order.
+	 *
+	 * @return Last of the collected elements or <code>null</code> if nothing is collected.
+	 */
+	public E getLast() {
+		return heap.peek();
+	}
+
+	/**
+	 * Returns the collected elements sorted by the comparator.
+	 *
+	 * @return Collected elements sorted by the comparator.
+	 */
+	public List<E> getSortedElements() {
+		List<E> result = new ArrayList<>(heap);
+		Collections.sort(result, comparator);
+		return result;
+	}
+
+}
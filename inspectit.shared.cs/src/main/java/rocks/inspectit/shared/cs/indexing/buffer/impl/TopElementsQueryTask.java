@@ -0,0 +1,97 @@
+package rocks.inspectit.shared.cs.indexing.buffer.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
+
+/**
+ * Fork&Join task that queries the first elements of a buffer tree component in the comparator
+ * order. A task is forked for each branch to query and the partial results, that are each at most
+ * the limit in size, are merged.
+ *
+ * @author agent
+ *
+ * @param <E>
+ *            Type of the elements queried.
+ */
+@SuppressWarnings("serial")
+public class TopElementsQueryTask<E extends DefaultData> extends RecursiveTask<List<E>> {
+
+	/**
+	 * Component to query.
+	 */
+	private final IBufferTreeComponent<E> treeComponent;
+
+	/**
+	 * The given query.
+	 */
+	private final IIndexQuery query;
+
+	/**
+	 * Comparator defining the order.
+	 */
+	private final Comparator<? super E> comparator;
+
+	/**
+	 * Max amount of the returned elements.
+	 */
+	private final int limit;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param treeComponent
+	 *            Component to query.
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order.
+	 * @param limit
+	 *            Max amount of the returned elements.
+	 */
+	public TopElementsQueryTask(IBufferTreeComponent<E> treeComponent, IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		this.treeComponent = treeComponent;
+		this.query = query;
+		this.comparator = comparator;
+		this.limit = limit;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Leafs and branches that can stop early because of the order of their keys are queried
+	 * directly, all other branches fork a task for each sub-component.
+	 */
+	@Override
+	protected List<E> compute() {
+		if (!(treeComponent instanceof Branch)) {
+			return treeComponent.query(query, comparator, limit);
+		}
+
+		Branch<E> branch = (Branch<E>) treeComponent;
+		if (branch.isKeyOrderedBy(comparator)) {
+			return branch.query(query, comparator, limit);
+		}
+
+		List<TopElementsQueryTask<E>> forks = new ArrayList<>();
+		for (ITreeComponent<E, E> component : branch.getBranchesToQuery(query)) {
+			if (component instanceof IBufferTreeComponent) {
+				TopElementsQueryTask<E> task = new TopElementsQueryTask<>((IBufferTreeComponent<E>) component, query, comparator, limit);
+				forks.add(task);
+				task.fork();
+			}
+		}
+
+		TopElementsCollector<E> collector = new TopElementsCollector<>(comparator, limit);
+		for (TopElementsQueryTask<E> fork : forks) {
+			collector.offerAll(fork.join());
+		}
+		return collector.getSortedElements();
+	}
+}
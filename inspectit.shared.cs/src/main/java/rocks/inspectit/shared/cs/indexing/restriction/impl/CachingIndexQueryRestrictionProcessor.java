@@ -1,6 +1,8 @@
 package rocks.inspectit.shared.cs.indexing.restriction.impl;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -8,14 +10,21 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import rocks.inspectit.shared.all.indexing.restriction.IIndexQueryRestriction;
 import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.indexing.restriction.IIndexQueryRestrictionProcessor;
 
 /**
- * This restriction processor caches the methods of each class that needs to be invoke. It also
- * marks in the cache all method that do not exist for specific class and an attempt to find them
- * was made.
+ * This restriction processor compiles the getter methods that need to be invoked for a restriction
+ * once per class of the checked object and caches them as {@link MethodHandle}s. It also marks in
+ * the cache all getter chains that can not be resolved for specific class, so that the attempt to
+ * find them is made only once.
+ * <p>
+ * The getter chains are additionally cached per restriction instance, so that checking a
+ * restriction against many objects neither creates nor hashes the list of its method names.
  *
  * @author Ivan Senic
  *
@@ -23,6 +32,16 @@ import rocks.inspectit.shared.cs.indexing.restriction.IIndexQueryRestrictionProc
 @Component
 public class CachingIndexQueryRestrictionProcessor implements IIndexQueryRestrictionProcessor {
 
+	/**
+	 * Type of the compiled getters, they accept and return an object.
+	 */
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	/**
+	 * Marker for the getter chains that can not be resolved.
+	 */
+	private static final MethodHandle[] NOT_RESOLVABLE = new MethodHandle[0];
+
 	/**
 	 * The logger.
 	 */
@@ -30,26 +49,22 @@ public class CachingIndexQueryRestrictionProcessor implements IIndexQueryRestric
 	Logger log;
 
 	/**
-	 * Map for caching methods.
+	 * Map for caching the compiled getter chains. Key of the outer map is the class of the checked
+	 * object, key of the inner map are the qualified method names of the restriction.
 	 */
-	private final ConcurrentHashMap<Integer, Method> cacheMap;
+	private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<List<String>, MethodHandle[]>> cacheMap;
 
 	/**
-	 * Marker method.
+	 * Getter chains of the restrictions being checked by the class of the checked object. Weak
+	 * keys are compared by identity, so that the restrictions of finished queries are released.
 	 */
-	private Method markerMethod;
+	private final Cache<IIndexQueryRestriction, ConcurrentHashMap<Class<?>, MethodHandle[]>> restrictionCacheMap = CacheBuilder.newBuilder().weakKeys().build();
 
 	/**
-	 * Default constructor. Sets {@link #markerMethod} to refer to {@link Object#toString()}.
+	 * Default constructor.
 	 */
 	public CachingIndexQueryRestrictionProcessor() {
 		cacheMap = new ConcurrentHashMap<>();
-		try {
-			// setting marker method to point to Object.toString()
-			markerMethod = Object.class.getMethod("toString", new Class[0]);
-		} catch (Exception e) {
-			throw new IllegalStateException("Method toString() can not be found", e);
-		}
 	}
 
 	/**
@@ -76,76 +91,115 @@ public class CachingIndexQueryRestrictionProcessor implements IIndexQueryRestric
 	 * @return <code>true</code> if the indexing restriction is fulfilled.
 	 */
 	private boolean isRestrictionFulfilled(Object object, IIndexQueryRestriction indexingRestriction) {
-		List<String> methodNames = indexingRestriction.getQualifiedMethodNames();
+		MethodHandle[] getters = getGetters(object.getClass(), indexingRestriction);
+		if (NOT_RESOLVABLE == getters) {
+			return false;
+		}
 
 		try {
 			Object executeOn = object;
-			for (String methodName : methodNames) {
-				Method method = getMethod(executeOn, methodName);
-				if (null == method) {
+			for (MethodHandle getter : getters) {
+				if (null == executeOn) {
+					// navigation not possible
 					return false;
 				}
-				executeOn = method.invoke(executeOn, new Object[0]);
+				executeOn = (Object) getter.invokeExact(executeOn);
 			}
 
 			return indexingRestriction.isFulfilled(executeOn);
-		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			log.error("Error in find object to execute indexing restricton check.", e);
+		} catch (Throwable t) { // NOPMD
+			log.error("Error in find object to execute indexing restricton check.", t);
 			return false;
 		}
 	}
 
 	/**
-	 * Returns the {@link Method} for the given {@link Object} with the given method name.
+	 * Returns the compiled getter chain of the restriction for the given class.
 	 *
-	 * @param object
-	 *            Object to find method on.
-	 * @param methodName
-	 *            Name of the method.
-	 * @return Method if one can be found.
+	 * @param clazz
+	 *            Class of the object the chain starts from.
+	 * @param indexingRestriction
+	 *            Restriction to get the getters for.
+	 * @return Getters to invoke one after another or {@link #NOT_RESOLVABLE} if the getters can
+	 *         not be found.
 	 */
-	private Method getMethod(Object object, String methodName) {
-		int cacheKey = getMethodCacheKey(object.getClass(), methodName);
-		Method method = cacheMap.get(cacheKey);
+	private MethodHandle[] getGetters(Class<?> clazz, IIndexQueryRestriction indexingRestriction) {
+		ConcurrentHashMap<Class<?>, MethodHandle[]> restrictionGetters = restrictionCacheMap.getIfPresent(indexingRestriction);
+		if (null == restrictionGetters) {
+			restrictionGetters = new ConcurrentHashMap<>();
+			ConcurrentHashMap<Class<?>, MethodHandle[]> existing = restrictionCacheMap.asMap().putIfAbsent(indexingRestriction, restrictionGetters);
+			if (null != existing) {
+				restrictionGetters = existing;
+			}
+		}
 
-		if (method == null) { // method is not yet in cache
-			try {
-				Method methodFromClass = object.getClass().getMethod(methodName, new Class<?>[0]);
-				Method existing = cacheMap.putIfAbsent(cacheKey, methodFromClass);
-				if (null != existing) {
-					methodFromClass = existing;
-				}
-				return methodFromClass;
-			} catch (NoSuchMethodException e) {
-				// not found, put marker method at this place in map
-				cacheMap.putIfAbsent(cacheKey, markerMethod);
-				return null;
-			} catch (SecurityException | IllegalArgumentException e) {
-				log.error("Error retrieve the method " + methodName + " for the object of class " + object.getClass(), e);
-				return null;
+		MethodHandle[] getters = restrictionGetters.get(clazz);
+		if (null == getters) {
+			getters = getGetters(clazz, indexingRestriction.getQualifiedMethodNames());
+			restrictionGetters.put(clazz, getters);
+		}
+		return getters;
+	}
+
+	/**
+	 * Returns the compiled getter chain for the given class and method names.
+	 *
+	 * @param clazz
+	 *            Class of the object the chain starts from.
+	 * @param methodNames
+	 *            Names of the getter methods.
+	 * @return Getters to invoke one after another or {@link #NOT_RESOLVABLE} if the getters can
+	 *         not be found.
+	 */
+	private MethodHandle[] getGetters(Class<?> clazz, List<String> methodNames) {
+		ConcurrentHashMap<List<String>, MethodHandle[]> classCacheMap = cacheMap.get(clazz);
+		if (null == classCacheMap) {
+			classCacheMap = new ConcurrentHashMap<>();
+			ConcurrentHashMap<List<String>, MethodHandle[]> existing = cacheMap.putIfAbsent(clazz, classCacheMap);
+			if (null != existing) {
+				classCacheMap = existing;
+			}
+		}
+
+		MethodHandle[] getters = classCacheMap.get(methodNames);
+		if (null == getters) { // chain is not yet in cache
+			getters = compileGetters(clazz, methodNames);
+			MethodHandle[] existing = classCacheMap.putIfAbsent(methodNames, getters);
+			if (null != existing) {
+				getters = existing;
 			}
-		} else if (markerMethod.equals(method)) {
-			return null;
-		} else {
-			return method;
 		}
+		return getters;
 	}
 
 	/**
-	 * Returns key for the hash map based on the supplied class and method name.
+	 * Compiles the getter chain for the given class and method names. Each following getter is
+	 * resolved on the declared return type of the previous one.
 	 *
 	 * @param clazz
-	 *            class
-	 * @param methodName
-	 *            method name
-	 * @return int key
+	 *            Class of the object the chain starts from.
+	 * @param methodNames
+	 *            Names of the getter methods.
+	 * @return Getters to invoke one after another or {@link #NOT_RESOLVABLE} if the getters can
+	 *         not be found.
 	 */
-	private int getMethodCacheKey(Class<?> clazz, String methodName) {
-		final int prime = 31;
-		int result = 0;
-		result = (prime * result) + ((clazz == null) ? 0 : clazz.hashCode());
-		result = (prime * result) + ((methodName == null) ? 0 : methodName.hashCode());
-		return result;
+	private MethodHandle[] compileGetters(Class<?> clazz, List<String> methodNames) {
+		MethodHandle[] getters = new MethodHandle[methodNames.size()];
+		Class<?> currentClass = clazz;
+		int index = 0;
+		for (String methodName : methodNames) {
+			try {
+				Method method = currentClass.getMethod(methodName, new Class<?>[0]);
+				getters[index++] = MethodHandles.publicLookup().unreflect(method).asType(GETTER_TYPE);
+				currentClass = method.getReturnType();
+			} catch (NoSuchMethodException e) {
+				return NOT_RESOLVABLE;
+			} catch (SecurityException | IllegalAccessException e) {
+				log.error("Error retrieve the method " + methodName + " for the class " + currentClass, e);
+				return NOT_RESOLVABLE;
+			}
+		}
+		return getters;
 	}
 
 }
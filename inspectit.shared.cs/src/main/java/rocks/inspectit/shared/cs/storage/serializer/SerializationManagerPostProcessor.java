@@ -68,6 +68,7 @@ import rocks.inspectit.shared.cs.ci.sensor.platform.impl.ThreadSensorConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.ListSendingStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SimpleBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SizeBufferStrategyConfig;
+import rocks.inspectit.shared.cs.ci.strategy.impl.SpillBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.TimeSendingStrategyConfig;
 import rocks.inspectit.shared.cs.cmr.property.configuration.Configuration;
 import rocks.inspectit.shared.cs.cmr.property.configuration.GroupedProperty;
@@ -389,6 +390,9 @@ public class SerializationManagerPostProcessor implements BeanPostProcessor {
 		kryo.register(EMailListValidator.class, new FieldSerializer<EMailListValidator>(kryo, EMailListValidator.class), nextRegistrationId++);
 		kryo.register(AlertClosingReason.class, new EnumSerializer(AlertClosingReason.class), nextRegistrationId++);
 
+		// spill buffer strategy
+		kryo.register(SpillBufferStrategyConfig.class, new FieldSerializer<SpillBufferStrategyConfig>(kryo, SpillBufferStrategyConfig.class), nextRegistrationId++);
+
 	}
 
 }
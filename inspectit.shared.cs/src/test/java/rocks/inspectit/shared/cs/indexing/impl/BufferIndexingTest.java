@@ -1,8 +1,10 @@
 package rocks.inspectit.shared.cs.indexing.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
@@ -24,8 +26,12 @@ import org.testng.annotations.Test;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
+import rocks.inspectit.shared.all.communication.comparator.DefaultDataComparatorEnum;
+import rocks.inspectit.shared.all.communication.data.CpuInformationData;
 import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.TimerDataAggregator;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.Branch;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.BufferBranchIndexer;
@@ -197,6 +203,51 @@ public class BufferIndexingTest {
 		}
 	}
 
+	/**
+	 * Test the method ident level between the object type and time stamp levels, also with the
+	 * elements that have no method ident.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryMethodIdentLevel() throws IndexingException {
+		BufferBranchIndexer<DefaultData> timestampIndexer = new BufferBranchIndexer<>(new TimestampIndexer<>());
+		BufferBranchIndexer<DefaultData> methodIdentIndexer = new BufferBranchIndexer<>(new MethodIdentIndexer<>(), timestampIndexer);
+		BufferBranchIndexer<DefaultData> objectTypeIndexer = new BufferBranchIndexer<>(new ObjectTypeIndexer<>(), methodIdentIndexer);
+		IBufferTreeComponent<DefaultData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new PlatformIdentIndexer<>(), objectTypeIndexer));
+
+		Timestamp timestamp = new Timestamp(new Date().getTime());
+		for (int i = 0; i < 4; i++) {
+			TimerData timerData = new TimerData();
+			timerData.setId(i + 1);
+			timerData.setPlatformIdent(1L);
+			timerData.setMethodIdent((i % 2) + 1);
+			timerData.setTimeStamp(timestamp);
+			rootBranch.put(timerData);
+		}
+		CpuInformationData cpuInformationData = new CpuInformationData();
+		cpuInformationData.setId(5L);
+		cpuInformationData.setPlatformIdent(1L);
+		cpuInformationData.setTimeStamp(timestamp);
+		rootBranch.put(cpuInformationData);
+
+		indexQuery.setPlatformIdent(1L);
+		List<DefaultData> all = rootBranch.query(indexQuery);
+		assertThat(all, hasSize(5));
+
+		indexQuery.setMethodIdent(1L);
+		List<DefaultData> results = rootBranch.query(indexQuery);
+		assertThat(results, hasSize(2));
+		for (DefaultData result : results) {
+			assertThat(((TimerData) result).getMethodIdent(), is(equalTo(1L)));
+		}
+		List<DefaultData> resultsForkJoin = rootBranch.query(indexQuery, forkJoinPool);
+		assertThat(resultsForkJoin, hasSize(2));
+
+		assertThat(rootBranch.get(cpuInformationData), is(equalTo((DefaultData) cpuInformationData)));
+	}
+
 	/**
 	 * Test tree with query that holds only object type.
 	 *
@@ -419,6 +470,119 @@ public class BufferIndexingTest {
 		rootBranch.put(defaultData);
 	}
 
+	/**
+	 * Test that the query with comparator and limit returns the first elements in the correct
+	 * order, also when the querying stops early on the time stamp branch.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryFirstElementsByTimestamp() throws IndexingException {
+		BufferBranchIndexer<DefaultData> timestampIndexer = new BufferBranchIndexer<>(new TimestampIndexer<>());
+		IBufferTreeComponent<DefaultData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new ObjectTypeIndexer<>(), timestampIndexer));
+
+		long time = new Date().getTime();
+		List<TimerData> elements = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			TimerData timerData = new TimerData();
+			timerData.setId(10 - i);
+			// one hour between the elements, so that each is in an other time stamp key
+			timerData.setTimeStamp(new Timestamp(time - (i * 60 * 60 * 1000)));
+			rootBranch.put(timerData);
+			elements.add(timerData);
+		}
+
+		List<DefaultData> results = rootBranch.query(indexQuery, DefaultDataComparatorEnum.TIMESTAMP, 2);
+		assertThat(results, contains((DefaultData) elements.get(4), elements.get(3)));
+		List<DefaultData> resultsForkJoin = rootBranch.query(indexQuery, DefaultDataComparatorEnum.TIMESTAMP, 2, forkJoinPool);
+		assertThat(resultsForkJoin, contains((DefaultData) elements.get(4), elements.get(3)));
+
+		List<DefaultData> all = rootBranch.query(indexQuery, DefaultDataComparatorEnum.TIMESTAMP, 10);
+		assertThat(all, contains((DefaultData) elements.get(4), elements.get(3), elements.get(2), elements.get(1), elements.get(0)));
+	}
+
+	/**
+	 * Test that the query with comparator and limit returns the first elements in the correct
+	 * order when the comparator is not related to the indexing keys.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryFirstElementsById() throws IndexingException {
+		BufferBranchIndexer<DefaultData> timestampIndexer = new BufferBranchIndexer<>(new TimestampIndexer<>());
+		IBufferTreeComponent<DefaultData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new PlatformIdentIndexer<>(), timestampIndexer));
+
+		long time = new Date().getTime();
+		List<TimerData> elements = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			TimerData timerData = new TimerData();
+			timerData.setId(i + 1);
+			timerData.setPlatformIdent((i % 2) + 1);
+			timerData.setTimeStamp(new Timestamp(time - (i * 60 * 60 * 1000)));
+			rootBranch.put(timerData);
+			elements.add(timerData);
+		}
+
+		List<DefaultData> results = rootBranch.query(indexQuery, DefaultDataComparatorEnum.ID, 3);
+		assertThat(results, contains((DefaultData) elements.get(0), elements.get(1), elements.get(2)));
+		List<DefaultData> resultsForkJoin = rootBranch.query(indexQuery, DefaultDataComparatorEnum.ID, 3, forkJoinPool);
+		assertThat(resultsForkJoin, contains((DefaultData) elements.get(0), elements.get(1), elements.get(2)));
+	}
+
+	/**
+	 * Test that the aggregating query aggregates the elements from the different branches to one
+	 * element per aggregation key, with and without fork&join.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryAggregated() throws IndexingException {
+		BufferBranchIndexer<TimerData> timestampIndexer = new BufferBranchIndexer<>(new TimestampIndexer<TimerData>());
+		IBufferTreeComponent<TimerData> rootBranch = new Branch<>(new BufferBranchIndexer<>(new PlatformIdentIndexer<TimerData>(), timestampIndexer));
+
+		long time = new Date().getTime();
+		for (int i = 0; i < 6; i++) {
+			TimerData timerData = new TimerData();
+			timerData.setId(i + 1);
+			timerData.setPlatformIdent((i % 3) + 1);
+			timerData.setMethodIdent((i % 2) + 1);
+			timerData.setTimeStamp(new Timestamp(time - (i * 60 * 60 * 1000)));
+			timerData.setCount(1);
+			timerData.setDuration((i + 1) * 10);
+			rootBranch.put(timerData);
+		}
+
+		AggregationPerformer<TimerData> aggregationPerformer = new AggregationPerformer<>(new TimerDataAggregator());
+		rootBranch.query(indexQuery, aggregationPerformer);
+		List<TimerData> results = aggregationPerformer.getResultList();
+		assertAggregated(results);
+
+		List<TimerData> resultsForkJoin = rootBranch.query(indexQuery, new TimerDataAggregator(), forkJoinPool);
+		assertAggregated(resultsForkJoin);
+	}
+
+	/**
+	 * Asserts the results of the {@link #queryAggregated()} test.
+	 *
+	 * @param results
+	 *            Aggregated results.
+	 */
+	private void assertAggregated(List<TimerData> results) {
+		assertThat(results, hasSize(2));
+		for (TimerData result : results) {
+			assertThat(result.getCount(), is(3L));
+			if (1 == result.getMethodIdent()) {
+				assertThat(result.getDuration(), is(90d));
+			} else {
+				assertThat(result.getMethodIdent(), is(2L));
+				assertThat(result.getDuration(), is(120d));
+			}
+		}
+	}
+
 	/**
 	 * Test that get will work even when branch can not generate key for the element if ID is
 	 * correctly set.
@@ -2,6 +2,10 @@ package rocks.inspectit.shared.cs.indexing.restriction;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
@@ -640,6 +644,60 @@ public class IndexQueryRestrictionProcessorTest extends TestBase {
 
 			assertThat(result, is(false));
 		}
+
+		/**
+		 * Tests that the same restriction is resolved separately for the classes that have and do
+		 * not have the field.
+		 */
+		@Test
+		public void sameFieldDifferentClasses() {
+			TimerData timerData = new TimerData();
+			HttpTimerData httpData = new HttpTimerData();
+			httpData.getHttpInfo().setId(1L);
+			List<IIndexQueryRestriction> restrictions = Collections.singletonList(IndexQueryRestrictionFactory.equal("httpInfo.id", 1L));
+
+			boolean timerResult = processor.areAllRestrictionsFulfilled(timerData, restrictions);
+			boolean httpResult = processor.areAllRestrictionsFulfilled(httpData, restrictions);
+
+			assertThat(timerResult, is(false));
+			assertThat(httpResult, is(true));
+		}
+
+		/**
+		 * Tests that the method names of a restriction are read only once per class of the checked
+		 * objects.
+		 */
+		@Test
+		public void methodNamesReadOncePerClass() {
+			IIndexQueryRestriction restriction = mock(IIndexQueryRestriction.class);
+			when(restriction.getQualifiedMethodNames()).thenReturn(Collections.singletonList("getId"));
+			when(restriction.isFulfilled(1L)).thenReturn(true);
+			List<IIndexQueryRestriction> restrictions = Collections.singletonList(restriction);
+
+			for (long id = 0; id < 3; id++) {
+				TimerData timerData = new TimerData();
+				timerData.setId(id);
+				assertThat(processor.areAllRestrictionsFulfilled(timerData, restrictions), is(1L == id));
+			}
+			processor.areAllRestrictionsFulfilled(new HttpTimerData(), restrictions);
+
+			verify(restriction, times(2)).getQualifiedMethodNames();
+		}
+
+		/**
+		 * Tests that the restriction is not fulfilled when navigation reaches a <code>null</code>
+		 * value.
+		 */
+		@Test
+		public void nullOnNavigation() {
+			HttpTimerData httpData = new HttpTimerData();
+			httpData.setHttpInfo(null);
+			List<IIndexQueryRestriction> restrictions = Collections.singletonList(IndexQueryRestrictionFactory.isNull("httpInfo.id"));
+
+			boolean result = processor.areAllRestrictionsFulfilled(httpData, restrictions);
+
+			assertThat(result, is(false));
+		}
 	}
 
 }
@@ -26,6 +26,7 @@ import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.ListSendingStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SimpleBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SizeBufferStrategyConfig;
+import rocks.inspectit.shared.cs.ci.strategy.impl.SpillBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.TimeSendingStrategyConfig;
 import rocks.inspectit.ui.rcp.InspectIT;
 import rocks.inspectit.ui.rcp.InspectITImages;
@@ -45,6 +46,11 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 	 */
 	private static final String SIZE_BUFFER_STRATEGY = "Size buffer";
 
+	/**
+	 * Display name of the spill buffer strategy.
+	 */
+	private static final String SPILL_BUFFER_STRATEGY = "Spill buffer";
+
 	/**
 	 * Display name of the simple buffer strategy.
 	 */
@@ -171,7 +177,7 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		gd.widthHint = 50;
 		bufferValue.setLayoutData(gd);
 		createInfoLabel(mainComposite, toolkit,
-				"The simple version of a buffer is apparently no buffer at all. It contains exactly one element. This is useful if old data isn't necessary or maybe the memory of the application is very limited.\nThe Size buffer strategy needs specification of the size of this buffer. This buffer works as a FILO stack, so last added elements will be sent first (as they are more important), and old ones are thrown away if this buffer is full");
+				"The simple version of a buffer is apparently no buffer at all. It contains exactly one element. This is useful if old data isn't necessary or maybe the memory of the application is very limited.\nThe Size buffer strategy needs specification of the size of this buffer. This buffer works as a FILO stack, so last added elements will be sent first (as they are more important), and old ones are thrown away if this buffer is full.\nThe Spill buffer strategy needs specification of the maximum buffer size in megabytes. Lists that can not be sent are serialized to an off-heap buffer and sent in the order they were created once the connection to the CMR is back. Oldest lists are thrown away if this buffer is full.");
 
 		// fill the boxes and values
 		sendingCombo.add(TIME_SENDING_STRATEGY);
@@ -191,17 +197,26 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 
 		bufferCombo.add(SIMPLE_BUFFER_STRATEGY);
 		bufferCombo.add(SIZE_BUFFER_STRATEGY);
+		bufferCombo.add(SPILL_BUFFER_STRATEGY);
 		IStrategyConfig bufferStrategyConfig = environment.getBufferStrategyConfig();
 		if (bufferStrategyConfig instanceof SimpleBufferStrategyConfig) {
 			bufferCombo.setData(SIMPLE_BUFFER_STRATEGY, bufferStrategyConfig);
 			bufferCombo.setData(SIZE_BUFFER_STRATEGY, new SizeBufferStrategyConfig());
+			bufferCombo.setData(SPILL_BUFFER_STRATEGY, new SpillBufferStrategyConfig());
 			bufferCombo.select(0);
 			bufferValue.setEnabled(false);
 		} else if (bufferStrategyConfig instanceof SizeBufferStrategyConfig) {
 			bufferCombo.setData(SIMPLE_BUFFER_STRATEGY, new SimpleBufferStrategyConfig());
 			bufferCombo.setData(SIZE_BUFFER_STRATEGY, bufferStrategyConfig);
+			bufferCombo.setData(SPILL_BUFFER_STRATEGY, new SpillBufferStrategyConfig());
 			bufferCombo.select(1);
 			bufferValue.setText(String.valueOf(((SizeBufferStrategyConfig) bufferStrategyConfig).getSize()));
+		} else if (bufferStrategyConfig instanceof SpillBufferStrategyConfig) {
+			bufferCombo.setData(SIMPLE_BUFFER_STRATEGY, new SimpleBufferStrategyConfig());
+			bufferCombo.setData(SIZE_BUFFER_STRATEGY, new SizeBufferStrategyConfig());
+			bufferCombo.setData(SPILL_BUFFER_STRATEGY, bufferStrategyConfig);
+			bufferCombo.select(2);
+			bufferValue.setText(String.valueOf(((SpillBufferStrategyConfig) bufferStrategyConfig).getMaxSize()));
 		}
 
 		// listeners
@@ -227,6 +242,9 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 				} else if (data instanceof SizeBufferStrategyConfig) {
 					bufferValue.setEnabled(true);
 					bufferValue.setText(String.valueOf(((SizeBufferStrategyConfig) data).getSize()));
+				} else if (data instanceof SpillBufferStrategyConfig) {
+					bufferValue.setEnabled(true);
+					bufferValue.setText(String.valueOf(((SpillBufferStrategyConfig) data).getMaxSize()));
 				}
 			}
 		});
@@ -358,6 +376,21 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 				showSizeBufferStrategyValidationMessage();
 				valid = false;
 			}
+		} else if (bufferStrategy instanceof SpillBufferStrategyConfig) {
+			try {
+				int maxSize = Integer.parseInt(bufferValue.getText());
+				if (maxSize <= 0) {
+					showSpillBufferStrategyValidationMessage();
+					valid = false;
+				} else {
+					if (update) {
+						((SpillBufferStrategyConfig) bufferStrategy).setMaxSize(maxSize);
+					}
+				}
+			} catch (NumberFormatException exception) {
+				showSpillBufferStrategyValidationMessage();
+				valid = false;
+			}
 		}
 		if (update) {
 			environment.setBufferStrategyConfig(bufferStrategy);
@@ -387,6 +420,13 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		bufferValueDecoration.setDescriptionText("Size buffer strategy must define a buffer size greater than zero.");
 	}
 
+	/**
+	 * Shows validation error message for spill buffer strategy.
+	 */
+	private void showSpillBufferStrategyValidationMessage() {
+		bufferValueDecoration.setDescriptionText("Spill buffer strategy must define a buffer size in megabytes greater than zero.");
+	}
+
 	/**
 	 * Creates info icon with given text as tool-tip.
 	 *